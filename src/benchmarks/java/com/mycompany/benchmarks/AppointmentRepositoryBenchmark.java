@@ -0,0 +1,129 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Interfaces.PageRequest;
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cada operación de {@code IAppointmentRepository} sobre
+ * {@code AppointmentRepositoryJSON} y {@code AppointmentRepositoryMemory}, con los datos
+ * de {@link RepositoryState}. Las páginas son de 50 citas, como en las ventanas de la
+ * aplicación.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar AppointmentRepositoryBenchmark -p size=10000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentRepositoryBenchmark {
+
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+    private static final int PAGE_SIZE = 50;
+    private static final int BATCH_SIZE = 20;
+
+    @Benchmark
+    public boolean add(RepositoryState state) {
+        return state.appointments.add(state.newAppointment());
+    }
+
+    @Benchmark
+    public boolean updateState(RepositoryState state) {
+        return state.appointments.updateState(state.randomAppointment().getId(), randomStatus());
+    }
+
+    @Benchmark
+    public Map<String, Boolean> updateStates(RepositoryState state) {
+        List<String> ids = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ids.add(state.randomAppointment().getId());
+        }
+        return state.appointments.updateStates(ids, randomStatus());
+    }
+
+    /**
+     * Después de la primera llamada por doctor ya no quedan citas programadas, así que
+     * mide sobre todo el recorrido de la agenda.
+     */
+    @Benchmark
+    public Map<String, Boolean> cancelAllForDoctor(RepositoryState state) {
+        return state.appointments.cancelAllForDoctor(state.randomDoctor().getId());
+    }
+
+    @Benchmark
+    public Optional<Appointment> searchById(RepositoryState state) {
+        return state.appointments.searchById(state.randomAppointment().getId());
+    }
+
+    @Benchmark
+    public List<Appointment> searchByPatient(RepositoryState state) {
+        return state.appointments.searchByPatient(state.randomPatient().getId());
+    }
+
+    @Benchmark
+    public List<Appointment> searchByDoctor(RepositoryState state) {
+        return state.appointments.searchByDoctor(state.randomDoctor().getId());
+    }
+
+    @Benchmark
+    public List<Appointment> searchByDoctorAndStatus(RepositoryState state) {
+        return state.appointments.searchByDoctorAndStatus(state.randomDoctor().getId(), randomStatus());
+    }
+
+    @Benchmark
+    public List<Appointment> searchByPatientAndStatus(RepositoryState state) {
+        return state.appointments.searchByPatientAndStatus(state.randomPatient().getId(), randomStatus());
+    }
+
+    @Benchmark
+    public int countByDoctorAndStatus(RepositoryState state) {
+        return state.appointments.countByDoctorAndStatus(state.randomDoctor().getId(), randomStatus());
+    }
+
+    @Benchmark
+    public List<Appointment> searchByDoctorAndStatusPage(RepositoryState state) {
+        return state.appointments.searchByDoctorAndStatus(state.randomDoctor().getId(), randomStatus(),
+                PageRequest.oldestFirst(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public int countByPatientAndStatus(RepositoryState state) {
+        return state.appointments.countByPatientAndStatus(state.randomPatient().getId(), randomStatus());
+    }
+
+    @Benchmark
+    public List<Appointment> searchByPatientAndStatusPage(RepositoryState state) {
+        return state.appointments.searchByPatientAndStatus(state.randomPatient().getId(), randomStatus(),
+                PageRequest.newestFirst(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Appointment> searchByDate(RepositoryState state) {
+        return state.appointments.searchByDate(state.randomAppointment().getScheduledAt().toLocalDate());
+    }
+
+    @Benchmark
+    public List<Appointment> listAll(RepositoryState state) {
+        return state.appointments.listAll();
+    }
+
+    private static AppointmentStatus randomStatus() {
+        return STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)];
+    }
+}
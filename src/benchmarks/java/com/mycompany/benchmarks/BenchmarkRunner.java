@@ -0,0 +1,42 @@
+package com.mycompany.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.openjdk.jmh.Main;
+
+/**
+ * Punto de entrada de {@code benchmarks.jar}: ejecuta JMH con los mismos argumentos y,
+ * si no se indicó otro formato ({@code -rf}) ni archivo ({@code -rff}), guarda los
+ * resultados en JSON en {@code target/jmh-results/jmh-<fecha>.json} para compararlos
+ * entre versiones.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar ServiceBenchmark -p size=10000
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    static final Path RESULTS_DIR = Paths.get("target", "jmh-results");
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        boolean listOnly = arguments.stream().anyMatch(a -> a.equals("-h") || a.startsWith("-l"));
+        if (!listOnly && !arguments.contains("-rf") && !arguments.contains("-rff")) {
+            Files.createDirectories(RESULTS_DIR);
+            Path file = RESULTS_DIR.resolve("jmh-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".json");
+            arguments.addAll(0, List.of("-rf", "json", "-rff", file.toString()));
+        }
+        Main.main(arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,79 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Interfaces.PageRequest;
+import com.mycompany.Models.Consultation;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cada operación de {@code IConsultationRepository} sobre
+ * {@code ConsultationRepositoryJSON} y {@code ConsultationRepositoryMemory}, con los
+ * datos de {@link RepositoryState}.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar ConsultationRepositoryBenchmark -p size=10000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsultationRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Benchmark
+    public boolean add(RepositoryState state) {
+        return state.consultations.add(new Consultation(state.randomAppointment(),
+                "Control de seguimiento", "Sin cambios en el tratamiento"));
+    }
+
+    @Benchmark
+    public List<Consultation> searchByPatient(RepositoryState state) {
+        return state.consultations.searchByPatient(state.randomPatient().getId());
+    }
+
+    @Benchmark
+    public List<Consultation> searchByDoctor(RepositoryState state) {
+        return state.consultations.searchByDoctor(state.randomDoctor().getId());
+    }
+
+    @Benchmark
+    public int countByPatient(RepositoryState state) {
+        return state.consultations.countByPatient(state.randomPatient().getId());
+    }
+
+    @Benchmark
+    public List<Consultation> searchByPatientPage(RepositoryState state) {
+        return state.consultations.searchByPatient(state.randomPatient().getId(), PageRequest.newestFirst(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public int countByDoctor(RepositoryState state) {
+        return state.consultations.countByDoctor(state.randomDoctor().getId());
+    }
+
+    @Benchmark
+    public List<Consultation> searchByDoctorPage(RepositoryState state) {
+        return state.consultations.searchByDoctor(state.randomDoctor().getId(), PageRequest.newestFirst(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Optional<Consultation> searchByAppointment(RepositoryState state) {
+        return state.consultations.searchByAppointment(state.randomConsultation().getAppointmentId());
+    }
+
+    @Benchmark
+    public List<Consultation> listAll(RepositoryState state) {
+        return state.consultations.listAll();
+    }
+}
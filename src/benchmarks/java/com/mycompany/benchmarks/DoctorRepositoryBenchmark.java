@@ -0,0 +1,78 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Interfaces.IAuthenticableRepository;
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.User;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cada operación de {@code IDoctorRepository} y {@code IAuthenticableRepository}
+ * sobre {@code DoctorRepositoryJSON} y {@code DoctorRepositoryMemory}, con los datos de
+ * {@link RepositoryState}.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar DoctorRepositoryBenchmark -p size=10000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorRepositoryBenchmark {
+
+    @Benchmark
+    public boolean add(RepositoryState state) {
+        long n = state.nextSequence();
+        return state.doctors.add(new Doctor("drnuevo" + n, "3100000000", "secret", "Doctor Nuevo",
+                String.valueOf(90_000_000L + n), state.randomSpecialty()));
+    }
+
+    @Benchmark
+    public boolean update(RepositoryState state) {
+        return state.doctors.update(state.randomDoctor());
+    }
+
+    /**
+     * El borrado es lógico, así que se puede repetir sobre los mismos doctores.
+     */
+    @Benchmark
+    public boolean deleteById(RepositoryState state) {
+        return state.doctors.deleteById(state.randomDoctor().getId());
+    }
+
+    @Benchmark
+    public Optional<Doctor> searchById(RepositoryState state) {
+        return state.doctors.searchById(state.randomDoctor().getId());
+    }
+
+    @Benchmark
+    public List<Doctor> searchBySpecialty(RepositoryState state) {
+        return state.doctors.searchBySpecialty(state.randomSpecialty());
+    }
+
+    @Benchmark
+    public Optional<User> searchByUsername(RepositoryState state) {
+        return ((IAuthenticableRepository) state.doctors).searchByUsername(state.randomDoctor().getUsername());
+    }
+
+    @Benchmark
+    public boolean updatePassword(RepositoryState state) {
+        Doctor doctor = state.randomDoctor();
+        return ((IAuthenticableRepository) state.doctors).updatePassword(doctor.getId(), doctor.getPassword());
+    }
+
+    @Benchmark
+    public List<Doctor> listAll(RepositoryState state) {
+        return state.doctors.listAll();
+    }
+}
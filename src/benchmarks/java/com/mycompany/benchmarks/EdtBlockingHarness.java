@@ -0,0 +1,112 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import com.mycompany.Models.Consultation;
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.Patient;
+import com.mycompany.Persistance.AppointmentRepositoryMemory;
+import com.mycompany.Persistance.ConsultationRepositoryMemory;
+import com.mycompany.Presentation.EdtMonitor;
+import com.mycompany.Presentation.FrmDoctorHistory;
+import com.mycompany.Presentation.FrmDoctorSchedule;
+import com.mycompany.Services.AppointmentService;
+import com.mycompany.Services.ConsultationService;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JInternalFrame;
+import javax.swing.SwingUtilities;
+
+/**
+ * Mide cuánto se bloquea el EDT al abrir formularios que consultan muchos datos
+ * ({@link FrmDoctorHistory} y {@link FrmDoctorSchedule}), usando {@link EdtMonitor}.
+ *
+ * <p>
+ * Crea en memoria la cantidad indicada de citas y consultas repartidas entre varios
+ * doctores, abre cada formulario varias veces desde el EDT, espera a que termine de
+ * cargar y lo cierra. Al final imprime cuánto tardaron los constructores en el EDT y
+ * las estadísticas del monitor (que incluyen también el llenado de las tablas y las
+ * pausas del recolector). Funciona sin pantalla ({@code -Djava.awt.headless=true}).
+ * </p>
+ *
+ * <pre>
+ * java -Djava.awt.headless=true -cp target/benchmarks.jar com.mycompany.benchmarks.EdtBlockingHarness [registros] [aperturas]
+ * </pre>
+ */
+public final class EdtBlockingHarness {
+
+    private static final int DOCTORS = 20;
+
+    private static long constructorNanos;
+    private static long maxConstructorNanos;
+
+    private EdtBlockingHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int openings = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            Doctor doctor = new Doctor();
+            doctor.setUsername("edt-doc-" + i);
+            doctor.setFullName("Doctor " + i);
+            doctors.add(doctor);
+        }
+        AppointmentRepositoryMemory appointments = new AppointmentRepositoryMemory();
+        ConsultationRepositoryMemory consultations = new ConsultationRepositoryMemory();
+        for (int i = 0; i < records; i++) {
+            Patient patient = new Patient("edt-" + i, "3100000000", "x", "Paciente " + i, "P" + i,
+                    LocalDate.of(1990, 1, 1));
+            Appointment appointment = new Appointment(LocalDateTime.of(2030, 1, 1, 8, 0).plusMinutes(30L * i),
+                    Duration.ofMinutes(30), patient, doctors.get(i % DOCTORS));
+            appointment.setStatus(i % 2 == 0 ? AppointmentStatus.PROGRAMADA : AppointmentStatus.COMPLETADA);
+            appointments.add(appointment);
+            if (i % 2 == 1) {
+                consultations.add(new Consultation(appointment, "Diagnóstico " + i, "Tratamiento " + i));
+            }
+        }
+        AppointmentService appointmentService = new AppointmentService(appointments);
+        ConsultationService consultationService = new ConsultationService(consultations);
+        System.out.printf("registros=%d doctores=%d aperturas=%d%n", records, DOCTORS, openings);
+
+        // Calentamiento: carga de clases de Swing y de los formularios
+        open(() -> new FrmDoctorHistory(consultationService, doctors.get(0)));
+        open(() -> new FrmDoctorSchedule(appointmentService, doctors.get(0)));
+        constructorNanos = 0;
+        maxConstructorNanos = 0;
+
+        EdtMonitor monitor = EdtMonitor.start();
+        long started = System.nanoTime();
+        for (int i = 0; i < openings; i++) {
+            Doctor doctor = doctors.get(i % DOCTORS);
+            open(() -> new FrmDoctorHistory(consultationService, doctor));
+            open(() -> new FrmDoctorSchedule(appointmentService, doctor));
+        }
+        monitor.stop();
+        System.out.printf("tiempo total=%d ms, constructores en el EDT: %d ms en total, máximo %.1f ms%n",
+                (System.nanoTime() - started) / 1_000_000, constructorNanos / 1_000_000, maxConstructorNanos / 1e6);
+        System.out.println(monitor.snapshot());
+        System.exit(0);
+    }
+
+    /**
+     * Abre un formulario en el EDT, deja que termine su carga y lo cierra.
+     */
+    private static void open(java.util.function.Supplier<JInternalFrame> factory) throws Exception {
+        JInternalFrame[] frame = new JInternalFrame[1];
+        SwingUtilities.invokeAndWait(() -> {
+            long start = System.nanoTime();
+            frame[0] = factory.get();
+            long elapsed = System.nanoTime() - start;
+            constructorNanos += elapsed;
+            maxConstructorNanos = Math.max(maxConstructorNanos, elapsed);
+        });
+        Thread.sleep(1_500);
+        SwingUtilities.invokeAndWait(() -> frame[0].dispose());
+    }
+}
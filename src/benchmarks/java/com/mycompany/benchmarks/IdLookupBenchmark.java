@@ -0,0 +1,83 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Models.Patient;
+import com.mycompany.Persistance.JsonRepository;
+import com.mycompany.Persistance.JsonStore;
+import com.mycompany.Persistance.PatientRepositoryJSON;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compara la búsqueda por id indexada de {@link PatientRepositoryJSON} con el recorrido
+ * lineal que hacía antes ({@code data.stream().filter(...).findFirst()}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdLookupBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private PatientRepositoryJSON repository;
+    private List<Patient> snapshot;
+    private String[] ids;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("clinical-bench");
+        System.setProperty(JsonRepository.DATA_DIR_PROPERTY, directory.toString());
+
+        List<Patient> patients = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            patients.add(new Patient("user" + i, "3100000000", "secret", "Paciente " + i,
+                    String.valueOf(1_000_000_000L + i), LocalDate.of(1990, 1, 1).plusDays(i % 10_000)));
+        }
+        new JsonStore().writeToFile(directory.resolve("patients.json").toString(), patients);
+
+        repository = new PatientRepositoryJSON();
+        snapshot = repository.getAll();
+        ids = new String[1024];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = snapshot.get(ThreadLocalRandom.current().nextInt(size)).getId();
+        }
+    }
+
+    private String nextId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public Optional<Patient> indexedSearchById() {
+        return repository.searchById(nextId());
+    }
+
+    @Benchmark
+    public Optional<Patient> linearScanSearchById() {
+        String id = nextId();
+        return snapshot.stream()
+                .filter(p -> p.getId().equals(id))
+                .findFirst();
+    }
+}
@@ -0,0 +1,115 @@
+package com.mycompany.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+import com.mycompany.Models.Appointment;
+import com.mycompany.Persistance.JsonStore;
+import com.mycompany.Persistance.LoadProgressListener;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Mide la lectura y escritura de {@link JsonStore} con el archivo más grande de la
+ * aplicación, el de citas (cinco por paciente): escritura completa, lectura a una lista,
+ * lectura elemento por elemento, y el formato JSON Lines. Las entradas del journal se
+ * miden con las operaciones de escritura de los benchmarks de repositorio (por ejemplo
+ * {@link PatientRepositoryBenchmark#update}), que pasan por el journal real.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar JsonStoreBenchmark -p size=10000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonStoreBenchmark {
+
+    private static final Type APPOINTMENT_LIST = new TypeToken<List<Appointment>>() { }.getType();
+
+    /**
+     * Cantidad de pacientes del conjunto de datos; el archivo tiene cinco citas por cada
+     * uno.
+     */
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private final JsonStore store = new JsonStore();
+    private Path directory;
+    private List<Appointment> appointments;
+    private List<JsonElement> lines;
+    private String arrayFile;
+    private String linesFile;
+    private String scratchFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        appointments = SyntheticData.generate(size, "secret", RepositoryState.SEED, LocalDate.now()).appointments();
+        lines = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            lines.add(store.toJsonTree(appointment));
+        }
+        directory = Files.createTempDirectory("clinical-bench");
+        arrayFile = directory.resolve("appointments.json").toString();
+        linesFile = directory.resolve("appointments.jsonl").toString();
+        scratchFile = directory.resolve("scratch.json").toString();
+        store.writeToFile(arrayFile, appointments);
+        store.writeLines(linesFile, lines);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeToFile() {
+        store.writeToFile(scratchFile, appointments);
+    }
+
+    @Benchmark
+    public List<Appointment> readFromFile() {
+        return store.readFromFile(arrayFile, APPOINTMENT_LIST, List.of());
+    }
+
+    @Benchmark
+    public int readArray(Blackhole blackhole) {
+        return store.<Appointment>readArray(arrayFile, Appointment.class, blackhole::consume, LoadProgressListener.NONE);
+    }
+
+    @Benchmark
+    public void writeLines() {
+        store.writeLines(scratchFile, lines);
+    }
+
+    @Benchmark
+    public int forEachLine(Blackhole blackhole) {
+        return store.forEachLine(linesFile, blackhole::consume);
+    }
+}
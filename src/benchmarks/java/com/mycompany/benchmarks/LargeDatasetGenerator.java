@@ -0,0 +1,409 @@
+package com.mycompany.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import com.mycompany.Models.Consultation;
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.Specialty;
+import com.mycompany.Models.SpecialtyName;
+import com.mycompany.Persistance.JsonStore;
+import com.mycompany.Services.PasswordHasher;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Generador de conjuntos de datos grandes para pruebas de carga y de larga duración:
+ * escribe los cinco archivos de datos con la misma forma que {@link SyntheticData}, pero
+ * a escala de producción (por defecto un millón de pacientes, 5.000 doctores repartidos
+ * entre todas las especialidades y 20 millones de citas).
+ *
+ * <p>
+ * Los pacientes y las citas se generan por bloques en varios hilos y se escriben en
+ * orden a medida que terminan, con un máximo de bloques pendientes, así que la memoria
+ * usada no depende del tamaño del conjunto. Para que las citas puedan referirse a
+ * cualquier paciente sin tenerlos en memoria, el id de cada paciente se deriva de la
+ * semilla y de su posición ({@link #patientId}). Las agendas de cada doctor no tienen
+ * citas solapadas; las consultas se generan junto con las citas completadas de su
+ * bloque.
+ * </p>
+ *
+ * <p>
+ * Cada registro se escribe en una línea, sin el formato legible que usa la aplicación;
+ * la aplicación lee ambos y los vuelve a escribir con su formato al compactar. Cada
+ * archivo se escribe primero como {@code .tmp} y se reemplaza al terminar; los journals
+ * y las instantáneas binarias anteriores del directorio se borran para que no se
+ * apliquen sobre los datos nuevos.
+ * </p>
+ *
+ * <pre>
+ * java --enable-preview -cp target/benchmarks.jar com.mycompany.benchmarks.LargeDatasetGenerator \
+ *     [pacientes] [doctores] [citas] [directorio] [semilla] [hilos]
+ * </pre>
+ * Todos los usuarios tienen la contraseña {@value SyntheticData#PASSWORD}.
+ */
+public final class LargeDatasetGenerator {
+
+    private static final int PATIENTS_PER_CHUNK = 10_000;
+    private static final int APPOINTMENTS_PER_CHUNK = 50_000;
+
+    /**
+     * Bloques generados o en generación por cada hilo, antes de esperar a que se
+     * escriban los anteriores.
+     */
+    private static final int PENDING_CHUNKS_PER_THREAD = 2;
+
+    // Flujos de números aleatorios independientes para cada tipo de bloque
+    private static final int PATIENT_STREAM = 1;
+    private static final int SCHEDULE_STREAM = 2;
+    private static final int DOCTOR_STREAM = 3;
+    private static final int APPOINTMENT_STREAM = 4;
+    private static final int CONSULTATION_STREAM = 5;
+
+    private static final String[] FILES = {
+        "specialties", "doctors", "patients", "appointments", "consultations"
+    };
+
+    /**
+     * Fragmento de un arreglo JSON: elementos separados por coma, sin corchetes.
+     */
+    private record Part(String json, int count) {
+    }
+
+    private final int patients;
+    private final int doctors;
+    private final long appointments;
+    private final long seed;
+    private final LocalDate today;
+    private final int threads;
+    private final String encodedPassword;
+    private final JsonStore store = new JsonStore();
+
+    /**
+     * @param patients        cantidad de pacientes
+     * @param doctors         cantidad de doctores; se reparten entre todas las especialidades
+     * @param appointments    cantidad total de citas, repartidas por igual entre los doctores
+     * @param seed            semilla del generador
+     * @param today           fecha que separa las citas pasadas de las futuras
+     * @param threads         hilos que generan los bloques
+     * @param encodedPassword contraseña ya codificada que reciben todos los usuarios
+     * @throws IllegalArgumentException si alguna cantidad no es positiva
+     */
+    public LargeDatasetGenerator(int patients, int doctors, long appointments, long seed, LocalDate today,
+            int threads, String encodedPassword) {
+        if (patients <= 0 || doctors <= 0 || appointments < 0 || threads <= 0) {
+            throw new IllegalArgumentException("Las cantidades de pacientes, doctores e hilos deben ser positivas");
+        }
+        this.patients = patients;
+        this.doctors = doctors;
+        this.appointments = appointments;
+        this.seed = seed;
+        this.today = today;
+        this.threads = threads;
+        this.encodedPassword = encodedPassword;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int patients = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int doctors = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        long appointments = args.length > 2 ? Long.parseLong(args[2]) : 20_000_000L;
+        Path directory = Paths.get(args.length > 3 ? args[3] : "data");
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        long started = System.nanoTime();
+        new LargeDatasetGenerator(patients, doctors, appointments, seed, LocalDate.now(), threads,
+                new PasswordHasher().hash(SyntheticData.PASSWORD)).writeTo(directory);
+        System.out.printf("Terminado en %.1f s%n", (System.nanoTime() - started) / 1e9);
+    }
+
+    /**
+     * Genera y escribe los cinco archivos de datos.
+     *
+     * @param directory directorio de datos; se crea si no existe
+     * @throws IOException si ocurre un error de escritura
+     */
+    public void writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        deleteStaleFiles(directory);
+        ExecutorService pool = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().daemon().name("generator-", 0).factory());
+        try {
+            List<Specialty> specialties = new ArrayList<>();
+            for (SpecialtyName name : SpecialtyName.values()) {
+                specialties.add(new Specialty(name));
+            }
+            try (ArrayWriter out = new ArrayWriter(directory, "specialties")) {
+                for (Specialty specialty : specialties) {
+                    out.write(new Part(store.toCompactJson(store.toJsonTree(specialty)), 1));
+                }
+                out.commit();
+            }
+
+            // Los doctores son pocos: se generan de una vez y sus ids se usan en las citas.
+            Random random = new Random(mix(seed, DOCTOR_STREAM, 0));
+            List<String> doctorIds = new ArrayList<>(doctors);
+            try (ArrayWriter out = new ArrayWriter(directory, "doctors")) {
+                for (int i = 0; i < doctors; i++) {
+                    Doctor doctor = SyntheticData.doctor(random, i, encodedPassword,
+                            specialties.get(i % specialties.size()));
+                    doctorIds.add(doctor.getId());
+                    out.write(new Part(store.toCompactJson(store.toJsonTree(doctor)), 1));
+                }
+                out.commit();
+            }
+
+            try (ArrayWriter out = new ArrayWriter(directory, "patients")) {
+                int chunks = (patients + PATIENTS_PER_CHUNK - 1) / PATIENTS_PER_CHUNK;
+                stream(pool, chunks, chunk -> new Part[]{patientChunk(chunk)}, out);
+                out.commit();
+            }
+
+            try (ArrayWriter appointmentOut = new ArrayWriter(directory, "appointments");
+                    ArrayWriter consultationOut = new ArrayWriter(directory, "consultations")) {
+                long perDoctor = appointments / doctors;
+                int doctorsPerChunk = (int) Math.max(1, Math.min(doctors, APPOINTMENTS_PER_CHUNK / Math.max(1, perDoctor)));
+                int chunks = (doctors + doctorsPerChunk - 1) / doctorsPerChunk;
+                stream(pool, chunks, chunk -> scheduleChunk(doctorIds, chunk * doctorsPerChunk,
+                        Math.min(doctors, (chunk + 1) * doctorsPerChunk)), appointmentOut, consultationOut);
+                appointmentOut.commit();
+                consultationOut.commit();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Id del paciente en la posición indicada, distinto para cada posición.
+     */
+    String patientId(int index) {
+        return id(PATIENT_STREAM, 0, index);
+    }
+
+    /**
+     * UUID de versión 4 derivado de la semilla, el flujo y la posición, en lugar de
+     * {@code UUID.randomUUID()}, que comparte un único generador seguro entre los hilos.
+     */
+    private String id(int stream, long group, long index) {
+        long high = mix(seed ^ group, stream, index);
+        long low = mix(high, stream, index);
+        high = (high & ~0xF000L) | 0x4000L;
+        low = (low & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(high, low).toString();
+    }
+
+    private Part patientChunk(int chunk) {
+        Random random = new Random(mix(seed, PATIENT_STREAM, chunk));
+        int from = chunk * PATIENTS_PER_CHUNK;
+        int to = Math.min(patients, from + PATIENTS_PER_CHUNK);
+        StringBuilder json = new StringBuilder((to - from) * 300);
+        for (int i = from; i < to; i++) {
+            JsonObject tree = store.toJsonTree(SyntheticData.patient(random, i, encodedPassword, today))
+                    .getAsJsonObject();
+            tree.addProperty("id", patientId(i));
+            append(json, tree);
+        }
+        return new Part(json.toString(), to - from);
+    }
+
+    /**
+     * Agendas de los doctores {@code [from, to)} y las consultas de sus citas completadas.
+     * Las citas sobrantes de la división se asignan a los primeros doctores.
+     *
+     * <p>
+     * Las citas y consultas se arman directamente como árboles JSON con los campos de
+     * {@link Appointment} y {@link Consultation}: sus constructores asignan un id aleatorio
+     * y una fecha de registro que aquí se reemplazarían de todos modos.
+     * </p>
+     */
+    private Part[] scheduleChunk(List<String> doctorIds, int from, int to) {
+        Random random = new Random(mix(seed, SCHEDULE_STREAM, from));
+        StringBuilder appointmentJson = new StringBuilder();
+        StringBuilder consultationJson = new StringBuilder();
+        int appointmentCount = 0;
+        int consultationCount = 0;
+        long base = appointments / doctors;
+        long extra = appointments % doctors;
+        JsonElement duration = store.toJsonTree(SyntheticData.SLOT);
+        for (int d = from; d < to; d++) {
+            long perDoctor = base + (d < extra ? 1 : 0);
+            String doctorId = doctorIds.get(d);
+            LocalDate day = SyntheticData.firstDay(today, (int) Math.min(Integer.MAX_VALUE, perDoctor));
+            int slot = 0;
+            for (long made = 0; made < perDoctor; slot++) {
+                if (slot == SyntheticData.SLOTS_PER_DAY) {
+                    slot = 0;
+                    day = SyntheticData.nextWorkingDay(day);
+                }
+                if (random.nextDouble() >= SyntheticData.OCCUPANCY) {
+                    continue;
+                }
+                LocalDateTime start = day.atTime(SyntheticData.FIRST_SLOT).plus(SyntheticData.SLOT.multipliedBy(slot));
+                AppointmentStatus status = SyntheticData.status(random, !day.isBefore(today));
+                String appointmentId = id(APPOINTMENT_STREAM, d, made);
+                JsonObject appointment = new JsonObject();
+                appointment.addProperty("id", appointmentId);
+                appointment.add("scheduledAt", store.toJsonTree(start));
+                appointment.add("duration", duration);
+                appointment.addProperty("patientId", patientId(random.nextInt(patients)));
+                appointment.addProperty("doctorId", doctorId);
+                appointment.addProperty("status", status.name());
+                append(appointmentJson, appointment);
+                appointmentCount++;
+
+                if (status == AppointmentStatus.COMPLETADA && random.nextInt(10) < 9) {
+                    JsonObject consultation = new JsonObject();
+                    consultation.addProperty("id", id(CONSULTATION_STREAM, d, made));
+                    consultation.addProperty("appointmentId", appointmentId);
+                    consultation.addProperty("diagnosis", SyntheticData.pick(random, SyntheticData.DIAGNOSES));
+                    consultation.addProperty("treatment", SyntheticData.pick(random, SyntheticData.TREATMENTS));
+                    consultation.add("registrationDate", store.toJsonTree(start.plus(SyntheticData.SLOT)));
+                    append(consultationJson, consultation);
+                    consultationCount++;
+                }
+                made++;
+            }
+        }
+        return new Part[]{
+            new Part(appointmentJson.toString(), appointmentCount),
+            new Part(consultationJson.toString(), consultationCount)
+        };
+    }
+
+    private void append(StringBuilder json, JsonObject tree) {
+        if (!json.isEmpty()) {
+            json.append(",\n");
+        }
+        json.append(store.toCompactJson(tree));
+    }
+
+    /**
+     * Genera los bloques en el pool y los escribe en orden; cada bloque produce una parte
+     * por cada archivo de salida.
+     */
+    private void stream(ExecutorService pool, int chunks, IntFunction<Part[]> generator, ArrayWriter... outputs) {
+        ArrayDeque<Future<Part[]>> pending = new ArrayDeque<>();
+        int next = 0;
+        while (next < chunks || !pending.isEmpty()) {
+            while (next < chunks && pending.size() < threads * PENDING_CHUNKS_PER_THREAD) {
+                int chunk = next++;
+                pending.add(pool.submit(() -> generator.apply(chunk)));
+            }
+            Part[] parts;
+            try {
+                parts = pending.poll().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Generación interrumpida", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error al generar los datos", e.getCause());
+            }
+            for (int i = 0; i < outputs.length; i++) {
+                outputs[i].write(parts[i]);
+            }
+        }
+    }
+
+    /**
+     * Borra los journals y las instantáneas binarias de los archivos que se van a
+     * reemplazar; si quedaran, la aplicación los aplicaría o los preferiría sobre los
+     * datos nuevos.
+     */
+    private static void deleteStaleFiles(Path directory) throws IOException {
+        for (String name : FILES) {
+            for (String suffix : new String[]{".json.journal", ".json.journal.old", ".json.journal.prev",
+                ".bin", ".bin.journal", ".bin.journal.old", ".bin.journal.prev"}) {
+                if (Files.deleteIfExists(directory.resolve(name + suffix))) {
+                    System.out.println("Se borró " + directory.resolve(name + suffix));
+                }
+            }
+        }
+    }
+
+    /**
+     * Mezcla de SplitMix64: valores bien distribuidos e independientes para cada
+     * combinación de semilla, flujo y posición.
+     */
+    private static long mix(long seed, int stream, long index) {
+        long z = seed + stream * 0x9E37_79B9_7F4A_7C15L + (index + 1) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Escribe un arreglo JSON por partes en un archivo temporal; {@link #commit()} lo
+     * mueve a su nombre final. Si se cierra sin confirmar, se borra el temporal.
+     */
+    private static final class ArrayWriter implements Closeable {
+
+        private final Path target;
+        private final Path temporary;
+        private final Writer out;
+        private final long started = System.nanoTime();
+        private long count;
+        private boolean committed;
+
+        ArrayWriter(Path directory, String name) throws IOException {
+            this.target = directory.resolve(name + ".json");
+            this.temporary = directory.resolve(name + ".json.tmp");
+            this.out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temporary),
+                    StandardCharsets.UTF_8), 1 << 16);
+            out.write("[\n");
+        }
+
+        void write(Part part) {
+            if (part.count() == 0) {
+                return;
+            }
+            try {
+                if (count > 0) {
+                    out.write(",\n");
+                }
+                out.write(part.json());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al escribir " + temporary, e);
+            }
+            count += part.count();
+        }
+
+        void commit() throws IOException {
+            out.write("\n]\n");
+            out.close();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            System.out.printf("%s: %,d registros en %.1f s%n", target, count, (System.nanoTime() - started) / 1e9);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+}
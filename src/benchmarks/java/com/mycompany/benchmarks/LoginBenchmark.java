@@ -0,0 +1,86 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Interfaces.IAuthenticableRepository;
+import com.mycompany.Models.Patient;
+import com.mycompany.Models.User;
+import com.mycompany.Persistance.PatientRepositoryMemory;
+import com.mycompany.Services.AuthenticationService;
+import com.mycompany.Services.PasswordHasher;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide el rendimiento del inicio de sesión con distintos costos de PBKDF2, con un
+ * hilo y con tantos hilos como núcleos (varios recepcionistas iniciando sesión a la
+ * vez). Si la verificación escala, el rendimiento con todos los hilos debe crecer
+ * casi en proporción a la cantidad de núcleos.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar LoginBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "clave-segura-123";
+
+    @Param({"10000", "100000", "210000"})
+    public int iterations;
+
+    @Param({"100"})
+    public int users;
+
+    private AuthenticationService authentication;
+
+    @Setup
+    public void setUp() {
+        PasswordHasher hasher = new PasswordHasher(iterations);
+        PatientRepositoryMemory repository = new PatientRepositoryMemory();
+        String encoded = hasher.hash(PASSWORD);
+        for (int i = 0; i < users; i++) {
+            repository.add(new Patient("user" + i, "3100000000", encoded, "Paciente " + i,
+                    String.valueOf(1_000_000_000L + i), LocalDate.of(1990, 1, 1)));
+        }
+        List<IAuthenticableRepository> repositories = List.of(repository);
+        authentication = new AuthenticationService(repositories, null, hasher);
+    }
+
+    @Benchmark
+    public Optional<User> loginSingleThread() {
+        return authenticateRandomUser();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Optional<User> loginAllCores() {
+        return authenticateRandomUser();
+    }
+
+    private Optional<User> authenticateRandomUser() {
+        Optional<User> user = authentication.authenticate("user" + ThreadLocalRandom.current().nextInt(users), PASSWORD);
+        if (user.isEmpty()) {
+            throw new IllegalStateException("La autenticación debía ser exitosa");
+        }
+        return user;
+    }
+}
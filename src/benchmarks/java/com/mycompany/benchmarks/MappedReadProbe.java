@@ -0,0 +1,188 @@
+package com.mycompany.benchmarks;
+
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import com.mycompany.Models.Consultation;
+import com.mycompany.Persistance.JsonStore;
+import com.mycompany.Persistance.LoadProgressListener;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Compara la carga de {@code appointments.json} y {@code consultations.json} grandes con
+ * el lector por flujo ({@code FileInputStream} + {@code InputStreamReader}) y con el
+ * lector mapeado en memoria de {@link JsonStore}.
+ *
+ * <p>
+ * Para cada archivo imprime el tiempo de {@link JsonStore#readArray}, el caudal, los
+ * fallos de página menores y mayores del proceso (un fallo mayor es una página que hubo
+ * que leer del disco), cuánto crecieron las páginas de archivo residentes del proceso
+ * ({@code RssFile}) y el page cache del sistema ({@code Cached}). La primera repetición
+ * se hace con el page cache vacío si se puede escribir {@code /proc/sys/vm/drop_caches}
+ * (requiere root); las siguientes, con el archivo ya en caché. Solo Linux.
+ * </p>
+ *
+ * <pre>
+ * java -Xmx2g -cp target/benchmarks.jar com.mycompany.benchmarks.MappedReadProbe stream 300 /tmp/clinical-300mb
+ * java -Xmx2g -cp target/benchmarks.jar com.mycompany.benchmarks.MappedReadProbe mapped 300 /tmp/clinical-300mb
+ * </pre>
+ * Los archivos se generan en el directorio indicado si todavía no existen.
+ */
+public final class MappedReadProbe {
+
+    private static final int REPETITIONS = 4;
+
+    private MappedReadProbe() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "mapped";
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        Path directory = Paths.get(args.length > 2 ? args[2] : "target/mapped-probe-" + megabytes + "mb");
+        Path appointments = directory.resolve("appointments.json");
+        Path consultations = directory.resolve("consultations.json");
+        if (!Files.exists(appointments) || !Files.exists(consultations)) {
+            generate(appointments, consultations, megabytes * 1024L * 1024L);
+        }
+        System.setProperty(JsonStore.MAPPED_READS_PROPERTY, String.valueOf(mode.equals("mapped")));
+
+        JsonStore store = new JsonStore();
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            boolean cold = repetition == 0 && dropPageCache();
+            measure(store, appointments, Appointment.class, mode, cold);
+            measure(store, consultations, Consultation.class, mode, cold);
+        }
+    }
+
+    private static void measure(JsonStore store, Path file, Type type, String mode, boolean cold) throws IOException {
+        System.gc();
+        long[] faultsBefore = pageFaults();
+        long rssFileBefore = procValue("/proc/self/status", "RssFile:");
+        long cachedBefore = procValue("/proc/meminfo", "Cached:");
+        long start = System.nanoTime();
+        int[] records = new int[1];
+        store.readArray(file.toString(), type, entity -> records[0]++, LoadProgressListener.NONE);
+        long elapsedNanos = System.nanoTime() - start;
+        long[] faultsAfter = pageFaults();
+        long rssFileAfter = procValue("/proc/self/status", "RssFile:");
+        long cachedAfter = procValue("/proc/meminfo", "Cached:");
+
+        long megabytes = Files.size(file) / (1024 * 1024);
+        System.out.printf("modo=%s archivo=%s (%d MB) cache=%s registros=%d tiempo=%d ms caudal=%.0f MB/s "
+                + "fallosMenores=%d fallosMayores=%d rssArchivo=%+d MB pageCache=%+d MB%n",
+                mode, file.getFileName(), megabytes, cold ? "fria" : "caliente", records[0],
+                elapsedNanos / 1_000_000, megabytes / (elapsedNanos / 1e9),
+                faultsAfter[0] - faultsBefore[0], faultsAfter[1] - faultsBefore[1],
+                (rssFileAfter - rssFileBefore) / 1024, (cachedAfter - cachedBefore) / 1024);
+    }
+
+    /**
+     * Vacía el page cache del sistema.
+     *
+     * @return {@code true} si se pudo
+     */
+    private static boolean dropPageCache() {
+        try {
+            new ProcessBuilder("sync").inheritIO().start().waitFor();
+            Files.writeString(Paths.get("/proc/sys/vm/drop_caches"), "1");
+            return true;
+        } catch (IOException | InterruptedException e) {
+            System.out.println("No se pudo vaciar el page cache (" + e.getMessage() + "); todas las mediciones son en caliente.");
+            return false;
+        }
+    }
+
+    /**
+     * @return fallos de página menores y mayores del proceso ({@code /proc/self/stat})
+     */
+    private static long[] pageFaults() throws IOException {
+        String stat = Files.readString(Paths.get("/proc/self/stat"));
+        // Los campos que siguen al nombre del proceso, que va entre paréntesis
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        return new long[]{Long.parseLong(fields[7]), Long.parseLong(fields[9])};
+    }
+
+    /**
+     * @return valor en kB de una línea {@code clave: valor kB} de un archivo de /proc
+     */
+    private static long procValue(String path, String key) throws IOException {
+        for (String line : Files.readAllLines(Paths.get(path))) {
+            if (line.startsWith(key)) {
+                return Long.parseLong(line.substring(key.length()).trim().split("\\s+")[0]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Escribe arreglos de citas y de consultas con formato de {@link JsonStore} hasta
+     * alcanzar el tamaño pedido cada uno. Los diagnósticos llevan tildes para que la
+     * decodificación no sea solo ASCII.
+     */
+    private static void generate(Path appointments, Path consultations, long targetBytes) throws IOException {
+        Files.createDirectories(appointments.getParent());
+        String[] doctors = new String[50];
+        String[] patients = new String[5000];
+        for (int i = 0; i < doctors.length; i++) {
+            doctors[i] = UUID.randomUUID().toString();
+        }
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = UUID.randomUUID().toString();
+        }
+        AppointmentStatus[] statuses = AppointmentStatus.values();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 6, 8, 0);
+        try (Writer appointmentsOut = Files.newBufferedWriter(appointments, StandardCharsets.UTF_8);
+                JsonWriter appointmentsJson = new JsonWriter(appointmentsOut);
+                Writer consultationsOut = Files.newBufferedWriter(consultations, StandardCharsets.UTF_8);
+                JsonWriter consultationsJson = new JsonWriter(consultationsOut)) {
+            appointmentsJson.setIndent("  ");
+            consultationsJson.setIndent("  ");
+            appointmentsJson.beginArray();
+            consultationsJson.beginArray();
+            long i = 0;
+            boolean appointmentsFull = false;
+            boolean consultationsFull = false;
+            while (!appointmentsFull || !consultationsFull) {
+                for (int j = 0; j < 10_000; j++, i++) {
+                    String id = UUID.randomUUID().toString();
+                    LocalDateTime scheduledAt = base.plusMinutes(15 * i);
+                    if (!appointmentsFull) {
+                        appointmentsJson.beginObject();
+                        appointmentsJson.name("id").value(id);
+                        appointmentsJson.name("scheduledAt").value(scheduledAt.toString());
+                        appointmentsJson.name("duration").value("PT30M");
+                        appointmentsJson.name("status").value(statuses[(int) (i % statuses.length)].name());
+                        appointmentsJson.name("patientId").value(patients[(int) (i % patients.length)]);
+                        appointmentsJson.name("doctorId").value(doctors[(int) (i % doctors.length)]);
+                        appointmentsJson.endObject();
+                    }
+                    if (!consultationsFull) {
+                        consultationsJson.beginObject();
+                        consultationsJson.name("id").value(UUID.randomUUID().toString());
+                        consultationsJson.name("appointmentId").value(id);
+                        consultationsJson.name("diagnosis").value("Diagnóstico de control número " + i
+                                + ": evolución favorable, sin signos de infección.");
+                        consultationsJson.name("treatment").value("Continuar medicación, hidratación y revisión en "
+                                + (i % 12 + 1) + " meses.");
+                        consultationsJson.name("registrationDate").value(scheduledAt.plusMinutes(30).toString());
+                        consultationsJson.endObject();
+                    }
+                }
+                appointmentsJson.flush();
+                consultationsJson.flush();
+                appointmentsFull = Files.size(appointments) >= targetBytes;
+                consultationsFull = Files.size(consultations) >= targetBytes;
+            }
+            appointmentsJson.endArray();
+            consultationsJson.endArray();
+        }
+    }
+}
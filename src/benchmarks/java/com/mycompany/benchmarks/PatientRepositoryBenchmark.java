@@ -0,0 +1,74 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Interfaces.IAuthenticableRepository;
+import com.mycompany.Models.Patient;
+import com.mycompany.Models.User;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cada operación de {@code IPatientRepository} y {@code IAuthenticableRepository}
+ * sobre {@code PatientRepositoryJSON} y {@code PatientRepositoryMemory}, con los datos
+ * de {@link RepositoryState}.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar PatientRepositoryBenchmark -p size=10000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientRepositoryBenchmark {
+
+    @Benchmark
+    public boolean add(RepositoryState state) {
+        long n = state.nextSequence();
+        return state.patients.add(new Patient("nuevo" + n, "3100000000", "secret", "Paciente Nuevo",
+                String.valueOf(2_000_000_000L + n), LocalDate.of(1990, 1, 1)));
+    }
+
+    @Benchmark
+    public boolean update(RepositoryState state) {
+        return state.patients.update(state.randomPatient());
+    }
+
+    /**
+     * El borrado es lógico, así que se puede repetir sobre los mismos pacientes.
+     */
+    @Benchmark
+    public boolean deleteById(RepositoryState state) {
+        return state.patients.deleteById(state.randomPatient().getId());
+    }
+
+    @Benchmark
+    public Optional<Patient> searchById(RepositoryState state) {
+        return state.patients.searchById(state.randomPatient().getId());
+    }
+
+    @Benchmark
+    public Optional<User> searchByUsername(RepositoryState state) {
+        return ((IAuthenticableRepository) state.patients).searchByUsername(state.randomPatient().getUsername());
+    }
+
+    @Benchmark
+    public boolean updatePassword(RepositoryState state) {
+        Patient patient = state.randomPatient();
+        return ((IAuthenticableRepository) state.patients).updatePassword(patient.getId(), patient.getPassword());
+    }
+
+    @Benchmark
+    public List<Patient> listAll(RepositoryState state) {
+        return state.patients.listAll();
+    }
+}
@@ -0,0 +1,206 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Interfaces.IAppointmentRepository;
+import com.mycompany.Interfaces.IAuthenticableRepository;
+import com.mycompany.Interfaces.IConsultationRepository;
+import com.mycompany.Interfaces.IDoctorRepository;
+import com.mycompany.Interfaces.IPatientRepository;
+import com.mycompany.Interfaces.ISpecialtyRepository;
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.Consultation;
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.Patient;
+import com.mycompany.Models.Specialty;
+import com.mycompany.Persistance.AppointmentRepositoryJSON;
+import com.mycompany.Persistance.AppointmentRepositoryMemory;
+import com.mycompany.Persistance.ConsultationRepositoryJSON;
+import com.mycompany.Persistance.ConsultationRepositoryMemory;
+import com.mycompany.Persistance.DoctorRepositoryJSON;
+import com.mycompany.Persistance.DoctorRepositoryMemory;
+import com.mycompany.Persistance.JsonRepository;
+import com.mycompany.Persistance.PatientRepositoryJSON;
+import com.mycompany.Persistance.PatientRepositoryMemory;
+import com.mycompany.Persistance.SpecialtyRepositoryJSON;
+import com.mycompany.Persistance.SpecialtyRepositoryMemory;
+import com.mycompany.Persistance.UsernameDirectory;
+import com.mycompany.Services.PasswordHasher;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Estado compartido de las suites de repositorios y servicios: genera un conjunto de
+ * datos con {@link SyntheticData} y lo carga en los repositorios JSON (escritos a disco y
+ * leídos como al iniciar la aplicación) o en los repositorios en memoria.
+ *
+ * <p>
+ * Los datos se generan una vez por prueba, pero los repositorios se vuelven a crear en
+ * cada iteración: así las operaciones que agregan registros no miden, iteración tras
+ * iteración, un repositorio cada vez más grande que el indicado por {@link #size}.
+ * </p>
+ *
+ * <p>
+ * {@link Backend#JSON} usa las opciones de la aplicación, con el journal forzado a disco
+ * en cada escritura; {@link Backend#JSON_NO_FSYNC} lo desactiva para medir el costo del
+ * repositorio sin el del dispositivo.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class RepositoryState {
+
+    public enum Backend {
+        JSON, JSON_NO_FSYNC, MEMORY
+    }
+
+    /**
+     * Costo de PBKDF2 de las contraseñas generadas. Es bajo para que el inicio de sesión
+     * mida la búsqueda del usuario; {@link LoginBenchmark} mide el costo real.
+     */
+    static final PasswordHasher HASHER = new PasswordHasher(1_000);
+
+    static final long SEED = 42;
+
+    /**
+     * Fecha desde la que se agendan las citas nuevas, después de todas las generadas.
+     */
+    private static final LocalDateTime NEW_APPOINTMENTS_FROM = LocalDateTime.of(2100, 1, 4, 8, 0);
+
+    @Param({"JSON", "JSON_NO_FSYNC", "MEMORY"})
+    public Backend backend;
+
+    /**
+     * Cantidad de pacientes; hay cinco citas por paciente y un doctor por cada 200.
+     */
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    public SyntheticData.Dataset dataset;
+    public IPatientRepository patients;
+    public IDoctorRepository doctors;
+    public IAppointmentRepository appointments;
+    public IConsultationRepository consultations;
+    public ISpecialtyRepository specialties;
+
+    /**
+     * Directorio de usernames de los repositorios JSON; {@code null} en memoria.
+     */
+    public UsernameDirectory usernames;
+
+    private Path directory;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void generate() {
+        dataset = SyntheticData.generate(size, HASHER.hash(SyntheticData.PASSWORD), SEED, LocalDate.now());
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        if (backend != Backend.MEMORY) {
+            directory = Files.createTempDirectory("clinical-bench");
+            dataset.writeTo(directory);
+            System.setProperty(JsonRepository.DATA_DIR_PROPERTY, directory.toString());
+            System.setProperty(JsonRepository.JOURNAL_FSYNC_PROPERTY, String.valueOf(backend == Backend.JSON));
+            usernames = new UsernameDirectory();
+            PatientRepositoryJSON patientRepository = new PatientRepositoryJSON(usernames);
+            DoctorRepositoryJSON doctorRepository = new DoctorRepositoryJSON(usernames);
+            AppointmentRepositoryJSON appointmentRepository = new AppointmentRepositoryJSON(patientRepository,
+                    doctorRepository);
+            patients = patientRepository;
+            doctors = doctorRepository;
+            appointments = appointmentRepository;
+            consultations = new ConsultationRepositoryJSON(appointmentRepository);
+            specialties = new SpecialtyRepositoryJSON();
+        } else {
+            patients = new PatientRepositoryMemory();
+            doctors = new DoctorRepositoryMemory();
+            appointments = new AppointmentRepositoryMemory();
+            consultations = new ConsultationRepositoryMemory();
+            specialties = new SpecialtyRepositoryMemory();
+            dataset.specialties().forEach(specialties::add);
+            dataset.doctors().forEach(doctors::add);
+            dataset.patients().forEach(patients::add);
+            dataset.appointments().forEach(appointments::add);
+            dataset.consultations().forEach(consultations::add);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        // Compactar espera también la compactación en segundo plano que esté en curso,
+        // para no borrar el directorio mientras se escribe en él.
+        for (Object repository : List.of(patients, doctors, appointments, consultations, specialties)) {
+            ((JsonRepository<?>) repository).compact();
+        }
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+        directory = null;
+    }
+
+    /**
+     * @return repositorios donde se buscan los usuarios al iniciar sesión
+     */
+    public List<IAuthenticableRepository> authenticableRepositories() {
+        return List.of((IAuthenticableRepository) patients, (IAuthenticableRepository) doctors);
+    }
+
+    public Patient randomPatient() {
+        return random(dataset.patients());
+    }
+
+    public Doctor randomDoctor() {
+        return random(dataset.doctors());
+    }
+
+    public Appointment randomAppointment() {
+        return random(dataset.appointments());
+    }
+
+    public Consultation randomConsultation() {
+        return random(dataset.consultations());
+    }
+
+    public Specialty randomSpecialty() {
+        return random(dataset.specialties());
+    }
+
+    /**
+     * @return número distinto en cada llamada, para usernames y documentos nuevos
+     */
+    public long nextSequence() {
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * Cita nueva de un doctor al azar, en un turno libre posterior a todas las demás.
+     */
+    public Appointment newAppointment() {
+        long turn = nextSequence();
+        List<Doctor> doctorList = dataset.doctors();
+        Doctor doctor = doctorList.get((int) (turn % doctorList.size()));
+        LocalDateTime start = NEW_APPOINTMENTS_FROM.plus(SyntheticData.SLOT.multipliedBy(turn / doctorList.size()));
+        return new Appointment(start, Duration.from(SyntheticData.SLOT), randomPatient(), doctor);
+    }
+
+    private static <T> T random(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
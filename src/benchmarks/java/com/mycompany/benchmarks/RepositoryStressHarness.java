@@ -0,0 +1,225 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.Patient;
+import com.mycompany.Models.User;
+import com.mycompany.Persistance.AppointmentRepositoryJSON;
+import com.mycompany.Persistance.DoctorRepositoryJSON;
+import com.mycompany.Persistance.JsonRepository;
+import com.mycompany.Persistance.PatientRepositoryJSON;
+import com.mycompany.Persistance.UsernameDirectory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de estrés de los repositorios JSON: varios hilos agregan pacientes y citas,
+ * cambian estados y consultan por id, username, índices y listados al mismo tiempo.
+ *
+ * <p>
+ * Al terminar verifica los invariantes: ninguna operación lanzó excepción (por ejemplo
+ * {@code ConcurrentModificationException}), todo lo agregado se encuentra por id y por
+ * username, cada cita aparece en el índice de su estado actual y en ningún otro, y un
+ * repositorio recién cargado desde disco contiene exactamente el mismo estado. Sale con
+ * código 1 si algún invariante falla.
+ * </p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.mycompany.benchmarks.RepositoryStressHarness [hilos] [segundos] [directorio]
+ * </pre>
+ */
+public final class RepositoryStressHarness {
+
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+
+    private RepositoryStressHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path directory = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("clinical-stress");
+        System.setProperty(JsonRepository.DATA_DIR_PROPERTY, directory.toString());
+        System.setProperty(JsonRepository.JOURNAL_FSYNC_PROPERTY, "false");
+
+        UsernameDirectory usernames = new UsernameDirectory();
+        PatientRepositoryJSON patients = new PatientRepositoryJSON(usernames);
+        DoctorRepositoryJSON doctors = new DoctorRepositoryJSON(usernames);
+        AppointmentRepositoryJSON appointments = new AppointmentRepositoryJSON(patients, doctors);
+
+        List<Doctor> doctorList = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Doctor doctor = new Doctor();
+            doctor.setUsername("stress-doc-" + i);
+            doctor.setDocumentNumber("D" + i);
+            doctors.add(doctor);
+            doctorList.add(doctor);
+        }
+
+        Map<String, String> addedPatients = new ConcurrentHashMap<>(); // id -> username
+        Map<String, Boolean> addedAppointments = new ConcurrentHashMap<>();
+        AtomicLong operations = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            workers.add(Thread.ofPlatform().name("stress-" + t).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long sequence = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    try {
+                        int choice = random.nextInt(100);
+                        if (choice < 10) {
+                            String username = "stress-" + worker + "-" + sequence++;
+                            Patient patient = new Patient(username, "3100000000", "x", "Paciente", username,
+                                    LocalDate.of(1990, 1, 1));
+                            if (patients.add(patient)) {
+                                addedPatients.put(patient.getId(), username);
+                            }
+                        } else if (choice < 25) {
+                            List<Patient> all = patients.listAll();
+                            if (!all.isEmpty()) {
+                                Patient patient = all.get(random.nextInt(all.size()));
+                                Appointment appointment = new Appointment(
+                                        LocalDateTime.of(2030, 1, 1, 8, 0).plusMinutes(15L * random.nextInt(100_000)),
+                                        Duration.ofMinutes(30), patient, doctorList.get(random.nextInt(doctorList.size())));
+                                appointment.setStatus(AppointmentStatus.PROGRAMADA);
+                                if (appointments.add(appointment)) {
+                                    addedAppointments.put(appointment.getId(), true);
+                                }
+                            }
+                        } else if (choice < 40) {
+                            List<Appointment> all = appointments.searchByDoctor(
+                                    doctorList.get(random.nextInt(doctorList.size())).getId());
+                            if (!all.isEmpty()) {
+                                appointments.updateState(all.get(random.nextInt(all.size())).getId(),
+                                        STATUSES[random.nextInt(STATUSES.length)]);
+                            }
+                        } else if (choice < 60) {
+                            appointments.searchByDoctorAndStatus(doctorList.get(random.nextInt(doctorList.size())).getId(),
+                                    STATUSES[random.nextInt(STATUSES.length)]).size();
+                        } else if (choice < 75) {
+                            patients.searchByUsername("stress-" + random.nextInt(threads) + "-" + random.nextInt(1000));
+                        } else if (choice < 85) {
+                            appointments.listAll().size();
+                        } else if (choice < 95) {
+                            patients.getAll().forEach(User::getUsername);
+                        } else {
+                            appointments.searchByDate(LocalDate.of(2030, 1, 1).plusDays(random.nextInt(1000))).size();
+                        }
+                        operations.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        if (failures.incrementAndGet() <= 5) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        System.out.printf("hilos=%d segundos=%d operaciones=%d fallos=%d pacientes=%d citas=%d%n",
+                threads, seconds, operations.get(), failures.get(), addedPatients.size(), addedAppointments.size());
+
+        List<String> violations = new ArrayList<>();
+        if (failures.get() > 0) {
+            violations.add(failures.get() + " operaciones lanzaron excepción");
+        }
+        checkState(patients, appointments, doctorList, addedPatients, addedAppointments, violations, "memoria");
+
+        patients.flush();
+        doctors.flush();
+        appointments.flush();
+        UsernameDirectory reloadedUsernames = new UsernameDirectory();
+        PatientRepositoryJSON reloadedPatients = new PatientRepositoryJSON(reloadedUsernames);
+        DoctorRepositoryJSON reloadedDoctors = new DoctorRepositoryJSON(reloadedUsernames);
+        AppointmentRepositoryJSON reloadedAppointments = new AppointmentRepositoryJSON(reloadedPatients, reloadedDoctors);
+        checkState(reloadedPatients, reloadedAppointments, doctorList, addedPatients, addedAppointments, violations, "disco");
+        Map<String, AppointmentStatus> expected = statuses(appointments.listAll());
+        if (!expected.equals(statuses(reloadedAppointments.listAll()))) {
+            violations.add("disco: los estados de las citas no coinciden con los de memoria");
+        }
+
+        if (args.length <= 2) {
+            deleteRecursively(directory);
+        }
+        if (violations.isEmpty()) {
+            System.out.println("Invariantes OK");
+        } else {
+            violations.forEach(v -> System.out.println("FALLA: " + v));
+            System.exit(1);
+        }
+    }
+
+    private static void checkState(PatientRepositoryJSON patients, AppointmentRepositoryJSON appointments,
+            List<Doctor> doctors, Map<String, String> addedPatients, Map<String, Boolean> addedAppointments,
+            List<String> violations, String label) {
+        if (patients.getAll().size() != addedPatients.size()) {
+            violations.add(label + ": " + patients.getAll().size() + " pacientes, se agregaron " + addedPatients.size());
+        }
+        for (Map.Entry<String, String> added : addedPatients.entrySet()) {
+            Optional<User> byUsername = patients.searchByUsername(added.getValue());
+            if (patients.searchById(added.getKey()).isEmpty()
+                    || byUsername.isEmpty() || !byUsername.get().getId().equals(added.getKey())) {
+                violations.add(label + ": paciente " + added.getValue() + " no se encuentra por id o username");
+            }
+        }
+        List<Appointment> all = appointments.listAll();
+        if (all.size() != addedAppointments.size()) {
+            violations.add(label + ": " + all.size() + " citas, se agregaron " + addedAppointments.size());
+        }
+        int indexed = 0;
+        for (Doctor doctor : doctors) {
+            for (AppointmentStatus status : STATUSES) {
+                for (Appointment appointment : appointments.searchByDoctorAndStatus(doctor.getId(), status)) {
+                    indexed++;
+                    if (appointment.getStatus() != status || !doctor.getId().equals(appointment.getDoctorId())) {
+                        violations.add(label + ": la cita " + appointment.getId() + " está en un índice que no le corresponde");
+                    }
+                }
+            }
+        }
+        if (indexed != all.size()) {
+            violations.add(label + ": el índice doctor/estado tiene " + indexed + " citas de " + all.size());
+        }
+    }
+
+    private static Map<String, AppointmentStatus> statuses(List<Appointment> appointments) {
+        Map<String, AppointmentStatus> statuses = new HashMap<>();
+        for (Appointment appointment : appointments) {
+            statuses.put(appointment.getId(), appointment.getStatus());
+        }
+        return statuses;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Interfaces.IAppointmentService;
+import com.mycompany.Interfaces.IConsultationService;
+import com.mycompany.Interfaces.ICredentialVerifier;
+import com.mycompany.Interfaces.IDoctorService;
+import com.mycompany.Interfaces.IPatientService;
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.Patient;
+import com.mycompany.Persistance.RemoteService;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga de un {@code ClinicalServer} en ejecución: muchos clientes simultáneos
+ * (un hilo virtual cada uno, como muchas aplicaciones de escritorio abiertas) inician
+ * sesión, consultan agendas e historiales paginados y cambian estados de citas a
+ * través de los servicios publicados, con {@link RemoteService}. Los inicios de
+ * sesión usan una contraseña incorrecta, que cuesta lo mismo que una correcta.
+ *
+ * <p>
+ * Informa las operaciones por segundo y la latencia de cada llamada (p50, p99 y
+ * máxima). Sale con código 1 si alguna llamada falló.
+ * </p>
+ *
+ * <pre>
+ * java --enable-preview -cp target/benchmarks.jar com.mycompany.clinicalsystem.ClinicalServer
+ * java -cp target/benchmarks.jar com.mycompany.benchmarks.ServerLoadHarness [url] [clientes] [segundos]
+ * </pre>
+ */
+public final class ServerLoadHarness {
+
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+
+    /**
+     * Latencias guardadas por cliente; las siguientes se descartan.
+     */
+    private static final int SAMPLES_PER_CLIENT = 100_000;
+
+    private ServerLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI server = URI.create(args.length > 0 ? args[0] : "http://127.0.0.1:8085");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        ICredentialVerifier authentication = RemoteService.connect(server, "authentication",
+                ICredentialVerifier.class);
+        IPatientService patients = RemoteService.connect(server, "patients", IPatientService.class);
+        IDoctorService doctors = RemoteService.connect(server, "doctors", IDoctorService.class);
+        IAppointmentService appointments = RemoteService.connect(server, "appointments",
+                IAppointmentService.class);
+        IConsultationService consultations = RemoteService.connect(server, "consultations",
+                IConsultationService.class);
+
+        List<Patient> patientList = patients.listAllPatients();
+        List<Doctor> doctorList = doctors.listAllDoctors();
+        if (patientList.isEmpty() || doctorList.isEmpty()) {
+            System.out.println("El servidor no tiene pacientes o doctores");
+            System.exit(1);
+        }
+
+        AtomicLong operations = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            latencies[c] = new long[SAMPLES_PER_CLIENT];
+            workers.add(Thread.ofVirtual().name("client-" + c).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    long begin = System.nanoTime();
+                    try {
+                        Patient patient = patientList.get(random.nextInt(patientList.size()));
+                        Doctor doctor = doctorList.get(random.nextInt(doctorList.size()));
+                        AppointmentStatus status = STATUSES[random.nextInt(STATUSES.length)];
+                        int choice = random.nextInt(100);
+                        if (choice < 2) {
+                            authentication.authenticate(patient.getUsername(), "contraseña incorrecta");
+                        } else if (choice < 45) {
+                            appointments.countAppointmentsByDoctor(doctor.getId(), status);
+                            appointments.getAppointmentsByDoctor(doctor.getId(), status, 0, 50);
+                        } else if (choice < 65) {
+                            appointments.getAppointmentsByPatient(patient.getId(), status, 0, 50);
+                        } else if (choice < 85) {
+                            consultations.countConsultHistoryForPatient(patient.getId());
+                            consultations.getConsultHistoryForPatient(patient.getId(), 0, 50);
+                        } else if (choice < 95) {
+                            patients.searchById(patient.getId());
+                        } else {
+                            List<Appointment> page = appointments.getAppointmentsByDoctor(doctor.getId(),
+                                    AppointmentStatus.PROGRAMADA, 0, 10);
+                            if (!page.isEmpty()) {
+                                appointments.updateAppointmentStatus(page.get(random.nextInt(page.size())).getId(),
+                                        AppointmentStatus.PROGRAMADA);
+                            }
+                        }
+                        operations.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        if (failures.incrementAndGet() <= 5) {
+                            e.printStackTrace();
+                        }
+                    }
+                    if (counts[client] < SAMPLES_PER_CLIENT) {
+                        latencies[client][counts[client]++] = System.nanoTime() - begin;
+                    }
+                }
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int position = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, position, counts[c]);
+            position += counts[c];
+        }
+        Arrays.sort(all);
+        System.out.printf("clientes=%d segundos=%d operaciones=%d (%.0f/s) fallos=%d%n",
+                clients, seconds, operations.get(), operations.get() / elapsed, failures.get());
+        if (total > 0) {
+            System.out.printf("latencia p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                    all[total / 2] / 1e6, all[(int) (total * 0.99)] / 1e6, all[total - 1] / 1e6);
+        }
+        if (failures.get() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Models.Consultation;
+import com.mycompany.Models.Patient;
+import com.mycompany.Models.User;
+import com.mycompany.Services.AppointmentService;
+import com.mycompany.Services.AuthenticationService;
+import com.mycompany.Services.ConsultationService;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide las operaciones de servicio más usadas desde las ventanas, sobre los
+ * repositorios de {@link RepositoryState}: agendar una cita (con la validación de
+ * disponibilidad del doctor), iniciar sesión y consultar el historial de un paciente.
+ *
+ * <p>
+ * Las contraseñas usan un costo de PBKDF2 bajo para que el inicio de sesión mida la
+ * búsqueda del usuario y no el hash; {@link LoginBenchmark} mide el costo real.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar ServiceBenchmark -p size=10000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private AppointmentService appointmentService;
+    private AuthenticationService authenticationService;
+    private ConsultationService consultationService;
+
+    /**
+     * Se repite en cada iteración porque {@link RepositoryState} crea repositorios nuevos.
+     */
+    @Setup(Level.Iteration)
+    public void setUp(RepositoryState state) {
+        appointmentService = new AppointmentService(state.appointments);
+        authenticationService = new AuthenticationService(state.authenticableRepositories(), state.usernames,
+                RepositoryState.HASHER);
+        consultationService = new ConsultationService(state.consultations);
+    }
+
+    @Benchmark
+    public boolean scheduleAppointment(RepositoryState state) {
+        if (!appointmentService.scheduleAppointment(state.newAppointment())) {
+            throw new IllegalStateException("La cita debía agendarse");
+        }
+        return true;
+    }
+
+    @Benchmark
+    public Optional<User> login(RepositoryState state) {
+        Patient patient = state.randomPatient();
+        Optional<User> user = authenticationService.login(patient.getUsername(), SyntheticData.PASSWORD);
+        if (user.isEmpty()) {
+            throw new IllegalStateException("La autenticación debía ser exitosa");
+        }
+        return user;
+    }
+
+    @Benchmark
+    public List<Consultation> getConsultHistoryForPatient(RepositoryState state) {
+        return consultationService.getConsultHistoryForPatient(state.randomPatient().getId());
+    }
+}
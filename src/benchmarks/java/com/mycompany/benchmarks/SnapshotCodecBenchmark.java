@@ -0,0 +1,103 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.Patient;
+import com.mycompany.Models.Specialty;
+import com.mycompany.Models.SpecialtyName;
+import com.mycompany.Persistance.JsonStore;
+import com.mycompany.Persistance.LoadProgressListener;
+import com.mycompany.Persistance.SnapshotCodec;
+import com.mycompany.Persistance.SnapshotFormat;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compara el tamaño de archivo y el rendimiento de escritura y lectura de la instantánea
+ * de citas en JSON legible (formato actual) y en el formato binario compacto.
+ *
+ * <p>
+ * El tamaño del archivo de cada formato se imprime al preparar el estado.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotCodecBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    public SnapshotFormat format;
+
+    @Param({"100000"})
+    public int size;
+
+    private SnapshotCodec<Appointment> codec;
+    private List<Appointment> appointments;
+    private Path loadFile;
+    private Path saveFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        Specialty specialty = new Specialty(SpecialtyName.GENERAL);
+        Doctor[] doctors = new Doctor[50];
+        for (int i = 0; i < doctors.length; i++) {
+            doctors[i] = new Doctor("doc" + i, "3000000000", "secret", "Doctor " + i, String.valueOf(i), specialty);
+        }
+        Patient[] patients = new Patient[5000];
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = new Patient("pat" + i, "3100000000", "secret", "Paciente " + i,
+                    String.valueOf(1_000_000_000L + i), LocalDate.of(1990, 1, 1));
+        }
+        AppointmentStatus[] statuses = AppointmentStatus.values();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 6, 8, 0);
+        appointments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Appointment appointment = new Appointment(base.plusMinutes(15L * i), Duration.ofMinutes(30),
+                    patients[i % patients.length], doctors[i % doctors.length]);
+            appointment.setStatus(statuses[i % statuses.length]);
+            appointments.add(appointment);
+        }
+
+        Path directory = Files.createTempDirectory("clinical-codec");
+        codec = format.codec(new JsonStore(), Appointment.class);
+        loadFile = directory.resolve("load" + format.extension());
+        saveFile = directory.resolve("save" + format.extension());
+        codec.write(loadFile, appointments);
+        System.out.printf("%n[%s] %d citas: %d bytes%n", format, size, Files.size(loadFile));
+    }
+
+    @Benchmark
+    public Path save() {
+        codec.write(saveFile, appointments);
+        return saveFile;
+    }
+
+    @Benchmark
+    public List<Appointment> load() {
+        List<Appointment> loaded = new ArrayList<>(size);
+        codec.read(loadFile, loaded::add, LoadProgressListener.NONE);
+        return loaded;
+    }
+}
@@ -0,0 +1,56 @@
+package com.mycompany.benchmarks;
+
+import com.mycompany.Models.Specialty;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cada operación de {@code ISpecialtyRepository} sobre
+ * {@code SpecialtyRepositoryJSON} y {@code SpecialtyRepositoryMemory}. Hay una
+ * especialidad por cada {@code SpecialtyName}: el tamaño del conjunto de datos no cambia
+ * el de este repositorio, así que basta con el más pequeño.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar SpecialtyRepositoryBenchmark -p size=1000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecialtyRepositoryBenchmark {
+
+    @Benchmark
+    public boolean add(RepositoryState state) {
+        return state.specialties.add(new Specialty(state.randomSpecialty().getSpecialtyName()));
+    }
+
+    @Benchmark
+    public boolean update(RepositoryState state) {
+        return state.specialties.update(state.randomSpecialty());
+    }
+
+    @Benchmark
+    public Optional<Specialty> searchByName(RepositoryState state) {
+        return state.specialties.searchByName(state.randomSpecialty().getSpecialtyName());
+    }
+
+    @Benchmark
+    public Optional<Specialty> searchById(RepositoryState state) {
+        return state.specialties.searchById(state.randomSpecialty().getId());
+    }
+
+    @Benchmark
+    public List<Specialty> listAll(RepositoryState state) {
+        return state.specialties.listAll();
+    }
+}
@@ -0,0 +1,141 @@
+package com.mycompany.benchmarks;
+
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import com.mycompany.Persistance.AppointmentRepositoryJSON;
+import com.mycompany.Persistance.DoctorRepositoryJSON;
+import com.mycompany.Persistance.JsonRepository;
+import com.mycompany.Persistance.JsonStore;
+import com.mycompany.Persistance.LoadProgressListener;
+import com.mycompany.Persistance.PatientRepositoryJSON;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mide el tiempo y el pico de heap de la carga de {@code appointments.json}, que es lo
+ * que ocurre antes de mostrar la ventana de login.
+ *
+ * <p>
+ * Cada modo debe ejecutarse en una JVM nueva para que el pico de heap sea comparable:
+ * <pre>
+ * java -Xmx4g -cp target/benchmarks.jar com.mycompany.benchmarks.StartupLoadProbe tree   500 /tmp/clinical-500mb
+ * java -Xmx4g -cp target/benchmarks.jar com.mycompany.benchmarks.StartupLoadProbe stream 500 /tmp/clinical-500mb
+ * </pre>
+ * El modo {@code tree} reproduce la carga anterior ({@code readFromFile} de la lista
+ * completa seguido de la construcción del índice por id); el modo {@code stream} hace lo
+ * mismo con {@code readArray}, elemento por elemento; el modo {@code repository} construye
+ * el repositorio completo, incluidos sus índices secundarios. El archivo de citas se
+ * genera en el directorio indicado si todavía no existe.
+ * </p>
+ */
+public final class StartupLoadProbe {
+
+    private StartupLoadProbe() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "stream";
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        Path directory = Paths.get(args.length > 2 ? args[2] : "target/startup-probe-" + megabytes + "mb");
+        Path file = directory.resolve("appointments.json");
+        if (!Files.exists(file)) {
+            generate(file, megabytes * 1024L * 1024L);
+        }
+        System.setProperty(JsonRepository.DATA_DIR_PROPERTY, directory.toString());
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        long start = System.nanoTime();
+        int records;
+        switch (mode) {
+            case "tree" -> {
+                List<Appointment> loaded = new JsonStore().readFromFile(file.toString(),
+                        new TypeToken<List<Appointment>>() { }.getType(), new ArrayList<>());
+                Map<String, Integer> index = new HashMap<>();
+                for (int i = 0; i < loaded.size(); i++) {
+                    index.put(loaded.get(i).getId(), i);
+                }
+                records = index.size();
+            }
+            case "stream" -> {
+                List<Appointment> loaded = new ArrayList<>();
+                Map<String, Integer> index = new HashMap<>();
+                new JsonStore().<Appointment>readArray(file.toString(), Appointment.class, loaded::add,
+                        LoadProgressListener.NONE);
+                for (int i = 0; i < loaded.size(); i++) {
+                    index.put(loaded.get(i).getId(), i);
+                }
+                records = index.size();
+            }
+            default -> records = new AppointmentRepositoryJSON(new PatientRepositoryJSON(), new DoctorRepositoryJSON())
+                    .getAll().size();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        System.out.printf("modo=%s archivo=%d MB registros=%d tiempo=%d ms picoHeap=%d MB%n",
+                mode, Files.size(file) / (1024 * 1024), records, elapsedMillis, peak / (1024 * 1024));
+    }
+
+    /**
+     * Escribe un arreglo de citas con formato de {@link JsonStore} hasta alcanzar el tamaño pedido.
+     */
+    private static void generate(Path file, long targetBytes) throws IOException {
+        Files.createDirectories(file.getParent());
+        String[] doctors = new String[50];
+        String[] patients = new String[5000];
+        for (int i = 0; i < doctors.length; i++) {
+            doctors[i] = UUID.randomUUID().toString();
+        }
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = UUID.randomUUID().toString();
+        }
+        AppointmentStatus[] statuses = AppointmentStatus.values();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 6, 8, 0);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                JsonWriter json = new JsonWriter(out)) {
+            json.setIndent("  ");
+            json.beginArray();
+            long i = 0;
+            while (Files.size(file) < targetBytes) {
+                for (int j = 0; j < 10_000; j++, i++) {
+                    json.beginObject();
+                    json.name("id").value(UUID.randomUUID().toString());
+                    json.name("scheduledAt").value(base.plusMinutes(15 * i).toString());
+                    json.name("duration").value("PT30M");
+                    json.name("status").value(statuses[(int) (i % statuses.length)].name());
+                    json.name("patientId").value(patients[(int) (i % patients.length)]);
+                    json.name("doctorId").value(doctors[(int) (i % doctors.length)]);
+                    json.endObject();
+                }
+                json.flush();
+            }
+            json.endArray();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.mycompany.benchmarks;
+
+import com.google.gson.JsonObject;
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import com.mycompany.Models.Consultation;
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.Patient;
+import com.mycompany.Models.Specialty;
+import com.mycompany.Models.SpecialtyName;
+import com.mycompany.Persistance.JsonStore;
+import com.mycompany.Services.PasswordHasher;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generador de datos sintéticos con forma realista: nombres y documentos colombianos,
+ * doctores de todas las especialidades, agendas de lunes a viernes sin citas
+ * solapadas, pasadas (en su mayoría completadas) y futuras (en su mayoría programadas),
+ * y una consulta por casi cada cita completada, registrada al terminar la cita.
+ *
+ * <p>
+ * Con la misma semilla y la misma fecha de referencia genera los mismos datos, salvo
+ * los ids, que son UUID aleatorios como en la aplicación. Por cada paciente hay cinco
+ * citas y por cada 200 pacientes un doctor.
+ * </p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.mycompany.benchmarks.SyntheticData [pacientes] [directorio] [semilla]
+ * </pre>
+ * escribe los cinco archivos JSON en el directorio (por defecto {@code data}); todos los
+ * usuarios tienen la contraseña {@value #PASSWORD}.
+ */
+public final class SyntheticData {
+
+    /**
+     * Contraseña de todos los usuarios generados.
+     */
+    public static final String PASSWORD = "clave123";
+
+    static final int APPOINTMENTS_PER_PATIENT = 5;
+    static final int PATIENTS_PER_DOCTOR = 200;
+    static final Duration SLOT = Duration.ofMinutes(30);
+    static final LocalTime FIRST_SLOT = LocalTime.of(8, 0);
+    static final int SLOTS_PER_DAY = 18; // 8:00 a 17:00
+
+    /**
+     * Fracción de los turnos de la agenda que quedan ocupados.
+     */
+    static final double OCCUPANCY = 0.6;
+
+    /**
+     * Fracción de las citas de cada doctor que ya ocurrieron.
+     */
+    static final double PAST_FRACTION = 0.7;
+
+    static final String[] FIRST_NAMES = {
+        "Juan", "María", "Camila", "Andrés", "Laura", "Santiago", "Valentina", "Sebastián", "Daniela",
+        "Alejandro", "Sofía", "Mateo", "Isabella", "Nicolás", "Mariana", "Felipe", "Gabriela", "David",
+        "Natalia", "Carlos", "Paula", "Jorge", "Ana", "Luis", "Catalina", "Diego", "Juliana", "Miguel",
+        "Carolina", "Javier", "Manuela", "Ricardo", "Lucía", "Esteban", "Sara", "Tomás", "Jésica", "Pedro"
+    };
+
+    static final String[] LAST_NAMES = {
+        "Rodríguez", "Gómez", "González", "Martínez", "García", "López", "Hernández", "Sánchez", "Ramírez",
+        "Pérez", "Díaz", "Muñoz", "Rojas", "Moreno", "Jiménez", "Vargas", "Castro", "Gutiérrez", "Torres",
+        "Ortiz", "Ruiz", "Álvarez", "Restrepo", "Galeano", "Quiñones", "Estor", "Arango", "Escobar",
+        "Ospina", "Zapata", "Cardona", "Londoño", "Mejía", "Herrera", "Valencia", "Chica", "Osorio"
+    };
+
+    static final String[] DIAGNOSES = {
+        "Hipertensión arterial controlada", "Infección respiratoria aguda", "Gastritis crónica",
+        "Control prenatal sin hallazgos", "Diabetes mellitus tipo 2", "Lumbalgia mecánica",
+        "Migraña sin aura", "Rinitis alérgica", "Dermatitis de contacto", "Chequeo general normal",
+        "Arritmia sinusal benigna", "Faringoamigdalitis", "Ansiedad generalizada", "Hipotiroidismo"
+    };
+
+    static final String[] TREATMENTS = {
+        "Continuar medicación actual y control en 3 meses", "Acetaminofén 500 mg cada 8 horas por 5 días",
+        "Dieta baja en sal y actividad física", "Omeprazol 20 mg en ayunas por 30 días",
+        "Metformina 850 mg con el almuerzo", "Terapia física, 10 sesiones", "Loratadina 10 mg al día",
+        "Hidratación y reposo por 3 días", "Exámenes de laboratorio y revisión en 1 mes",
+        "Levotiroxina 50 mcg en ayunas", "Sin tratamiento; control anual"
+    };
+
+    /**
+     * Datos generados, con las referencias entre entidades ya asignadas.
+     */
+    public record Dataset(List<Specialty> specialties, List<Doctor> doctors, List<Patient> patients,
+            List<Appointment> appointments, List<Consultation> consultations) {
+
+        /**
+         * Escribe los cinco archivos de datos en el formato de la aplicación.
+         *
+         * @param directory directorio de datos; se crea si no existe
+         */
+        public void writeTo(Path directory) {
+            JsonStore store = new JsonStore();
+            store.writeToFile(directory.resolve("specialties.json").toString(), specialties);
+            store.writeToFile(directory.resolve("doctors.json").toString(), doctors);
+            store.writeToFile(directory.resolve("patients.json").toString(), patients);
+            store.writeToFile(directory.resolve("appointments.json").toString(), appointments);
+            store.writeToFile(directory.resolve("consultations.json").toString(), consultations);
+        }
+    }
+
+    private SyntheticData() {
+    }
+
+    public static void main(String[] args) {
+        int patients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Path directory = Paths.get(args.length > 1 ? args[1] : "data");
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        Dataset dataset = generate(patients, new PasswordHasher().hash(PASSWORD), seed, LocalDate.now());
+        dataset.writeTo(directory);
+        System.out.printf("%d especialidades, %d doctores, %d pacientes, %d citas, %d consultas en %s%n",
+                dataset.specialties().size(), dataset.doctors().size(), dataset.patients().size(),
+                dataset.appointments().size(), dataset.consultations().size(), directory);
+    }
+
+    /**
+     * Genera un conjunto de datos completo en memoria.
+     *
+     * @param patients        cantidad de pacientes; determina la de doctores y citas
+     * @param encodedPassword contraseña ya codificada que reciben todos los usuarios
+     * @param seed            semilla del generador
+     * @param today           fecha que separa las citas pasadas de las futuras
+     * @return datos generados
+     */
+    public static Dataset generate(int patients, String encodedPassword, long seed, LocalDate today) {
+        Random random = new Random(seed);
+        List<Specialty> specialties = new ArrayList<>();
+        for (SpecialtyName name : SpecialtyName.values()) {
+            specialties.add(new Specialty(name));
+        }
+
+        List<Doctor> doctors = new ArrayList<>();
+        int doctorCount = Math.max(specialties.size(), patients / PATIENTS_PER_DOCTOR);
+        for (int i = 0; i < doctorCount; i++) {
+            doctors.add(doctor(random, i, encodedPassword, specialties.get(i % specialties.size())));
+        }
+
+        List<Patient> patientList = new ArrayList<>(patients);
+        for (int i = 0; i < patients; i++) {
+            patientList.add(patient(random, i, encodedPassword, today));
+        }
+
+        JsonStore store = new JsonStore();
+        List<Appointment> appointments = new ArrayList<>(patients * APPOINTMENTS_PER_PATIENT);
+        List<Consultation> consultations = new ArrayList<>();
+        int perDoctor = Math.max(1, patients * APPOINTMENTS_PER_PATIENT / doctorCount);
+        for (Doctor doctor : doctors) {
+            LocalDate day = firstDay(today, perDoctor);
+            int slot = 0;
+            for (int made = 0; made < perDoctor && !patientList.isEmpty(); slot++) {
+                if (slot == SLOTS_PER_DAY) {
+                    slot = 0;
+                    day = nextWorkingDay(day);
+                }
+                if (random.nextDouble() >= OCCUPANCY) {
+                    continue;
+                }
+                LocalDateTime start = day.atTime(FIRST_SLOT).plus(SLOT.multipliedBy(slot));
+                Patient patient = patientList.get(random.nextInt(patientList.size()));
+                Appointment appointment = new Appointment(start, SLOT, patient, doctor);
+                appointment.setStatus(status(random, !day.isBefore(today)));
+                appointments.add(appointment);
+                made++;
+                if (appointment.getStatus() == AppointmentStatus.COMPLETADA && random.nextInt(10) < 9) {
+                    consultations.add(consultation(store, random, appointment));
+                }
+            }
+        }
+        return new Dataset(specialties, doctors, patientList, appointments, consultations);
+    }
+
+    static Doctor doctor(Random random, int index, String encodedPassword, Specialty specialty) {
+        String first = pick(random, FIRST_NAMES);
+        String last = pick(random, LAST_NAMES);
+        return new Doctor("dr" + ascii(last) + index, phone(random), encodedPassword,
+                first + " " + last + " " + pick(random, LAST_NAMES), String.valueOf(79_000_000L + index), specialty);
+    }
+
+    static Patient patient(Random random, int index, String encodedPassword, LocalDate today) {
+        String first = pick(random, FIRST_NAMES);
+        String last = pick(random, LAST_NAMES);
+        // Edades entre 0 y 89 años
+        LocalDate birth = today.minusDays(random.nextInt(90 * 365));
+        return new Patient(ascii(first) + "." + ascii(last) + index, phone(random), encodedPassword,
+                first + " " + last + " " + pick(random, LAST_NAMES), String.valueOf(1_000_000_000L + index), birth);
+    }
+
+    /**
+     * Estado según si la cita ya ocurrió: las pasadas casi siempre se completaron o se
+     * cancelaron; algunas quedaron programadas porque nadie las cerró.
+     */
+    static AppointmentStatus status(Random random, boolean future) {
+        int roll = random.nextInt(100);
+        if (future) {
+            return roll < 90 ? AppointmentStatus.PROGRAMADA : AppointmentStatus.CANCELADA;
+        }
+        return roll < 80 ? AppointmentStatus.COMPLETADA
+                : roll < 95 ? AppointmentStatus.CANCELADA : AppointmentStatus.PROGRAMADA;
+    }
+
+    /**
+     * Consulta de una cita completada, registrada cuando terminó la cita. La fecha de
+     * registro no tiene setter, así que se asigna en el árbol JSON.
+     */
+    static Consultation consultation(JsonStore store, Random random, Appointment appointment) {
+        Consultation consultation = new Consultation(appointment, pick(random, DIAGNOSES), pick(random, TREATMENTS));
+        JsonObject tree = store.toJsonTree(consultation).getAsJsonObject();
+        tree.add("registrationDate", store.toJsonTree(appointment.getScheduledAt().plus(appointment.getDuration())));
+        Consultation registered = store.fromJsonTree(tree, Consultation.class);
+        registered.setAppointment(appointment);
+        return registered;
+    }
+
+    /**
+     * Primer día de la agenda, de modo que {@link #PAST_FRACTION} de las citas queden
+     * antes de {@code today}.
+     */
+    static LocalDate firstDay(LocalDate today, int appointments) {
+        double perDay = SLOTS_PER_DAY * OCCUPANCY;
+        long workingDays = (long) Math.ceil(appointments * PAST_FRACTION / perDay);
+        LocalDate day = today.minusDays(workingDays * 7 / 5);
+        while (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            day = day.plusDays(1);
+        }
+        return day;
+    }
+
+    static LocalDate nextWorkingDay(LocalDate day) {
+        do {
+            day = day.plusDays(1);
+        } while (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY);
+        return day;
+    }
+
+    static String phone(Random random) {
+        return "3" + (10 + random.nextInt(41)) + String.format("%07d", random.nextInt(10_000_000));
+    }
+
+    static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Versión en minúsculas y sin tildes, para los usernames.
+     */
+    static String ascii(String name) {
+        return Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "").toLowerCase();
+    }
+}
@@ -6,8 +6,12 @@ package com.mycompany.Interfaces;
 
 import com.mycompany.Models.Appointment;
 import com.mycompany.Models.AppointmentStatus;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  *
@@ -16,13 +20,91 @@ import java.util.Optional;
 public interface IAppointmentRepository {
     public boolean add(Appointment appointment);
     
+    /*
+      Agrega la cita solo si el doctor no tiene otra cita programada que se solape con
+      ella, comprobándolo contra los datos más recientes (incluidas las citas que
+      agregaron otras instancias). Las implementaciones que no comparten datos con otras
+      instancias pueden limitarse a agregarla: el servicio ya comprobó el solapamiento.
+    
+      @return true si se agregó; false si se solapa o no se pudo agregar.
+     */
+    public default boolean addIfDoctorFree(Appointment appointment) {
+        return add(appointment);
+    }
+
+    /*
+      Actualiza el estado de una cita; si el estado nuevo es PROGRAMADA, solo lo hace
+      si el doctor no tiene otra cita programada que se solape, comprobado contra los
+      datos compartidos. Por defecto solo actualiza el estado.
+     */
+    public default boolean updateStateIfDoctorFree(String appointmentID, AppointmentStatus newStatus) {
+        return updateState(appointmentID, newStatus);
+    }
+    
     public boolean updateState(String appointmentID, AppointmentStatus newState);
     
+    /*
+      Cambia el estado de varias citas en una sola pasada y con una sola escritura.
+    
+      @return el resultado de cada id, en el orden recibido (false si no se encontró).
+     */
+    public Map<String, Boolean> updateStates(Collection<String> appointmentIDs, AppointmentStatus newState);
+    
+    /*
+      Cancela todas las citas programadas de un doctor con una sola escritura.
+    
+      @return el resultado de cada cita cancelada, por id.
+     */
+    public Map<String, Boolean> cancelAllForDoctor(String doctorId);
+    
     public Optional<Appointment> searchById(String id);
     
     public List<Appointment> searchByPatient(String patientId);
     
     public List<Appointment> searchByDoctor(String doctorId);
     
+    public List<Appointment> searchByDoctorAndStatus(String doctorId, AppointmentStatus status);
+    
+    public List<Appointment> searchByPatientAndStatus(String patientId, AppointmentStatus status);
+    
+    public int countByDoctorAndStatus(String doctorId, AppointmentStatus status);
+    
+    /*
+      Devuelve una página de las citas de un doctor con un estado, ordenadas por fecha
+      programada.
+    
+      @return las citas de la página; vacía si no hay más.
+     */
+    public List<Appointment> searchByDoctorAndStatus(String doctorId, AppointmentStatus status, PageRequest page);
+    
+    public int countByPatientAndStatus(String patientId, AppointmentStatus status);
+    
+    /*
+      Devuelve una página de las citas de un paciente con un estado, ordenadas por fecha
+      programada.
+    
+      @return las citas de la página; vacía si no hay más.
+     */
+    public List<Appointment> searchByPatientAndStatus(String patientId, AppointmentStatus status, PageRequest page);
+    
+    public List<Appointment> searchByDate(LocalDate date);
+    
     public List<Appointment> listAll();
+    
+    /*
+      Registra una acción que se ejecuta cuando los datos se recargan desde el disco
+      (por ejemplo, con lo que escribió otra instancia), para descartar cachés
+      construidas a partir del repositorio. Las implementaciones que no recargan no
+      hacen nada.
+     */
+    public default void addReloadListener(Runnable listener) {
+    }
+
+    /*
+      Registra una acción que recibe cada cita que otra instancia escribió, con su
+      estado nuevo, cuando el repositorio la aplica sin recargar todo. Las
+      implementaciones que no comparten sus datos no hacen nada.
+     */
+    public default void addChangeListener(Consumer<Appointment> listener) {
+    }
 }
@@ -0,0 +1,47 @@
+package com.mycompany.Interfaces;
+
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de negocio sobre citas que usa la interfaz gráfica. La implementación
+ * local es {@code AppointmentService}; en modo cliente, el mismo servicio corre en el
+ * servidor, de modo que la comprobación de solapamientos al agendar se hace allí para
+ * todos los clientes.
+ */
+public interface IAppointmentService {
+
+    public boolean scheduleAppointment(Appointment appointment);
+
+    public boolean updateAppointmentStatus(String id, AppointmentStatus status);
+
+    public Map<String, Boolean> updateStates(Collection<String> ids, AppointmentStatus status);
+
+    public Map<String, Boolean> cancelAllForDoctor(String doctorId);
+
+    public List<Appointment> getAppointmentsByDoctor(String id, AppointmentStatus status);
+
+    public List<Appointment> getAppointmentsByPatient(String id, AppointmentStatus status);
+
+    public int countAppointmentsByDoctor(String id, AppointmentStatus status);
+
+    public List<Appointment> getAppointmentsByDoctor(String id, AppointmentStatus status, int offset, int limit);
+
+    public int countAppointmentsByPatient(String id, AppointmentStatus status);
+
+    public List<Appointment> getAppointmentsByPatient(String id, AppointmentStatus status, int offset, int limit);
+
+    public boolean isDoctorAvailable(String doctorId, LocalDateTime start, Duration duration);
+
+    public List<LocalDateTime> getNextFreeSlots(String doctorId, LocalDateTime from, Duration duration, int count);
+
+    public List<LocalDateTime> getFreeSlotsOn(String doctorId, LocalDate day, Duration duration);
+
+    public List<Appointment> getAppointmentByDate(LocalDateTime date);
+}
@@ -14,4 +14,14 @@ import java.util.Optional;
 public interface IAuthenticableRepository {
 
     public Optional<User> searchByUsername(String username);
+
+    /**
+     * Reemplaza la contraseña guardada de un usuario (por ejemplo, al volver a
+     * codificarla después de un inicio de sesión) y persiste el cambio.
+     *
+     * @param userId id del usuario
+     * @param encodedPassword contraseña ya codificada
+     * @return true si el usuario existe y se actualizó.
+     */
+    public boolean updatePassword(String userId, String encodedPassword);
 }
@@ -20,6 +20,37 @@ public interface IConsultationRepository {
 
     public List<Consultation> searchByDoctor(String doctorID);
 
+    /**
+     * @param patientID id del paciente
+     * @return cantidad de consultas del paciente
+     */
+    public int countByPatient(String patientID);
+
+    /**
+     * Devuelve una página de las consultas de un paciente, ordenadas por fecha de
+     * registro.
+     *
+     * @param patientID id del paciente
+     * @param page      desplazamiento, tamaño y sentido de la página
+     * @return consultas de la página; vacía si no hay más
+     */
+    public List<Consultation> searchByPatient(String patientID, PageRequest page);
+
+    /**
+     * @param doctorID id del doctor
+     * @return cantidad de consultas del doctor
+     */
+    public int countByDoctor(String doctorID);
+
+    /**
+     * Devuelve una página de las consultas de un doctor, ordenadas por fecha de registro.
+     *
+     * @param doctorID id del doctor
+     * @param page     desplazamiento, tamaño y sentido de la página
+     * @return consultas de la página; vacía si no hay más
+     */
+    public List<Consultation> searchByDoctor(String doctorID, PageRequest page);
+
     public List<Consultation> listAll();
 
     public Optional<Consultation> searchByAppointment(String appointmentID);
@@ -0,0 +1,26 @@
+package com.mycompany.Interfaces;
+
+import com.mycompany.Models.Consultation;
+import java.util.List;
+
+/**
+ * Operaciones de negocio sobre consultas que usa la interfaz gráfica. La implementación
+ * local es {@code ConsultationService}; en modo cliente, el mismo servicio corre en el
+ * servidor y se usa a través de esta interfaz.
+ */
+public interface IConsultationService {
+
+    public boolean createConsultation(Consultation consultation);
+
+    public List<Consultation> getConsultHistoryForPatient(String patientID);
+
+    public List<Consultation> getConsultHistoryForDoctor(String doctorID);
+
+    public int countConsultHistoryForPatient(String patientID);
+
+    public List<Consultation> getConsultHistoryForPatient(String patientID, int offset, int limit);
+
+    public int countConsultHistoryForDoctor(String doctorID);
+
+    public List<Consultation> getConsultHistoryForDoctor(String doctorID, int offset, int limit);
+}
@@ -0,0 +1,20 @@
+package com.mycompany.Interfaces;
+
+import com.mycompany.Models.User;
+import java.util.Optional;
+
+/**
+ * Verificación de credenciales sin estado de sesión. Es lo único de la autenticación
+ * que se publica en el servidor: las contraseñas codificadas no salen de él y la sesión
+ * ({@link IAuthentication}) la lleva cada cliente.
+ */
+public interface ICredentialVerifier {
+
+    /*
+      Verifica las credenciales de un usuario activo.
+
+      @return el usuario, sin su contraseña si la respuesta viene del servidor; vacío
+      si las credenciales no son válidas.
+     */
+    public Optional<User> authenticate(String userName, String password);
+}
@@ -0,0 +1,32 @@
+package com.mycompany.Interfaces;
+
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.Specialty;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operaciones de negocio sobre doctores que usa la interfaz gráfica. La implementación
+ * local es {@code DoctorService}; en modo cliente, el mismo servicio corre en el
+ * servidor y se usa a través de esta interfaz.
+ */
+public interface IDoctorService {
+
+    public boolean registerDoctor(Doctor doctor);
+
+    public boolean removeDoctor(String id);
+
+    /*
+      Actualiza los datos de un doctor. Si la contraseña viene vacía se conserva la
+      guardada (los clientes remotos nunca la reciben).
+     */
+    public boolean updateDoctor(Doctor doctor);
+
+    public Optional<Doctor> searchById(String id);
+
+    public List<Doctor> listAllDoctors();
+
+    public boolean assignSpecialty(String id, Specialty specialty);
+
+    public List<Doctor> searchBySpecialty(Specialty specialty);
+}
@@ -0,0 +1,27 @@
+package com.mycompany.Interfaces;
+
+import com.mycompany.Models.Patient;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operaciones de negocio sobre pacientes que usa la interfaz gráfica. La implementación
+ * local es {@code PatientService}; en modo cliente, el mismo servicio corre en el
+ * servidor y se usa a través de esta interfaz.
+ */
+public interface IPatientService {
+
+    public boolean addPatient(Patient patient);
+
+    public boolean removePatient(String id);
+
+    /*
+      Actualiza los datos de un paciente. Si la contraseña viene vacía se conserva la
+      guardada (los clientes remotos nunca la reciben).
+     */
+    public boolean updatePatient(Patient patient);
+
+    public Optional<Patient> searchById(String id);
+
+    public List<Patient> listAllPatients();
+}
@@ -49,6 +49,15 @@ public interface ISpecialtyRepository {
      */
     Optional<Specialty> searchByName(SpecialtyName name);
 
+    /**
+     * Busca una especialidad según su identificador.
+     *
+     * @param id el identificador de la especialidad.
+     * @return un {@code Optional} que contiene la especialidad si fue
+     * encontrada, o vacío si no existe.
+     */
+    Optional<Specialty> searchById(String id);
+
     /**
      * Lista todas las especialidades almacenadas en el sistema.
      *
@@ -0,0 +1,19 @@
+package com.mycompany.Interfaces;
+
+import com.mycompany.Models.Specialty;
+import com.mycompany.Models.SpecialtyName;
+import java.util.List;
+
+/**
+ * Operaciones de negocio sobre especialidades que usa la interfaz gráfica. La
+ * implementación local es {@code SpecialtyService}; en modo cliente, el mismo servicio
+ * corre en el servidor y se usa a través de esta interfaz.
+ */
+public interface ISpecialtyService {
+
+    public boolean registerSpecialty(Specialty specialty);
+
+    public boolean updateSpecialty(String id, SpecialtyName name);
+
+    public List<Specialty> listAllSpecialties();
+}
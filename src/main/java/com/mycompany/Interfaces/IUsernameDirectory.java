@@ -0,0 +1,50 @@
+package com.mycompany.Interfaces;
+
+import com.mycompany.Models.User;
+import java.util.List;
+
+/**
+ * Directorio global de nombres de usuario: relaciona cada username (sin espacios al
+ * inicio ni al final) con el repositorio autenticable que lo contiene y con su usuario.
+ *
+ * <p>
+ * Los repositorios que lo mantienen lo actualizan al agregar, actualizar, eliminar
+ * lógicamente y recargar usuarios, de modo que el inicio de sesión y la validación de
+ * unicidad se resuelven con una sola búsqueda en lugar de recorrer cada repositorio.
+ * </p>
+ */
+public interface IUsernameDirectory {
+
+    /**
+     * Usuario registrado bajo un username.
+     *
+     * @param owner repositorio al que pertenece el usuario
+     * @param user  usuario, con su estado actual (incluido si está activo)
+     */
+    public record Entry(IAuthenticableRepository owner, User user) {
+
+        /**
+         * @return id del usuario
+         */
+        public String userId() {
+            return user.getId();
+        }
+    }
+
+    /**
+     * Busca los usuarios registrados con un username.
+     *
+     * @param username username a buscar; se ignoran los espacios al inicio y al final
+     * @return usuarios con ese username, en el orden en que se registraron; vacía si no hay
+     */
+    public List<Entry> lookup(String username);
+
+    /**
+     * Indica si el directorio se mantiene sincronizado con un repositorio, es decir, si
+     * {@link #lookup(String)} basta para conocer sus usuarios.
+     *
+     * @param repository repositorio a consultar
+     * @return {@code true} si el repositorio registra sus usuarios en este directorio
+     */
+    public boolean tracks(IAuthenticableRepository repository);
+}
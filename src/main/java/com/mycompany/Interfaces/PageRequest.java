@@ -0,0 +1,49 @@
+package com.mycompany.Interfaces;
+
+/**
+ * Página de resultados pedida a un repositorio: desde qué elemento, cuántos como máximo
+ * y en qué sentido del orden natural de la consulta (fecha de registro para las
+ * consultas médicas, fecha programada para las citas).
+ *
+ * @param offset      índice del primer elemento, empezando en 0
+ * @param limit       cantidad máxima de elementos
+ * @param newestFirst {@code true} para empezar por el más reciente
+ */
+public record PageRequest(int offset, int limit, boolean newestFirst) {
+
+    /**
+     * @throws IllegalArgumentException si {@code offset} es negativo o {@code limit} no es
+     *                                  positivo
+     */
+    public PageRequest {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Página inválida: offset=" + offset + ", limit=" + limit);
+        }
+    }
+
+    /**
+     * @param offset índice del primer elemento
+     * @param limit  cantidad máxima de elementos
+     * @return página ordenada del más reciente al más antiguo
+     */
+    public static PageRequest newestFirst(int offset, int limit) {
+        return new PageRequest(offset, limit, true);
+    }
+
+    /**
+     * @param offset índice del primer elemento
+     * @param limit  cantidad máxima de elementos
+     * @return página ordenada del más antiguo al más reciente
+     */
+    public static PageRequest oldestFirst(int offset, int limit) {
+        return new PageRequest(offset, limit, false);
+    }
+
+    /**
+     * @param newestFirst {@code true} para empezar por el más reciente
+     * @return página con todos los elementos, en el sentido indicado
+     */
+    public static PageRequest all(boolean newestFirst) {
+        return new PageRequest(0, Integer.MAX_VALUE, newestFirst);
+    }
+}
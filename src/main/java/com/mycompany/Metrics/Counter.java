@@ -0,0 +1,36 @@
+package com.mycompany.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador acumulado (por ejemplo, bytes escritos). Se obtiene con
+ * {@link MetricsRegistry#counter(String)}.
+ */
+public final class Counter implements CounterMXBean {
+
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getValue() {
+        return value.sum();
+    }
+
+    @Override
+    public void reset() {
+        value.reset();
+    }
+}
@@ -0,0 +1,13 @@
+package com.mycompany.Metrics;
+
+/**
+ * Vista JMX de un contador acumulado.
+ */
+public interface CounterMXBean {
+
+    String getName();
+
+    long getValue();
+
+    void reset();
+}
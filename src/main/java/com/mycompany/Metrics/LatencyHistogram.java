@@ -0,0 +1,141 @@
+package com.mycompany.Metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas logarítmico-lineales, como HdrHistogram: cada
+ * potencia de dos se divide en 64 cubetas iguales, así que cualquier valor se conoce
+ * con un error relativo menor a 1/64 (1,6 %) entre un nanosegundo y unas dos horas.
+ *
+ * <p>
+ * Registrar un valor no reserva memoria ni toma candados: calcula la cubeta con
+ * operaciones de bits e incrementa contadores atómicos. Es seguro usarlo desde varios
+ * hilos a la vez; una {@link Snapshot} tomada mientras se registran valores puede no
+ * incluir los últimos.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+    /**
+     * Valor más grande que se distingue; los mayores se cuentan en la última cubeta.
+     */
+    public static final long MAX_TRACKABLE_NANOS = (1L << 43) - 1;
+
+    private static final int MAX_SHIFT = 63 - Long.numberOfLeadingZeros(MAX_TRACKABLE_NANOS) - (SUB_BUCKET_BITS - 1);
+    private static final int BUCKETS = SUB_BUCKETS + MAX_SHIFT * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Registra una latencia.
+     *
+     * @param nanos duración en nanosegundos; los valores negativos se cuentan como cero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Otro hilo registró un máximo al mismo tiempo; se vuelve a comparar.
+        }
+    }
+
+    /**
+     * Deja el histograma vacío. Los valores registrados al mismo tiempo pueden quedar
+     * o no.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * @return copia de los contadores actuales
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(total, sum.sum(), max.get(), copy);
+    }
+
+    /**
+     * Cubeta de un valor: los primeros 128 valores tienen una cubeta cada uno; desde ahí,
+     * cada potencia de dos tiene 64.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        if (shift > MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) (value >>> shift) - HALF_SUB_BUCKETS;
+    }
+
+    /**
+     * @return el valor más grande que cae en la cubeta
+     */
+    static long highestEquivalentValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long subBucket = (bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Contadores de un histograma en un momento dado.
+     *
+     * @param count   cantidad de valores registrados
+     * @param sum     suma de los valores, en nanosegundos
+     * @param max     valor más grande registrado, en nanosegundos
+     * @param buckets cantidad de valores de cada cubeta
+     */
+    public record Snapshot(long count, long sum, long max, long[] buckets) {
+
+        /**
+         * @return promedio en nanosegundos; 0 si no hay valores
+         */
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile percentil entre 0 y 100
+         * @return valor en nanosegundos por debajo del cual está ese porcentaje de los
+         *         registros (con el error de la cubeta); 0 si no hay valores
+         */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    return Math.min(highestEquivalentValue(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
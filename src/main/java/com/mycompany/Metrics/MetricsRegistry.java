@@ -0,0 +1,133 @@
+package com.mycompany.Metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registro global de métricas de la aplicación: operaciones de los servicios y
+ * contadores de la persistencia.
+ *
+ * <p>
+ * Cada métrica se publica por JMX al crearla, bajo el dominio {@value #JMX_DOMAIN}
+ * ({@code type=Operation} o {@code type=Counter}, con {@code name} igual al nombre de la
+ * métrica), así que se puede ver con JConsole o VisualVM sin configurar nada. Además,
+ * {@link #startPeriodicLog()} imprime un resumen cada cierto tiempo.
+ * </p>
+ */
+public final class MetricsRegistry {
+
+    /**
+     * Dominio JMX de las métricas.
+     */
+    public static final String JMX_DOMAIN = "com.mycompany.clinicalsystem";
+
+    /**
+     * Propiedad del sistema con los segundos entre resúmenes en la salida estándar (por
+     * defecto {@value #DEFAULT_LOG_SECONDS}); {@code 0} los desactiva.
+     */
+    public static final String LOG_SECONDS_PROPERTY = "clinicalsystem.metrics.logSeconds";
+
+    static final long DEFAULT_LOG_SECONDS = 300;
+
+    // computeIfAbsent de ConcurrentHashMap crea cada métrica (y la publica) una sola vez.
+    private static final Map<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean LOGGING = new AtomicBoolean(false);
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Devuelve las métricas de una operación, creándolas la primera vez.
+     *
+     * @param name nombre de la operación, por ejemplo {@code PatientService.addPatient}
+     * @return métricas de la operación
+     */
+    public static OperationMetrics operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, key -> register("Operation", key, new OperationMetrics(key)));
+    }
+
+    /**
+     * Devuelve un contador, creándolo la primera vez.
+     *
+     * @param name nombre del contador, por ejemplo {@code JsonStore.bytesWritten}
+     * @return contador
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> register("Counter", key, new Counter(key)));
+    }
+
+    /**
+     * Resumen de todas las operaciones llamadas al menos una vez y de todos los
+     * contadores, una métrica por línea y en orden alfabético.
+     *
+     * @return texto del resumen
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        for (OperationMetrics operation : new TreeMap<>(OPERATIONS).values()) {
+            LatencyHistogram.Snapshot latency = operation.latency();
+            if (latency.count() == 0) {
+                continue;
+            }
+            report.append(String.format(Locale.ROOT,
+                    "%s llamadas=%d errores=%d media=%.3f ms p50=%.3f ms p90=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                    operation.getName(), latency.count(), operation.getErrors(), latency.mean() / 1e6,
+                    latency.percentile(50) / 1e6, latency.percentile(90) / 1e6, latency.percentile(99) / 1e6,
+                    latency.max() / 1e6));
+        }
+        for (Counter counter : new TreeMap<>(COUNTERS).values()) {
+            report.append(counter.getName()).append('=').append(counter.getValue()).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    /**
+     * Empieza a imprimir {@link #report()} en la salida estándar cada
+     * {@link #LOG_SECONDS_PROPERTY} segundos, solo si hubo llamadas desde el resumen
+     * anterior. Llamarlo más de una vez no tiene efecto.
+     */
+    public static void startPeriodicLog() {
+        long seconds = Long.getLong(LOG_SECONDS_PROPERTY, DEFAULT_LOG_SECONDS);
+        if (seconds <= 0 || !LOGGING.compareAndSet(false, true)) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long[] lastCalls = {0};
+        scheduler.scheduleAtFixedRate(() -> {
+            long calls = OPERATIONS.values().stream().mapToLong(OperationMetrics::getCalls).sum();
+            if (calls == lastCalls[0]) {
+                return;
+            }
+            lastCalls[0] = calls;
+            System.out.print("==== Métricas ====" + System.lineSeparator() + report());
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    private static <M> M register(String type, String name, M metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metrics, objectName);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.err.println("No se pudo publicar la métrica " + name + " por JMX: " + e.getMessage());
+        }
+        return metrics;
+    }
+}
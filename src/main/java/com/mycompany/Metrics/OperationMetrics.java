@@ -0,0 +1,168 @@
+package com.mycompany.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Llamadas, errores y latencias de una operación (por ejemplo, un método de un
+ * servicio). Se obtiene con {@link MetricsRegistry#operation(String)} y se guarda en un
+ * campo estático, para que medir una llamada no busque nada en un mapa:
+ *
+ * <pre>
+ * return ADD_PATIENT.time(() -> {
+ *     ...
+ * });
+ * </pre>
+ *
+ * <p>
+ * Solo las excepciones cuentan como errores. Un {@code false} o un resultado vacío es
+ * una respuesta normal de un servicio (datos inválidos, un horario ocupado, algo que no
+ * existe); contarlos mezclaría esas respuestas con los fallos reales en la tasa de
+ * errores. {@link #start()}, {@link #stop(long)} y {@link #error()} quedan para el código
+ * que maneja excepciones verificadas y no cabe en un {@link Supplier}.
+ * </p>
+ */
+public final class OperationMetrics implements OperationMetricsMXBean {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Mide una llamada. Si lanza una excepción, la registra como error y la propaga.
+     *
+     * @param operation llamada a medir
+     * @param <T>       tipo del resultado
+     * @return resultado de la llamada
+     */
+    public <T> T time(Supplier<T> operation) {
+        long start = start();
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            error();
+            throw e;
+        } finally {
+            stop(start);
+        }
+    }
+
+    /**
+     * Igual que {@link #time(Supplier)}, para una llamada sin resultado.
+     *
+     * @param operation llamada a medir
+     */
+    public void run(Runnable operation) {
+        time(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Mide una llamada que no propaga sus excepciones: si lanza una, la registra como
+     * error y devuelve lo que calcule {@code fallback} a partir de ella.
+     *
+     * @param operation llamada a medir
+     * @param fallback  resultado en caso de excepción (puede informarla)
+     * @param <T>       tipo del resultado
+     * @return resultado de la llamada, o el de {@code fallback}
+     */
+    public <T> T time(Supplier<T> operation, Function<RuntimeException, T> fallback) {
+        long start = start();
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            error();
+            return fallback.apply(e);
+        } finally {
+            stop(start);
+        }
+    }
+
+    /**
+     * @return marca de tiempo que se pasa a {@link #stop(long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Registra una llamada terminada, con o sin error.
+     *
+     * @param start valor devuelto por {@link #start()}
+     */
+    public void stop(long start) {
+        calls.increment();
+        latency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Registra que la llamada en curso terminó con una excepción, propagada o no.
+     */
+    public void error() {
+        errors.increment();
+    }
+
+    /**
+     * @return contadores actuales del histograma de latencias
+     */
+    public LatencyHistogram.Snapshot latency() {
+        return latency.snapshot();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latency.snapshot().mean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.snapshot().percentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return latency.snapshot().percentile(90) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.snapshot().percentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.snapshot().max() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,26 @@
+package com.mycompany.Metrics;
+
+/**
+ * Vista JMX de las métricas de una operación. Los tiempos están en milisegundos y son
+ * acumulados desde el inicio o desde el último {@link #reset()}.
+ */
+public interface OperationMetricsMXBean {
+
+    String getName();
+
+    long getCalls();
+
+    long getErrors();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
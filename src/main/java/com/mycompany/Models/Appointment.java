@@ -10,6 +10,9 @@ import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 /**
+ * Cita médica. Se persiste con los ids del paciente y del doctor; las instancias
+ * {@link Patient} y {@link Doctor} no se serializan (campos {@code transient}) y
+ * el repositorio las resuelve al devolver la cita.
  *
  * @author kosmo
  */
@@ -18,8 +21,10 @@ public class Appointment {
     private final String id;
     private LocalDateTime scheduledAt;
     private Duration duration;
-    private Patient patient;
-    private Doctor doctor;
+    private String patientId;
+    private String doctorId;
+    private transient Patient patient;
+    private transient Doctor doctor;
     private AppointmentStatus status;
 
     public Appointment() {
@@ -30,8 +35,26 @@ public class Appointment {
         this.id = UUID.randomUUID().toString();
         this.scheduledAt = scheduledAt;
         this.duration = duration;
-        this.patient = patient;
-        this.doctor = doctor;
+        setPatient(patient);
+        setDoctor(doctor);
+    }
+
+    /**
+     * Copia todos los datos de otra cita, incluido el id y las referencias al paciente
+     * y al doctor. Los repositorios la usan para modificar o resolver una cita sin tocar
+     * la instancia publicada.
+     *
+     * @param other cita a copiar
+     */
+    public Appointment(Appointment other) {
+        this.id = other.id;
+        this.scheduledAt = other.scheduledAt;
+        this.duration = other.duration;
+        this.patientId = other.patientId;
+        this.doctorId = other.doctorId;
+        this.patient = other.patient;
+        this.doctor = other.doctor;
+        this.status = other.status;
     }
 
     public String getScheduledAtAsString() {
@@ -90,6 +113,14 @@ public class Appointment {
      */
     public void setPatient(Patient patient) {
         this.patient = patient;
+        this.patientId = patient != null ? patient.getId() : null;
+    }
+
+    /**
+     * @return the patientId
+     */
+    public String getPatientId() {
+        return patientId;
     }
 
     /**
@@ -104,6 +135,14 @@ public class Appointment {
      */
     public void setDoctor(Doctor doctor) {
         this.doctor = doctor;
+        this.doctorId = doctor != null ? doctor.getId() : null;
+    }
+
+    /**
+     * @return the doctorId
+     */
+    public String getDoctorId() {
+        return doctorId;
     }
 
     /**
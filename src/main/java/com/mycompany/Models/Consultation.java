@@ -9,13 +9,17 @@ import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 /**
+ * Consulta médica. Se persiste con el id de la cita; la instancia
+ * {@link Appointment} no se serializa (campo {@code transient}) y el repositorio
+ * la resuelve al devolver la consulta.
  *
  * @author kosmo
  */
 public class Consultation {
 
     private final String id;
-    private Appointment appointment;
+    private String appointmentId;
+    private transient Appointment appointment;
     private String diagnosis;
     private String treatment;
     private final LocalDateTime registrationDate;
@@ -27,12 +31,28 @@ public class Consultation {
 
     public Consultation(Appointment appointment, String diagnosis, String treatment) {
         this.id = UUID.randomUUID().toString();
-        this.appointment = appointment;
+        setAppointment(appointment);
         this.diagnosis = diagnosis;
         this.treatment = treatment;
         this.registrationDate = LocalDateTime.now();
     }
 
+    /**
+     * Copia todos los datos de otra consulta, incluido el id y la referencia a la cita.
+     * Los repositorios la usan para resolver la consulta sin tocar la instancia
+     * publicada.
+     *
+     * @param other consulta a copiar
+     */
+    public Consultation(Consultation other) {
+        this.id = other.id;
+        this.appointmentId = other.appointmentId;
+        this.appointment = other.appointment;
+        this.diagnosis = other.diagnosis;
+        this.treatment = other.treatment;
+        this.registrationDate = other.registrationDate;
+    }
+
     public String getRegistrationDateAsString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         return registrationDate.format(formatter);
@@ -57,6 +77,14 @@ public class Consultation {
      */
     public void setAppointment(Appointment appointment) {
         this.appointment = appointment;
+        this.appointmentId = appointment != null ? appointment.getId() : null;
+    }
+
+    /**
+     * @return the appointmentId
+     */
+    public String getAppointmentId() {
+        return appointmentId;
     }
 
     /**
@@ -22,6 +22,16 @@ public class Doctor extends User {
         this.medicalSpecialty = medicalSpecialty;
     }
 
+    /**
+     * Copia todos los datos de otro doctor, incluido el id.
+     *
+     * @param other doctor a copiar
+     */
+    public Doctor(Doctor other) {
+        super(other);
+        this.medicalSpecialty = other.medicalSpecialty;
+    }
+
     /**
      * @return the medicalSpecialty
      */
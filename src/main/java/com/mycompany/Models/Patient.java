@@ -25,6 +25,16 @@ public class Patient extends User {
         this.birthDate = birthDate;
     }
 
+    /**
+     * Copia todos los datos de otro paciente, incluido el id.
+     *
+     * @param other paciente a copiar
+     */
+    public Patient(Patient other) {
+        super(other);
+        this.birthDate = other.birthDate;
+    }
+
     public String getBirthDateAsString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         return birthDate.format(formatter);
@@ -37,6 +37,22 @@ public class User {
         this.currentStatus = true;
     }
 
+    /**
+     * Copia todos los datos de otro usuario, incluido el id. Los repositorios la usan
+     * para modificar una entidad sin tocar la instancia publicada.
+     *
+     * @param other usuario a copiar
+     */
+    protected User(User other) {
+        this.id = other.id;
+        this.username = other.username;
+        this.phoneNumber = other.phoneNumber;
+        this.password = other.password;
+        this.fullName = other.fullName;
+        this.documentNumber = other.documentNumber;
+        this.currentStatus = other.currentStatus;
+    }
+
     public boolean isCurrentStatus() {
         return currentStatus;
     }
@@ -4,12 +4,22 @@ import com.google.gson.reflect.TypeToken;
 import java.util.Optional;
 
 import com.mycompany.Interfaces.IAppointmentRepository;
+import com.mycompany.Interfaces.IDoctorRepository;
+import com.mycompany.Interfaces.IPatientRepository;
+import com.mycompany.Interfaces.PageRequest;
 import com.mycompany.Models.Appointment;
 import com.mycompany.Models.AppointmentStatus;
 import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Repositorio persistente para citas ({@link Appointment}) utilizando almacenamiento JSON.
@@ -21,6 +31,18 @@ import java.util.stream.Collectors;
  * </p>
  *
  * <p>
+ * Mantiene índices secundarios por doctor, paciente, doctor+estado, paciente+estado y
+ * día, de modo que las consultas cuestan lo que el resultado y no lo que el historial
+ * completo. Los cambios de estado mueven la cita entre los índices correspondientes.
+ * </p>
+ *
+ * <p>
+ * Las citas se guardan con {@code patientId} y {@code doctorId}; el paciente y el doctor
+ * se resuelven contra sus repositorios cada vez que se devuelve una cita, de modo que
+ * siempre reflejan los datos actuales.
+ * </p>
+ *
+ * <p>
  * Manejo de excepciones:
  * <ul>
  *     <li>{@link IllegalArgumentException} si algún parámetro de entrada es nulo o inválido.</li>
@@ -34,18 +56,131 @@ public class AppointmentRepositoryJSON extends JsonRepository<Appointment> imple
     private static final String FILE_NAME = "appointments.json";
     private static final Type LIST_TYPE = new TypeToken<List<Appointment>>() {}.getType();
 
+    /**
+     * Clave compuesta de los índices por dueño (doctor o paciente) y estado.
+     */
+    private record OwnerStatusKey(String ownerId, AppointmentStatus status) {
+    }
+
+    private final SecondaryIndex<Appointment, String> byDoctor;
+    private final SecondaryIndex<Appointment, String> byPatient;
+    private final SecondaryIndex<Appointment, OwnerStatusKey> byDoctorAndStatus;
+    private final SecondaryIndex<Appointment, OwnerStatusKey> byPatientAndStatus;
+    private final SecondaryIndex<Appointment, LocalDate> byDate;
+    private final LongestDuration longestDuration = new LongestDuration();
+    private final IPatientRepository patientRepository;
+    private final IDoctorRepository doctorRepository;
+
     /**
      * Constructor que inicializa el repositorio cargando las citas desde el archivo JSON.
+     *
+     * @param patientRepository repositorio usado para resolver el paciente de cada cita
+     * @param doctorRepository  repositorio usado para resolver el doctor de cada cita
+     * @throws IllegalArgumentException si alguno de los repositorios es nulo
+     */
+    public AppointmentRepositoryJSON(IPatientRepository patientRepository, IDoctorRepository doctorRepository) {
+        super(FILE_NAME, LIST_TYPE, Appointment::getId);
+        if (patientRepository == null || doctorRepository == null){
+            throw new IllegalArgumentException("Los repositorios de pacientes y doctores no pueden ser nulos");
+        }
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.byDoctor = registerIndex(AppointmentRepositoryJSON::doctorIdOf);
+        this.byPatient = registerIndex(AppointmentRepositoryJSON::patientIdOf);
+        this.byDoctorAndStatus = registerIndex(a -> ownerStatusKey(doctorIdOf(a), a.getStatus()),
+                Appointment::getScheduledAt);
+        this.byPatientAndStatus = registerIndex(a -> ownerStatusKey(patientIdOf(a), a.getStatus()),
+                Appointment::getScheduledAt);
+        this.byDate = registerIndex(a -> a.getScheduledAt() != null ? a.getScheduledAt().toLocalDate() : null);
+        registerIndex(longestDuration);
+    }
+
+    /**
+     * Mayor duración entre las citas cargadas. Solo crece hasta la siguiente limpieza o
+     * recarga: una cota mayor que la real solo amplía un poco el rango que revisa
+     * {@link #isDoctorFree(Appointment)}.
+     */
+    private static final class LongestDuration implements EntityIndex<Appointment> {
+
+        private Duration value = Duration.ZERO;
+
+        @Override
+        public void add(Appointment entity, int position) {
+            Duration duration = entity.getDuration();
+            if (duration != null && duration.compareTo(value) > 0) {
+                value = duration;
+            }
+        }
+
+        @Override
+        public void update(Appointment entity, int position) {
+            add(entity, position);
+        }
+
+        @Override
+        public void clear() {
+            value = Duration.ZERO;
+        }
+    }
+
+    private static String doctorIdOf(Appointment appointment) {
+        return appointment.getDoctorId();
+    }
+
+    private static String patientIdOf(Appointment appointment) {
+        return appointment.getPatientId();
+    }
+
+    /**
+     * Devuelve una copia de la cita con el paciente y el doctor actuales según sus ids.
+     * La cita almacenada no se modifica.
+     *
+     * @param appointment cita a resolver
+     * @return copia resuelta de la cita
      */
-    public AppointmentRepositoryJSON() {
-        super(FILE_NAME, LIST_TYPE);
+    private Appointment resolve(Appointment appointment) {
+        Appointment resolved = new Appointment(appointment);
+        if (appointment.getPatientId() != null) {
+            patientRepository.searchById(appointment.getPatientId()).ifPresent(resolved::setPatient);
+        }
+        if (appointment.getDoctorId() != null) {
+            doctorRepository.searchById(appointment.getDoctorId()).ifPresent(resolved::setDoctor);
+        }
+        return resolved;
+    }
+
+    @Override
+    protected Appointment resolveReferences(Appointment appointment) {
+        return resolve(appointment);
+    }
+
+    private List<Appointment> resolveAll(List<Appointment> appointments) {
+        appointments.replaceAll(this::resolve);
+        return appointments;
+    }
+
+    /**
+     * Publica una copia de la cita con el estado nuevo; la instancia publicada no se
+     * modifica, así que quien recorre una versión anterior no ve el cambio.
+     *
+     * @return la copia publicada
+     */
+    private Appointment withStatus(Appointment appointment, AppointmentStatus newStatus) {
+        Appointment updated = new Appointment(appointment);
+        updated.setStatus(newStatus);
+        replaceEntity(updated);
+        return updated;
+    }
+
+    private static OwnerStatusKey ownerStatusKey(String ownerId, AppointmentStatus status) {
+        return ownerId != null ? new OwnerStatusKey(ownerId, status) : null;
     }
 
     /**
      * Agrega una cita al repositorio y persiste los cambios en JSON.
      *
      * @param appointment cita a agregar (no puede ser nula)
-     * @return {@code true} si se agregó correctamente, {@code false} si hubo error
+     * @return {@code true} si se agregó correctamente, {@code false} si ya existe una con el mismo ID o hubo error
      * @throws IllegalArgumentException si {@code appointment} es nulo
      * @throws RuntimeException si ocurre un error de persistencia
      */
@@ -55,16 +190,86 @@ public class AppointmentRepositoryJSON extends JsonRepository<Appointment> imple
             throw new IllegalArgumentException("La cita (appointment) no puede ser nula");
         }
 
+        writeLock.lock();
+        try {
+            if (!insertEntity(appointment)) {
+                System.err.println("Ya existe una cita con el ID: " + appointment.getId());
+                return false;
+            }
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("Error al agregar la cita: " + e.getMessage());
+            return false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Agrega una cita solo si el doctor no tiene otra cita programada que se solape con
+     * ella. La comprobación usa el índice por doctor y estado y, con varias instancias,
+     * se hace después de aplicar las citas que agregaron las otras y con el candado entre
+     * procesos tomado, así que dos puestos no pueden reservar el mismo intervalo.
+     *
+     * @param appointment cita a agregar (no puede ser nula)
+     * @return {@code true} si se agregó; {@code false} si se solapa, ya existe una con el
+     * mismo ID o hubo error
+     * @throws IllegalArgumentException si {@code appointment} es nulo
+     */
+    @Override
+    public boolean addIfDoctorFree(Appointment appointment) {
+        if (appointment == null){
+            throw new IllegalArgumentException("La cita (appointment) no puede ser nula");
+        }
+
+        writeLock.lock();
         try {
-            data.add(appointment);
-            save();
+            if (!insertEntity(appointment, () -> isDoctorFree(appointment))) {
+                System.err.println("No se agregó la cita " + appointment.getId()
+                        + ": ya existe o el doctor tiene otra cita en ese horario");
+                return false;
+            }
             return true;
         } catch (RuntimeException e) {
             System.err.println("Error al agregar la cita: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
+    /**
+     * Indica si ninguna cita programada del doctor se solapa con la cita. Las citas del
+     * índice están ordenadas por fecha y ninguna dura más que {@link LongestDuration}, así
+     * que el recorrido empieza con una búsqueda binaria en {@code inicio - duraciónMáxima}
+     * y termina en la primera que empieza después del fin del intervalo. Debe llamarse con
+     * un candado tomado.
+     */
+    private boolean isDoctorFree(Appointment appointment) {
+        String doctorId = appointment.getDoctorId();
+        LocalDateTime start = appointment.getScheduledAt();
+        if (doctorId == null || start == null || appointment.getDuration() == null) {
+            return true;
+        }
+        LocalDateTime end = start.plus(appointment.getDuration());
+        OwnerStatusKey key = new OwnerStatusKey(doctorId, AppointmentStatus.PROGRAMADA);
+        List<Integer> positions = byDoctorAndStatus.positions(key);
+        for (int i = byDoctorAndStatus.lowerBound(key, start.minus(longestDuration.value)); i < positions.size(); i++) {
+            Appointment other = data.get(positions.get(i));
+            LocalDateTime otherStart = other.getScheduledAt();
+            if (otherStart == null || other.getDuration() == null || other.getId().equals(appointment.getId())) {
+                continue;
+            }
+            if (!otherStart.isBefore(end)) {
+                break;
+            }
+            if (otherStart.plus(other.getDuration()).isAfter(start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Actualiza el estado de una cita por su ID y persiste los cambios.
      *
@@ -75,27 +280,164 @@ public class AppointmentRepositoryJSON extends JsonRepository<Appointment> imple
      */
     @Override
     public boolean updateState(String appointmentID, AppointmentStatus newStatus){
+        return changeState(appointmentID, newStatus, false);
+    }
+
+    /**
+     * Actualiza el estado de una cita como {@link #updateState(String, AppointmentStatus)},
+     * pero si el estado nuevo es {@link AppointmentStatus#PROGRAMADA} solo lo escribe si el
+     * doctor no tiene otra cita programada que se solape. La comprobación se hace como en
+     * {@link #addIfDoctorFree(Appointment)}, ya al día con las otras instancias.
+     *
+     * @param appointmentID ID de la cita a actualizar (no nulo ni vacío)
+     * @param newStatus     nuevo estado de la cita (no nulo)
+     * @return {@code true} si se actualizó, {@code false} si no se encontró, se solapa o
+     * falló la escritura
+     * @throws IllegalArgumentException si {@code appointmentID} o {@code newStatus} son nulos o inválidos
+     */
+    @Override
+    public boolean updateStateIfDoctorFree(String appointmentID, AppointmentStatus newStatus) {
+        return changeState(appointmentID, newStatus, newStatus == AppointmentStatus.PROGRAMADA);
+    }
+
+    private boolean changeState(String appointmentID, AppointmentStatus newStatus, boolean checkDoctor) {
         if (appointmentID == null || appointmentID.isBlank()){
             throw new IllegalArgumentException("El ID de la cita no puede ser nulo o vacío");
         }
         if (newStatus == null){
             throw new IllegalArgumentException("El nuevo estado no puede ser nulo");
         }
+        writeLock.lock();
+        Optional<Appointment> appt = Optional.empty();
         try {
-            Optional<Appointment> appt = data.stream()
-                    .filter(app -> app.getId().equals(appointmentID))
-                    .findFirst();
+            appt = findById(appointmentID);
             if (appt.isPresent()) {
-                appt.get().setStatus(newStatus);
-                save();
+                Appointment updated = withStatus(appt.get(), newStatus);
+                if (!save(updated, checkDoctor ? () -> isDoctorFree(updated) : null)) {
+                    restoreEntity(appt.get());
+                    System.err.println("No se actualizó la cita " + appointmentID
+                            + ": el doctor tiene otra cita en ese horario");
+                    return false;
+                }
                 return true;
             } else {
                 System.err.println("Cita no encontrada con ID: " + appointmentID);
                 return false;
             }
+        } catch (ConcurrentUpdateException e) {
+            // La cita ya tiene en memoria la versión de la otra instancia.
+            System.err.println("Error al actualizar el estado de la cita: " + e.getMessage());
+            return false;
         } catch (RuntimeException e) {
             System.err.println("Error al actualizar el estado de la cita: " + e.getMessage());
+            if (appt.isPresent() && !conflictsOf(e).contains(appointmentID)) {
+                restoreEntity(appt.get()); // No se escribió: se deshace el cambio en memoria.
+            }
             return false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Actualiza el estado de varias citas en una sola pasada y persiste todos los cambios
+     * con una sola escritura del journal.
+     *
+     * @param appointmentIDs ids de las citas a actualizar (no nulo); los ids repetidos se procesan una vez
+     * @param newStatus      nuevo estado de las citas (no nulo)
+     * @return resultado por id, en el orden recibido: {@code true} si se actualizó,
+     *         {@code false} si no se encontró, el id es inválido, otra instancia la
+     *         modificó antes (conflicto) o falló la escritura. Ante un conflicto solo
+     *         fallan las citas en conflicto; las demás se escribieron. Si falla la
+     *         escritura no se escribió ninguna y sus cambios en memoria se deshacen.
+     * @throws IllegalArgumentException si {@code appointmentIDs} o {@code newStatus} son nulos
+     */
+    @Override
+    public Map<String, Boolean> updateStates(Collection<String> appointmentIDs, AppointmentStatus newStatus){
+        if (appointmentIDs == null){
+            throw new IllegalArgumentException("La lista de IDs de citas no puede ser nula");
+        }
+        if (newStatus == null){
+            throw new IllegalArgumentException("El nuevo estado no puede ser nulo");
+        }
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        List<Appointment> originals = new ArrayList<>();
+        List<Appointment> changed = new ArrayList<>();
+        writeLock.lock();
+        try {
+            for (String id : appointmentIDs) {
+                if (id == null || results.containsKey(id)) {
+                    continue;
+                }
+                Optional<Appointment> appt = id.isBlank() ? Optional.empty() : findById(id);
+                if (appt.isPresent()) {
+                    originals.add(appt.get());
+                    changed.add(withStatus(appt.get(), newStatus));
+                    results.put(id, true);
+                } else {
+                    System.err.println("Cita no encontrada con ID: " + id);
+                    results.put(id, false);
+                }
+            }
+            saveAll(changed);
+        } catch (ConcurrentUpdateException e) {
+            // Las demás citas se escribieron; las que chocaron ya tienen la versión ajena.
+            System.err.println("Error al actualizar el estado de las citas: " + e.getMessage());
+            for (String id : e.ids()) {
+                results.replace(id, false);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error al actualizar el estado de las citas: " + e.getMessage());
+            Set<String> conflicts = conflictsOf(e);
+            // No se escribió nada: se deshacen los cambios que no pisó otra instancia.
+            for (Appointment original : originals) {
+                if (!conflicts.contains(original.getId())) {
+                    restoreEntity(original);
+                }
+                results.put(original.getId(), false);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return results;
+    }
+
+    /**
+     * Ids en conflicto adjuntos a un error de escritura: ya tienen en memoria la versión
+     * de otra instancia, así que no hay que deshacer su cambio.
+     */
+    private static Set<String> conflictsOf(RuntimeException e) {
+        Set<String> conflicts = new HashSet<>();
+        for (Throwable suppressed : e.getSuppressed()) {
+            if (suppressed instanceof ConcurrentUpdateException conflict) {
+                conflicts.addAll(conflict.ids());
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Cancela todas las citas programadas de un doctor usando el índice por doctor y
+     * estado, con una sola escritura del journal.
+     *
+     * @param doctorId ID del doctor (no nulo ni vacío)
+     * @return resultado por id de cada cita programada del doctor; vacío si no tenía ninguna
+     * @throws IllegalArgumentException si {@code doctorId} es nulo o vacío
+     */
+    @Override
+    public Map<String, Boolean> cancelAllForDoctor(String doctorId){
+        if (doctorId == null || doctorId.isBlank()){
+            throw new IllegalArgumentException("El ID del doctor no puede ser nulo o vacío");
+        }
+        writeLock.lock();
+        try {
+            List<String> ids = new ArrayList<>();
+            for (Appointment appointment : findByIndex(byDoctorAndStatus, new OwnerStatusKey(doctorId, AppointmentStatus.PROGRAMADA))) {
+                ids.add(appointment.getId());
+            }
+            return updateStates(ids, AppointmentStatus.CANCELADA);
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -111,13 +453,14 @@ public class AppointmentRepositoryJSON extends JsonRepository<Appointment> imple
         if (id == null || id.isBlank()){
             throw new IllegalArgumentException("El ID no puede ser nulo o vacío");
         }
+        readLock.lock();
         try{
-            return data.stream()
-                    .filter(app -> app.getId().equals(id))
-                    .findFirst();
+            return findById(id).map(this::resolve);
         } catch (RuntimeException e){
             System.err.println("Error al buscar la cita por ID: " + e.getMessage());
             return Optional.empty();
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -133,13 +476,14 @@ public class AppointmentRepositoryJSON extends JsonRepository<Appointment> imple
         if (patientId == null || patientId.isBlank()){
             throw new IllegalArgumentException("El ID del paciente no puede ser nulo o vacío");
         }
+        readLock.lock();
         try{
-            return data.stream()
-                    .filter(app -> app.getPatient().getId().equals(patientId))
-                    .collect(Collectors.toList());
+            return resolveAll(findByIndex(byPatient, patientId));
         } catch (RuntimeException e){
             System.err.println("Error al buscar citas por paciente: " + e.getMessage());
             return List.of();
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -155,23 +499,221 @@ public class AppointmentRepositoryJSON extends JsonRepository<Appointment> imple
         if (doctorId == null || doctorId.isBlank()){
             throw new IllegalArgumentException("El ID del doctor no puede ser nulo o vacío");
         }
+        readLock.lock();
         try{
-            return data.stream()
-                    .filter(app -> app.getDoctor().getId().equals(doctorId))
-                    .collect(Collectors.toList());
+            return resolveAll(findByIndex(byDoctor, doctorId));
         } catch (RuntimeException e){
             System.err.println("Error al buscar citas por doctor: " + e.getMessage());
             return List.of();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Busca las citas de un doctor que tienen un estado determinado.
+     *
+     * @param doctorId ID del doctor (no nulo ni vacío)
+     * @param status   estado de las citas (no nulo)
+     * @return lista de citas del doctor con ese estado; vacía si no se encuentran
+     * @throws IllegalArgumentException si {@code doctorId} o {@code status} son nulos o inválidos
+     */
+    @Override
+    public List<Appointment> searchByDoctorAndStatus(String doctorId, AppointmentStatus status) {
+        if (doctorId == null || doctorId.isBlank()){
+            throw new IllegalArgumentException("El ID del doctor no puede ser nulo o vacío");
+        }
+        if (status == null){
+            throw new IllegalArgumentException("El estado no puede ser nulo");
+        }
+        readLock.lock();
+        try{
+            return resolveAll(findByIndex(byDoctorAndStatus, new OwnerStatusKey(doctorId, status)));
+        } catch (RuntimeException e){
+            System.err.println("Error al buscar citas por doctor y estado: " + e.getMessage());
+            return List.of();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Busca las citas de un paciente que tienen un estado determinado.
+     *
+     * @param patientId ID del paciente (no nulo ni vacío)
+     * @param status    estado de las citas (no nulo)
+     * @return lista de citas del paciente con ese estado; vacía si no se encuentran
+     * @throws IllegalArgumentException si {@code patientId} o {@code status} son nulos o inválidos
+     */
+    @Override
+    public List<Appointment> searchByPatientAndStatus(String patientId, AppointmentStatus status) {
+        if (patientId == null || patientId.isBlank()){
+            throw new IllegalArgumentException("El ID del paciente no puede ser nulo o vacío");
+        }
+        if (status == null){
+            throw new IllegalArgumentException("El estado no puede ser nulo");
+        }
+        readLock.lock();
+        try{
+            return resolveAll(findByIndex(byPatientAndStatus, new OwnerStatusKey(patientId, status)));
+        } catch (RuntimeException e){
+            System.err.println("Error al buscar citas por paciente y estado: " + e.getMessage());
+            return List.of();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Cuenta las citas de un doctor que tienen un estado determinado.
+     *
+     * @param doctorId ID del doctor (no nulo ni vacío)
+     * @param status   estado de las citas (no nulo)
+     * @return cantidad de citas del doctor con ese estado
+     * @throws IllegalArgumentException si {@code doctorId} o {@code status} son nulos o inválidos
+     */
+    @Override
+    public int countByDoctorAndStatus(String doctorId, AppointmentStatus status) {
+        if (doctorId == null || doctorId.isBlank()){
+            throw new IllegalArgumentException("El ID del doctor no puede ser nulo o vacío");
+        }
+        if (status == null){
+            throw new IllegalArgumentException("El estado no puede ser nulo");
+        }
+        readLock.lock();
+        try{
+            return countByIndex(byDoctorAndStatus, new OwnerStatusKey(doctorId, status));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve una página de las citas de un doctor con un estado, ordenadas por
+     * fecha programada. El índice ya está en ese orden, así que solo se leen y resuelven
+     * las citas de la página.
+     *
+     * @param doctorId ID del doctor (no nulo ni vacío)
+     * @param status   estado de las citas (no nulo)
+     * @param page     página a devolver (no nula)
+     * @return citas de la página; vacía si no hay más
+     * @throws IllegalArgumentException si algún parámetro es nulo o inválido
+     */
+    @Override
+    public List<Appointment> searchByDoctorAndStatus(String doctorId, AppointmentStatus status, PageRequest page) {
+        if (doctorId == null || doctorId.isBlank()){
+            throw new IllegalArgumentException("El ID del doctor no puede ser nulo o vacío");
+        }
+        if (status == null){
+            throw new IllegalArgumentException("El estado no puede ser nulo");
+        }
+        if (page == null){
+            throw new IllegalArgumentException("La página no puede ser nula");
+        }
+        readLock.lock();
+        try{
+            return resolveAll(findByIndex(byDoctorAndStatus, new OwnerStatusKey(doctorId, status), page));
+        } catch (RuntimeException e){
+            System.err.println("Error al buscar citas por doctor y estado: " + e.getMessage());
+            return List.of();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Cuenta las citas de un paciente que tienen un estado determinado.
+     *
+     * @param patientId ID del paciente (no nulo ni vacío)
+     * @param status    estado de las citas (no nulo)
+     * @return cantidad de citas del paciente con ese estado
+     * @throws IllegalArgumentException si {@code patientId} o {@code status} son nulos o inválidos
+     */
+    @Override
+    public int countByPatientAndStatus(String patientId, AppointmentStatus status) {
+        if (patientId == null || patientId.isBlank()){
+            throw new IllegalArgumentException("El ID del paciente no puede ser nulo o vacío");
+        }
+        if (status == null){
+            throw new IllegalArgumentException("El estado no puede ser nulo");
+        }
+        readLock.lock();
+        try{
+            return countByIndex(byPatientAndStatus, new OwnerStatusKey(patientId, status));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve una página de las citas de un paciente con un estado, ordenadas por
+     * fecha programada. El índice ya está en ese orden, así que solo se leen y resuelven
+     * las citas de la página.
+     *
+     * @param patientId ID del paciente (no nulo ni vacío)
+     * @param status    estado de las citas (no nulo)
+     * @param page      página a devolver (no nula)
+     * @return citas de la página; vacía si no hay más
+     * @throws IllegalArgumentException si algún parámetro es nulo o inválido
+     */
+    @Override
+    public List<Appointment> searchByPatientAndStatus(String patientId, AppointmentStatus status, PageRequest page) {
+        if (patientId == null || patientId.isBlank()){
+            throw new IllegalArgumentException("El ID del paciente no puede ser nulo o vacío");
+        }
+        if (status == null){
+            throw new IllegalArgumentException("El estado no puede ser nulo");
+        }
+        if (page == null){
+            throw new IllegalArgumentException("La página no puede ser nula");
+        }
+        readLock.lock();
+        try{
+            return resolveAll(findByIndex(byPatientAndStatus, new OwnerStatusKey(patientId, status), page));
+        } catch (RuntimeException e){
+            System.err.println("Error al buscar citas por paciente y estado: " + e.getMessage());
+            return List.of();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Busca las citas programadas para un día.
+     *
+     * @param date día de las citas (no nulo)
+     * @return lista de citas de ese día; vacía si no se encuentran
+     * @throws IllegalArgumentException si {@code date} es nulo
+     */
+    @Override
+    public List<Appointment> searchByDate(LocalDate date) {
+        if (date == null){
+            throw new IllegalArgumentException("La fecha no puede ser nula");
+        }
+        readLock.lock();
+        try{
+            return resolveAll(findByIndex(byDate, date));
+        } catch (RuntimeException e){
+            System.err.println("Error al buscar citas por fecha: " + e.getMessage());
+            return List.of();
+        } finally {
+            readLock.unlock();
         }
     }
 
     /**
      * Devuelve todas las citas almacenadas.
      *
-     * @return nueva lista con todas las citas
+     * @return lista inmutable con todas las citas, compartida entre llamadas mientras
+     * no haya cambios
      */
     @Override
     public List<Appointment> listAll() {
-        return new ArrayList<>(data);
+        readLock.lock();
+        try {
+            return resolvedSnapshot();
+        } finally {
+            readLock.unlock();
+        }
     }
 }
@@ -5,11 +5,20 @@
 package com.mycompany.Persistance;
 
 import com.mycompany.Interfaces.IAppointmentRepository;
+import com.mycompany.Interfaces.PageRequest;
 import com.mycompany.Models.Appointment;
 import com.mycompany.Models.AppointmentStatus;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +26,8 @@ import java.util.stream.Collectors;
  * @author mateo
  */
 public class AppointmentRepositoryMemory implements IAppointmentRepository{
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); //Lecturas concurrentes, escrituras serializadas
     private final List<Appointment> appointment;
     
     public AppointmentRepositoryMemory(){ //Crea una lista nueva cada vez que se crea el repositorio
@@ -29,47 +40,201 @@ public class AppointmentRepositoryMemory implements IAppointmentRepository{
 
     @Override
     public boolean add(Appointment appointment) {
-        this.appointment.add(appointment); //Si el valor ingresado en el parámetro es diferente de null, se añade la cita ingresada a la lista appointment
-        return true;
+        lock.writeLock().lock();
+        try {
+            this.appointment.add(appointment); //Si el valor ingresado en el parámetro es diferente de null, se añade la cita ingresada a la lista appointment
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public boolean updateState(String appointmentID, AppointmentStatus newState) {
-        Optional<Appointment> appt = this.appointment.stream().
-                filter(a -> a.getId().equals(appointmentID)). //Selecciona la cita que coincide con el id ingresado
-                findFirst(); //Selecciona el primer elemento de los seleccionados por filter, en este caso habrá un solo elemento ya que el id es único.
-        if (appt.isPresent()){ 
-            appt.get().setStatus(newState); //Se le asigna el nuevo estado a la cita con el id previamente ingresado
-            return true;
-        } 
+        lock.writeLock().lock();
+        try {
+            Optional<Appointment> appt = this.appointment.stream().
+                    filter(a -> a.getId().equals(appointmentID)). //Selecciona la cita que coincide con el id ingresado
+                    findFirst(); //Selecciona el primer elemento de los seleccionados por filter, en este caso habrá un solo elemento ya que el id es único.
+            if (appt.isPresent()){ 
+                appt.get().setStatus(newState); //Se le asigna el nuevo estado a la cita con el id previamente ingresado
+                return true;
+            } 
         
-        return false; //Retorna false en caso de no haber encontrado la cita
+            return false; //Retorna false en caso de no haber encontrado la cita
         
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Boolean> updateStates(Collection<String> appointmentIDs, AppointmentStatus newState) {
+        lock.writeLock().lock();
+        try {
+            Map<String, Appointment> byId = new HashMap<>(); //Recorre la lista una sola vez en lugar de una por id
+            for (Appointment a : this.appointment) {
+                byId.putIfAbsent(a.getId(), a);
+            }
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            for (String id : appointmentIDs) {
+                Appointment appt = byId.get(id);
+                if (appt != null) {
+                    appt.setStatus(newState);
+                }
+                results.putIfAbsent(id, appt != null);
+            }
+            return results;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Boolean> cancelAllForDoctor(String doctorId) {
+        lock.writeLock().lock();
+        try {
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            for (Appointment a : this.appointment) {
+                if (a.getDoctorId().equals(doctorId) && a.getStatus() == AppointmentStatus.PROGRAMADA) { //Solo las citas programadas del doctor
+                    a.setStatus(AppointmentStatus.CANCELADA);
+                    results.put(a.getId(), true);
+                }
+            }
+            return results;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public Optional<Appointment> searchById(String id) {
-        return this.appointment.stream(). //appointment -> a
-                filter(a -> a.getId().equals(id)). // Selecciona la cita
-                findFirst(); //Selecciona el primer elemento de los seleccionados por filter, en este caso habrá un solo elemento ya que el id es único.
+        lock.readLock().lock();
+        try {
+            return this.appointment.stream(). //appointment -> a
+                    filter(a -> a.getId().equals(id)). // Selecciona la cita
+                    findFirst(); //Selecciona el primer elemento de los seleccionados por filter, en este caso habrá un solo elemento ya que el id es único.
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Appointment> searchByPatient(String patientId) {
-        return this.appointment.stream().
-                filter(a -> a.getPatient().getId().equals(patientId)). //Selecciona las citas que coinciden con el id del paciente ingresado
-                collect(Collectors.toList()); //Almacena las citas que tiene el paciente en una lista
+        lock.readLock().lock();
+        try {
+            return this.appointment.stream().
+                    filter(a -> a.getPatientId().equals(patientId)). //Selecciona las citas que coinciden con el id del paciente ingresado
+                    collect(Collectors.toList()); //Almacena las citas que tiene el paciente en una lista
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Appointment> searchByDoctor(String doctorId) {
-        return this.appointment.stream().
-                filter(a -> a.getDoctor().getId().equals(doctorId)). //Selecciona las citas que coinciden con el id del doctor ingresado
-                collect(Collectors.toList()); //Almacena las citas que tiene el doctor en una lista
+        lock.readLock().lock();
+        try {
+            return this.appointment.stream().
+                    filter(a -> a.getDoctorId().equals(doctorId)). //Selecciona las citas que coinciden con el id del doctor ingresado
+                    collect(Collectors.toList()); //Almacena las citas que tiene el doctor en una lista
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<Appointment> searchByDoctorAndStatus(String doctorId, AppointmentStatus status) {
+        lock.readLock().lock();
+        try {
+            return this.appointment.stream().
+                    filter(a -> a.getDoctorId().equals(doctorId) && a.getStatus() == status). //Citas del doctor con el estado ingresado
+                    collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Appointment> searchByPatientAndStatus(String patientId, AppointmentStatus status) {
+        lock.readLock().lock();
+        try {
+            return this.appointment.stream().
+                    filter(a -> a.getPatientId().equals(patientId) && a.getStatus() == status). //Citas del paciente con el estado ingresado
+                    collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByDoctorAndStatus(String doctorId, AppointmentStatus status) {
+        lock.readLock().lock();
+        try {
+            return (int) this.appointment.stream().
+                    filter(a -> a.getDoctorId().equals(doctorId) && a.getStatus() == status).
+                    count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Appointment> searchByDoctorAndStatus(String doctorId, AppointmentStatus status, PageRequest page) {
+        return page(a -> a.getDoctorId().equals(doctorId) && a.getStatus() == status, page);
+    }
+
+    @Override
+    public int countByPatientAndStatus(String patientId, AppointmentStatus status) {
+        lock.readLock().lock();
+        try {
+            return (int) this.appointment.stream().
+                    filter(a -> a.getPatientId().equals(patientId) && a.getStatus() == status).
+                    count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Appointment> searchByPatientAndStatus(String patientId, AppointmentStatus status, PageRequest page) {
+        return page(a -> a.getPatientId().equals(patientId) && a.getStatus() == status, page);
+    }
+
+    private List<Appointment> page(Predicate<Appointment> filter, PageRequest page) {
+        Comparator<Appointment> order = Comparator.comparing(Appointment::getScheduledAt); //Por fecha programada
+        lock.readLock().lock();
+        try {
+            return this.appointment.stream().
+                    filter(filter).
+                    sorted(page.newestFirst() ? order.reversed() : order).
+                    skip(page.offset()).
+                    limit(page.limit()).
+                    collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Appointment> searchByDate(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            return this.appointment.stream().
+                    filter(a -> a.getScheduledAt().toLocalDate().equals(date)). //Citas programadas para el día ingresado
+                    collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
     
     @Override
     public List<Appointment> listAll(){
-        return this.appointment; //Returna la lista de citas
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(this.appointment); //Returna una copia de la lista de citas
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,651 @@
+package com.mycompany.Persistance;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Códec de instantáneas binario y compacto, pensado para colecciones grandes.
+ *
+ * <p>
+ * Formato del archivo (enteros en big-endian):
+ * <pre>
+ * archivo  = "CSB1" (int) | versión (byte) | esquema | cantidad (int) | registro*
+ * registro = longitud (int) | campo*
+ * campo    = longitud + 1 (varint, 0 = null) | contenido
+ * </pre>
+ * El esquema lista en orden el nombre y el tipo de cada campo, las constantes de los
+ * enumerados y el esquema de los objetos anidados. Al leer, los campos se asocian por
+ * nombre, de modo que un archivo escrito con una versión anterior de la clase se puede
+ * leer aunque se agreguen, quiten o reordenen campos; los que no existen se saltan
+ * gracias a su longitud.
+ * </p>
+ *
+ * <p>
+ * Codificación de los valores:
+ * <ul>
+ *     <li>Textos con forma de UUID canónico: marca {@code 1} y dos {@code long}; los demás: marca {@code 0} y UTF-8.</li>
+ *     <li>{@link LocalDateTime}: segundos de época en UTC y, si no son cero, nanosegundos.</li>
+ *     <li>{@link LocalDate}: día de época. {@link LocalTime}: nanosegundo del día.</li>
+ *     <li>{@link Duration}: segundos y, si no son cero, nanosegundos.</li>
+ *     <li>Enumerados: ordinal como varint, reasignado por nombre al leer.</li>
+ * </ul>
+ * Se serializan los mismos campos que Gson (no estáticos ni {@code transient}, incluidos
+ * los heredados), y las entidades se crean con su constructor sin argumentos.
+ * </p>
+ *
+ * @param <T> Tipo de entidad almacenada.
+ */
+public final class BinarySnapshotCodec<T> implements SnapshotCodec<T> {
+
+    private static final int MAGIC = 0x43534231; // "CSB1"
+    private static final byte VERSION = 1;
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte LOCAL_DATE = 6;
+    private static final byte LOCAL_TIME = 7;
+    private static final byte LOCAL_DATE_TIME = 8;
+    private static final byte DURATION = 9;
+    private static final byte ENUM = 10;
+    private static final byte OBJECT = 11;
+
+    private static final byte TEXT = 0;
+    private static final byte UUID_TEXT = 1;
+
+    private final Class<T> type;
+    private final Layout layout;
+
+    /**
+     * @param type clase de las entidades almacenadas
+     * @throws IllegalArgumentException si la clase tiene campos de un tipo no soportado
+     *                                  o no tiene constructor sin argumentos
+     */
+    public BinarySnapshotCodec(Class<T> type) {
+        this.type = type;
+        this.layout = Layout.of(type);
+    }
+
+    @Override
+    public String fileExtension() {
+        return ".bin";
+    }
+
+    @Override
+    public void write(Path file, List<T> data) {
+        try {
+            DurableFiles.replace(file, stream -> {
+                DataOutputStream out = new DataOutputStream(stream);
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                layout.writeSchema(out);
+                out.writeInt(data.size());
+                Buffer record = new Buffer();
+                for (T entity : data) {
+                    record.reset();
+                    layout.writeRecord(entity, record);
+                    out.writeInt(record.size);
+                    out.write(record.bytes, 0, record.size);
+                }
+                out.flush();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al escribir la instantánea binaria: " + file, e);
+        }
+    }
+
+    @Override
+    public int read(Path file, Consumer<T> consumer, LoadProgressListener progress) {
+        if (!Files.exists(file) || file.toFile().length() == 0) {
+            return 0;
+        }
+        long totalBytes = file.toFile().length();
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("El archivo no es una instantánea binaria: " + file);
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Versión de instantánea binaria no soportada (" + version + "): " + file);
+            }
+            Binding binding = Binding.of(readSchema(in), layout);
+            int expected = in.readInt();
+            long bytesRead = 0;
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < expected; i++) {
+                int length = in.readInt();
+                if (length < 0) {
+                    throw new EOFException("Longitud de registro inválida: " + length);
+                }
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                in.readFully(bytes, 0, length);
+                bytesRead += 4 + length;
+                T entity;
+                try {
+                    entity = type.cast(binding.readRecord(ByteBuffer.wrap(bytes, 0, length)));
+                } catch (RuntimeException e) {
+                    System.err.println("Registro inválido en " + file + " (registro " + (i + 1)
+                            + "), se omite: " + e);
+                    progress.onSkipped(file.toString(), "registro " + (i + 1), e.toString());
+                    continue;
+                }
+                consumer.accept(entity);
+                count++;
+                if (count % PROGRESS_INTERVAL == 0) {
+                    progress.onProgress(file.toString(), bytesRead, totalBytes, count);
+                }
+            }
+            progress.onProgress(file.toString(), totalBytes, totalBytes, count);
+        } catch (EOFException e) {
+            throw new UncheckedIOException("Instantánea binaria truncada: " + file
+                    + " (después de " + count + " registros)", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer la instantánea binaria: " + file, e);
+        }
+        return count;
+    }
+
+    private static List<SchemaField> readSchema(DataInput in) throws IOException {
+        int fieldCount = readVarInt(in);
+        List<SchemaField> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            String name = in.readUTF();
+            byte code = in.readByte();
+            String[] constants = null;
+            List<SchemaField> nested = null;
+            if (code == ENUM) {
+                constants = new String[readVarInt(in)];
+                for (int c = 0; c < constants.length; c++) {
+                    constants[c] = in.readUTF();
+                }
+            } else if (code == OBJECT) {
+                nested = readSchema(in);
+            }
+            fields.add(new SchemaField(name, code, constants, nested));
+        }
+        return fields;
+    }
+
+    /**
+     * Campo tal como quedó descrito en el esquema de un archivo.
+     */
+    private record SchemaField(String name, byte code, String[] constants, List<SchemaField> nested) {
+    }
+
+    /**
+     * Campo de la clase actual que se serializa.
+     */
+    private record Slot(Field field, byte code, Layout nested) {
+    }
+
+    /**
+     * Campos serializables de una clase, en el orden en que se escriben.
+     */
+    private static final class Layout {
+
+        private final Constructor<?> constructor;
+        private final List<Slot> slots;
+        private final Map<String, Slot> byName = new HashMap<>();
+
+        private Layout(Constructor<?> constructor, List<Slot> slots) {
+            this.constructor = constructor;
+            this.slots = slots;
+            for (Slot slot : slots) {
+                byName.put(slot.field().getName(), slot);
+            }
+        }
+
+        static Layout of(Class<?> type) {
+            Constructor<?> constructor;
+            try {
+                constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("La clase " + type.getName() + " no tiene constructor sin argumentos.", e);
+            }
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                hierarchy.add(0, c);
+            }
+            List<Slot> slots = new ArrayList<>();
+            for (Class<?> c : hierarchy) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    byte code = codeOf(field);
+                    slots.add(new Slot(field, code, code == OBJECT ? Layout.of(field.getType()) : null));
+                }
+            }
+            return new Layout(constructor, slots);
+        }
+
+        private static byte codeOf(Field field) {
+            Class<?> t = field.getType();
+            if (t == String.class) {
+                return STRING;
+            } else if (t == boolean.class || t == Boolean.class) {
+                return BOOLEAN;
+            } else if (t == int.class || t == Integer.class) {
+                return INT;
+            } else if (t == long.class || t == Long.class) {
+                return LONG;
+            } else if (t == double.class || t == Double.class) {
+                return DOUBLE;
+            } else if (t == LocalDate.class) {
+                return LOCAL_DATE;
+            } else if (t == LocalTime.class) {
+                return LOCAL_TIME;
+            } else if (t == LocalDateTime.class) {
+                return LOCAL_DATE_TIME;
+            } else if (t == Duration.class) {
+                return DURATION;
+            } else if (t.isEnum()) {
+                return ENUM;
+            } else if (!t.isPrimitive() && !t.isArray() && !t.getName().startsWith("java.")) {
+                return OBJECT;
+            }
+            throw new IllegalArgumentException("Tipo de campo no soportado en la instantánea binaria: "
+                    + field.getDeclaringClass().getSimpleName() + "." + field.getName() + " (" + t.getName() + ")");
+        }
+
+        Object newInstance() {
+            try {
+                return constructor.newInstance();
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("No se pudo crear una instancia de " + constructor.getDeclaringClass().getName(), e);
+            }
+        }
+
+        void writeSchema(DataOutput out) throws IOException {
+            writeVarInt(out, slots.size());
+            for (Slot slot : slots) {
+                out.writeUTF(slot.field().getName());
+                out.writeByte(slot.code());
+                if (slot.code() == ENUM) {
+                    Object[] constants = slot.field().getType().getEnumConstants();
+                    writeVarInt(out, constants.length);
+                    for (Object constant : constants) {
+                        out.writeUTF(((Enum<?>) constant).name());
+                    }
+                } else if (slot.code() == OBJECT) {
+                    slot.nested().writeSchema(out);
+                }
+            }
+        }
+
+        void writeRecord(Object entity, Buffer out) {
+            for (Slot slot : slots) {
+                Object value;
+                try {
+                    value = slot.field().get(entity);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("No se pudo leer el campo " + slot.field().getName(), e);
+                }
+                writeValue(slot, value, out);
+            }
+        }
+
+        private static void writeValue(Slot slot, Object value, Buffer out) {
+            if (value == null) {
+                out.putVarInt(0);
+                return;
+            }
+            switch (slot.code()) {
+                case STRING -> {
+                    String text = (String) value;
+                    if (isCanonicalUuid(text)) {
+                        UUID uuid = UUID.fromString(text);
+                        out.putVarInt(1 + 17);
+                        out.put(UUID_TEXT);
+                        out.putLong(uuid.getMostSignificantBits());
+                        out.putLong(uuid.getLeastSignificantBits());
+                    } else {
+                        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+                        out.putVarInt(1 + 1 + utf8.length);
+                        out.put(TEXT);
+                        out.putBytes(utf8, 0, utf8.length);
+                    }
+                }
+                case BOOLEAN -> {
+                    out.putVarInt(1 + 1);
+                    out.put((Boolean) value ? 1 : 0);
+                }
+                case INT -> {
+                    out.putVarInt(1 + 4);
+                    out.putInt((Integer) value);
+                }
+                case LONG -> {
+                    out.putVarInt(1 + 8);
+                    out.putLong((Long) value);
+                }
+                case DOUBLE -> {
+                    out.putVarInt(1 + 8);
+                    out.putLong(Double.doubleToRawLongBits((Double) value));
+                }
+                case LOCAL_DATE -> {
+                    out.putVarInt(1 + 8);
+                    out.putLong(((LocalDate) value).toEpochDay());
+                }
+                case LOCAL_TIME -> {
+                    out.putVarInt(1 + 8);
+                    out.putLong(((LocalTime) value).toNanoOfDay());
+                }
+                case LOCAL_DATE_TIME -> {
+                    LocalDateTime dateTime = (LocalDateTime) value;
+                    putSecondsAndNanos(out, dateTime.toEpochSecond(ZoneOffset.UTC), dateTime.getNano());
+                }
+                case DURATION -> {
+                    Duration duration = (Duration) value;
+                    putSecondsAndNanos(out, duration.getSeconds(), duration.getNano());
+                }
+                case ENUM -> {
+                    int ordinal = ((Enum<?>) value).ordinal();
+                    out.putVarInt(1 + varIntSize(ordinal));
+                    out.putVarInt(ordinal);
+                }
+                case OBJECT -> {
+                    Buffer nested = new Buffer();
+                    slot.nested().writeRecord(value, nested);
+                    out.putVarInt(1 + nested.size);
+                    out.putBytes(nested.bytes, 0, nested.size);
+                }
+                default -> throw new IllegalStateException("Tipo de campo desconocido: " + slot.code());
+            }
+        }
+
+        private static void putSecondsAndNanos(Buffer out, long seconds, int nanos) {
+            out.putVarInt(1 + (nanos == 0 ? 8 : 12));
+            out.putLong(seconds);
+            if (nanos != 0) {
+                out.putInt(nanos);
+            }
+        }
+    }
+
+    /**
+     * Asociación entre el esquema de un archivo y los campos de la clase actual.
+     */
+    private static final class Binding {
+
+        private final Layout layout;
+        private final SchemaField[] schema;
+        private final Slot[] slots;
+        private final Object[][] enumConstants;
+        private final Binding[] nested;
+
+        private Binding(Layout layout, SchemaField[] schema) {
+            this.layout = layout;
+            this.schema = schema;
+            this.slots = new Slot[schema.length];
+            this.enumConstants = new Object[schema.length][];
+            this.nested = new Binding[schema.length];
+        }
+
+        static Binding of(List<SchemaField> schema, Layout layout) {
+            Binding binding = new Binding(layout, schema.toArray(new SchemaField[0]));
+            for (int i = 0; i < binding.schema.length; i++) {
+                SchemaField field = binding.schema[i];
+                Slot slot = layout.byName.get(field.name());
+                if (slot == null || slot.code() != field.code()) {
+                    continue; // Campo eliminado o con otro tipo: se salta.
+                }
+                binding.slots[i] = slot;
+                if (field.code() == ENUM) {
+                    binding.enumConstants[i] = remapEnum(slot.field().getType(), field.constants());
+                } else if (field.code() == OBJECT) {
+                    binding.nested[i] = Binding.of(field.nested(), slot.nested());
+                }
+            }
+            return binding;
+        }
+
+        private static Object[] remapEnum(Class<?> enumType, String[] names) {
+            Map<String, Object> current = new HashMap<>();
+            for (Object constant : enumType.getEnumConstants()) {
+                current.put(((Enum<?>) constant).name(), constant);
+            }
+            Object[] byOrdinal = new Object[names.length];
+            for (int i = 0; i < names.length; i++) {
+                byOrdinal[i] = current.get(names[i]);
+            }
+            return byOrdinal;
+        }
+
+        Object readRecord(ByteBuffer in) {
+            Object instance = layout.newInstance();
+            for (int i = 0; i < schema.length; i++) {
+                int header = readVarInt(in);
+                Slot slot = slots[i];
+                if (header == 0) {
+                    if (slot != null && !slot.field().getType().isPrimitive()) {
+                        set(slot, instance, null);
+                    }
+                    continue;
+                }
+                int length = header - 1;
+                int end = in.position() + length;
+                if (end > in.limit()) {
+                    throw new IllegalStateException("Campo " + schema[i].name() + " excede el registro");
+                }
+                if (slot != null) {
+                    set(slot, instance, readValue(i, in, length));
+                }
+                in.position(end);
+            }
+            return instance;
+        }
+
+        private Object readValue(int i, ByteBuffer in, int length) {
+            switch (schema[i].code()) {
+                case STRING -> {
+                    byte kind = in.get();
+                    if (kind == UUID_TEXT) {
+                        return new UUID(in.getLong(), in.getLong()).toString();
+                    }
+                    String text = new String(in.array(), in.arrayOffset() + in.position(), length - 1, StandardCharsets.UTF_8);
+                    in.position(in.position() + length - 1);
+                    return text;
+                }
+                case BOOLEAN -> {
+                    return in.get() != 0;
+                }
+                case INT -> {
+                    return in.getInt();
+                }
+                case LONG -> {
+                    return in.getLong();
+                }
+                case DOUBLE -> {
+                    return Double.longBitsToDouble(in.getLong());
+                }
+                case LOCAL_DATE -> {
+                    return LocalDate.ofEpochDay(in.getLong());
+                }
+                case LOCAL_TIME -> {
+                    return LocalTime.ofNanoOfDay(in.getLong());
+                }
+                case LOCAL_DATE_TIME -> {
+                    long seconds = in.getLong();
+                    return LocalDateTime.ofEpochSecond(seconds, length == 12 ? in.getInt() : 0, ZoneOffset.UTC);
+                }
+                case DURATION -> {
+                    long seconds = in.getLong();
+                    return Duration.ofSeconds(seconds, length == 12 ? in.getInt() : 0);
+                }
+                case ENUM -> {
+                    int ordinal = readVarInt(in);
+                    Object[] constants = enumConstants[i];
+                    return ordinal < constants.length ? constants[ordinal] : null;
+                }
+                case OBJECT -> {
+                    ByteBuffer slice = in.slice(in.position(), length).order(ByteOrder.BIG_ENDIAN);
+                    return nested[i].readRecord(slice);
+                }
+                default -> throw new IllegalStateException("Tipo de campo desconocido: " + schema[i].code());
+            }
+        }
+
+        private static void set(Slot slot, Object instance, Object value) {
+            try {
+                slot.field().set(instance, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("No se pudo asignar el campo " + slot.field().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Indica si el texto es un UUID en su forma canónica (minúsculas, con guiones), de
+     * modo que {@code UUID.fromString(text).toString()} devuelve exactamente el mismo texto.
+     */
+    private static boolean isCanonicalUuid(String text) {
+        if (text.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = text.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint demasiado largo");
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint demasiado largo");
+    }
+
+    /**
+     * Búfer de bytes creciente en el que se arma cada registro antes de escribir su longitud.
+     */
+    private static final class Buffer {
+
+        private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+        private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        void put(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void putInt(int value) {
+            ensure(4);
+            INT_VIEW.set(bytes, size, value);
+            size += 4;
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            LONG_VIEW.set(bytes, size, value);
+            size += 8;
+        }
+
+        void putVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                put((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            put(value);
+        }
+
+        void putBytes(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+    }
+}
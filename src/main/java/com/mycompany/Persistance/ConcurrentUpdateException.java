@@ -0,0 +1,31 @@
+package com.mycompany.Persistance;
+
+import java.util.Set;
+
+/**
+ * Indica que otra instancia que comparte el directorio de datos modificó las mismas
+ * entidades después de que esta instancia las leyó. Los cambios locales de esas
+ * entidades no se escribieron y los datos en memoria ya tienen la versión de la otra
+ * instancia, así que la operación se puede repetir sobre ellos.
+ */
+public class ConcurrentUpdateException extends IllegalStateException {
+
+    private final Set<String> ids;
+
+    /**
+     * @param filePath archivo del repositorio
+     * @param ids      ids de las entidades en conflicto
+     */
+    public ConcurrentUpdateException(String filePath, Set<String> ids) {
+        super("Otra instancia modificó " + ids.size() + " registro(s) de " + filePath
+                + " después de leerlos; se conservaron sus cambios: " + ids);
+        this.ids = Set.copyOf(ids);
+    }
+
+    /**
+     * @return ids de las entidades cuyos cambios locales no se escribieron
+     */
+    public Set<String> ids() {
+        return ids;
+    }
+}
@@ -1,13 +1,14 @@
 package com.mycompany.Persistance;
 
 import com.google.gson.reflect.TypeToken;
+import com.mycompany.Interfaces.IAppointmentRepository;
 import com.mycompany.Interfaces.IConsultationRepository;
+import com.mycompany.Interfaces.PageRequest;
+import com.mycompany.Models.Appointment;
 import com.mycompany.Models.Consultation;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Repositorio persistente para consultas ({@link Consultation}) utilizando almacenamiento JSON.
@@ -19,6 +20,14 @@ import java.util.stream.Collectors;
  * </p>
  *
  * <p>
+ * Las consultas se guardan con {@code appointmentId}; la cita (y a través de ella el
+ * paciente y el doctor) se resuelve contra el repositorio de citas cada vez que se
+ * devuelve una consulta. Se mantienen índices por cita, paciente y doctor; los de
+ * paciente y doctor están ordenados por fecha de registro, así que una página del
+ * historial (por ejemplo, las 50 más recientes) se lee sin recorrer el historial completo.
+ * </p>
+ *
+ * <p>
  * Manejo de excepciones:
  * <ul>
  *     <li>{@link IllegalArgumentException} si algún parámetro de entrada es nulo o inválido.</li>
@@ -33,18 +42,66 @@ public class ConsultationRepositoryJSON extends JsonRepository<Consultation> imp
     private static final String FILE_NAME = "consultations.json";
     private static final Type LIST_TYPE = new TypeToken<List<Consultation>>() {}.getType();
 
+    private final IAppointmentRepository appointmentRepository;
+    private final SecondaryIndex<Consultation, String> byAppointment;
+    private final SecondaryIndex<Consultation, String> byPatient;
+    private final SecondaryIndex<Consultation, String> byDoctor;
+
     /**
      * Constructor que inicializa el repositorio cargando las consultas desde el archivo JSON.
+     *
+     * @param appointmentRepository repositorio usado para resolver la cita de cada consulta
+     * @throws IllegalArgumentException si {@code appointmentRepository} es nulo
+     */
+    public ConsultationRepositoryJSON(IAppointmentRepository appointmentRepository) {
+        super(FILE_NAME, LIST_TYPE, Consultation::getId);
+        if (appointmentRepository == null) {
+            throw new IllegalArgumentException("El repositorio de citas no puede ser nulo");
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.byAppointment = registerIndex(Consultation::getAppointmentId);
+        this.byPatient = registerIndex(c -> appointmentOf(c).map(Appointment::getPatientId).orElse(null),
+                Consultation::getRegistrationDate);
+        this.byDoctor = registerIndex(c -> appointmentOf(c).map(Appointment::getDoctorId).orElse(null),
+                Consultation::getRegistrationDate);
+    }
+
+    private Optional<Appointment> appointmentOf(Consultation consultation) {
+        String appointmentId = consultation.getAppointmentId();
+        if (appointmentId == null || appointmentId.isBlank()) {
+            return Optional.empty();
+        }
+        return appointmentRepository.searchById(appointmentId);
+    }
+
+    /**
+     * Devuelve una copia de la consulta con la cita actual según su id. La consulta
+     * almacenada no se modifica.
+     *
+     * @param consultation consulta a resolver
+     * @return copia resuelta de la consulta
      */
-    public ConsultationRepositoryJSON() {
-        super(FILE_NAME, LIST_TYPE);
+    private Consultation resolve(Consultation consultation) {
+        Consultation resolved = new Consultation(consultation);
+        appointmentOf(consultation).ifPresent(resolved::setAppointment);
+        return resolved;
+    }
+
+    @Override
+    protected Consultation resolveReferences(Consultation consultation) {
+        return resolve(consultation);
+    }
+
+    private List<Consultation> resolveAll(List<Consultation> consultations) {
+        consultations.replaceAll(this::resolve);
+        return consultations;
     }
 
     /**
      * Agrega una consulta al repositorio y persiste los cambios en JSON.
      *
      * @param consultation consulta a agregar (no puede ser nula)
-     * @return {@code true} si se agregó correctamente, {@code false} si ocurrió un error
+     * @return {@code true} si se agregó correctamente, {@code false} si ya existe una con el mismo ID o ocurrió un error
      * @throws IllegalArgumentException si {@code consultation} es nula
      * @throws RuntimeException si ocurre un error de persistencia
      */
@@ -53,13 +110,18 @@ public class ConsultationRepositoryJSON extends JsonRepository<Consultation> imp
         if (consultation == null) {
             throw new IllegalArgumentException("La consulta no puede ser nula");
         }
+        writeLock.lock();
         try{
-            data.add(consultation);
-            save();
+            if (!insertEntity(consultation)) {
+                System.err.println("Ya existe una consulta con el ID: " + consultation.getId());
+                return false;
+            }
             return true;
         } catch (RuntimeException e){
             System.err.println("Error al agregar la consulta: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -75,13 +137,14 @@ public class ConsultationRepositoryJSON extends JsonRepository<Consultation> imp
         if (patientID == null || patientID.isEmpty()) {
             throw new IllegalArgumentException("El ID del paciente no puede ser nulo o vacío");
         }
+        readLock.lock();
         try{
-            return data.stream().
-                    filter(c -> c.getAppointment().getPatient().getId().equals(patientID))
-                    .collect(Collectors.toList());
+            return resolveAll(findByIndex(byPatient, patientID));
         } catch (RuntimeException e){
             System.err.println("Error al buscar consultas por paciente: " + e.getMessage());
             return List.of();
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -97,28 +160,129 @@ public class ConsultationRepositoryJSON extends JsonRepository<Consultation> imp
         if (doctorID == null || doctorID.isEmpty()) {
             throw new IllegalArgumentException("El ID del doctor no puede ser nulo o vacío");
         }
+        readLock.lock();
         try{
-            return data.stream().
-                    filter(c -> c.getAppointment().getDoctor().getId().equals(doctorID))
-                    .collect(Collectors.toList());
+            return resolveAll(findByIndex(byDoctor, doctorID));
         } catch (RuntimeException e){
             System.err.println("Error al buscar consultas por doctor: " + e.getMessage());
             return List.of();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Cuenta las consultas asociadas a un paciente.
+     *
+     * @param patientID ID del paciente (no nulo ni vacío)
+     * @return cantidad de consultas del paciente
+     * @throws IllegalArgumentException si {@code patientID} es nulo o vacío
+     */
+    @Override
+    public int countByPatient(String patientID) {
+        if (patientID == null || patientID.isEmpty()) {
+            throw new IllegalArgumentException("El ID del paciente no puede ser nulo o vacío");
+        }
+        readLock.lock();
+        try {
+            return countByIndex(byPatient, patientID);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve una página de las consultas de un paciente, ordenadas por fecha de
+     * registro. Solo se leen y resuelven las consultas de la página.
+     *
+     * @param patientID ID del paciente (no nulo ni vacío)
+     * @param page      página a devolver (no nula)
+     * @return consultas de la página; vacía si no hay más
+     * @throws IllegalArgumentException si {@code patientID} es nulo o vacío o {@code page} es nula
+     */
+    @Override
+    public List<Consultation> searchByPatient(String patientID, PageRequest page) {
+        if (patientID == null || patientID.isEmpty()) {
+            throw new IllegalArgumentException("El ID del paciente no puede ser nulo o vacío");
+        }
+        if (page == null) {
+            throw new IllegalArgumentException("La página no puede ser nula");
+        }
+        readLock.lock();
+        try {
+            return resolveAll(findByIndex(byPatient, patientID, page));
+        } catch (RuntimeException e) {
+            System.err.println("Error al buscar consultas por paciente: " + e.getMessage());
+            return List.of();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Cuenta las consultas asociadas a un doctor.
+     *
+     * @param doctorID ID del doctor (no nulo ni vacío)
+     * @return cantidad de consultas del doctor
+     * @throws IllegalArgumentException si {@code doctorID} es nulo o vacío
+     */
+    @Override
+    public int countByDoctor(String doctorID) {
+        if (doctorID == null || doctorID.isEmpty()) {
+            throw new IllegalArgumentException("El ID del doctor no puede ser nulo o vacío");
+        }
+        readLock.lock();
+        try {
+            return countByIndex(byDoctor, doctorID);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve una página de las consultas de un doctor, ordenadas por fecha de registro.
+     * Solo se leen y resuelven las consultas de la página.
+     *
+     * @param doctorID ID del doctor (no nulo ni vacío)
+     * @param page     página a devolver (no nula)
+     * @return consultas de la página; vacía si no hay más
+     * @throws IllegalArgumentException si {@code doctorID} es nulo o vacío o {@code page} es nula
+     */
+    @Override
+    public List<Consultation> searchByDoctor(String doctorID, PageRequest page) {
+        if (doctorID == null || doctorID.isEmpty()) {
+            throw new IllegalArgumentException("El ID del doctor no puede ser nulo o vacío");
+        }
+        if (page == null) {
+            throw new IllegalArgumentException("La página no puede ser nula");
+        }
+        readLock.lock();
+        try {
+            return resolveAll(findByIndex(byDoctor, doctorID, page));
+        } catch (RuntimeException e) {
+            System.err.println("Error al buscar consultas por doctor: " + e.getMessage());
+            return List.of();
+        } finally {
+            readLock.unlock();
         }
     }
 
     /**
      * Devuelve todas las consultas almacenadas.
      *
-     * @return nueva lista con todas las consultas
+     * @return lista inmutable con todas las consultas, compartida entre llamadas
+     * mientras no haya cambios
      */
     @Override
     public List<Consultation> listAll() {
+        readLock.lock();
         try {
-            return new ArrayList<>(data);
+            return resolvedSnapshot();
         } catch (RuntimeException e) {
             System.err.println("Error al listar todas las consultas: " + e.getMessage());
             return List.of();
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -134,13 +298,16 @@ public class ConsultationRepositoryJSON extends JsonRepository<Consultation> imp
         if (appointmentID == null || appointmentID.isEmpty()) {
             throw new IllegalArgumentException("El ID de la cita no puede ser nulo o vacío");
         }
+        readLock.lock();
         try{
-            return data.stream().
-                    filter(c -> c.getAppointment() != null).
-                    filter(c -> c.getAppointment().getId().equals(appointmentID)).findFirst();
+            return findByIndex(byAppointment, appointmentID).stream()
+                    .findFirst()
+                    .map(this::resolve);
         } catch (RuntimeException e){
             System.err.println("Error al buscar consulta por cita: " + e.getMessage());
             return Optional.empty();
+        } finally {
+            readLock.unlock();
         }
     }
 }
@@ -5,10 +5,14 @@
 package com.mycompany.Persistance;
 
 import com.mycompany.Interfaces.IConsultationRepository;
+import com.mycompany.Interfaces.PageRequest;
 import com.mycompany.Models.Consultation;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +21,8 @@ import java.util.stream.Collectors;
  */
 public class ConsultationRepositoryMemory implements IConsultationRepository {
 
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); //Lecturas concurrentes, escrituras serializadas
+
     private final List<Consultation> repo;
 
     public ConsultationRepositoryMemory() {
@@ -29,38 +35,112 @@ public class ConsultationRepositoryMemory implements IConsultationRepository {
 
     @Override
     public boolean add(Consultation consultation) {
-        if (repo != null) {
-            this.repo.add(consultation);
-            return true;
-        } else {
-            return false;
+        lock.writeLock().lock();
+        try {
+            if (repo != null) {
+                this.repo.add(consultation);
+                return true;
+            } else {
+                return false;
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public List<Consultation> searchByPatient(String patientID) {
-        return this.repo.stream().
-                filter(c -> c.getAppointment().getPatient().getId().equals(patientID))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return this.repo.stream().
+                    filter(c -> c.getAppointment().getPatient().getId().equals(patientID))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Consultation> searchByDoctor(String doctorID) {
-        return this.repo.stream().
-                filter(c -> c.getAppointment().getDoctor().getId().equals(doctorID))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return this.repo.stream().
+                    filter(c -> c.getAppointment().getDoctor().getId().equals(doctorID))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByPatient(String patientID) {
+        lock.readLock().lock();
+        try {
+            return (int) this.repo.stream()
+                    .filter(c -> c.getAppointment().getPatient().getId().equals(patientID))
+                    .count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Consultation> searchByPatient(String patientID, PageRequest page) {
+        return page(c -> c.getAppointment().getPatient().getId().equals(patientID), page);
+    }
+
+    @Override
+    public int countByDoctor(String doctorID) {
+        lock.readLock().lock();
+        try {
+            return (int) this.repo.stream()
+                    .filter(c -> c.getAppointment().getDoctor().getId().equals(doctorID))
+                    .count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Consultation> searchByDoctor(String doctorID, PageRequest page) {
+        return page(c -> c.getAppointment().getDoctor().getId().equals(doctorID), page);
+    }
+
+    private List<Consultation> page(Predicate<Consultation> filter, PageRequest page) {
+        Comparator<Consultation> order = Comparator.comparing(Consultation::getRegistrationDate);
+        lock.readLock().lock();
+        try {
+            return this.repo.stream()
+                    .filter(filter)
+                    .sorted(page.newestFirst() ? order.reversed() : order)
+                    .skip(page.offset())
+                    .limit(page.limit())
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Consultation> listAll() {
-        return this.repo;
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(this.repo);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public Optional<Consultation> searchByAppointment(String appointmentID) {
-        return this.repo.stream().
-                filter(c -> c.getAppointment() != null).
-                filter(c -> c.getAppointment().getId().equals(appointmentID)).findFirst();
+        lock.readLock().lock();
+        try {
+            return this.repo.stream().
+                    filter(c -> c.getAppointment() != null).
+                    filter(c -> c.getAppointment().getId().equals(appointmentID)).findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
 }
@@ -38,11 +38,31 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
     private static final Type LIST_TYPE = new TypeToken<List<Doctor>>() {
     }.getType();
 
+    private final UsernameDirectory usernames;
+    private final SecondaryIndex<Doctor, String> byDocumentNumber;
+
     /**
-     * Constructor que inicializa el repositorio cargando los doctores desde el archivo JSON.
+     * Constructor que inicializa el repositorio cargando los doctores desde el archivo JSON,
+     * con un directorio de usernames propio.
      */
     public DoctorRepositoryJSON() {
-        super(FILE_NAME, LIST_TYPE);
+        this(new UsernameDirectory());
+    }
+
+    /**
+     * Constructor que inicializa el repositorio cargando los doctores desde el archivo JSON.
+     *
+     * @param usernames directorio de usernames compartido donde se registran los doctores
+     * @throws IllegalArgumentException si {@code usernames} es nulo
+     */
+    public DoctorRepositoryJSON(UsernameDirectory usernames) {
+        super(FILE_NAME, LIST_TYPE, Doctor::getId);
+        if (usernames == null){
+            throw new IllegalArgumentException("El directorio de usernames no puede ser nulo");
+        }
+        this.usernames = usernames;
+        registerIndex(usernames.<Doctor>bind(this));
+        this.byDocumentNumber = registerIndex(Doctor::getDocumentNumber);
     }
 
     /**
@@ -50,7 +70,7 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
      * número de documento.
      *
      * @param doctor doctor a agregar (no puede ser nulo)
-     * @return {@code true} si se agregó correctamente, {@code false} si ya existe uno igual o ocurre un error
+     * @return {@code true} si se agregó correctamente, {@code false} si ya existe uno igual (mismo ID, username o documento) o ocurre un error
      * @throws IllegalArgumentException si {@code doctor} es nulo
      */
     @Override
@@ -58,21 +78,24 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
         if (doctor == null){
             throw new IllegalArgumentException("El doctor no puede ser nulo");
         }
+        writeLock.lock();
         try{
-            boolean exists = data.stream().anyMatch(d ->
-                    d.getUsername().equals(doctor.getUsername()) ||
-                            d.getDocumentNumber().equals(doctor.getDocumentNumber())
-            );
+            boolean exists = (doctor.getUsername() != null && usernames.find(this, doctor.getUsername()).isPresent())
+                    || !findByIndex(byDocumentNumber, doctor.getDocumentNumber()).isEmpty();
             if (exists) {
                 System.err.println("El doctor con el mismo username o número de documento ya existe.");
                 return false;
             }
-            data.add(doctor);
-            save();
+            if (!insertEntity(doctor)) {
+                System.err.println("Ya existe un doctor con el ID: " + doctor.getId());
+                return false;
+            }
             return true;
         } catch (RuntimeException e){
             System.err.println("Error al agregar el doctor: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -88,11 +111,14 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
         if (id == null || id.isEmpty()){
             throw new IllegalArgumentException("El id no puede ser nulo o vacío");
         }
+        writeLock.lock();
         try{
-            Optional<Doctor> doctorOpt = searchById(id);
+            Optional<Doctor> doctorOpt = findById(id);
             if (doctorOpt.isPresent()){
-                doctorOpt.get().setCurrentStatus(false);
-                save();
+                Doctor inactive = new Doctor(doctorOpt.get());
+                inactive.setCurrentStatus(false);
+                replaceEntity(inactive);
+                save(inactive);
                 return true;
             }
             
@@ -101,6 +127,8 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
         } catch (RuntimeException e){
             System.err.println("Error al eliminar el doctor: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -116,13 +144,11 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
         if (doctor == null){
             throw new IllegalArgumentException("El doctor no puede ser nulo");
         }
+        writeLock.lock();
         try{
-            for (int i = 0; i < data.size(); i++) {
-                if (data.get(i).getId().equals(doctor.getId())) {
-                    data.set(i, doctor);
-                    save();
-                    return true;
-                }
+            if (replaceEntity(doctor)) {
+                save(doctor);
+                return true;
             }
 
             System.err.println("No se encontró el doctor a actualizar con id: " + doctor.getId());
@@ -130,6 +156,8 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
         } catch (RuntimeException e){
             System.err.println("Error al actualizar el doctor: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -145,13 +173,14 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
         if (id == null || id.isEmpty()){
             throw new IllegalArgumentException("El id no puede ser nulo o vacío");
         }
+        readLock.lock();
         try{
-            return data.stream()
-                    .filter(d -> d.getId().equals(id))
-                    .findFirst();
+            return findById(id);
         } catch (RuntimeException e){
             System.err.println("Error al buscar el doctor por id: " + e.getMessage());
             return Optional.empty();
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -167,6 +196,7 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
         if (specialty == null){
             throw new IllegalArgumentException("La especialidad no puede ser nula");
         }
+        readLock.lock();
         try{
             return data.stream()
                     .filter(d -> specialty.equals(d.getMedicalSpecialty()))
@@ -174,6 +204,8 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
         } catch (RuntimeException e){
             System.err.println("Error al buscar doctores por especialidad: " + e.getMessage());
             return new ArrayList<>();
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -184,18 +216,30 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
      */
     @Override
     public List<Doctor> listAll() {
+        readLock.lock();
         try{
-            return data.stream()
-                    .filter(Doctor::isCurrentStatus)
-                    .toList();
+            return filteredSnapshot(Doctor::isCurrentStatus);
         } catch (RuntimeException e){
             System.err.println("Error al listar los doctores: " + e.getMessage());
             return new ArrayList<>();
+        } finally {
+            readLock.unlock();
         }
     }
 
+    /**
+     * Solo cuentan como activos los registros con estado vigente, igual que en
+     * {@link #listAll()}.
+     */
+    @Override
+    protected boolean isActive(Doctor entity) {
+        return entity.isCurrentStatus();
+    }
+
     /**
      * Busca un usuario por su nombre de usuario (username) para autenticación.
+     * Se resuelve con el directorio de usernames, sin recorrer la colección; se
+     * ignoran los espacios al inicio y al final.
      *
      * @param username nombre de usuario (no puede ser nulo o vacío)
      * @return {@link Optional} con el usuario si se encontró, vacío en caso contrario
@@ -206,14 +250,46 @@ public class DoctorRepositoryJSON extends JsonRepository<Doctor>
         if (username == null || username.isEmpty()){
             throw new IllegalArgumentException("El username no puede ser nulo o vacío");
         }
+        readLock.lock();
         try{
-            return data.stream()
-                    .filter(d -> d.getUsername().equals(username))
-                    .map(d -> (User) d)
-                    .findFirst();
+            return usernames.find(this, username);
         } catch (RuntimeException e){
             System.err.println("Error al buscar el usuario por username: " + e.getMessage());
             return Optional.empty();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Reemplaza la contraseña guardada de un doctor y registra el cambio en el journal.
+     *
+     * @param userId          id del doctor (no puede ser nulo o vacío)
+     * @param encodedPassword contraseña ya codificada (no puede ser nula o vacía)
+     * @return true si se actualizó; false si no existe o hay error
+     * @throws IllegalArgumentException si algún parámetro es nulo o vacío
+     */
+    @Override
+    public boolean updatePassword(String userId, String encodedPassword) {
+        if (userId == null || userId.isBlank() || encodedPassword == null || encodedPassword.isBlank()) {
+            throw new IllegalArgumentException("El id y la contraseña no pueden ser nulos o vacíos");
+        }
+        writeLock.lock();
+        try {
+            return findById(userId)
+                    .map(doctor -> {
+                        Doctor updated = new Doctor(doctor);
+                        updated.setPassword(encodedPassword);
+                        replaceEntity(updated);
+                        save(updated);
+                        return true;
+                    })
+                    .orElse(false);
+        } catch (RuntimeException e) {
+            System.err.println("Error al actualizar la contraseña: " + e.getMessage());
+            return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 }
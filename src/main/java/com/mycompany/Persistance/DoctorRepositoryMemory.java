@@ -12,6 +12,7 @@ import com.mycompany.Models.User;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Implementación en memoria del repositorio de doctores.
@@ -20,68 +21,122 @@ import java.util.Optional;
  */
 public class DoctorRepositoryMemory implements IAuthenticableRepository, IDoctorRepository {
 
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); //Lecturas concurrentes, escrituras serializadas
+
     private final List<Doctor> doctors = new ArrayList<>();
 
     @Override
     public Optional<User> searchByUsername(String username) {
-        return doctors.stream()
-                .filter(Doctor::isCurrentStatus)
-                .filter(d -> d.getUsername().equals(username.trim()))
-                .map(d -> (User) d)
-                .findFirst();
+        lock.readLock().lock();
+        try {
+            return doctors.stream()
+                    .filter(Doctor::isCurrentStatus)
+                    .filter(d -> d.getUsername().equals(username.trim()))
+                    .map(d -> (User) d)
+                    .findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public boolean add(Doctor doctor) {
-        return doctors.add(doctor);
+        lock.writeLock().lock();
+        try {
+            return doctors.add(doctor);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public boolean deleteById(String id) {
-        return doctors.stream()
-                .filter(d -> d.getId().equals(id))
-                .findFirst()
-                .map(doctor -> {
-                    doctor.setCurrentStatus(false);
-                    return true;
-                })
-                .orElse(false);
+        lock.writeLock().lock();
+        try {
+            return doctors.stream()
+                    .filter(d -> d.getId().equals(id))
+                    .findFirst()
+                    .map(doctor -> {
+                        doctor.setCurrentStatus(false);
+                        return true;
+                    })
+                    .orElse(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public boolean update(Doctor doctor) {
-        for (int i = 0; i < doctors.size(); i++) {
-            if (doctors.get(i).getId().equals(doctor.getId())) {
-                doctors.set(i, doctor);
-                return true;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < doctors.size(); i++) {
+                if (doctors.get(i).getId().equals(doctor.getId())) {
+                    doctors.set(i, doctor);
+                    return true;
+                }
             }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     @Override
     public Optional<Doctor> searchById(String id) {
-        //if (id == null || id.isEmpty()) {
-            //return Optional.empty();
-        //}
-        return doctors.stream()
-                .filter(Doctor::isCurrentStatus)
-                .filter(d -> d.getId().equals(id))
-                .findFirst();
+        lock.readLock().lock();
+        try {
+            //if (id == null || id.isEmpty()) {
+                //return Optional.empty();
+            //}
+            return doctors.stream()
+                    .filter(Doctor::isCurrentStatus)
+                    .filter(d -> d.getId().equals(id))
+                    .findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Doctor> searchBySpecialty(Specialty specialty) {
-        return doctors.stream()
-                .filter(Doctor::isCurrentStatus)
-                .filter(d -> specialty.equals(d.getMedicalSpecialty()))
-                .toList();
+        lock.readLock().lock();
+        try {
+            return doctors.stream()
+                    .filter(Doctor::isCurrentStatus)
+                    .filter(d -> specialty.equals(d.getMedicalSpecialty()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Doctor> listAll() {
-        return doctors.stream()
-                .filter(Doctor::isCurrentStatus)
-                .toList();
+        lock.readLock().lock();
+        try {
+            return doctors.stream()
+                    .filter(Doctor::isCurrentStatus)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updatePassword(String userId, String encodedPassword) {
+        lock.writeLock().lock();
+        try {
+            return doctors.stream()
+                    .filter(u -> u.getId().equals(userId))
+                    .findFirst()
+                    .map(doctor -> {
+                        doctor.setPassword(encodedPassword);
+                        return true;
+                    })
+                    .orElse(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 }
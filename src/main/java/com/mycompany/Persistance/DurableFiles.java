@@ -0,0 +1,93 @@
+package com.mycompany.Persistance;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escritura de archivos a prueba de caídas.
+ *
+ * <p>
+ * El contenido se escribe en un archivo temporal del mismo directorio, se fuerza a disco
+ * ({@code fsync}) y luego se mueve sobre el destino con {@link StandardCopyOption#ATOMIC_MOVE}.
+ * Un lector (o el proceso tras un reinicio) ve siempre el archivo anterior completo o el
+ * nuevo completo, nunca uno truncado. Finalmente se sincroniza el directorio para que el
+ * cambio de nombre también sea durable.
+ * </p>
+ */
+final class DurableFiles {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Contenido a escribir en el archivo temporal.
+     */
+    @FunctionalInterface
+    interface Content {
+
+        /**
+         * Escribe el contenido completo. No debe cerrar el flujo.
+         *
+         * @param out flujo de salida con búfer
+         * @throws IOException si ocurre un error de escritura
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private DurableFiles() {
+    }
+
+    /**
+     * Reemplaza atómicamente el archivo de destino con el contenido indicado.
+     *
+     * @param target  archivo de destino
+     * @param content productor del contenido
+     * @throws IOException si ocurre un error; en ese caso el destino queda intacto
+     */
+    static void replace(Path target, Content content) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        Path directory = absolute.getParent();
+        Files.createDirectories(directory);
+        Path temp = directory.resolve(absolute.getFileName() + TEMP_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            content.writeTo(out);
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(directory);
+    }
+
+    /**
+     * Fuerza a disco las entradas de un directorio (creación o cambio de nombre de archivos).
+     * En sistemas que no permiten abrir un directorio (Windows) no hace nada.
+     *
+     * @param directory directorio a sincronizar
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // No soportado en esta plataforma: el contenido del archivo ya es durable.
+        }
+    }
+}
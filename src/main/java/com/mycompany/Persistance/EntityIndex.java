@@ -0,0 +1,54 @@
+package com.mycompany.Persistance;
+
+import java.util.List;
+
+/**
+ * Estructura derivada de los datos de un {@link JsonRepository} que el repositorio
+ * mantiene sincronizada en cada carga, inserción, reemplazo y limpieza.
+ *
+ * <p>
+ * Los índices secundarios ({@link SecondaryIndex}) y el directorio de usuarios
+ * ({@link UsernameDirectory}) se registran con
+ * {@link JsonRepository#registerIndex(EntityIndex)}.
+ * </p>
+ *
+ * @param <T> Tipo de entidad indexada.
+ */
+interface EntityIndex<T> {
+
+    /**
+     * Registra la entidad almacenada en {@code position}.
+     *
+     * @param entity   entidad agregada
+     * @param position posición de la entidad en la colección
+     */
+    void add(T entity, int position);
+
+    /**
+     * Actualiza la entrada de la entidad en {@code position}, que se reemplazó o se
+     * modificó en sitio.
+     *
+     * @param entity   entidad con su estado actual
+     * @param position posición de la entidad en la colección
+     */
+    void update(T entity, int position);
+
+    /**
+     * Elimina todas las entradas.
+     */
+    void clear();
+
+    /**
+     * Reemplaza todas las entradas con las de una colección completa (al cargar o
+     * recargar). Por defecto limpia y agrega cada entidad con {@link #add(Object, int)};
+     * las implementaciones pueden construirse de una sola vez.
+     *
+     * @param entities entidades en el orden en que están almacenadas
+     */
+    default void rebuild(List<T> entities) {
+        clear();
+        for (int i = 0; i < entities.size(); i++) {
+            add(entities.get(i), i);
+        }
+    }
+}
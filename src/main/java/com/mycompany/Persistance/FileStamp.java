@@ -0,0 +1,46 @@
+package com.mycompany.Persistance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Huella barata de un archivo (existencia, tamaño, fecha de modificación e identidad en
+ * el sistema de archivos) para saber si cambió sin leer su contenido.
+ *
+ * <p>
+ * La identidad ({@link BasicFileAttributes#fileKey()}, el inodo en Linux) cambia cuando el
+ * archivo se reemplaza con un {@code move}, como hacen las compactaciones, aunque el
+ * tamaño y la fecha coincidan. En sistemas que no la informan vale {@code null} y solo
+ * cuentan el tamaño y la fecha.
+ * </p>
+ *
+ * @param exists   si el archivo existía
+ * @param size     tamaño en bytes; {@code 0} si no existía
+ * @param modified fecha de última modificación; {@code null} si no existía
+ * @param key      identidad del archivo, o {@code null} si no existía o no se informa
+ */
+record FileStamp(boolean exists, long size, FileTime modified, Object key) {
+
+    private static final FileStamp MISSING = new FileStamp(false, 0, null, null);
+
+    /**
+     * @param path archivo a inspeccionar
+     * @return huella actual del archivo
+     * @throws UncheckedIOException si no se pueden leer los atributos
+     */
+    static FileStamp of(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileStamp(true, attributes.size(), attributes.lastModifiedTime(), attributes.fileKey());
+        } catch (NoSuchFileException e) {
+            return MISSING;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer los atributos de " + path, e);
+        }
+    }
+}
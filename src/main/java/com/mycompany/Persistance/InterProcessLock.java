@@ -0,0 +1,112 @@
+package com.mycompany.Persistance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Candado exclusivo compartido entre procesos, sobre un archivo {@code .lock} del
+ * directorio de datos ({@link FileChannel#lock()}).
+ *
+ * <p>
+ * Los candados de archivo del sistema pertenecen al proceso, no al hilo, y la JVM no
+ * permite que dos canales del mismo proceso tomen el mismo archivo. Por eso hay una sola
+ * instancia por archivo en cada JVM ({@link #forFile(Path)}) y un semáforo ordena a los
+ * hilos del proceso antes de pedir el candado al sistema. No es reentrante; a cambio, lo
+ * puede liberar un hilo distinto del que lo tomó (por ejemplo, el hilo compactador).
+ * El sistema libera el candado si el proceso termina, aunque sea por una caída.
+ * </p>
+ */
+final class InterProcessLock {
+
+    private static final Map<Path, InterProcessLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final Semaphore local = new Semaphore(1);
+    private FileChannel channel;
+    private FileLock held;
+
+    private InterProcessLock(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @param path archivo de candado; se crea si no existe
+     * @return candado único en esta JVM para ese archivo
+     */
+    static InterProcessLock forFile(Path path) {
+        return LOCKS.computeIfAbsent(path.toAbsolutePath().normalize(), InterProcessLock::new);
+    }
+
+    /**
+     * Espera hasta tomar el candado.
+     *
+     * @throws UncheckedIOException si el sistema no permite tomarlo
+     */
+    void lock() {
+        local.acquireUninterruptibly();
+        try {
+            held = channel().lock();
+        } catch (IOException e) {
+            local.release();
+            throw new UncheckedIOException("No se pudo tomar el candado " + path, e);
+        }
+    }
+
+    /**
+     * Toma el candado solo si está libre, sin esperar.
+     *
+     * @return {@code true} si se tomó
+     * @throws UncheckedIOException si el sistema no permite tomarlo
+     */
+    boolean tryLock() {
+        if (!local.tryAcquire()) {
+            return false;
+        }
+        try {
+            held = channel().tryLock();
+        } catch (IOException e) {
+            local.release();
+            throw new UncheckedIOException("No se pudo tomar el candado " + path, e);
+        }
+        if (held == null) {
+            local.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Libera el candado tomado con {@link #lock()} o {@link #tryLock()}.
+     */
+    void unlock() {
+        try {
+            if (held != null && held.isValid()) {
+                held.release();
+            }
+        } catch (IOException e) {
+            System.err.println("Error al liberar el candado " + path + ": " + e.getMessage());
+        } finally {
+            held = null;
+            local.release();
+        }
+    }
+
+    /**
+     * Abre el archivo de candado, o lo reabre si una interrupción cerró el canal.
+     */
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        return channel;
+    }
+}
@@ -1,11 +1,46 @@
 package com.mycompany.Persistance;
 
+import com.google.gson.JsonElement;
+import com.mycompany.Interfaces.PageRequest;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Metrics.OperationMetrics;
+import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * Repositorio genérico en memoria con persistencia JSON.
@@ -17,6 +52,81 @@ import java.util.Objects;
  * </p>
  *
  * <p>
+ * Cada mutación se registra como una línea en un {@link MutationJournal} en lugar de
+ * reescribir el archivo completo. Cuando el journal acumula suficientes registros, un
+ * hilo en segundo plano lo compacta escribiendo una nueva instantánea del archivo JSON.
+ * Al cargar, se lee la instantánea y se reproduce el journal encima, obteniendo el mismo
+ * estado que tendría el archivo si se hubiera reescrito en cada mutación. La instantánea
+ * se escribe con el {@link SnapshotCodec} del {@link SnapshotFormat} elegido para el
+ * repositorio (JSON legible por defecto, o binario compacto).
+ * </p>
+ *
+ * <p>
+ * Las instantáneas se escriben de forma atómica (archivo temporal, {@code fsync} y
+ * movimiento atómico), y cada mutación del journal se fuerza a disco antes de volver,
+ * agrupando en un mismo {@code fsync} las escrituras concurrentes (ver
+ * {@link #JOURNAL_FSYNC_PROPERTY} y {@link #GROUP_COMMIT_WINDOW_PROPERTY}). Si una
+ * instantánea no se puede leer, se aparta con el sufijo {@code .corrupt-<marca de tiempo>}
+ * en lugar de sobrescribirla; si solo tiene registros inválidos, estos se omiten y se
+ * guarda una copia con el sufijo {@code .skipped-<marca de tiempo>}.
+ * </p>
+ *
+ * <p>
+ * Con {@link #WRITE_BEHIND_PROPERTY} mayor que cero, las mutaciones solo actualizan la
+ * memoria y quedan pendientes; un único hilo escritor las reduce al último estado de
+ * cada entidad y las escribe en un solo lote como máximo una vez por intervalo. Así, una
+ * ráfaga de cambios hecha desde el hilo de la interfaz cuesta una escritura y no una
+ * por cambio. {@link #flush()} actúa como barrera y las mutaciones pendientes se escriben
+ * también al terminar la JVM. Solo se aplica con {@link #MULTI_INSTANCE_PROPERTY} en
+ * {@code false}: con varias instancias cada mutación se escribe en el hilo que la hace,
+ * para que quien la hizo reciba la {@link ConcurrentUpdateException} si choca.
+ * </p>
+ *
+ * <p>
+ * Varias instancias (por ejemplo, varios puestos de recepción) pueden compartir el
+ * directorio de datos si se activa {@link #MULTI_INSTANCE_PROPERTY}. Las escrituras en el journal,
+ * los movimientos de archivos de la compactación y las cargas completas se hacen con un
+ * candado entre procesos ({@code <archivo>.lock}), tomado solo después de serializar.
+ * Los archivos compartidos solo se apartan como ilegibles con ese candado tomado y si
+ * una segunda lectura también falla. Antes de escribir se
+ * aplican los registros que otras instancias agregaron desde la última lectura; si una
+ * de ellas modificó la misma entidad, el cambio local no se escribe y se lanza
+ * {@link ConcurrentUpdateException} en lugar de pisar el ajeno. {@link #reload()} trae
+ * esos cambios sin releer lo que no cambió.
+ * </p>
+ *
+ * <p>
+ * Se mantiene además un índice id → posición sincronizado con {@code data}, de modo
+ * que las búsquedas y reemplazos por id son O(1). Las subclases deben modificar la
+ * colección a través de {@link #insertEntity(Object)} y {@link #replaceEntity(Object)}.
+ * Las subclases pueden registrar índices secundarios con {@link #registerIndex(Function)}
+ * u otras estructuras derivadas con {@link #registerIndex(EntityIndex)}, que se mantienen
+ * sincronizados en las mismas operaciones.
+ * </p>
+ *
+ * <p>
+ * Concurrencia: cada repositorio tiene un {@link ReentrantReadWriteLock}. Las consultas
+ * de las subclases toman {@link #readLock} y corren en paralelo entre sí; las mutaciones
+ * toman {@link #writeLock} desde el cambio en memoria hasta {@link #save(Object)}, así
+ * que se serializan y nunca se observan a medias. Los métodos protegidos que acceden a
+ * {@code data} y a los índices ({@link #findById(String)}, {@link #insertEntity(Object)},
+ * etc.) no toman el candado: deben llamarse con el candado correspondiente tomado.
+ * </p>
+ *
+ * <p>
+ * Los datos se publican como una {@link SnapshotList} inmutable: cada mutación crea una
+ * versión nueva que comparte casi toda su estructura con la anterior y la reemplaza en
+ * {@code data} de forma atómica. {@link #getAll()} y los {@code listAll()} de las
+ * subclases devuelven esa versión sin copiarla, así que no asignan memoria por llamada
+ * y quien la recorre ve siempre un estado consistente aunque haya escrituras en curso.
+ * Las entidades publicadas nunca se modifican en sitio: los cambios se hacen sobre una
+ * copia que se publica con {@link #replaceEntity(Object)}, y las referencias a otros
+ * repositorios se resuelven también sobre copias (ver {@link #resolvedSnapshot()}).
+ * {@link #version()} cambia con cada mutación y permite a las subclases cachear vistas
+ * derivadas (ver {@link #filteredSnapshot(Predicate)}).
+ * </p>
+ *
+ * <p>
  * Manejo de excepciones:
  * <ul>
  *     <li>{@link IllegalArgumentException} para parámetros nulos o inválidos.</li>
@@ -33,45 +143,667 @@ public abstract class JsonRepository<T> {
     protected final JsonStore store;
     protected final String filePath;
     protected final Type listType;
-    protected  List<T> data;
+    /**
+     * Versión publicada de los datos. Solo se reemplaza con el candado de escritura
+     * tomado; los lectores pueden conservarla y recorrerla sin candado.
+     */
+    protected volatile SnapshotList<T> data;
+    private volatile long version;
+    private volatile FilteredView<T> filteredView;
+    private Map<String, Integer> index;
+    private final List<EntityIndex<T>> secondaryIndexes = new ArrayList<>();
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<T>> changeListeners = new CopyOnWriteArrayList<>();
+    private final Type elementType;
+    private final SnapshotCodec<T> codec;
+    private final Function<T, String> idExtractor;
+    private final MutationJournal<T> journal;
+    private final InterProcessLock fileLock;
+    private final InterProcessLock compactionLock;
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private final long writeBehindMillis;
+    private final Object pendingLock = new Object();
+    private final Object flushLock = new Object();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Candado de lectura del repositorio. Las subclases lo toman en las consultas;
+     * varias lecturas corren a la vez y solo esperan a una escritura en curso.
+     */
+    protected final Lock readLock = lock.readLock();
+    /**
+     * Candado de escritura del repositorio. Las subclases lo toman en las mutaciones,
+     * desde la modificación en memoria hasta {@link #save(Object)}, de modo que las
+     * escrituras se serializan y el journal recibe los cambios en el mismo orden.
+     */
+    protected final Lock writeLock = lock.writeLock();
+    private final Map<String, JsonElement> pendingPuts = new LinkedHashMap<>();
+    /**
+     * Con varias instancias, versión publicada de cada entidad antes de la primera
+     * modificación local que todavía no se escribió. Si hay que recargar todo antes de
+     * escribir, permite saber si otra instancia cambió la entidad. Se usa con
+     * {@link #writeLock} tomado.
+     */
+    private final Map<String, T> bases = new HashMap<>();
+    private boolean pendingClear;
+    private boolean flushScheduled;
     private static final String BASE_PATH = "data";
+    /**
+     * Propiedad del sistema que permite cambiar el directorio de datos (por defecto {@code data}).
+     */
+    public static final String DATA_DIR_PROPERTY = "clinicalsystem.dataDir";
+    /**
+     * Propiedad del sistema que indica si cada mutación se fuerza a disco antes de volver
+     * ({@code true} por defecto).
+     */
+    public static final String JOURNAL_FSYNC_PROPERTY = "clinicalsystem.journal.fsync";
+    /**
+     * Propiedad del sistema con la ventana, en milisegundos, durante la cual el hilo que
+     * sincroniza el journal espera a que otras escrituras se sumen al mismo {@code fsync}
+     * ({@code 0} por defecto: solo se agrupan las escrituras que llegan mientras se sincroniza).
+     */
+    public static final String GROUP_COMMIT_WINDOW_PROPERTY = "clinicalsystem.journal.groupCommitMillis";
+    /**
+     * Propiedad del sistema con el intervalo, en milisegundos, del modo de escritura
+     * diferida ({@code 0} por defecto: cada mutación se escribe en el hilo que la hace).
+     * Se ignora si {@link #MULTI_INSTANCE_PROPERTY} está activo.
+     */
+    public static final String WRITE_BEHIND_PROPERTY = "clinicalsystem.writeBehindMillis";
+    /**
+     * Propiedad del sistema que indica si varias instancias pueden compartir el
+     * directorio de datos ({@code false} por defecto). Con {@code false} no se toman
+     * candados entre procesos ni se comprueba si otra instancia escribió antes de
+     * escribir, y se puede usar {@link #WRITE_BEHIND_PROPERTY}. Ver {@link #multiInstance()}.
+     */
+    public static final String MULTI_INSTANCE_PROPERTY = "clinicalsystem.multiInstance";
+    private static final int COMPACTION_THRESHOLD = 500;
+    private static final String NEXT_SNAPSHOT_SUFFIX = ".next";
+    // Duración de cada instantánea escrita al compactar, con cualquiera de los formatos
+    private static final OperationMetrics WRITE_SNAPSHOT = MetricsRegistry.operation("JsonRepository.writeSnapshot");
+    private static volatile LoadProgressListener loadProgressListener = LoadProgressListener.NONE;
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "json-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "json-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Set<JsonRepository<?>> WRITE_BEHIND_REPOSITORIES =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(JsonRepository::flushAll, "json-flush"));
+    }
 
     /**
-     * Constructor que inicializa el repositorio cargando los datos desde el archivo JSON.
+     * Constructor que inicializa el repositorio con el formato de instantánea configurado
+     * para el archivo (ver {@link SnapshotFormat#configuredFor(String)}).
      *
-     * @param fileName nombre del archivo JSON donde se persistirán los datos
-     * @param listType tipo de lista para deserialización
+     * @param fileName    nombre del archivo JSON donde se persistirán los datos
+     * @param listType    tipo de lista para deserialización
+     * @param idExtractor función que obtiene el identificador único de cada entidad
      * @throws IllegalArgumentException si {@code fileName} es nulo o vacío
-     * @throws NullPointerException     si {@code listType} es nulo
+     * @throws NullPointerException     si {@code listType} o {@code idExtractor} son nulos
      * @throws RuntimeException         si ocurre un error al cargar los datos
      */
-    protected JsonRepository(String fileName, Type listType) {
-        if (fileName == null || fileName.isBlank()) {
-            throw new IllegalArgumentException("El nombre del archivo no puede ser nulo o vacío.");
-        }
+    protected JsonRepository(String fileName, Type listType, Function<T, String> idExtractor) {
+        this(fileName, listType, idExtractor, SnapshotFormat.configuredFor(requireFileName(fileName)));
+    }
+
+    /**
+     * Constructor que inicializa el repositorio cargando los datos desde la instantánea
+     * y aplicando las mutaciones pendientes del journal.
+     *
+     * <p>
+     * La extensión de {@code fileName} se reemplaza por la del formato elegido. Si la
+     * instantánea de ese formato no existe pero sí la de otro formato (el repositorio
+     * cambió de formato), se convierte automáticamente y el archivo anterior se conserva
+     * con extensión {@code .bak}.
+     * </p>
+     *
+     * @param fileName    nombre del archivo donde se persistirán los datos
+     * @param listType    tipo de lista para deserialización
+     * @param idExtractor función que obtiene el identificador único de cada entidad
+     * @param format      formato de la instantánea
+     * @throws IllegalArgumentException si {@code fileName} es nulo o vacío
+     * @throws NullPointerException     si {@code listType}, {@code idExtractor} o {@code format} son nulos
+     * @throws RuntimeException         si ocurre un error al cargar los datos
+     */
+    protected JsonRepository(String fileName, Type listType, Function<T, String> idExtractor, SnapshotFormat format) {
+        requireFileName(fileName);
         Objects.requireNonNull(listType, "El tipo de lista no puede ser nulo.");
+        Objects.requireNonNull(idExtractor, "La función de identificación no puede ser nula.");
+        Objects.requireNonNull(format, "El formato de instantánea no puede ser nulo.");
 
-        this.filePath = Paths.get(BASE_PATH, fileName).toString();
+        String dataDir = System.getProperty(DATA_DIR_PROPERTY, BASE_PATH);
+        String baseName = SnapshotFormat.baseName(fileName);
+        this.filePath = Paths.get(dataDir, baseName + format.extension()).toString();
         this.store = new JsonStore();
         this.listType = listType;
+        this.elementType = elementType(listType);
+        this.codec = format.codec(store, elementType);
+        this.idExtractor = idExtractor;
+        this.journal = new MutationJournal<>(store, filePath, elementType,
+                Boolean.parseBoolean(System.getProperty(JOURNAL_FSYNC_PROPERTY, "true")),
+                Long.getLong(GROUP_COMMIT_WINDOW_PROPERTY, 0L));
+        boolean shared = multiInstance();
+        long writeBehind = Math.max(0L, Long.getLong(WRITE_BEHIND_PROPERTY, 0L));
+        if (writeBehind > 0 && shared) {
+            // Un conflicto con otra instancia se detecta al escribir; en segundo plano no
+            // habría a quién informarlo y el cambio local se perdería sin aviso.
+            System.err.println("Escritura diferida desactivada en " + filePath + ": requiere "
+                    + MULTI_INSTANCE_PROPERTY + "=false");
+            writeBehind = 0;
+        }
+        this.writeBehindMillis = writeBehind;
+        if (writeBehindMillis > 0) {
+            WRITE_BEHIND_REPOSITORIES.add(this);
+        }
+        this.fileLock = shared ? InterProcessLock.forFile(Paths.get(filePath + ".lock")) : null;
+        this.compactionLock = shared ? InterProcessLock.forFile(Paths.get(filePath + ".compact.lock")) : null;
         try{
-            this.data = store.readFromFile(filePath, listType, new ArrayList<>());
+            lockFiles();
+            try {
+                convertFromOtherFormat(Paths.get(dataDir), baseName, format);
+                loadOrQuarantine();
+            } finally {
+                unlockFiles();
+            }
         } catch (RuntimeException e){
             System.err.println("Error al cargar desde " + filePath + ": " + e.getMessage());
-            this.data = new ArrayList<>();
+            this.data = SnapshotList.empty();
+            this.index = new HashMap<>();
         }
     }
 
     /**
-     * Persiste el contenido actual en memoria al archivo JSON.
+     * Carga los datos y, si no se pueden leer ni en un segundo intento, aparta los
+     * archivos. Debe llamarse con el candado entre procesos tomado: así ninguna otra
+     * instancia compacta ni rota el journal entretanto, y un error no se confunde con un
+     * archivo que otra instancia estaba reemplazando.
      *
+     * @throws RuntimeException si la carga falla dos veces; los archivos ya se apartaron
+     */
+    private void loadOrQuarantine() {
+        try {
+            load();
+        } catch (RuntimeException first) {
+            System.err.println("Error al cargar desde " + filePath + ", se reintenta: " + first.getMessage());
+            try {
+                load();
+            } catch (RuntimeException again) {
+                quarantineUnreadableFiles();
+                throw again;
+            }
+        }
+    }
+
+    /**
+     * Aparta la instantánea y el journal que no se pudieron cargar, para que la siguiente
+     * compactación no los reemplace por una colección vacía. Solo se llama desde
+     * {@link #loadOrQuarantine()}, con el candado entre procesos tomado.
+     */
+    private void quarantineUnreadableFiles() {
+        String suffix = ".corrupt-" + System.currentTimeMillis();
+        for (String name : new String[]{filePath, filePath + ".journal", filePath + ".journal.old"}) {
+            Path path = Paths.get(name);
+            if (!Files.exists(path)) {
+                continue;
+            }
+            try {
+                Files.move(path, Paths.get(name + suffix));
+                System.err.println("Se apartó " + path + " como " + path.getFileName() + suffix);
+            } catch (IOException e) {
+                System.err.println("No se pudo apartar " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String requireFileName(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("El nombre del archivo no puede ser nulo o vacío.");
+        }
+        return fileName;
+    }
+
+    /**
+     * Si falta la instantánea del formato elegido y existe la de otro formato, la convierte
+     * (incluido su journal) y deja el archivo anterior como {@code .bak}.
+     */
+    @SuppressWarnings("unchecked")
+    private void convertFromOtherFormat(Path dataDir, String baseName, SnapshotFormat format) {
+        Path target = Paths.get(filePath);
+        if (Files.exists(target) || Files.exists(Paths.get(filePath + ".journal"))) {
+            return;
+        }
+        for (SnapshotFormat other : SnapshotFormat.values()) {
+            Path source = dataDir.resolve(baseName + other.extension());
+            if (other == format || !Files.exists(source) || !(elementType instanceof Class<?> type)) {
+                continue;
+            }
+            int count = SnapshotConverter.convert(source, target, (Class<T>) type, idExtractor);
+            try {
+                Files.move(source, source.resolveSibling(source.getFileName() + ".bak"),
+                        StandardCopyOption.REPLACE_EXISTING);
+                Files.deleteIfExists(Paths.get(source + ".journal"));
+                Files.deleteIfExists(Paths.get(source + ".journal.old"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al respaldar " + source, e);
+            }
+            System.out.println("Instantánea convertida de " + source + " a " + target + " (" + count + " registros)");
+            return;
+        }
+    }
+
+    /**
+     * Indica si los repositorios se coordinan con otras instancias que comparten el
+     * directorio de datos. Es opcional porque cada escritura toma entonces los candados
+     * entre procesos y se escribe en el hilo que la hace, sin escritura diferida.
+     *
+     * @return valor de {@link #MULTI_INSTANCE_PROPERTY}, {@code false} si no está definido
+     */
+    public static boolean multiInstance() {
+        return Boolean.parseBoolean(System.getProperty(MULTI_INSTANCE_PROPERTY, "false"));
+    }
+
+    /**
+     * Define el receptor del avance de carga de todos los repositorios JSON que se
+     * creen o recarguen a partir de este momento.
+     *
+     * @param listener receptor del avance; {@code null} para no informar
+     */
+    public static void setLoadProgressListener(LoadProgressListener listener) {
+        loadProgressListener = listener != null ? listener : LoadProgressListener.NONE;
+    }
+
+    /**
+     * Lee la instantánea elemento por elemento, reproduce encima el journal de
+     * mutaciones y reconstruye el índice por id. Los campos solo se reemplazan si la
+     * carga termina sin errores. Debe llamarse con el candado entre procesos tomado, para
+     * que otra instancia no compacte ni rote el journal entre la lectura de la
+     * instantánea y la del journal.
+     *
+     * <p>
+     * El índice se construye después de leer todos los elementos y no durante la
+     * lectura: llenar el mapa intercalado con la deserialización promueve más objetos
+     * jóvenes y en archivos grandes casi duplica el tiempo de recolección de basura.
+     * </p>
+     */
+    private void load() {
+        FileStamp stamp = FileStamp.of(Paths.get(filePath));
+        List<T> loaded = new ArrayList<>();
+        LoadProgressListener listener = loadProgressListener;
+        int[] skipped = {0};
+        codec.read(Paths.get(filePath), loaded::add, new LoadProgressListener() {
+            @Override
+            public void onProgress(String file, long bytesRead, long totalBytes, int records) {
+                listener.onProgress(file, bytesRead, totalBytes, records);
+            }
+
+            @Override
+            public void onSkipped(String file, String location, String reason) {
+                skipped[0]++;
+                listener.onSkipped(file, location, reason);
+            }
+        });
+        if (skipped[0] > 0) {
+            backUpSkippedRecords(skipped[0]);
+        }
+        Map<String, Integer> loadedIndex = new HashMap<>(Math.max(16, loaded.size() * 4 / 3 + 1));
+        for (int i = 0; i < loaded.size(); i++) {
+            loadedIndex.put(idExtractor.apply(loaded.get(i)), i);
+        }
+        journal.replay(stamp, loaded, loadedIndex, idExtractor);
+        this.data = SnapshotList.of(loaded);
+        this.index = loadedIndex;
+        version++;
+        for (EntityIndex<T> secondary : secondaryIndexes) {
+            rebuild(secondary);
+        }
+        notifyReloaded();
+    }
+
+    /**
+     * Copia la instantánea con el sufijo {@code .skipped-<marca de tiempo>} antes de que la
+     * siguiente compactación la reemplace sin los registros omitidos.
+     */
+    private void backUpSkippedRecords(int skipped) {
+        Path source = Paths.get(filePath);
+        Path backup = Paths.get(filePath + ".skipped-" + System.currentTimeMillis());
+        try {
+            Files.copy(source, backup);
+            System.err.println("Se omitieron " + skipped + " registros de " + source + "; se respaldó como "
+                    + backup.getFileName());
+        } catch (IOException e) {
+            System.err.println("No se pudo respaldar " + source + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registra una acción que se ejecuta cada vez que los datos en memoria se
+     * recargan completos desde el disco, o cuando otra instancia los borró todos. Los
+     * registros sueltos que escribieron otras instancias se informan a
+     * {@link #addChangeListener(Consumer)}. Se ejecuta con {@link #writeLock} tomado, así
+     * que debe ser breve y no usar el repositorio (por ejemplo, descartar una caché).
+     *
+     * @param listener acción a ejecutar
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Registra una acción que recibe cada entidad que otra instancia escribió y que se
+     * acaba de aplicar en memoria, con su estado nuevo. Igual que
+     * {@link #addReloadListener(Runnable)}, se ejecuta con {@link #writeLock} tomado.
+     *
+     * @param listener acción a ejecutar con cada entidad aplicada
+     */
+    public void addChangeListener(Consumer<T> listener) {
+        changeListeners.add(Objects.requireNonNull(listener));
+    }
+
+    private void notifyReloaded() {
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Registra un índice secundario y lo llena con los datos actuales.
+     *
+     * @param keyExtractor función que calcula la clave de cada entidad
+     * @param <K>          tipo de la clave
+     * @return índice registrado, para usarlo en {@link #findByIndex(SecondaryIndex, Object)}
+     */
+    protected <K> SecondaryIndex<T, K> registerIndex(Function<T, K> keyExtractor) {
+        SecondaryIndex<T, K> secondary = new SecondaryIndex<>(keyExtractor);
+        registerIndex(secondary);
+        return secondary;
+    }
+
+    /**
+     * Registra un índice secundario cuyas entidades se mantienen ordenadas por un valor
+     * (por ejemplo, una fecha) y lo llena con los datos actuales.
+     *
+     * @param keyExtractor     función que calcula la clave de cada entidad
+     * @param sortKeyExtractor función que calcula el valor de orden de cada entidad
+     * @param <K>              tipo de la clave
+     * @return índice registrado, para usarlo en
+     * {@link #findByIndex(SecondaryIndex, Object, PageRequest)}
+     */
+    protected <K> SecondaryIndex<T, K> registerIndex(Function<T, K> keyExtractor,
+            Function<T, ? extends Comparable<?>> sortKeyExtractor) {
+        SecondaryIndex<T, K> secondary = new SecondaryIndex<>(keyExtractor, sortKeyExtractor);
+        registerIndex(secondary);
+        return secondary;
+    }
+
+    /**
+     * Registra una estructura derivada de los datos (por ejemplo, un
+     * {@link UsernameDirectory}) y la llena con los datos actuales.
+     *
+     * @param derived estructura a mantener sincronizada con la colección
+     */
+    protected void registerIndex(EntityIndex<T> derived) {
+        rebuild(derived);
+        secondaryIndexes.add(derived);
+    }
+
+    private void rebuild(EntityIndex<T> secondary) {
+        secondary.rebuild(data);
+    }
+
+    /**
+     * Devuelve las entidades asociadas a una clave de un índice secundario, en el orden
+     * en que están almacenadas.
+     *
+     * @param secondary índice registrado con {@link #registerIndex(Function)}
+     * @param key       clave a consultar
+     * @param <K>       tipo de la clave
+     * @return nueva lista con las entidades encontradas
+     */
+    protected <K> List<T> findByIndex(SecondaryIndex<T, K> secondary, K key) {
+        var positions = secondary.positions(key);
+        List<T> result = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            result.add(data.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Devuelve una página de las entidades asociadas a una clave de un índice secundario,
+     * en el orden del índice o en el inverso. Solo se leen las posiciones de la página.
+     *
+     * @param secondary índice registrado
+     * @param key       clave a consultar
+     * @param page      desplazamiento, tamaño y sentido de la página
+     * @param <K>       tipo de la clave
+     * @return nueva lista con, como máximo, {@code page.limit()} entidades
+     */
+    protected <K> List<T> findByIndex(SecondaryIndex<T, K> secondary, K key, PageRequest page) {
+        List<Integer> positions = secondary.positions(key, page.newestFirst());
+        int from = Math.min(page.offset(), positions.size());
+        int to = (int) Math.min((long) from + page.limit(), positions.size());
+        List<T> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(data.get(positions.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * @param secondary índice registrado
+     * @param key       clave a consultar
+     * @param <K>       tipo de la clave
+     * @return cantidad de entidades asociadas a la clave
+     */
+    protected <K> int countByIndex(SecondaryIndex<T, K> secondary, K key) {
+        return secondary.count(key);
+    }
+
+    /**
+     * Busca una entidad por su id usando el índice.
+     *
+     * @param id identificador de la entidad
+     * @return {@link Optional} con la entidad, vacío si no existe
+     */
+    protected Optional<T> findById(String id) {
+        Integer position = index.get(id);
+        return position != null ? Optional.of(data.get(position)) : Optional.empty();
+    }
+
+    /**
+     * Agrega una entidad nueva y registra la inserción en el journal. Es la única forma de
+     * agregar entidades desde las subclases.
+     *
+     * <p>
+     * La entidad se publica en memoria solo después de escribirse: si la escritura falla
+     * no queda nada que deshacer, y con varias instancias queda después de lo que las
+     * otras agregaron antes, en el mismo orden que al reproducir el journal.
+     * </p>
+     *
+     * @param entity entidad a agregar
+     * @return {@code false} si ya existe una entidad con el mismo id; no se escribe nada
+     * @throws ConcurrentUpdateException si otra instancia agregó antes una entidad con el mismo id
+     * @throws UncheckedIOException      si ocurre un error de escritura
+     * @throws RuntimeException         si ocurre otro error inesperado
+     */
+    protected boolean insertEntity(T entity) {
+        return insertEntity(entity, null);
+    }
+
+    /**
+     * Agrega una entidad nueva solo si se cumple una condición sobre los datos (por
+     * ejemplo, que no se solape con otra). Con varias instancias, la condición se evalúa
+     * con el candado entre procesos tomado y después de aplicar lo que escribieron las
+     * otras, así que ninguna puede escribir entre la comprobación y la inserción. Ver
+     * {@link #insertEntity(Object)}.
+     *
+     * @param entity       entidad a agregar
+     * @param precondition condición que se evalúa sobre los datos en memoria, sin la
+     *                     entidad nueva; {@code null} para no comprobar nada
+     * @return {@code false} si ya existe una entidad con el mismo id o no se cumple la
+     * condición; en ambos casos no se escribe nada
+     * @throws ConcurrentUpdateException si otra instancia agregó antes una entidad con el mismo id
+     * @throws UncheckedIOException      si ocurre un error de escritura
+     * @throws RuntimeException         si ocurre otro error inesperado
+     */
+    protected boolean insertEntity(T entity, BooleanSupplier precondition) {
+        String id = idExtractor.apply(entity);
+        if (index.containsKey(id)) {
+            return false;
+        }
+        if (!write(Map.of(id, store.toJsonTree(entity)), precondition)) {
+            return false;
+        }
+        applyReplayedPut(entity);
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Agrega una entidad al final de la colección y la registra en los índices.
+     *
+     * @param entity entidad a agregar
+     */
+    private void addEntity(T entity) {
+        int position = data.size();
+        index.put(idExtractor.apply(entity), position);
+        data = data.append(entity);
+        for (EntityIndex<T> secondary : secondaryIndexes) {
+            secondary.add(entity, position);
+        }
+        version++;
+    }
+
+    /**
+     * Reemplaza la entidad que tiene el mismo id, conservando su posición. Es la única
+     * forma de modificar una entidad existente: las instancias publicadas en
+     * {@code data} no se modifican en sitio, así que quien cambia una entidad debe
+     * hacerlo sobre una copia y publicarla con este método. Con varias instancias se
+     * recuerda la versión reemplazada hasta que el cambio se escribe (ver
+     * {@link #commit(boolean, Map, BooleanSupplier)}).
+     *
+     * @param entity entidad con los datos nuevos
+     * @return {@code true} si existía una entidad con ese id, {@code false} en caso contrario
+     */
+    protected boolean replaceEntity(T entity) {
+        return replace(entity, true);
+    }
+
+    /**
+     * Vuelve a publicar la versión anterior de una entidad cuyo cambio no se pudo
+     * escribir, sin tratarla como una modificación local nueva.
+     *
+     * @param original entidad tal como estaba antes del cambio
+     * @return {@code true} si existía una entidad con ese id, {@code false} en caso contrario
+     */
+    protected boolean restoreEntity(T original) {
+        bases.remove(idExtractor.apply(original));
+        return replace(original, false);
+    }
+
+    private boolean replace(T entity, boolean local) {
+        String id = idExtractor.apply(entity);
+        Integer position = index.get(id);
+        if (position == null) {
+            return false;
+        }
+        if (local && fileLock != null) {
+            bases.putIfAbsent(id, data.get(position));
+        }
+        data = data.with(position, entity);
+        for (EntityIndex<T> secondary : secondaryIndexes) {
+            secondary.update(entity, position);
+        }
+        version++;
+        return true;
+    }
+
+    /**
+     * Registra en el journal el estado actual de una entidad insertada o modificada.
+     * <p>
+     * El costo es proporcional al tamaño de la entidad y no al de la colección. Si el
+     * journal supera el umbral de compactación, se programa una compactación en segundo
+     * plano.
+     * </p>
+     *
+     * @param entity entidad agregada o modificada
      * @throws UncheckedIOException      si ocurre un error de escritura
      * @throws IllegalStateException     si no se puede acceder al archivo
      * @throws RuntimeException         si ocurre otro error inesperado
      */
-    protected void save() {
+    protected void save(T entity) {
+        save(entity, null);
+    }
+
+    /**
+     * Registra en el journal el estado actual de una entidad modificada solo si se cumple
+     * una condición sobre los datos, evaluada igual que en
+     * {@link #insertEntity(Object, BooleanSupplier)}. Si no se cumple, no se escribe nada
+     * y el cambio en memoria queda a cargo de quien llama.
+     *
+     * @param entity       entidad agregada o modificada
+     * @param precondition condición que debe cumplirse para escribir, o {@code null}
+     * @return {@code false} si no se cumplió la condición
+     * @throws UncheckedIOException      si ocurre un error de escritura
+     * @throws RuntimeException         si ocurre otro error inesperado
+     */
+    protected boolean save(T entity, BooleanSupplier precondition) {
+        if (!write(Map.of(idExtractor.apply(entity), store.toJsonTree(entity)), precondition)) {
+            return false;
+        }
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Registra en el journal el estado actual de varias entidades modificadas con una
+     * sola escritura (y un solo {@code fsync}), en lugar de una por entidad.
+     *
+     * @param entities entidades agregadas o modificadas, en orden
+     * @throws UncheckedIOException      si ocurre un error de escritura
+     * @throws IllegalStateException     si no se puede acceder al archivo
+     * @throws RuntimeException         si ocurre otro error inesperado
+     */
+    protected void saveAll(Collection<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Map<String, JsonElement> trees = new LinkedHashMap<>();
+        for (T entity : entities) {
+            trees.put(idExtractor.apply(entity), store.toJsonTree(entity));
+        }
+        write(trees, null);
+        compactIfNeeded();
+    }
+
+    /**
+     * Escribe el estado nuevo de las entidades en el journal o, en modo de escritura
+     * diferida, lo deja pendiente.
+     *
+     * @param puts         id → estado nuevo de cada entidad, en orden
+     * @param precondition condición que debe cumplirse para escribir, o {@code null}
+     * @return {@code false} si no se cumplió la condición y no se escribió nada
+     */
+    private boolean write(Map<String, JsonElement> puts, BooleanSupplier precondition) {
+        if (writeBehindMillis > 0) {
+            // Una sola instancia: nadie más escribe entre la comprobación y la escritura.
+            if (precondition != null && !precondition.getAsBoolean()) {
+                return false;
+            }
+            synchronized (pendingLock) {
+                pendingPuts.putAll(puts);
+                scheduleWrite();
+            }
+            return true;
+        }
         try {
-            store.writeToFile(filePath, data);
+            return commit(false, puts, precondition);
         } catch (IllegalStateException | UncheckedIOException e){
             System.err.println("Error al guardar en " + filePath + ": " + e.getMessage());
             throw e;
@@ -82,46 +814,662 @@ public abstract class JsonRepository<T> {
     }
 
     /**
-     * Recarga los datos desde el archivo JSON.
+     * Programa una compactación en segundo plano si el journal superó el umbral. Debe
+     * llamarse después de publicar en memoria lo que se escribió, para que la instantánea
+     * lo incluya.
+     */
+    private void compactIfNeeded() {
+        if (journal.pendingRecords() >= COMPACTION_THRESHOLD) {
+            scheduleCompaction(false);
+        }
+    }
+
+    /**
+     * Programa la escritura diferida de las mutaciones pendientes, si no hay una
+     * programada. Debe llamarse con {@code pendingLock} tomado.
+     */
+    private void scheduleWrite() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            WRITER.schedule(this::writePendingInBackground, writeBehindMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writePendingInBackground() {
+        try {
+            writePending();
+        } catch (RuntimeException e) {
+            System.err.println("Error al escribir en segundo plano en " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe en el journal, en un solo lote, las mutaciones acumuladas en modo de
+     * escritura diferida. Varias mutaciones de la misma entidad se reducen a su último
+     * estado. Si la escritura falla, las mutaciones vuelven a quedar pendientes.
+     *
+     * <p>
+     * La escritura diferida solo se usa con una sola instancia (ver el constructor), así
+     * que no hay conflictos con otras y la escritura no bloquea a quien modifica.
+     * </p>
+     */
+    private void writePending() {
+        synchronized (flushLock) {
+            boolean clear;
+            Map<String, JsonElement> puts;
+            synchronized (pendingLock) {
+                flushScheduled = false;
+                if (!pendingClear && pendingPuts.isEmpty()) {
+                    return;
+                }
+                clear = pendingClear;
+                puts = new LinkedHashMap<>(pendingPuts);
+                pendingClear = false;
+                pendingPuts.clear();
+            }
+            try {
+                commit(clear, puts, null);
+            } catch (RuntimeException e) {
+                synchronized (pendingLock) {
+                    if (!pendingClear) {
+                        // Las mutaciones más recientes tienen prioridad sobre el lote fallido.
+                        puts.putAll(pendingPuts);
+                        pendingPuts.clear();
+                        pendingPuts.putAll(puts);
+                        pendingClear = clear;
+                    }
+                    scheduleWrite();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Escribe un lote de mutaciones en el journal coordinándose con otras instancias que
+     * comparten el directorio de datos. Debe llamarse con {@link #writeLock} tomado si
+     * hay varias instancias.
+     *
+     * <p>
+     * Los registros se serializan antes de tomar el candado entre procesos, que solo
+     * cubre la comprobación y la escritura. La vista sobre la que se hicieron los cambios
+     * (instantánea y posición en el journal, ver {@link MutationJournal}) funciona como
+     * sello de versión: si otra instancia escribió después, primero se aplican sus
+     * registros sobre los datos en memoria. Las entidades del lote que esa instancia
+     * también modificó quedan con su versión y no se escriben (conflicto); las demás se
+     * escriben sobre el estado actualizado. Un {@code CLEAR} propio prevalece sobre lo
+     * anterior; uno ajeno choca con todo el lote.
+     * </p>
+     *
+     * <p>
+     * Si la vista no se puede seguir (por ejemplo, hubo dos compactaciones desde la
+     * última lectura) se recarga todo con el candado tomado. En ese caso se compara cada
+     * entidad recargada con la versión sobre la que se hizo el cambio local: si otra
+     * instancia no la modificó, el cambio se vuelve a aplicar y se escribe; si la
+     * modificó, hay conflicto. Las inserciones se publican después de escribirse (ver
+     * {@link #insertEntity(Object, BooleanSupplier)}).
+     * </p>
+     *
+     * @param clear        si el lote empieza con un registro {@code CLEAR}
+     * @param puts         id → estado nuevo de cada entidad, en orden
+     * @param precondition condición que se evalúa justo antes de escribir, ya al día con
+     *                     las otras instancias, o {@code null}
+     * @return {@code false} si no se cumplió la condición y no se escribió nada
+     * @throws ConcurrentUpdateException si alguna entidad chocó; el resto se escribió
+     * @throws UncheckedIOException      si ocurre un error de escritura
+     */
+    private boolean commit(boolean clear, Map<String, JsonElement> puts, BooleanSupplier precondition) {
+        MutationJournal.Batch batch = journal.prepare(clear, puts);
+        if (fileLock == null) {
+            if (precondition != null && !precondition.getAsBoolean()) {
+                return false;
+            }
+            journal.append(batch);
+            return true;
+        }
+        Set<String> conflicts = new LinkedHashSet<>();
+        fileLock.lock();
+        try {
+            CatchUp caughtUp = catchUp(batch.ids());
+            if (caughtUp == null) {
+                conflicts.addAll(reloadKeeping(clear, puts));
+            } else if (clear) {
+                if (caughtUp.applied() > 0) {
+                    reapply(true, puts);
+                }
+            } else {
+                conflicts.addAll(caughtUp.touched());
+            }
+            if (precondition != null && !precondition.getAsBoolean()) {
+                return false;
+            }
+            try {
+                journal.append(batch.without(conflicts));
+            } catch (RuntimeException e) {
+                if (!conflicts.isEmpty()) {
+                    e.addSuppressed(new ConcurrentUpdateException(filePath, conflicts));
+                }
+                throw e;
+            }
+        } finally {
+            fileLock.unlock();
+            bases.keySet().removeAll(puts.keySet());
+        }
+        if (!conflicts.isEmpty()) {
+            throw new ConcurrentUpdateException(filePath, conflicts);
+        }
+        return true;
+    }
+
+    /**
+     * Resultado de ponerse al día con lo que escribieron otras instancias.
+     *
+     * @param applied registros aplicados
+     * @param touched ids vigilados que esos registros modificaron
+     */
+    private record CatchUp(int applied, Set<String> touched) {
+    }
+
+    /**
+     * Aplica sobre los datos en memoria lo que otras instancias escribieron desde la
+     * última lectura. Debe llamarse con {@link #writeLock} y el candado entre procesos
+     * tomados.
+     *
+     * @param watched ids cuyas modificaciones ajenas interesa conocer
+     * @return resultado, o {@code null} si hay que cargar todo de nuevo
+     */
+    private CatchUp catchUp(Set<String> watched) {
+        switch (journal.detectChange()) {
+            case NONE -> {
+                return new CatchUp(0, Set.of());
+            }
+            case REWRITTEN -> {
+                return null;
+            }
+            case APPENDED -> {
+                // Se aplica más abajo.
+            }
+        }
+        Set<String> touched = new LinkedHashSet<>();
+        List<T> changed = new ArrayList<>();
+        AtomicBoolean cleared = new AtomicBoolean();
+        int applied = journal.replayAppended(entity -> {
+            String id = idExtractor.apply(entity);
+            if (watched.contains(id)) {
+                touched.add(id);
+            }
+            applyReplayedPut(entity);
+            changed.add(entity);
+        }, () -> {
+            touched.addAll(watched);
+            clearInMemory();
+            cleared.set(true);
+        });
+        if (cleared.get()) {
+            notifyReloaded();
+        } else {
+            for (T entity : changed) {
+                for (Consumer<T> listener : changeListeners) {
+                    listener.accept(entity);
+                }
+            }
+        }
+        return new CatchUp(applied, touched);
+    }
+
+    /**
+     * Recarga todo y vuelve a aplicar en memoria las mutaciones de un lote que no se
+     * pudo escribir. Debe llamarse con el candado entre procesos tomado. Ver
+     * {@link #commit(boolean, Map, BooleanSupplier)}.
+     *
+     * @return ids que se consideran en conflicto
+     */
+    private Set<String> reloadKeeping(boolean clear, Map<String, JsonElement> puts) {
+        load();
+        if (clear) {
+            reapply(true, puts);
+            return Set.of();
+        }
+        Set<String> conflicts = new LinkedHashSet<>();
+        for (Map.Entry<String, JsonElement> put : puts.entrySet()) {
+            String id = put.getKey();
+            Optional<T> current = findById(id);
+            T base = bases.get(id);
+            boolean unchanged;
+            if (current.isEmpty()) {
+                if (base == null) {
+                    continue; // Inserción: se publica después de escribirse (ver insertEntity).
+                }
+                unchanged = false; // Otra instancia la borró.
+            } else {
+                JsonElement reloaded = store.toJsonTree(current.get());
+                if (reloaded.equals(put.getValue())) {
+                    continue;
+                }
+                unchanged = base != null && reloaded.equals(store.toJsonTree(base));
+            }
+            if (unchanged) {
+                applyReplayedPut(store.fromJsonTree(put.getValue(), elementType));
+            } else {
+                conflicts.add(id);
+            }
+        }
+        return conflicts;
+    }
+
+    private void reapply(boolean clear, Map<String, JsonElement> puts) {
+        if (clear) {
+            clearInMemory();
+        }
+        for (JsonElement tree : puts.values()) {
+            applyReplayedPut(store.fromJsonTree(tree, elementType));
+        }
+    }
+
+    private void lockFiles() {
+        if (fileLock != null) {
+            fileLock.lock();
+        }
+    }
+
+    private void unlockFiles() {
+        if (fileLock != null) {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Espera a que todas las mutaciones hechas antes de la llamada estén escritas en el
+     * journal (y en disco, si {@link #JOURNAL_FSYNC_PROPERTY} está activo). En el modo
+     * sin escritura diferida no hace nada.
+     *
+     * @throws UncheckedIOException si ocurre un error de escritura
+     */
+    public void flush() {
+        writePending();
+    }
+
+    /**
+     * Ejecuta {@link #flush()} sobre todos los repositorios con escritura diferida. Se
+     * invoca automáticamente al terminar la JVM.
+     */
+    public static void flushAll() {
+        List<JsonRepository<?>> repositories;
+        synchronized (WRITE_BEHIND_REPOSITORIES) {
+            repositories = new ArrayList<>(WRITE_BEHIND_REPOSITORIES);
+        }
+        for (JsonRepository<?> repository : repositories) {
+            try {
+                repository.flush();
+            } catch (RuntimeException e) {
+                System.err.println("Error al vaciar " + repository.filePath + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Incorpora el journal en la instantánea JSON y espera a que termine la escritura.
+     *
+     * @throws RuntimeException si ocurre un error al escribir la instantánea
+     */
+    public void compact() {
+        writePending();
+        Future<?> pending;
+        while ((pending = scheduleCompaction(true)) == null) {
+            awaitCompactor();
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al compactar " + filePath, e.getCause());
+        }
+    }
+
+    /**
+     * Rota el journal y entrega la versión actual de los datos al hilo compactador.
+     * Como es inmutable, no hace falta copiarla.
+     *
+     * <p>
+     * Con varias instancias, solo compacta la que toma el candado de compactación
+     * ({@code <archivo>.compact.lock}); las demás siguen escribiendo en el journal. Antes
+     * de rotar se aplica lo que escribieron las otras instancias, para que la instantánea
+     * las incluya. La instantánea se serializa en {@code <archivo>.next} sin el candado
+     * entre procesos, que solo se toma para rotar y para instalarla.
+     * </p>
+     *
+     * @param wait si debe esperar a que otra instancia termine su compactación en lugar
+     *             de dejársela a ella
+     * @return tarea de compactación, o {@code null} si ya hay una en curso
+     */
+    private Future<?> scheduleCompaction(boolean wait) {
+        if (!compacting.compareAndSet(false, true)) {
+            return null;
+        }
+        if (compactionLock != null) {
+            if (wait) {
+                compactionLock.lock();
+            } else if (!compactionLock.tryLock()) {
+                compacting.set(false);
+                return null;
+            }
+        }
+        try {
+            List<T> snapshot;
+            writeLock.lock();
+            try {
+                snapshot = rotateForCompaction();
+            } finally {
+                writeLock.unlock();
+            }
+            return COMPACTOR.submit(() -> {
+                try {
+                    Path next = Paths.get(filePath + NEXT_SNAPSHOT_SUFFIX);
+                    WRITE_SNAPSHOT.run(() -> codec.write(next, snapshot));
+                    lockFiles();
+                    try {
+                        journal.installSnapshot(next);
+                    } finally {
+                        unlockFiles();
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Error al compactar " + filePath + ": " + e.getMessage());
+                    throw e;
+                } finally {
+                    compacting.set(false);
+                    if (compactionLock != null) {
+                        compactionLock.unlock();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            compacting.set(false);
+            if (compactionLock != null) {
+                compactionLock.unlock();
+            }
+            System.err.println("Error al programar la compactación de " + filePath + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Se pone al día con las otras instancias y rota el journal. Debe llamarse con
+     * {@link #writeLock} tomado.
+     *
+     * @return datos que debe contener la instantánea
+     */
+    private List<T> rotateForCompaction() {
+        lockFiles();
+        try {
+            if (fileLock != null && catchUp(Set.of()) == null) {
+                load(); // Con el candado tomado, la vista queda al día.
+            }
+            journal.rotate();
+            return data;
+        } finally {
+            unlockFiles();
+        }
+    }
+
+    /**
+     * Espera a que el hilo compactador termine las tareas ya encoladas.
+     */
+    private static void awaitCompactor() {
+        try {
+            COMPACTOR.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // La tarea vacía no puede fallar.
+        }
+    }
+
+    /**
+     * Obtiene el tipo de elemento a partir del tipo de lista ({@code List<T>}).
+     */
+    private static Type elementType(Type listType) {
+        if (listType instanceof ParameterizedType parameterized) {
+            return parameterized.getActualTypeArguments()[0];
+        }
+        throw new IllegalArgumentException("El tipo de lista debe ser parametrizado: " + listType);
+    }
+
+    /**
+     * Recarga los datos desde el archivo JSON y el journal de mutaciones, leyendo solo lo
+     * que cambió desde la última carga. Sirve para ver las escrituras de otras instancias
+     * que comparten el directorio de datos consultándolo periódicamente.
+     * <ul>
+     *     <li>Si la instantánea y el journal están como se leyeron (se comparan tamaño,
+     *     fecha e identidad de los archivos, sin abrirlos), no hace nada.</li>
+     *     <li>Si al journal solo se le agregaron registros, se leen únicamente los bytes
+     *     nuevos y se aplican sobre los datos y los índices actuales. Lo mismo si otra
+     *     instancia compactó desde la última lectura: se termina de leer el journal que
+     *     compactó y se adopta su instantánea sin leerla.</li>
+     *     <li>En cualquier otro caso (dos compactaciones seguidas, un journal truncado o
+     *     reemplazado) se vuelve a cargar todo.</li>
+     * </ul>
      * <p>
-     * Si el archivo no existe o está vacío, se inicializa con una nueva {@link ArrayList}.
+     * Si el archivo no existe o está vacío, se inicializa con una colección vacía.
      * </p>
      *
      * <p>
      * En caso de error de lectura, se imprime un mensaje en la consola y se mantiene
      * la colección actual en memoria.
      * </p>
+     *
+     * @return {@code true} si los datos en memoria cambiaron
      */
-    public void reload(){
+    public boolean reload(){
+        writeLock.lock();
         try{
-            this.data = store.readFromFile(filePath, listType, new ArrayList<>());
+            writePending();
+            lockFiles();
+            try {
+                CatchUp caughtUp = catchUp(Set.of());
+                if (caughtUp != null) {
+                    return caughtUp.applied() > 0;
+                }
+                load();
+                return true;
+            } finally {
+                unlockFiles();
+            }
         } catch (RuntimeException e){
             System.err.println("Error al recargar desde " + filePath + ": " + e.getMessage());
+            return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
     /**
-     * Devuelve una copia de la lista completa de datos.
+     * Aplica un registro {@code PUT} leído del journal: reemplaza la entidad con el mismo
+     * id o la agrega al final.
+     */
+    private void applyReplayedPut(T entity) {
+        if (!replace(entity, false)) {
+            addEntity(entity);
+        }
+    }
+
+    /**
+     * Devuelve la versión actual de la lista completa de datos. No se copia: es
+     * inmutable y no cambia aunque el repositorio se modifique después.
      *
-     * @return nueva {@link ArrayList} con todos los elementos almacenados
+     * @return lista inmutable con todos los elementos almacenados
      */
     public List<T> getAll() {
-        return new ArrayList<>(data);
+        return data;
+    }
+
+    /**
+     * Indica si el repositorio no tiene entidades (incluidas las eliminadas lógicamente),
+     * sin copiar ni filtrar la colección.
+     *
+     * @return {@code true} si no hay entidades
+     */
+    public boolean isEmpty() {
+        return data.isEmpty();
     }
 
     /**
-     * Borra todos los registros en memoria y los persiste en el archivo JSON.
+     * Número que cambia con cada mutación del repositorio (agregar, reemplazar, borrar o
+     * recargar). Sirve para saber si una vista derivada de los datos
+     * sigue vigente.
+     *
+     * @return versión actual de los datos
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Devuelve las entidades que cumplen un filtro, calculadas una sola vez por
+     * {@link #version()}: mientras el repositorio no cambie, las llamadas siguientes
+     * devuelven la misma lista sin recorrer los datos ni asignar memoria. Cada subclase
+     * debe usar siempre el mismo filtro. Debe llamarse con {@link #readLock} tomado.
+     *
+     * @param filter condición que deben cumplir las entidades
+     * @return lista inmutable con las entidades que cumplen el filtro
+     */
+    protected List<T> filteredSnapshot(Predicate<T> filter) {
+        long current = version;
+        FilteredView<T> view = filteredView;
+        if (view == null || view.version() != current) {
+            view = new FilteredView<>(current, data.stream().filter(filter).toList());
+            filteredView = view;
+        }
+        return view.items();
+    }
+
+    private record FilteredView<T>(long version, List<T> items) {
+    }
+
+    /**
+     * Indica si la entidad cuenta como registro activo para {@link #hasActive()}. Por
+     * defecto todas cuentan; los repositorios con borrado lógico la redefinen.
+     *
+     * @param entity entidad a revisar
+     * @return {@code true} si la entidad está activa
+     */
+    protected boolean isActive(T entity) {
+        return true;
+    }
+
+    /**
+     * Indica si hay al menos un registro activo. Recorre los datos solo hasta encontrar
+     * el primero, sin construir listas ni resolver referencias.
+     *
+     * @return {@code true} si algún registro está activo
+     */
+    public boolean hasActive() {
+        readLock.lock();
+        try {
+            SnapshotList<T> snapshot = data;
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (isActive(snapshot.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve una entidad con sus referencias transitorias (por ejemplo, el paciente de
+     * una cita) asignadas a partir de otros repositorios. No debe modificar la entidad
+     * recibida, que puede ser la publicada en {@code data}: las subclases que resuelven
+     * algo lo hacen sobre una copia. Por defecto devuelve la misma entidad.
+     *
+     * @param entity entidad a resolver
+     * @return entidad resuelta
+     */
+    protected T resolveReferences(T entity) {
+        return entity;
+    }
+
+    /**
+     * Devuelve la versión actual de los datos con sus referencias resueltas. No copia ni
+     * resuelve nada al llamarse: cada elemento se resuelve al leerlo con {@code get}, así
+     * que una escritura no obliga a rehacer la lista completa y siempre se ven los datos
+     * actuales de los otros repositorios. Cada lectura devuelve una copia nueva; quien
+     * recorra la lista varias veces puede copiarla. Debe llamarse con {@link #readLock}
+     * tomado; la lista devuelta se puede recorrer sin él.
+     *
+     * @return lista inmutable con todas las entidades resueltas
+     */
+    protected List<T> resolvedSnapshot() {
+        return new ResolvedList<>(data, this::resolveReferences);
+    }
+
+    /**
+     * Vista de solo lectura de una versión de los datos que resuelve las referencias de
+     * cada entidad al leerla.
+     */
+    private static final class ResolvedList<T> extends AbstractList<T> implements RandomAccess {
+
+        private final SnapshotList<T> snapshot;
+        private final UnaryOperator<T> resolver;
+
+        ResolvedList(SnapshotList<T> snapshot, UnaryOperator<T> resolver) {
+            this.snapshot = snapshot;
+            this.resolver = resolver;
+        }
+
+        @Override
+        public T get(int index) {
+            return resolver.apply(snapshot.get(index));
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+    }
+
+    /**
+     * Borra todos los registros en memoria y registra la operación en el journal.
      *
      * <p>
      * Si ocurre un error al guardar, se imprime un mensaje en la consola.
      * </p>
      */
     public void clear() {
-        data.clear();
+        writeLock.lock();
+        try {
+            clearLocked();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void clearLocked() {
+        clearInMemory();
+        bases.clear();
+        if (writeBehindMillis > 0) {
+            synchronized (pendingLock) {
+                pendingPuts.clear();
+                pendingClear = true;
+                scheduleWrite();
+            }
+            return;
+        }
         try{
-            save();
+            commit(true, Map.of(), null);
         } catch (RuntimeException e){
             System.err.println("Error al limpiar " + filePath + ": " + e.getMessage());
         }
     }
+
+    private void clearInMemory() {
+        data = SnapshotList.empty();
+        index.clear();
+        for (EntityIndex<T> secondary : secondaryIndexes) {
+            secondary.clear();
+        }
+        version++;
+    }
 }
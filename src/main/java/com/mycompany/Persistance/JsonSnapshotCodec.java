@@ -0,0 +1,42 @@
+package com.mycompany.Persistance;
+
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Códec de instantáneas en JSON con formato legible, el formato histórico de los
+ * archivos de {@code data/}.
+ *
+ * @param <T> Tipo de entidad almacenada.
+ */
+public final class JsonSnapshotCodec<T> implements SnapshotCodec<T> {
+
+    private final JsonStore store;
+    private final Type elementType;
+
+    /**
+     * @param store       utilidad de lectura/escritura JSON
+     * @param elementType tipo de las entidades almacenadas
+     */
+    public JsonSnapshotCodec(JsonStore store, Type elementType) {
+        this.store = store;
+        this.elementType = elementType;
+    }
+
+    @Override
+    public String fileExtension() {
+        return ".json";
+    }
+
+    @Override
+    public void write(Path file, List<T> data) {
+        store.writeToFile(file.toString(), data);
+    }
+
+    @Override
+    public int read(Path file, Consumer<T> consumer, LoadProgressListener progress) {
+        return store.readArray(file.toString(), elementType, consumer, progress);
+    }
+}
@@ -1,12 +1,22 @@
 package com.mycompany.Persistance;
 
 import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.mycompany.Metrics.Counter;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Metrics.OperationMetrics;
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 /**
  * Utilidad para lectura y escritura de archivos JSON usando Gson.
@@ -24,15 +34,57 @@ import java.time.format.DateTimeFormatter;
  */
 public class JsonStore {
 
+    /**
+     * Cantidad de registros entre notificaciones de avance de {@link #readArray}.
+     */
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    /**
+     * Propiedad del sistema que activa la lectura de archivos grandes mapeándolos en
+     * memoria ({@code true}/{@code false}). Por defecto está activada, salvo en Windows:
+     * allí un archivo mapeado no se puede reemplazar hasta que el recolector libere el
+     * mapeo, y la compactación reemplaza el archivo recién leído.
+     */
+    public static final String MAPPED_READS_PROPERTY = "clinicalsystem.mappedReads";
+
+    private static final boolean MAPPED_READS_DEFAULT =
+            !System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+
+    /**
+     * Tamaño a partir del cual un archivo se lee mapeado en memoria (si está activado);
+     * en archivos más chicos el costo de crear el mapeo no compensa.
+     */
+    public static final long MAPPED_READ_THRESHOLD_BYTES = 1L << 20;
+
+    // Bytes leídos y escritos por todas las instancias, y duración de cada escritura
+    private static final Counter BYTES_READ = MetricsRegistry.counter("JsonStore.bytesRead");
+    private static final Counter BYTES_WRITTEN = MetricsRegistry.counter("JsonStore.bytesWritten");
+    private static final OperationMetrics WRITE_TO_FILE = MetricsRegistry.operation("JsonStore.writeToFile");
+    private static final OperationMetrics WRITE_LINES = MetricsRegistry.operation("JsonStore.writeLines");
+
     private final Gson gson;
+    private final Gson compactGson;
 
     /**
      * Crea una instancia de {@code JsonStore} con soporte para serialización/deserialización
      * de {@link LocalDate}, {@link LocalTime}, {@link LocalDateTime} y {@link Duration},
-     * además de formateo bonito de JSON.
+     * además de formateo bonito de JSON. Los registros de una sola línea (journal)
+     * se serializan sin formateo.
      */
     public JsonStore() {
-        this.gson = new GsonBuilder()
+        GsonBuilder builder = newGsonBuilder();
+        this.compactGson = builder.create();
+        this.gson = builder.setPrettyPrinting().create();
+    }
+
+    /**
+     * Crea la configuración de Gson con los adaptadores de fecha y hora, sin formateo.
+     * La comparten los archivos de datos y el protocolo del servidor de repositorios.
+     *
+     * @return configuración nueva, que el llamador puede seguir ajustando
+     */
+    static GsonBuilder newGsonBuilder() {
+        return new GsonBuilder()
                 // Adaptadores para LocalDate, LocalTime, LocalDateTime y Duration
                 .registerTypeAdapter(LocalDate.class, new JsonSerializer<LocalDate>() {
                     @Override
@@ -85,15 +137,18 @@ public class JsonStore {
                             throws JsonParseException {
                         return Duration.parse(json.getAsString());
                     }
-                })
-
-                .setPrettyPrinting()
-                .create();
+                });
     }
 
     /**
      * Serializa un objeto o lista y lo escribe en el archivo especificado.
      *
+     * <p>
+     * La escritura es atómica y durable: se escribe en un archivo temporal, se fuerza a
+     * disco y se reemplaza el archivo con un movimiento atómico, de modo que una caída a
+     * mitad de la escritura conserva el contenido anterior completo.
+     * </p>
+     *
      * @param filePath ruta completa del archivo JSON
      * @param data     objeto o lista a serializar
      * @param <T>      tipo del objeto
@@ -105,17 +160,23 @@ public class JsonStore {
         if (filePath == null || filePath.isEmpty()) {
             throw new IllegalArgumentException("La ruta del archivo no puede ser nula o vacía.");
         }
+        long start = WRITE_TO_FILE.start();
         try {
-            ensureDirectoryExists(filePath);
-            try (Writer writer = new OutputStreamWriter(
-                    new FileOutputStream(filePath),
-                    StandardCharsets.UTF_8)) {
+            DurableFiles.replace(Paths.get(filePath), out -> {
+                CountingOutputStream counted = new CountingOutputStream(out);
+                Writer writer = new OutputStreamWriter(counted, StandardCharsets.UTF_8);
                 gson.toJson(data, writer);
-            }
-        } catch (FileNotFoundException e) {
+                writer.flush();
+                BYTES_WRITTEN.add(counted.count());
+            });
+        } catch (FileNotFoundException | AccessDeniedException e) {
+            WRITE_TO_FILE.error();
             throw new IllegalStateException("Archivo no encontrado: " + filePath, e);
         } catch (IOException e) {
+            WRITE_TO_FILE.error();
             throw new UncheckedIOException("Error al escribir en el archivo JSON: " + filePath, e);
+        } finally {
+            WRITE_TO_FILE.stop(start);
         }
     }
 
@@ -141,8 +202,15 @@ public class JsonStore {
             return defaultValue;
         }
 
-        try (Reader reader = new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8)) {
+        Source source;
+        try {
+            source = openReader(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo JSON: " + filePath, e);
+        }
+        try (Reader reader = source.reader()) {
             T result = gson.fromJson(reader, type);
+            BYTES_READ.add(source.bytesRead().getAsLong());
             return result != null ? result : defaultValue;
         } catch (JsonSyntaxException e) {
             throw new JsonParseException("Error de sintaxis en el archivo JSON: " + filePath, e);
@@ -151,6 +219,336 @@ public class JsonStore {
         }
     }
 
+    /**
+     * Lee un arreglo JSON elemento por elemento, entregando cada objeto al consumidor sin
+     * construir la lista completa en memoria.
+     *
+     * <p>
+     * Un elemento que no se puede convertir al tipo esperado (por ejemplo, una fecha con
+     * formato inválido) se omite, se informa por consola y a
+     * {@link LoadProgressListener#onSkipped(String, String, String)}, y la lectura continúa
+     * con el siguiente. Si el archivo está truncado o tiene un error de sintaxis se lanza
+     * una excepción: los elementos ya entregados no son el contenido completo y quien
+     * llama no debe tratarlos como tal (ni reescribir el archivo con ellos).
+     * </p>
+     *
+     * @param filePath    ruta completa del archivo JSON
+     * @param elementType tipo de cada elemento del arreglo
+     * @param consumer    receptor de cada elemento leído, en orden
+     * @param progress    receptor del avance de la lectura
+     * @param <T>         tipo de los elementos
+     * @return cantidad de elementos entregados; {@code 0} si el archivo no existe o está vacío
+     * @throws IllegalArgumentException si {@code filePath} es nulo o vacío
+     * @throws JsonParseException       si el contenido del archivo no es un arreglo JSON
+     * @throws UncheckedIOException     si ocurre un error de lectura o el archivo está
+     *                                  truncado o tiene un error de sintaxis
+     */
+    @SuppressWarnings("unchecked")
+    public <T> int readArray(String filePath, Type elementType, Consumer<T> consumer, LoadProgressListener progress) {
+        if (filePath == null || filePath.isEmpty()) {
+            throw new IllegalArgumentException("La ruta del archivo no puede ser nula o vacía.");
+        }
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path) || path.toFile().length() == 0) {
+            return 0;
+        }
+        long totalBytes = path.toFile().length();
+
+        TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(elementType));
+        int count = 0;
+        int position = 0;
+        Source source;
+        try {
+            source = openReader(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo JSON: " + filePath, e);
+        }
+        try (JsonReader reader = new JsonReader(source.reader())) {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                throw new JsonParseException("Se esperaba un arreglo JSON en " + filePath);
+            }
+            reader.beginArray();
+            for (; reader.hasNext(); position++) {
+                T entity;
+                try {
+                    entity = adapter.read(reader);
+                } catch (JsonParseException | IllegalStateException | DateTimeException e) {
+                    String location = reader.getPath();
+                    System.err.println("Registro inválido en " + filePath + " (" + location
+                            + "), se omite: " + e.getMessage());
+                    progress.onSkipped(filePath, location, e.getMessage());
+                    skipToNextElement(reader, position);
+                    continue;
+                }
+                if (entity == null) {
+                    continue;
+                }
+                consumer.accept(entity);
+                count++;
+                if (count % PROGRESS_INTERVAL == 0) {
+                    progress.onProgress(filePath, source.bytesRead().getAsLong(), totalBytes, count);
+                }
+            }
+            reader.endArray();
+            progress.onProgress(filePath, totalBytes, totalBytes, count);
+            BYTES_READ.add(source.bytesRead().getAsLong());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archivo truncado o con errores en " + filePath
+                    + " (después de " + count + " registros)", e);
+        }
+        return count;
+    }
+
+    /**
+     * Texto de un archivo junto con la cantidad de bytes ya consumidos, para informar el
+     * avance.
+     */
+    private record Source(Reader reader, LongSupplier bytesRead) {
+    }
+
+    /**
+     * Abre un archivo UTF-8 para lectura. Los archivos de al menos
+     * {@link #MAPPED_READ_THRESHOLD_BYTES} se mapean en memoria y se decodifican desde las
+     * páginas mapeadas ({@link MappedUtf8Reader}), salvo que {@link #MAPPED_READS_PROPERTY}
+     * sea {@code false}; los demás se leen con un flujo.
+     *
+     * @param path archivo a leer
+     * @return lector del archivo y contador de bytes leídos
+     * @throws IOException si el archivo no se puede abrir
+     */
+    private static Source openReader(Path path) throws IOException {
+        boolean mapped = Boolean.parseBoolean(System.getProperty(MAPPED_READS_PROPERTY, String.valueOf(MAPPED_READS_DEFAULT)))
+                && Files.size(path) >= MAPPED_READ_THRESHOLD_BYTES;
+        if (mapped) {
+            MappedUtf8Reader reader = MappedUtf8Reader.open(path);
+            return new Source(reader, reader::bytesRead);
+        }
+        CountingInputStream input = new CountingInputStream(new FileInputStream(path.toFile()));
+        return new Source(new InputStreamReader(input, StandardCharsets.UTF_8), input::count);
+    }
+
+    /**
+     * Tras un error de conversión dentro de un elemento, consume lo que queda de él para
+     * que el lector quede posicionado en el siguiente elemento del arreglo raíz.
+     *
+     * @param reader   lector posicionado en algún punto dentro del elemento inválido
+     * @param position índice del elemento inválido en el arreglo raíz
+     * @throws IOException si el archivo tiene un error de sintaxis
+     */
+    private static void skipToNextElement(JsonReader reader, int position) throws IOException {
+        if (reader.getPath().equals("$[" + position + "]")) {
+            reader.skipValue(); // El error ocurrió antes de consumir el elemento.
+            return;
+        }
+        while (!isRootElementBoundary(reader.getPath())) {
+            switch (reader.peek()) {
+                case END_OBJECT -> reader.endObject();
+                case END_ARRAY -> reader.endArray();
+                case NAME -> reader.nextName();
+                case END_DOCUMENT -> throw new EOFException("Fin inesperado del archivo");
+                default -> reader.skipValue();
+            }
+        }
+    }
+
+    /**
+     * Indica si la ruta del lector ({@code $[n]}) corresponde al nivel de los elementos
+     * del arreglo raíz.
+     */
+    private static boolean isRootElementBoundary(String readerPath) {
+        return readerPath.startsWith("$[") && readerPath.indexOf('[', 2) < 0 && readerPath.indexOf('.') < 0;
+    }
+
+    /**
+     * Reemplaza atómicamente un archivo JSON Lines con los elementos indicados, uno por
+     * línea.
+     *
+     * @param filePath ruta completa del archivo
+     * @param elements elementos a escribir, en orden
+     * @throws IllegalArgumentException si {@code filePath} es nulo o vacío
+     * @throws UncheckedIOException      si ocurre un error de escritura en disco
+     */
+    public void writeLines(String filePath, Iterable<? extends JsonElement> elements) {
+        if (filePath == null || filePath.isEmpty()) {
+            throw new IllegalArgumentException("La ruta del archivo no puede ser nula o vacía.");
+        }
+        long start = WRITE_LINES.start();
+        try {
+            DurableFiles.replace(Paths.get(filePath), out -> {
+                CountingOutputStream counted = new CountingOutputStream(out);
+                Writer writer = new OutputStreamWriter(counted, StandardCharsets.UTF_8);
+                for (JsonElement element : elements) {
+                    writer.write(compactGson.toJson(element));
+                    writer.write('\n');
+                }
+                writer.flush();
+                BYTES_WRITTEN.add(counted.count());
+            });
+        } catch (IOException e) {
+            WRITE_LINES.error();
+            throw new UncheckedIOException("Error al escribir en el archivo: " + filePath, e);
+        } finally {
+            WRITE_LINES.stop(start);
+        }
+    }
+
+    /**
+     * Serializa un elemento JSON en una sola línea, sin formateo.
+     *
+     * @param element elemento a serializar
+     * @return texto JSON compacto
+     */
+    public String toCompactJson(JsonElement element) {
+        return compactGson.toJson(element);
+    }
+
+    /**
+     * Recorre un archivo JSON Lines entregando cada objeto al consumidor, en orden.
+     *
+     * <p>
+     * Si una línea está incompleta o mal formada (por ejemplo, una escritura interrumpida
+     * al final del archivo) la lectura se detiene en ese punto y se conservan las
+     * líneas anteriores.
+     * </p>
+     *
+     * @param filePath ruta completa del archivo
+     * @param consumer receptor de cada objeto leído
+     * @return cantidad de líneas procesadas; {@code 0} si el archivo no existe
+     * @throws IllegalArgumentException si {@code filePath} es nulo o vacío
+     * @throws UncheckedIOException     si ocurre un error de lectura
+     */
+    public int forEachLine(String filePath, Consumer<JsonObject> consumer) {
+        if (filePath == null || filePath.isEmpty()) {
+            throw new IllegalArgumentException("La ruta del archivo no puede ser nula o vacía.");
+        }
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        int count = 0;
+        try (CountingInputStream input = new CountingInputStream(Files.newInputStream(path));
+                BufferedReader reader = new BufferedReader(new InputStreamReader(input,
+                        StandardCharsets.UTF_8.newDecoder()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonObject record;
+                try {
+                    record = JsonParser.parseString(line).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    System.err.println("Registro incompleto en " + filePath + " (línea " + (count + 1)
+                            + "), se ignoran los registros siguientes.");
+                    break;
+                }
+                consumer.accept(record);
+                count++;
+            }
+            BYTES_READ.add(input.count());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo: " + filePath, e);
+        }
+        return count;
+    }
+
+    /**
+     * Recorre las líneas completas de un archivo JSON Lines a partir de un desplazamiento
+     * en bytes, entregando cada objeto al consumidor, en orden.
+     *
+     * <p>
+     * Solo se leen los bytes desde {@code offset} hasta el final, así que seguir un
+     * archivo que crece cuesta lo que se agregó y no lo que ya había. Una línea final sin
+     * salto de línea se considera en curso de escritura: no se entrega y el valor devuelto
+     * queda antes de ella, para leerla completa la próxima vez. Si una línea completa está
+     * mal formada, la lectura se detiene ahí como en {@link #forEachLine(String, Consumer)}.
+     * </p>
+     *
+     * @param filePath ruta completa del archivo
+     * @param offset   posición en bytes del comienzo de una línea
+     * @param consumer receptor de cada objeto leído
+     * @return posición en bytes siguiente a la última línea entregada; {@code offset} si el
+     *         archivo no existe o no creció
+     * @throws IllegalArgumentException si {@code filePath} es nulo o vacío, o {@code offset}
+     *                                  es negativo
+     * @throws UncheckedIOException     si ocurre un error de lectura
+     */
+    public long forEachLine(String filePath, long offset, Consumer<JsonObject> consumer) {
+        if (filePath == null || filePath.isEmpty()) {
+            throw new IllegalArgumentException("La ruta del archivo no puede ser nula o vacía.");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("El desplazamiento no puede ser negativo: " + offset);
+        }
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            return offset;
+        }
+
+        byte[] bytes;
+        int length;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long available = channel.size() - offset;
+            if (available <= 0) {
+                return offset;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(available));
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+                // Lee hasta el tamaño observado; lo que se agregue después queda para la próxima.
+            }
+            bytes = buffer.array();
+            length = buffer.position();
+            BYTES_READ.add(length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo: " + filePath, e);
+        }
+
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                JsonObject record;
+                try {
+                    record = JsonParser.parseString(line).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    System.err.println("Registro mal formado en " + filePath + " (byte " + (offset + lineStart)
+                            + "), se ignoran los registros siguientes.");
+                    return offset + lineStart;
+                }
+                consumer.accept(record);
+            }
+            lineStart = i + 1;
+        }
+        return offset + lineStart;
+    }
+
+    /**
+     * Convierte un objeto a su representación como árbol JSON.
+     *
+     * @param src objeto a convertir
+     * @return elemento JSON equivalente
+     */
+    public JsonElement toJsonTree(Object src) {
+        return gson.toJsonTree(src);
+    }
+
+    /**
+     * Convierte un árbol JSON a un objeto del tipo indicado.
+     *
+     * @param json elemento JSON de origen
+     * @param type tipo de objeto esperado
+     * @param <T>  tipo del objeto
+     * @return objeto deserializado
+     * @throws JsonParseException si el elemento no corresponde al tipo
+     */
+    public <T> T fromJsonTree(JsonElement json, Type type) {
+        return gson.fromJson(json, type);
+    }
+
     /**
      * Asegura que el directorio padre del archivo exista, creándolo si es necesario.
      *
@@ -164,4 +562,75 @@ public class JsonStore {
             Files.createDirectories(parentDir);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Flujo de entrada que cuenta los bytes leídos, para informar el avance de la carga y
+     * para las métricas de lectura.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Flujo de salida que cuenta los bytes escritos, para las métricas de escritura.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            // FilterOutputStream escribe byte a byte; se delega el bloque completo.
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.mycompany.Persistance;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Repositorio que se construye (y por lo tanto lee su archivo) recién cuando se
+ * necesita, o antes en segundo plano si se pide con {@link #start(Executor)}.
+ *
+ * <p>
+ * La construcción corre una sola vez: si varios hilos piden el repositorio a la vez,
+ * uno lo construye y los demás esperan el mismo resultado. Si la construcción se inició
+ * en segundo plano, quien lo pida espera a que termine en lugar de repetirla.
+ * {@link #proxy(Class)} devuelve un objeto que implementa la interfaz del repositorio y
+ * lo construye en la primera llamada, de modo que los servicios pueden recibirlo sin
+ * que el arranque espere a leer el archivo.
+ * </p>
+ *
+ * <p>
+ * El proxy no es el mismo objeto que el repositorio: las estructuras que comparan
+ * repositorios por identidad (por ejemplo, {@link UsernameDirectory}) o que necesitan
+ * la clase concreta deben recibir {@link #get()}.
+ * </p>
+ *
+ * @param <R> Tipo concreto del repositorio.
+ */
+public final class LazyRepository<R> {
+
+    private final String name;
+    private final FutureTask<R> task;
+
+    /**
+     * @param name   nombre usado en los mensajes de error
+     * @param loader construye el repositorio
+     */
+    public LazyRepository(String name, Callable<? extends R> loader) {
+        this.name = Objects.requireNonNull(name, "El nombre no puede ser nulo");
+        Objects.requireNonNull(loader, "La función de carga no puede ser nula");
+        this.task = new FutureTask<>(loader::call);
+    }
+
+    /**
+     * Empieza a construir el repositorio en segundo plano. No tiene efecto si ya se
+     * construyó o se está construyendo.
+     *
+     * @param executor ejecutor donde corre la construcción
+     * @return este mismo objeto
+     */
+    public LazyRepository<R> start(Executor executor) {
+        executor.execute(task);
+        return this;
+    }
+
+    /**
+     * @return {@code true} si el repositorio ya se construyó (o falló al construirse)
+     */
+    public boolean isLoaded() {
+        return task.isDone();
+    }
+
+    /**
+     * Devuelve el repositorio, construyéndolo en el hilo actual si nadie lo empezó.
+     *
+     * @return repositorio construido
+     * @throws IllegalStateException si la construcción falló o el hilo fue interrumpido
+     */
+    public R get() {
+        task.run(); // No hace nada si ya terminó o si otro hilo lo está construyendo
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la carga de " + name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Error al cargar " + name + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Devuelve un objeto que implementa {@code type} delegando en el repositorio, que se
+     * construye en la primera llamada a un método de la interfaz.
+     *
+     * @param type interfaz a exponer; el repositorio debe implementarla
+     * @param <I>  tipo de la interfaz
+     * @return proxy del repositorio
+     * @throws IllegalArgumentException si {@code type} no es una interfaz
+     */
+    public <I> I proxy(Class<I> type) {
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException(type.getName() + " no es una interfaz");
+        }
+        InvocationHandler handler = (proxy, method, args) -> invoke(type, proxy, method, args);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private Object invoke(Class<?> type, Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "LazyRepository[" + name + " como " + type.getSimpleName() + "]";
+            };
+        }
+        try {
+            return method.invoke(get(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.mycompany.Persistance;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Migrador de una sola ejecución desde el formato anterior de {@code appointments.json}
+ * y {@code consultations.json}, que incrustaba copias completas de {@code Patient},
+ * {@code Doctor} y {@code Appointment}, al formato con claves foráneas
+ * ({@code patientId}, {@code doctorId}, {@code appointmentId}).
+ *
+ * <p>
+ * Si una consulta incrusta una cita que no existe en {@code appointments.json}, esa
+ * cita se agrega al archivo de citas para que la referencia pueda resolverse. Los
+ * journals pendientes ({@code .journal}, {@code .journal.old}) se convierten igual. Antes
+ * de reescribir cada archivo se deja una copia con extensión {@code .bak}.
+ * </p>
+ *
+ * <p>
+ * Uso: {@code java com.mycompany.Persistance.LegacyDataMigrator [directorioDeDatos]}.
+ * </p>
+ */
+public final class LegacyDataMigrator {
+
+    private static final String APPOINTMENTS_FILE = "appointments.json";
+    private static final String CONSULTATIONS_FILE = "consultations.json";
+    private static final String[] JOURNAL_SUFFIXES = {".journal.old", ".journal"};
+
+    private LegacyDataMigrator() {
+    }
+
+    public static void main(String[] args) {
+        Path dataDir = Paths.get(args.length > 0 ? args[0] : System.getProperty(JsonRepository.DATA_DIR_PROPERTY, "data"));
+        if (migrateIfNeeded(dataDir)) {
+            System.out.println("Archivos migrados al formato con claves foráneas en " + dataDir);
+        } else {
+            System.out.println("No hay archivos en formato anterior en " + dataDir);
+        }
+    }
+
+    /**
+     * Migra los archivos del directorio si alguno está en el formato anterior.
+     *
+     * @param dataDir directorio de datos
+     * @return {@code true} si se migró algún archivo
+     * @throws UncheckedIOException si ocurre un error de lectura/escritura
+     */
+    public static boolean migrateIfNeeded(Path dataDir) {
+        Path appointmentsPath = dataDir.resolve(APPOINTMENTS_FILE);
+        Path consultationsPath = dataDir.resolve(CONSULTATIONS_FILE);
+        boolean legacyAppointments = isLegacy(appointmentsPath, "patient", "doctor");
+        boolean legacyConsultations = isLegacy(consultationsPath, "appointment");
+        if (!legacyAppointments && !legacyConsultations) {
+            return false;
+        }
+
+        JsonStore store = new JsonStore();
+        JsonArray appointments = readArray(appointmentsPath);
+        Set<String> appointmentIds = new HashSet<>();
+        for (JsonElement element : appointments) {
+            JsonObject appointment = element.getAsJsonObject();
+            normalizeAppointment(appointment);
+            appointmentIds.add(appointment.get("id").getAsString());
+        }
+
+        for (String suffix : JOURNAL_SUFFIXES) {
+            migrateJournal(store, Paths.get(appointmentsPath + suffix), LegacyDataMigrator::normalizeAppointment);
+        }
+
+        JsonArray consultations = readArray(consultationsPath);
+        Consumer<JsonObject> normalizeConsultation = consultation -> {
+            JsonElement embedded = consultation.remove("appointment");
+            if (embedded != null && embedded.isJsonObject()) {
+                JsonObject appointment = embedded.getAsJsonObject();
+                String appointmentId = appointment.get("id").getAsString();
+                consultation.addProperty("appointmentId", appointmentId);
+                if (appointmentIds.add(appointmentId)) {
+                    normalizeAppointment(appointment);
+                    appointments.add(appointment);
+                }
+            }
+        };
+        for (JsonElement element : consultations) {
+            normalizeConsultation.accept(element.getAsJsonObject());
+        }
+        for (String suffix : JOURNAL_SUFFIXES) {
+            migrateJournal(store, Paths.get(consultationsPath + suffix), normalizeConsultation);
+        }
+
+        backup(appointmentsPath);
+        backup(consultationsPath);
+        store.writeToFile(appointmentsPath.toString(), appointments);
+        store.writeToFile(consultationsPath.toString(), consultations);
+        return true;
+    }
+
+    /**
+     * Aplica la conversión a la entidad de cada registro de un journal.
+     */
+    private static void migrateJournal(JsonStore store, Path journal, Consumer<JsonObject> normalizer) {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        List<JsonObject> records = new ArrayList<>();
+        store.forEachLine(journal.toString(), record -> {
+            JsonElement entity = record.get("entity");
+            if (entity != null && entity.isJsonObject()) {
+                normalizer.accept(entity.getAsJsonObject());
+            }
+            records.add(record);
+        });
+        backup(journal);
+        store.writeLines(journal.toString(), records);
+    }
+
+    /**
+     * Reemplaza los objetos {@code patient} y {@code doctor} incrustados por sus ids.
+     */
+    private static void normalizeAppointment(JsonObject appointment) {
+        replaceWithId(appointment, "patient", "patientId");
+        replaceWithId(appointment, "doctor", "doctorId");
+    }
+
+    private static void replaceWithId(JsonObject owner, String member, String idMember) {
+        JsonElement embedded = owner.remove(member);
+        if (embedded != null && embedded.isJsonObject() && embedded.getAsJsonObject().has("id")) {
+            owner.addProperty(idMember, embedded.getAsJsonObject().get("id").getAsString());
+        }
+    }
+
+    /**
+     * Revisa solo el primer elemento del arreglo para decidir si el archivo usa el
+     * formato anterior, sin cargar el archivo completo.
+     */
+    private static boolean isLegacy(Path path, String... embeddedMembers) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+                JsonReader json = new JsonReader(reader)) {
+            if (json.peek() != JsonToken.BEGIN_ARRAY) {
+                return false;
+            }
+            json.beginArray();
+            if (!json.hasNext() || json.peek() != JsonToken.BEGIN_OBJECT) {
+                return false;
+            }
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                for (String member : embeddedMembers) {
+                    if (member.equals(name) && json.peek() == JsonToken.BEGIN_OBJECT) {
+                        return true;
+                    }
+                }
+                json.skipValue();
+            }
+            return false;
+        } catch (java.io.EOFException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo JSON: " + path, e);
+        }
+    }
+
+    private static JsonArray readArray(Path path) {
+        if (!Files.exists(path)) {
+            return new JsonArray();
+        }
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            JsonElement root = JsonParser.parseReader(reader);
+            return root.isJsonArray() ? root.getAsJsonArray() : new JsonArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo JSON: " + path, e);
+        }
+    }
+
+    private static void backup(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            Files.copy(path, path.resolveSibling(path.getFileName() + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al respaldar el archivo: " + path, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycompany.Persistance;
+
+/**
+ * Receptor del avance de la carga de un archivo JSON.
+ *
+ * <p>
+ * {@link JsonStore#readArray(String, java.lang.reflect.Type, java.util.function.Consumer, LoadProgressListener)}
+ * lo invoca periódicamente mientras lee los elementos del arreglo, y una última vez al
+ * terminar. La cantidad de bytes leídos es aproximada, porque la lectura se hace con búfer.
+ * También recibe cada registro omitido por no poder convertirse.
+ * </p>
+ *
+ * @author camil
+ */
+@FunctionalInterface
+public interface LoadProgressListener {
+
+    /**
+     * Listener que no hace nada.
+     */
+    LoadProgressListener NONE = (filePath, bytesRead, totalBytes, records) -> { };
+
+    /**
+     * Notifica el avance de la lectura.
+     *
+     * @param filePath   ruta del archivo que se está leyendo
+     * @param bytesRead  bytes leídos hasta el momento
+     * @param totalBytes tamaño total del archivo
+     * @param records    registros entregados hasta el momento
+     */
+    void onProgress(String filePath, long bytesRead, long totalBytes, int records);
+
+    /**
+     * Notifica que un registro no se pudo convertir y se omitió. Por defecto no hace nada.
+     *
+     * @param filePath ruta del archivo que se está leyendo
+     * @param location ubicación del registro en el archivo (por ejemplo {@code $[12]})
+     * @param reason   motivo por el que se omitió
+     */
+    default void onSkipped(String filePath, String location, String reason) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.mycompany.Persistance;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lector de texto UTF-8 que decodifica directamente desde el archivo mapeado en memoria
+ * ({@link FileChannel#map}), sin copiar los bytes a un búfer intermedio.
+ *
+ * <p>
+ * Con {@code FileInputStream} + {@code InputStreamReader} cada bloque del archivo se
+ * copia del page cache del sistema a un arreglo de bytes (una llamada a {@code read} por
+ * bloque) y de ahí se decodifica. Aquí las páginas del archivo se leen donde están: el
+ * sistema las trae al page cache la primera vez que se tocan y el lector las recorre de
+ * forma secuencial. Los archivos de más de 1 GiB se mapean por tramos.
+ * </p>
+ *
+ * <p>
+ * Las secuencias mal formadas se reemplazan por U+FFFD, como hace
+ * {@code InputStreamReader}. El mapeo se libera cuando el recolector descarta el lector;
+ * mientras tanto las páginas siguen contando en la memoria residente del proceso (como
+ * páginas compartidas del archivo, que el sistema puede descartar si necesita memoria).
+ * </p>
+ */
+final class MappedUtf8Reader extends Reader {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+    private long position;
+    private char pendingLowSurrogate;
+    private boolean hasPending;
+
+    private MappedUtf8Reader(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Mapea un archivo completo en modo de solo lectura.
+     *
+     * @param path archivo a leer
+     * @return lector posicionado al inicio del archivo
+     * @throws IOException si el archivo no se puede abrir o mapear
+     */
+    static MappedUtf8Reader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long offset = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, size - offset));
+            }
+            return new MappedUtf8Reader(segments, size);
+        }
+    }
+
+    /**
+     * @return bytes del archivo ya decodificados
+     */
+    long bytesRead() {
+        return position;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int n = 0;
+        if (hasPending) {
+            buffer[offset] = pendingLowSurrogate;
+            hasPending = false;
+            n = 1;
+        }
+        while (n < length && position < size) {
+            int segmentIndex = (int) (position >>> SEGMENT_BITS);
+            MappedByteBuffer segment = segments[segmentIndex];
+            long base = (long) segmentIndex << SEGMENT_BITS;
+            int i = (int) (position - base);
+            int limit = segment.limit();
+            // Camino rápido: ASCII, un byte por carácter (casi todo el JSON)
+            while (n < length && i < limit) {
+                byte b = segment.get(i);
+                if (b < 0) {
+                    break;
+                }
+                buffer[offset + n++] = (char) b;
+                i++;
+            }
+            position = base + i;
+            if (n < length && i < limit) {
+                n += decodeMultiByte(buffer, offset + n, length - n);
+            }
+        }
+        return n == 0 && position >= size ? -1 : n;
+    }
+
+    /**
+     * Decodifica una secuencia de varios bytes en {@link #position}, que puede cruzar el
+     * límite entre dos tramos.
+     *
+     * @return caracteres escritos (1 o 2)
+     */
+    private int decodeMultiByte(char[] buffer, int offset, int room) {
+        int b0 = byteAt(position);
+        int continuation;
+        int min;
+        int codePoint;
+        if ((b0 & 0xE0) == 0xC0) {
+            continuation = 1;
+            min = 0x80;
+            codePoint = b0 & 0x1F;
+        } else if ((b0 & 0xF0) == 0xE0) {
+            continuation = 2;
+            min = 0x800;
+            codePoint = b0 & 0x0F;
+        } else if ((b0 & 0xF8) == 0xF0) {
+            continuation = 3;
+            min = 0x10000;
+            codePoint = b0 & 0x07;
+        } else {
+            return malformed(buffer, offset);
+        }
+        if (position + continuation >= size) { // Secuencia truncada al final del archivo
+            return malformed(buffer, offset);
+        }
+        for (int k = 1; k <= continuation; k++) {
+            int b = byteAt(position + k);
+            if ((b & 0xC0) != 0x80) {
+                return malformed(buffer, offset);
+            }
+            codePoint = (codePoint << 6) | (b & 0x3F);
+        }
+        if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+                || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            return malformed(buffer, offset);
+        }
+        position += continuation + 1;
+        if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            buffer[offset] = (char) codePoint;
+            return 1;
+        }
+        buffer[offset] = Character.highSurrogate(codePoint);
+        if (room > 1) {
+            buffer[offset + 1] = Character.lowSurrogate(codePoint);
+            return 2;
+        }
+        pendingLowSurrogate = Character.lowSurrogate(codePoint);
+        hasPending = true;
+        return 1;
+    }
+
+    private int malformed(char[] buffer, int offset) {
+        position++;
+        buffer[offset] = REPLACEMENT;
+        return 1;
+    }
+
+    private int byteAt(long index) {
+        return segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & (SEGMENT_SIZE - 1))) & 0xFF;
+    }
+
+    @Override
+    public void close() {
+        // El mapeo se libera con el recolector; no hay descriptor abierto.
+    }
+}
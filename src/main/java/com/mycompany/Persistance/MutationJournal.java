@@ -0,0 +1,692 @@
+package com.mycompany.Persistance;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mycompany.Metrics.Counter;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Metrics.OperationMetrics;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Bitácora de mutaciones (journal) de un {@link JsonRepository}.
+ *
+ * <p>
+ * Cada mutación del repositorio se agrega como una línea JSON al final del archivo
+ * {@code <archivo>.journal}, de modo que el costo de escritura no depende del tamaño
+ * de la colección. Los registros son:
+ * <ul>
+ *     <li>{@code PUT}: inserta la entidad o reemplaza la existente con el mismo id.</li>
+ *     <li>{@code CLEAR}: elimina todas las entidades.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Con {@code fsync} activado, cada mutación vuelve solo cuando su línea está en disco.
+ * Las escrituras concurrentes se agrupan (<em>group commit</em>): el primer hilo que
+ * necesita sincronizar espera opcionalmente una ventana corta, fuerza a disco todo lo
+ * escrito hasta ese momento con un único {@code force}, y los hilos cuyas líneas quedaron
+ * cubiertas vuelven sin hacer su propio {@code force}.
+ * </p>
+ *
+ * <p>
+ * Si el proceso se cayó a mitad de una línea, al reabrir el journal se descarta esa
+ * línea incompleta para que los registros nuevos no queden pegados a ella.
+ * </p>
+ *
+ * <p>
+ * Durante la compactación el journal activo se rota a {@code <archivo>.journal.old}
+ * mientras se escribe la nueva instantánea; si el proceso se interrumpe, ese archivo
+ * se vuelve a aplicar al cargar, por lo que la reproducción es idempotente. Al instalar
+ * la instantánea, el journal rotado no se borra sino que pasa a
+ * {@code <archivo>.journal.prev} (solo se conserva el último), para que otras instancias
+ * que lo estaban leyendo terminen de leerlo en lugar de recargar todo.
+ * </p>
+ *
+ * <p>
+ * La bitácora recuerda la vista sobre la que se construyeron los datos en memoria: la
+ * huella de la instantánea y del journal rotado, y hasta qué byte se leyó el journal
+ * activo, con una suma de control de los últimos bytes leídos. Con eso
+ * {@link #detectChange()} distingue, sin leer los archivos, si otra instancia no escribió
+ * nada, si se puede poner al día leyendo solo registros nuevos (que
+ * {@link #replayAppended} aplica), incluso si entretanto otra instancia compactó, o si
+ * hay que cargar todo. Las escrituras propias hechas sobre una vista al día la avanzan
+ * sin releer nada.
+ * </p>
+ *
+ * @param <T> Tipo de entidad almacenada.
+ */
+final class MutationJournal<T> {
+
+    private static final String OPERATION = "op";
+    private static final String ENTITY = "entity";
+    private static final String PUT = "PUT";
+    private static final String CLEAR = "CLEAR";
+    private static final int TAIL_CHECK_BYTES = 512;
+
+    /**
+     * Cambio en los archivos desde la última lectura.
+     */
+    enum Change {
+        /** Los archivos están como se leyeron. */
+        NONE,
+        /** Hay registros nuevos (o una compactación ajena) que se aplican sin releer la instantánea. */
+        APPENDED,
+        /** Los archivos cambiaron de una forma que no se puede seguir: hay que cargar todo. */
+        REWRITTEN
+    }
+
+    /**
+     * Registros ya serializados, listos para agregarse con {@link #append(Batch)}. Se
+     * preparan fuera de cualquier candado.
+     */
+    static final class Batch {
+
+        private final boolean clear;
+        private final Map<String, byte[]> lines;
+
+        private Batch(boolean clear, Map<String, byte[]> lines) {
+            this.clear = clear;
+            this.lines = lines;
+        }
+
+        /**
+         * @return si el lote empieza con un registro {@code CLEAR}
+         */
+        boolean clear() {
+            return clear;
+        }
+
+        /**
+         * @return ids de las entidades del lote, en orden
+         */
+        Set<String> ids() {
+            return Collections.unmodifiableSet(lines.keySet());
+        }
+
+        /**
+         * @param excluded ids a quitar
+         * @return lote sin los registros {@code PUT} de esos ids
+         */
+        Batch without(Set<String> excluded) {
+            if (excluded.isEmpty()) {
+                return this;
+            }
+            Map<String, byte[]> kept = new LinkedHashMap<>(lines);
+            kept.keySet().removeAll(excluded);
+            return new Batch(clear, kept);
+        }
+
+        private int records() {
+            return lines.size() + (clear ? 1 : 0);
+        }
+    }
+
+    // Duración de cada escritura en el journal (con su fsync) y bytes agregados
+    private static final OperationMetrics APPEND = MetricsRegistry.operation("MutationJournal.append");
+    private static final Counter BYTES_WRITTEN = MetricsRegistry.counter("MutationJournal.bytesWritten");
+
+    private final JsonStore store;
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final Path rotatedPath;
+    private final Path previousPath;
+    private final Type entityType;
+    private final boolean fsync;
+    private final long groupWindowMillis;
+    private FileChannel channel;
+    private Object channelKey;
+    private int pendingRecords;
+    private long writtenSeq;
+    private long syncedSeq;
+    private boolean syncing;
+    private boolean viewValid;
+    private FileStamp snapshotStamp;
+    private FileStamp rotatedStamp;
+    private int rotatedRecords;
+    private Object activeKey;
+    private long activeOffset;
+    private long activeChecksum;
+    private int activeRecords;
+
+    /**
+     * Crea una bitácora de solo lectura/reproducción, sin sincronización a disco.
+     *
+     * @param store      utilidad de lectura/escritura JSON
+     * @param filePath   ruta del archivo de instantánea
+     * @param entityType tipo de las entidades almacenadas
+     */
+    MutationJournal(JsonStore store, String filePath, Type entityType) {
+        this(store, filePath, entityType, false, 0);
+    }
+
+    /**
+     * Crea la bitácora asociada al archivo de instantánea indicado.
+     *
+     * @param store             utilidad de lectura/escritura JSON
+     * @param filePath          ruta del archivo de instantánea
+     * @param entityType        tipo de las entidades almacenadas
+     * @param fsync             si cada mutación debe quedar en disco antes de volver
+     * @param groupWindowMillis tiempo que espera el hilo que sincroniza para agrupar
+     *                          más escrituras en el mismo {@code force}; {@code 0} no espera
+     */
+    MutationJournal(JsonStore store, String filePath, Type entityType, boolean fsync, long groupWindowMillis) {
+        this.store = store;
+        this.snapshotPath = Paths.get(filePath);
+        this.journalPath = Paths.get(filePath + ".journal");
+        this.rotatedPath = Paths.get(filePath + ".journal.old");
+        this.previousPath = Paths.get(filePath + ".journal.prev");
+        this.entityType = entityType;
+        this.fsync = fsync;
+        this.groupWindowMillis = Math.max(0, groupWindowMillis);
+    }
+
+    /**
+     * Serializa un registro {@code CLEAR} opcional seguido de un {@code PUT} por cada
+     * entidad. No toca el archivo.
+     *
+     * @param clearFirst si el lote debe empezar con un registro {@code CLEAR}
+     * @param entities   id → entidad ya convertida a árbol JSON, en orden
+     * @return lote listo para {@link #append(Batch)}
+     */
+    Batch prepare(boolean clearFirst, Map<String, ? extends JsonElement> entities) {
+        Map<String, byte[]> lines = new LinkedHashMap<>();
+        for (Map.Entry<String, ? extends JsonElement> entity : entities.entrySet()) {
+            JsonObject record = new JsonObject();
+            record.addProperty(OPERATION, PUT);
+            record.add(ENTITY, entity.getValue());
+            lines.put(entity.getKey(), (store.toCompactJson(record) + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        return new Batch(clearFirst, lines);
+    }
+
+    /**
+     * @return cantidad de registros aún no incorporados en una instantánea
+     */
+    synchronized int pendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * Agrega el lote en una sola escritura (y un solo {@code fsync}) al final del
+     * journal. Si la vista estaba al día, queda al día también después de escribir.
+     *
+     * @param batch registros a agregar
+     * @throws UncheckedIOException si ocurre un error de escritura
+     */
+    void append(Batch batch) {
+        if (batch.records() == 0) {
+            return;
+        }
+        APPEND.run(() -> write(batch));
+    }
+
+    private void write(Batch batch) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        if (batch.clear) {
+            JsonObject record = new JsonObject();
+            record.addProperty(OPERATION, CLEAR);
+            lines.writeBytes((store.toCompactJson(record) + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        for (byte[] line : batch.lines.values()) {
+            lines.writeBytes(line);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        long seq;
+        synchronized (this) {
+            long start;
+            try {
+                FileChannel target = openChannel();
+                // Otra instancia pudo haber escrito desde la última vez.
+                start = target.size();
+                target.position(start);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al escribir en el journal: " + journalPath, e);
+            }
+            BYTES_WRITTEN.add(buffer.limit());
+            if (viewValid && start == activeOffset && (activeKey == null || activeKey.equals(channelKey))) {
+                activeKey = channelKey;
+                activeOffset = start + buffer.limit();
+                activeChecksum = tailChecksum(journalPath, activeOffset);
+                activeRecords += batch.records();
+            }
+            pendingRecords += batch.records();
+            seq = ++writtenSeq;
+            if (!fsync) {
+                syncedSeq = seq;
+                return;
+            }
+        }
+        awaitDurable(seq);
+    }
+
+    /**
+     * Espera a que la escritura {@code seq} esté en disco, haciendo el {@code force} si
+     * ningún otro hilo lo está haciendo.
+     */
+    private void awaitDurable(long seq) {
+        FileChannel target;
+        long covered;
+        synchronized (this) {
+            while (syncedSeq < seq && syncing) {
+                waitUninterruptibly(0);
+            }
+            if (syncedSeq >= seq) {
+                return;
+            }
+            syncing = true;
+            long deadline = System.currentTimeMillis() + groupWindowMillis;
+            for (long left = groupWindowMillis; left > 0; left = deadline - System.currentTimeMillis()) {
+                waitUninterruptibly(left); // Libera el monitor para que otros hilos escriban.
+            }
+            target = channel;
+            covered = writtenSeq;
+        }
+        try {
+            target.force(false);
+        } catch (IOException e) {
+            synchronized (this) {
+                syncing = false;
+                notifyAll();
+            }
+            throw new UncheckedIOException("Error al sincronizar el journal: " + journalPath, e);
+        }
+        synchronized (this) {
+            syncedSeq = Math.max(syncedSeq, covered);
+            syncing = false;
+            notifyAll();
+        }
+    }
+
+    private void waitUninterruptibly(long millis) {
+        try {
+            wait(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Abre el journal para escritura (si no estaba abierto), descartando una línea final
+     * incompleta dejada por una caída. Si otra instancia rotó el journal desde que se
+     * abrió, el canal apunta al archivo rotado: se cierra y se abre el actual.
+     */
+    private FileChannel openChannel() throws IOException {
+        if (channel != null) {
+            FileStamp current = FileStamp.of(journalPath);
+            boolean same = channelKey != null ? channelKey.equals(current.key()) : current.size() == channel.size();
+            if (current.exists() && same) {
+                return channel;
+            }
+            closeChannel();
+        }
+        Path parent = journalPath.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        boolean created = !Files.exists(journalPath);
+        FileChannel opened = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            truncateIncompleteTail(opened);
+            opened.position(opened.size());
+        } catch (IOException e) {
+            opened.close();
+            throw e;
+        }
+        if (created && fsync) {
+            DurableFiles.syncDirectory(parent);
+        }
+        channel = opened;
+        channelKey = FileStamp.of(journalPath).key();
+        return channel;
+    }
+
+    /**
+     * Cierra el canal de escritura después de forzar a disco lo escrito. Debe llamarse
+     * con el monitor tomado.
+     */
+    private void closeChannel() throws IOException {
+        while (syncing) {
+            waitUninterruptibly(0);
+        }
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (fsync) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+            channel = null;
+            channelKey = null;
+            syncedSeq = writtenSeq;
+        }
+    }
+
+    private void truncateIncompleteTail(FileChannel file) throws IOException {
+        long size = file.size();
+        if (size == 0 || lastByte(file, size - 1) == '\n') {
+            return;
+        }
+        ByteBuffer chunk = ByteBuffer.allocate(8192);
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - chunk.capacity());
+            chunk.clear().limit((int) (end - start));
+            while (chunk.hasRemaining() && file.read(chunk, start + chunk.position()) >= 0) {
+                // Lee el bloque completo.
+            }
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    file.truncate(start + i + 1);
+                    System.err.println("Se descartó un registro incompleto al final de " + journalPath);
+                    return;
+                }
+            }
+            end = start;
+        }
+        file.truncate(0);
+        System.err.println("Se descartó un registro incompleto al final de " + journalPath);
+    }
+
+    private static byte lastByte(FileChannel file, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        file.read(one, position);
+        return one.get(0);
+    }
+
+    /**
+     * Aplica sobre {@code data} los registros pendientes (primero el journal rotado, si
+     * quedó de una compactación interrumpida, y luego el activo).
+     *
+     * @param data        lista cargada desde la instantánea; se modifica en sitio
+     * @param positions   índice id → posición de {@code data}; se mantiene sincronizado
+     * @param idExtractor función que obtiene el id de cada entidad
+     */
+    void replay(List<T> data, Map<String, Integer> positions, Function<T, String> idExtractor) {
+        replay(FileStamp.of(snapshotPath), data, positions, idExtractor);
+    }
+
+    /**
+     * Aplica sobre {@code data} los registros pendientes y recuerda la vista resultante:
+     * la instantánea leída y hasta dónde se leyó cada journal.
+     *
+     * @param snapshot    huella de la instantánea tomada antes de leerla
+     * @param data        lista cargada desde la instantánea; se modifica en sitio
+     * @param positions   índice id → posición de {@code data}; se mantiene sincronizado
+     * @param idExtractor función que obtiene el id de cada entidad
+     */
+    synchronized void replay(FileStamp snapshot, List<T> data, Map<String, Integer> positions,
+            Function<T, String> idExtractor) {
+        Consumer<T> put = entity -> {
+            String id = idExtractor.apply(entity);
+            Integer position = positions.get(id);
+            if (position != null) {
+                data.set(position, entity);
+            } else {
+                positions.put(id, data.size());
+                data.add(entity);
+            }
+        };
+        Runnable clear = () -> {
+            data.clear();
+            positions.clear();
+        };
+        snapshotStamp = snapshot;
+        rotatedStamp = FileStamp.of(rotatedPath);
+        rotatedRecords = store.forEachLine(rotatedPath.toString(), r -> apply(r, put, clear));
+        activeKey = FileStamp.of(journalPath).key();
+        activeOffset = 0;
+        activeRecords = 0;
+        readActive(journalPath, put, clear);
+        pendingRecords = rotatedRecords + activeRecords;
+        viewValid = true;
+    }
+
+    /**
+     * Compara los archivos con la vista sobre la que se construyeron los datos. Solo
+     * consulta atributos y los últimos bytes ya leídos del journal que se estaba
+     * siguiendo, para comprobar que no se reescribió con otro contenido.
+     *
+     * @return tipo de cambio detectado
+     * @throws UncheckedIOException si no se pueden consultar los archivos
+     */
+    synchronized Change detectChange() {
+        FileStamp snapshot = FileStamp.of(snapshotPath);
+        FileStamp rotated = FileStamp.of(rotatedPath);
+        FileStamp active = FileStamp.of(journalPath);
+        Path tracked = locateTracked(snapshot, rotated, active);
+        if (tracked == null) {
+            return Change.REWRITTEN;
+        }
+        FileStamp trackedStamp = tracked == journalPath ? active : FileStamp.of(tracked);
+        if (trackedStamp.size() < activeOffset || tailChecksum(tracked, activeOffset) != activeChecksum) {
+            return Change.REWRITTEN;
+        }
+        if (tracked != journalPath || !snapshot.equals(snapshotStamp) || !rotated.equals(rotatedStamp)) {
+            return Change.APPENDED;
+        }
+        return active.size() > activeOffset ? Change.APPENDED : Change.NONE;
+    }
+
+    /**
+     * Busca el journal que se estaba leyendo: sigue siendo el activo, otra instancia lo
+     * rotó para compactar ({@code .journal.old}) o la compactación ya terminó y quedó
+     * como {@code .journal.prev}. La identidad del archivo (inodo) permite seguirlo
+     * aunque haya cambiado de nombre.
+     *
+     * @return ruta donde está ahora, o {@code null} si no se puede seguir
+     */
+    private Path locateTracked(FileStamp snapshot, FileStamp rotated, FileStamp active) {
+        if (!viewValid) {
+            return null;
+        }
+        if (activeKey == null || activeKey.equals(active.key())) {
+            if (snapshot.equals(snapshotStamp) && rotated.equals(rotatedStamp)) {
+                return journalPath;
+            }
+            // Terminó la compactación que estaba en curso cuando se leyó: su journal rotado,
+            // ya leído entero, es el .prev y la instantánea nueva lo incluye.
+            FileStamp previous = FileStamp.of(previousPath);
+            boolean finished = rotatedStamp.exists() && !rotated.exists() && rotatedStamp.key() != null
+                    && rotatedStamp.key().equals(previous.key()) && rotatedStamp.size() == previous.size();
+            return finished ? journalPath : null;
+        }
+        if (activeKey.equals(rotated.key())) {
+            return snapshot.equals(snapshotStamp) && !rotatedStamp.exists() ? rotatedPath : null;
+        }
+        if (!rotated.exists() && activeKey.equals(FileStamp.of(previousPath).key())) {
+            return previousPath;
+        }
+        return null;
+    }
+
+    /**
+     * Aplica lo que cambió desde la última lectura: los registros agregados al journal
+     * que se estaba siguiendo y, si otra instancia lo rotó o compactó, el journal activo
+     * nuevo desde el principio. Solo debe llamarse cuando {@link #detectChange()}
+     * devolvió {@link Change#APPENDED}, sin que los archivos puedan cambiar entretanto
+     * (con el candado entre procesos tomado, si lo hay).
+     *
+     * @param put   recibe cada entidad de un registro {@code PUT}
+     * @param clear se ejecuta por cada registro {@code CLEAR}
+     * @return cantidad de registros aplicados
+     * @throws IllegalStateException si los archivos ya no se pueden seguir
+     * @throws UncheckedIOException  si ocurre un error de lectura
+     */
+    synchronized int replayAppended(Consumer<T> put, Runnable clear) {
+        FileStamp snapshot = FileStamp.of(snapshotPath);
+        FileStamp rotated = FileStamp.of(rotatedPath);
+        FileStamp active = FileStamp.of(journalPath);
+        Path tracked = locateTracked(snapshot, rotated, active);
+        if (tracked == null) {
+            throw new IllegalStateException("El journal cambió y hay que recargar " + snapshotPath);
+        }
+        int before = activeRecords;
+        if (activeKey == null) {
+            activeKey = active.key();
+        }
+        readActive(tracked, put, clear);
+        int applied = activeRecords - before;
+        if (tracked != journalPath) {
+            // El journal que se seguía ya se leyó entero; se sigue el activo nuevo.
+            activeKey = active.key();
+            activeOffset = 0;
+            activeRecords = 0;
+            readActive(journalPath, put, clear);
+            applied += activeRecords;
+            rotatedRecords = 0;
+            pendingRecords = activeRecords;
+        } else {
+            if (!rotated.equals(rotatedStamp)) {
+                rotatedRecords = 0; // Otra instancia terminó de compactar el journal rotado.
+            }
+            // Los registros propios ya se contaron al escribirlos; los de otras instancias no.
+            pendingRecords = Math.max(pendingRecords, rotatedRecords + activeRecords);
+        }
+        snapshotStamp = snapshot;
+        rotatedStamp = rotated;
+        return applied;
+    }
+
+    private void readActive(Path file, Consumer<T> put, Runnable clear) {
+        activeOffset = store.forEachLine(file.toString(), activeOffset, record -> {
+            apply(record, put, clear);
+            activeRecords++;
+        });
+        activeChecksum = tailChecksum(file, activeOffset);
+    }
+
+    /**
+     * Suma de control de los últimos bytes de un journal antes de {@code end}; si el
+     * archivo se reemplazó por otro del mismo tamaño o mayor, casi seguro no coincide.
+     */
+    private static long tailChecksum(Path file, long end) {
+        long start = Math.max(0, end - TAIL_CHECK_BYTES);
+        ByteBuffer tail = ByteBuffer.allocate((int) (end - start));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (tail.hasRemaining() && channel.read(tail, start + tail.position()) >= 0) {
+                // Lee el tramo completo.
+            }
+        } catch (NoSuchFileException e) {
+            return end == 0 ? 0 : -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el journal: " + file, e);
+        }
+        if (tail.hasRemaining()) {
+            return -1; // El archivo es más corto que lo leído.
+        }
+        CRC32 crc = new CRC32();
+        crc.update(tail.flip());
+        return crc.getValue();
+    }
+
+    /**
+     * Mueve el journal activo a la posición de journal rotado, de modo que las nuevas
+     * mutaciones se escriban en un archivo vacío. Si ya existe un journal rotado (una
+     * compactación anterior falló), el contenido activo se agrega a continuación.
+     *
+     * <p>
+     * Si la vista estaba al día, el journal rotado queda como leído entero y se empieza
+     * a seguir el activo nuevo; si no, la próxima comprobación pedirá cargar todo.
+     * </p>
+     *
+     * @throws UncheckedIOException si ocurre un error al mover los archivos
+     */
+    synchronized void rotate() {
+        try {
+            closeChannel();
+            if (!Files.exists(journalPath)) {
+                return;
+            }
+            FileStamp active = FileStamp.of(journalPath);
+            boolean caughtUp = viewValid && FileStamp.of(rotatedPath).equals(rotatedStamp)
+                    && (activeKey == null || activeKey.equals(active.key())) && activeOffset == active.size();
+            if (Files.exists(rotatedPath)) {
+                Files.write(rotatedPath, Files.readAllBytes(journalPath), StandardOpenOption.APPEND);
+                Files.delete(journalPath);
+            } else {
+                Files.move(journalPath, rotatedPath);
+            }
+            if (fsync) {
+                DurableFiles.syncDirectory(journalPath.toAbsolutePath().getParent());
+            }
+            pendingRecords = 0;
+            rotatedStamp = FileStamp.of(rotatedPath);
+            rotatedRecords = 0;
+            activeKey = null;
+            activeOffset = 0;
+            activeChecksum = 0;
+            activeRecords = 0;
+            viewValid = caughtUp;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al rotar el journal: " + journalPath, e);
+        }
+    }
+
+    /**
+     * Reemplaza la instantánea por {@code written} y pasa el journal rotado, cuyo
+     * contenido ya incluye, a {@code .journal.prev}. Debe llamarse sin que otra instancia
+     * pueda mover los archivos entretanto (con el candado entre procesos tomado, si lo
+     * hay).
+     *
+     * @param written instantánea nueva, completa y ya forzada a disco
+     * @throws UncheckedIOException si ocurre un error al mover los archivos
+     */
+    synchronized void installSnapshot(Path written) {
+        try {
+            boolean caughtUp = viewValid && FileStamp.of(snapshotPath).equals(snapshotStamp)
+                    && FileStamp.of(rotatedPath).equals(rotatedStamp);
+            move(written, snapshotPath);
+            if (Files.exists(rotatedPath)) {
+                move(rotatedPath, previousPath);
+            }
+            DurableFiles.syncDirectory(snapshotPath.toAbsolutePath().getParent());
+            snapshotStamp = FileStamp.of(snapshotPath);
+            rotatedStamp = FileStamp.of(rotatedPath);
+            viewValid = caughtUp;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al instalar la instantánea: " + snapshotPath, e);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void apply(JsonObject record, Consumer<T> put, Runnable clear) {
+        String operation = record.has(OPERATION) ? record.get(OPERATION).getAsString() : "";
+        switch (operation) {
+            case PUT -> put.accept(store.fromJsonTree(record.get(ENTITY), entityType));
+            case CLEAR -> clear.run();
+            default -> System.err.println("Operación desconocida en " + journalPath + ": " + operation);
+        }
+    }
+}
@@ -37,15 +37,35 @@ public class PatientRepositoryJSON extends JsonRepository<Patient> implements IA
     private static final String FILE_NAME = "patients.json";
     private static final Type LIST_TYPE = new TypeToken<List<Patient>>() {}.getType();
 
+    private final UsernameDirectory usernames;
+
     /**
-     * Crea un repositorio de pacientes cargando automáticamente los datos desde JSON.
+     * Crea un repositorio de pacientes cargando automáticamente los datos desde JSON,
+     * con un directorio de usernames propio.
      */
     public PatientRepositoryJSON() {
-        super(FILE_NAME, LIST_TYPE);
-    }  
+        this(new UsernameDirectory());
+    }
+
+    /**
+     * Crea un repositorio de pacientes cargando automáticamente los datos desde JSON.
+     *
+     * @param usernames directorio de usernames compartido donde se registran los pacientes
+     * @throws IllegalArgumentException si {@code usernames} es nulo
+     */
+    public PatientRepositoryJSON(UsernameDirectory usernames) {
+        super(FILE_NAME, LIST_TYPE, Patient::getId);
+        if (usernames == null) {
+            throw new IllegalArgumentException("El directorio de usernames no puede ser nulo");
+        }
+        this.usernames = usernames;
+        registerIndex(usernames.<Patient>bind(this));
+    }
 
     /**
      * Busca un paciente por su username (para procesos de autenticación).
+     * Se resuelve con el directorio de usernames, sin recorrer la colección; se
+     * ignoran los espacios al inicio y al final.
      *
      * @param username usuario a buscar (no puede ser nulo o vacío)
      * @return Optional con el usuario si existe, vacío si no
@@ -56,14 +76,14 @@ public class PatientRepositoryJSON extends JsonRepository<Patient> implements IA
         if (username == null || username.isEmpty()){
             throw new IllegalArgumentException("El username no puede ser nulo o vacío");
         }
+        readLock.lock();
         try{
-            return data.stream()
-                    .filter(d -> d.getUsername().equals(username))
-                    .map(d -> (User) d)
-                    .findFirst();
+            return usernames.find(this, username);
         } catch (RuntimeException e){
             System.err.println("Error al buscar el usuario por username: " + e.getMessage());
             return Optional.empty();
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -71,7 +91,7 @@ public class PatientRepositoryJSON extends JsonRepository<Patient> implements IA
      * Agrega un nuevo paciente al repositorio.
      *
      * @param patient paciente a agregar (no puede ser nulo)
-     * @return true si se agregó correctamente; false si ocurre un error
+     * @return true si se agregó correctamente; false si ya existe uno con el mismo ID o ocurre un error
      * @throws IllegalArgumentException si {@code patient} es nulo
      */
     @Override
@@ -79,13 +99,18 @@ public class PatientRepositoryJSON extends JsonRepository<Patient> implements IA
         if (patient == null) {
             throw new IllegalArgumentException("El paciente no puede ser nulo");
         }
+        writeLock.lock();
         try {
-            data.add(patient);
-            save();
+            if (!insertEntity(patient)) {
+                System.err.println("Ya existe un paciente con el ID: " + patient.getId());
+                return false;
+            }
             return true;
         } catch (RuntimeException e) {
             System.err.println("Error al agregar paciente: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -101,19 +126,22 @@ public class PatientRepositoryJSON extends JsonRepository<Patient> implements IA
         if (id == null || id.isBlank()) {
             throw new IllegalArgumentException("El id no puede ser nulo o vacío");
         }
+        writeLock.lock();
         try {
-            return data.stream()
-                    .filter(p -> p.getId().equals(id))
-                    .findFirst()
+            return findById(id)
                     .map(patient -> {
-                        patient.setCurrentStatus(false);
-                        save();
+                        Patient inactive = new Patient(patient);
+                        inactive.setCurrentStatus(false);
+                        replaceEntity(inactive);
+                        save(inactive);
                         return true;
                     })
                     .orElse(false);
         } catch (RuntimeException e) {
             System.err.println("Error al eliminar paciente: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -129,18 +157,18 @@ public class PatientRepositoryJSON extends JsonRepository<Patient> implements IA
         if (patient == null) {
             throw new IllegalArgumentException("El paciente no puede ser nulo");
         }
+        writeLock.lock();
         try {
-            for (int i = 0; i < data.size(); i++) {
-                if (data.get(i).getId().equals(patient.getId())) {
-                    data.set(i, patient);
-                    save();
-                    return true;
-                }
+            if (replaceEntity(patient)) {
+                save(patient);
+                return true;
             }
             return false;
         } catch (RuntimeException e) {
             System.err.println("Error al actualizar paciente: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -156,13 +184,14 @@ public class PatientRepositoryJSON extends JsonRepository<Patient> implements IA
         if (id == null || id.isBlank()) {
             throw new IllegalArgumentException("El id no puede ser nulo o vacío");
         }
+        readLock.lock();
         try {
-            return data.stream()
-                    .filter(p -> p.getId().equals(id))
-                    .findFirst();
+            return findById(id);
         } catch (RuntimeException e) {
             System.err.println("Error al buscar paciente por id: " + e.getMessage());
             return Optional.empty();
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -173,14 +202,55 @@ public class PatientRepositoryJSON extends JsonRepository<Patient> implements IA
      */
     @Override
     public List<Patient> listAll() {
+        readLock.lock();
         try {
-            return data.stream()
-                    .filter(Patient::isCurrentStatus)
-                    .toList();
+            return filteredSnapshot(Patient::isCurrentStatus);
         } catch (RuntimeException e) {
             System.err.println("Error al listar pacientes: " + e.getMessage());
             return new ArrayList<>();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Solo cuentan como activos los registros con estado vigente, igual que en
+     * {@link #listAll()}.
+     */
+    @Override
+    protected boolean isActive(Patient entity) {
+        return entity.isCurrentStatus();
+    }
+
+    /**
+     * Reemplaza la contraseña guardada de un paciente y registra el cambio en el journal.
+     *
+     * @param userId          id del paciente (no puede ser nulo o vacío)
+     * @param encodedPassword contraseña ya codificada (no puede ser nula o vacía)
+     * @return true si se actualizó; false si no existe o hay error
+     * @throws IllegalArgumentException si algún parámetro es nulo o vacío
+     */
+    @Override
+    public boolean updatePassword(String userId, String encodedPassword) {
+        if (userId == null || userId.isBlank() || encodedPassword == null || encodedPassword.isBlank()) {
+            throw new IllegalArgumentException("El id y la contraseña no pueden ser nulos o vacíos");
+        }
+        writeLock.lock();
+        try {
+            return findById(userId)
+                    .map(patient -> {
+                        Patient updated = new Patient(patient);
+                        updated.setPassword(encodedPassword);
+                        replaceEntity(updated);
+                        save(updated);
+                        return true;
+                    })
+                    .orElse(false);
+        } catch (RuntimeException e) {
+            System.err.println("Error al actualizar la contraseña: " + e.getMessage());
+            return false;
+        } finally {
+            writeLock.unlock();
         }
     }
-    
 }
@@ -3,6 +3,7 @@ package com.mycompany.Persistance;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.mycompany.Interfaces.IAuthenticableRepository;
 import com.mycompany.Interfaces.IPatientRepository;
@@ -17,6 +18,8 @@ import com.mycompany.Models.User;
  */
 public class PatientRepositoryMemory implements IAuthenticableRepository, IPatientRepository {
 
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); //Lecturas concurrentes, escrituras serializadas
+
     List<Patient> patients = new ArrayList<>();
 
     /**
@@ -28,10 +31,15 @@ public class PatientRepositoryMemory implements IAuthenticableRepository, IPatie
      */
     @Override
     public boolean add(Patient patient) {
-        //if (patient == null || searchById(patient.getId()).isPresent()) {
-        //return false;
-        //}
-        return patients.add(patient);
+        lock.writeLock().lock();
+        try {
+            //if (patient == null || searchById(patient.getId()).isPresent()) {
+            //return false;
+            //}
+            return patients.add(patient);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -42,14 +50,19 @@ public class PatientRepositoryMemory implements IAuthenticableRepository, IPatie
      */
     @Override
     public boolean deleteById(String id) {
-        return patients.stream()
-                .filter(p -> p.getId().equals(id))
-                .findFirst()
-                .map(patient -> {
-                    patient.setCurrentStatus(false);
-                    return true;
-                })
-                .orElse(false);
+        lock.writeLock().lock();
+        try {
+            return patients.stream()
+                    .filter(p -> p.getId().equals(id))
+                    .findFirst()
+                    .map(patient -> {
+                        patient.setCurrentStatus(false);
+                        return true;
+                    })
+                    .orElse(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -60,13 +73,18 @@ public class PatientRepositoryMemory implements IAuthenticableRepository, IPatie
      */
     @Override
     public boolean update(Patient patient) {
-        for (int i = 0; i < patients.size(); i++) {
-            if (patients.get(i).getId().equals(patient.getId())) {
-                patients.set(i, patient);
-                return true;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < patients.size(); i++) {
+                if (patients.get(i).getId().equals(patient.getId())) {
+                    patients.set(i, patient);
+                    return true;
+                }
             }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -77,7 +95,12 @@ public class PatientRepositoryMemory implements IAuthenticableRepository, IPatie
      */
     @Override
     public Optional<Patient> searchById(String id) {
-        return patients.stream().filter(p -> p.getId().equals(id)).findFirst();
+        lock.readLock().lock();
+        try {
+            return patients.stream().filter(p -> p.getId().equals(id)).findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -88,7 +111,12 @@ public class PatientRepositoryMemory implements IAuthenticableRepository, IPatie
      */
     @Override
     public List<Patient> listAll() {
-        return new ArrayList<>(patients);
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(patients);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -104,11 +132,32 @@ public class PatientRepositoryMemory implements IAuthenticableRepository, IPatie
      */
     @Override
     public Optional<User> searchByUsername(String username) {
-        return patients.stream()
-                .filter(Patient::isCurrentStatus)
-                .filter(d -> d.getUsername().equals(username.trim()))
-                .map(d -> (User) d)
-                .findFirst();
+        lock.readLock().lock();
+        try {
+            return patients.stream()
+                    .filter(Patient::isCurrentStatus)
+                    .filter(d -> d.getUsername().equals(username.trim()))
+                    .map(d -> (User) d)
+                    .findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
+    @Override
+    public boolean updatePassword(String userId, String encodedPassword) {
+        lock.writeLock().lock();
+        try {
+            return patients.stream()
+                    .filter(u -> u.getId().equals(userId))
+                    .findFirst()
+                    .map(patient -> {
+                        patient.setPassword(encodedPassword);
+                        return true;
+                    })
+                    .orElse(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 }
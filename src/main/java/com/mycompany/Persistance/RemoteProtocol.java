@@ -0,0 +1,172 @@
+package com.mycompany.Persistance;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.mycompany.Models.User;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Optional;
+
+/**
+ * Formato de las llamadas entre {@link RemoteService} y {@link ServiceServer}.
+ *
+ * <p>
+ * Cada llamada es un {@code POST /api/<servicio>/<método>} cuyo cuerpo es el arreglo
+ * JSON de argumentos. La respuesta tiene estado 200 y el cuerpo
+ * {@code {"result": ..., "resultType": ...}}, o un estado de error y el cuerpo
+ * {@code {"error": mensaje}}. Los métodos se identifican por nombre y cantidad de
+ * parámetros, que en las interfaces publicadas alcanza para distinguir las
+ * sobrecargas. Un {@link Optional} viaja como su valor o {@code null}.
+ * </p>
+ *
+ * <p>
+ * A diferencia de los archivos de datos, se serializan también los campos
+ * {@code transient}: una cita viaja con su paciente y su doctor ya resueltos, y una
+ * consulta con su cita, para que el cliente no tenga que pedirlos uno por uno. Las
+ * respuestas nunca incluyen la contraseña de los usuarios. Cuando
+ * el resultado es de una subclase del tipo declarado (un {@code Doctor} devuelto como
+ * {@code User}), {@code resultType} indica la clase concreta.
+ * </p>
+ */
+final class RemoteProtocol {
+
+    static final String PATH_PREFIX = "/api/";
+    static final String RESULT = "result";
+    static final String RESULT_TYPE = "resultType";
+    static final String ERROR = "error";
+
+    /**
+     * Paquete del que pueden ser las clases indicadas en {@link #RESULT_TYPE}; no se
+     * instancian clases arbitrarias elegidas por el otro extremo.
+     */
+    private static final String MODELS_PACKAGE = "com.mycompany.Models.";
+
+    private static final String PASSWORD_FIELD = "password";
+
+    static final Gson GSON = JsonStore.newGsonBuilder()
+            .excludeFieldsWithModifiers(Modifier.STATIC)
+            .create();
+
+    /**
+     * Igual que {@link #GSON}, pero sin la contraseña de los usuarios: se usa para las
+     * respuestas, de modo que las contraseñas codificadas nunca salen del servidor
+     * (tampoco dentro de una cita o una consulta). Los argumentos sí la llevan, para
+     * poder registrar usuarios.
+     */
+    private static final Gson RESULT_GSON = JsonStore.newGsonBuilder()
+            .excludeFieldsWithModifiers(Modifier.STATIC)
+            .addSerializationExclusionStrategy(new ExclusionStrategy() {
+                @Override
+                public boolean shouldSkipField(FieldAttributes field) {
+                    return field.getDeclaringClass() == User.class && field.getName().equals(PASSWORD_FIELD);
+                }
+
+                @Override
+                public boolean shouldSkipClass(Class<?> type) {
+                    return false;
+                }
+            })
+            .create();
+
+    private RemoteProtocol() {
+    }
+
+    /**
+     * Busca un método de las interfaces por nombre y cantidad de parámetros.
+     *
+     * @return método encontrado, o {@code null} si ninguna interfaz lo declara
+     */
+    static Method findMethod(Class<?>[] interfaces, String name, int arity) {
+        for (Class<?> type : interfaces) {
+            for (Method method : type.getMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == arity) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Arma la respuesta de una llamada exitosa.
+     *
+     * @param method método invocado
+     * @param value  valor que devolvió
+     * @return cuerpo de la respuesta
+     */
+    static JsonObject encodeResult(Method method, Object value) {
+        if (value instanceof Optional<?> optional) {
+            value = optional.orElse(null);
+        }
+        JsonObject response = new JsonObject();
+        response.add(RESULT, RESULT_GSON.toJsonTree(value));
+        if (value != null && value.getClass().getName().startsWith(MODELS_PACKAGE)
+                && value.getClass() != rawType(valueType(method))) {
+            response.addProperty(RESULT_TYPE, value.getClass().getName());
+        }
+        return response;
+    }
+
+    /**
+     * Convierte la respuesta de una llamada exitosa al tipo que devuelve el método.
+     *
+     * @param method   método invocado
+     * @param response cuerpo de la respuesta
+     * @return valor a devolver al llamador
+     * @throws JsonParseException si la respuesta no corresponde al método
+     */
+    static Object decodeResult(Method method, JsonObject response) {
+        Type type = valueType(method);
+        if (response.has(RESULT_TYPE)) {
+            type = concreteType(response.get(RESULT_TYPE).getAsString(), rawType(type));
+        }
+        JsonElement result = response.get(RESULT);
+        Object value = result == null || result.isJsonNull() ? null : GSON.fromJson(result, type);
+        if (method.getReturnType() == Optional.class) {
+            return Optional.ofNullable(value);
+        }
+        if (value == null && method.getReturnType().isPrimitive() && method.getReturnType() != void.class) {
+            throw new JsonParseException("Respuesta sin resultado para " + method.getName());
+        }
+        return value;
+    }
+
+    /**
+     * @return tipo del valor que devuelve el método, sin el {@link Optional} que lo envuelve
+     */
+    private static Type valueType(Method method) {
+        Type type = method.getGenericReturnType();
+        if (method.getReturnType() == Optional.class && type instanceof ParameterizedType parameterized) {
+            return parameterized.getActualTypeArguments()[0];
+        }
+        return type;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof ParameterizedType parameterized) {
+            return (Class<?>) parameterized.getRawType();
+        }
+        return type instanceof Class<?> raw ? raw : Object.class;
+    }
+
+    private static Class<?> concreteType(String name, Class<?> declared) {
+        if (!name.startsWith(MODELS_PACKAGE)) {
+            throw new JsonParseException("Tipo de resultado no permitido: " + name);
+        }
+        try {
+            Class<?> concrete = Class.forName(name);
+            if (!declared.isAssignableFrom(concrete)) {
+                throw new JsonParseException(name + " no es un " + declared.getName());
+            }
+            return concrete;
+        } catch (ClassNotFoundException e) {
+            throw new JsonParseException("Tipo de resultado desconocido: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.mycompany.Persistance;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Cliente liviano de un servicio publicado por
+ * {@link ServiceServer}: devuelve un objeto que implementa sus interfaces y convierte
+ * cada llamada en una petición HTTP, de modo que los formularios lo usan igual que a un
+ * servicio local.
+ *
+ * <p>
+ * No guarda datos: cada llamada consulta al servidor, que tiene los índices. Las
+ * entidades devueltas son copias, sin la contraseña de los usuarios; modificarlas no
+ * cambia nada hasta que se envían al servidor. Un error de
+ * comunicación se informa con {@link UncheckedIOException}; un argumento rechazado por
+ * el servidor, con {@link IllegalArgumentException}; cualquier otro error del servidor,
+ * con {@link IllegalStateException}.
+ * </p>
+ */
+public final class RemoteService {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Cliente compartido por todos los servicios remotos, que reutiliza las conexiones.
+     * El servidor del JDK solo habla HTTP/1.1.
+     */
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+
+    private RemoteService() {
+    }
+
+    /**
+     * Crea el cliente de un servicio publicado.
+     *
+     * @param server dirección del servidor, por ejemplo {@code http://localhost:8085}
+     * @param name   nombre con el que se publicó
+     * @param type   interfaz principal
+     * @param others otras interfaces que el servidor expone para el mismo objeto
+     * @param <I>    tipo de la interfaz principal
+     * @return objeto que implementa {@code type} y {@code others}
+     * @throws IllegalArgumentException si algún tipo no es una interfaz
+     */
+    public static <I> I connect(URI server, String name, Class<I> type, Class<?>... others) {
+        Class<?>[] interfaces = new Class<?>[others.length + 1];
+        interfaces[0] = type;
+        System.arraycopy(others, 0, interfaces, 1, others.length);
+        for (Class<?> candidate : interfaces) {
+            if (!candidate.isInterface()) {
+                throw new IllegalArgumentException(candidate.getName() + " no es una interfaz");
+            }
+        }
+        URI base = server.resolve(RemoteProtocol.PATH_PREFIX + name + "/");
+        // Los métodos por defecto se ejecutan en el cliente: sus argumentos (por
+        // ejemplo, receptores de recarga) no se pueden enviar por la red.
+        InvocationHandler handler = (proxy, method, args) -> method.isDefault()
+                ? InvocationHandler.invokeDefault(proxy, method, args)
+                : invoke(base, name, proxy, method, args);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), interfaces, handler));
+    }
+
+    private static Object invoke(URI base, String name, Object proxy, Method method, Object[] args) {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "RemoteService[" + name + " en " + base + "]";
+            };
+        }
+        JsonArray arguments = new JsonArray();
+        for (Object arg : args != null ? args : new Object[0]) {
+            arguments.add(RemoteProtocol.GSON.toJsonTree(arg));
+        }
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(method.getName()))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(RemoteProtocol.GSON.toJson(arguments)))
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo contactar al servidor en " + base, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la llamada a " + name + "." + method.getName(), e);
+        }
+        JsonObject body;
+        try {
+            body = JsonParser.parseString(response.body()).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IllegalStateException("Respuesta inválida del servidor (" + response.statusCode()
+                    + ") para " + name + "." + method.getName(), e);
+        }
+        if (response.statusCode() != 200) {
+            String message = body.has(RemoteProtocol.ERROR) && !body.get(RemoteProtocol.ERROR).isJsonNull()
+                    ? body.get(RemoteProtocol.ERROR).getAsString() : "error " + response.statusCode();
+            if (response.statusCode() == 400) {
+                throw new IllegalArgumentException(message);
+            }
+            throw new IllegalStateException("El servidor no pudo ejecutar " + name + "." + method.getName()
+                    + ": " + message);
+        }
+        return RemoteProtocol.decodeResult(method, body);
+    }
+}
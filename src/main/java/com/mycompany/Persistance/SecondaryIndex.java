@@ -0,0 +1,346 @@
+package com.mycompany.Persistance;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Índice secundario de un {@link JsonRepository}: agrupa las posiciones de las entidades
+ * según una clave calculada a partir de cada entidad.
+ *
+ * <p>
+ * Las posiciones de cada clave se mantienen ordenadas. Sin criterio de orden, el orden
+ * es el de almacenamiento; con un criterio ({@link #SecondaryIndex(Function, Function)}),
+ * las posiciones se ordenan por ese valor (por ejemplo, la fecha) y, a igualdad, por
+ * posición. Cada grupo es un arreglo ordenado, así que una página de resultados se lee
+ * directamente desde cualquier desplazamiento, en ambos sentidos, sin recorrer ni
+ * copiar el grupo completo. El índice recuerda la clave y el valor de orden con los que
+ * se registró cada posición, lo que permite mover la entrada cuando la entidad se
+ * modifica en sitio (por ejemplo, un cambio de estado). Las entidades cuya clave es
+ * {@code null} no se indexan; un valor de orden {@code null} va antes que los demás.
+ * </p>
+ *
+ * @param <T> Tipo de entidad indexada.
+ * @param <K> Tipo de la clave del índice.
+ */
+final class SecondaryIndex<T, K> implements EntityIndex<T> {
+
+    private final Function<T, K> keyExtractor;
+    private final Function<T, ? extends Comparable<?>> sortKeyExtractor;
+    private final Map<K, Bucket> buckets = new HashMap<>();
+    private final ArrayList<K> keysByPosition = new ArrayList<>();
+    private final ArrayList<Comparable<?>> sortKeysByPosition = new ArrayList<>();
+    private final Comparator<Integer> order;
+
+    /**
+     * Crea un índice cuyas posiciones se devuelven en orden de almacenamiento.
+     *
+     * @param keyExtractor función que calcula la clave de una entidad
+     */
+    SecondaryIndex(Function<T, K> keyExtractor) {
+        this(keyExtractor, null);
+    }
+
+    /**
+     * Crea un índice cuyas posiciones se devuelven ordenadas por un valor de la entidad.
+     *
+     * @param keyExtractor     función que calcula la clave de una entidad
+     * @param sortKeyExtractor función que calcula el valor de orden, o {@code null} para
+     *                         usar el orden de almacenamiento
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    SecondaryIndex(Function<T, K> keyExtractor, Function<T, ? extends Comparable<?>> sortKeyExtractor) {
+        this.keyExtractor = Objects.requireNonNull(keyExtractor, "La función de clave no puede ser nula.");
+        this.sortKeyExtractor = sortKeyExtractor;
+        Comparator<Integer> byPosition = Integer::compare;
+        this.order = sortKeyExtractor == null ? byPosition
+                : Comparator.<Integer, Comparable>comparing(sortKeysByPosition::get,
+                        Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(byPosition);
+    }
+
+    /**
+     * Registra la entidad almacenada en {@code position}.
+     *
+     * @param entity   entidad agregada
+     * @param position posición de la entidad en la colección
+     */
+    @Override
+    public void add(T entity, int position) {
+        K key = keyExtractor.apply(entity);
+        while (keysByPosition.size() <= position) {
+            keysByPosition.add(null);
+            sortKeysByPosition.add(null);
+        }
+        keysByPosition.set(position, key);
+        sortKeysByPosition.set(position, sortKeyOf(entity));
+        if (key != null) {
+            buckets.computeIfAbsent(key, k -> new Bucket()).insert(position, order);
+        }
+    }
+
+    /**
+     * Reemplaza el contenido del índice con las entidades de una colección completa. Las
+     * posiciones se agregan al final de cada grupo y cada grupo se ordena una sola vez al
+     * terminar, en lugar de insertarlas de a una en su lugar (que con un criterio de orden
+     * distinto al de almacenamiento costaría O(n²) por grupo).
+     *
+     * @param entities entidades en el orden en que están almacenadas
+     */
+    @Override
+    public void rebuild(List<T> entities) {
+        clear();
+        int size = entities.size();
+        keysByPosition.ensureCapacity(size);
+        sortKeysByPosition.ensureCapacity(size);
+        for (int position = 0; position < size; position++) {
+            T entity = entities.get(position);
+            K key = keyExtractor.apply(entity);
+            keysByPosition.add(key);
+            sortKeysByPosition.add(sortKeyOf(entity));
+            if (key != null) {
+                buckets.computeIfAbsent(key, k -> new Bucket()).append(position);
+            }
+        }
+        if (sortKeyExtractor != null) {
+            for (Bucket bucket : buckets.values()) {
+                bucket.sortBy(sortKeysByPosition);
+            }
+        }
+    }
+
+    /**
+     * Recalcula la clave y el valor de orden de la entidad en {@code position} y mueve la
+     * entrada si cambiaron.
+     *
+     * @param entity   entidad con su estado actual
+     * @param position posición de la entidad en la colección
+     */
+    @Override
+    public void update(T entity, int position) {
+        if (position >= keysByPosition.size()) {
+            add(entity, position);
+            return;
+        }
+        K oldKey = keysByPosition.get(position);
+        K newKey = keyExtractor.apply(entity);
+        Comparable<?> newSortKey = sortKeyOf(entity);
+        if (Objects.equals(oldKey, newKey) && Objects.equals(sortKeysByPosition.get(position), newSortKey)) {
+            return;
+        }
+        if (oldKey != null) {
+            Bucket bucket = buckets.get(oldKey);
+            if (bucket != null) {
+                bucket.remove(position, order);
+                if (bucket.size == 0) {
+                    buckets.remove(oldKey);
+                }
+            }
+        }
+        keysByPosition.set(position, newKey);
+        sortKeysByPosition.set(position, newSortKey);
+        if (newKey != null) {
+            buckets.computeIfAbsent(newKey, k -> new Bucket()).insert(position, order);
+        }
+    }
+
+    /**
+     * Devuelve las posiciones asociadas a una clave, en orden ascendente.
+     *
+     * @param key clave a consultar
+     * @return vista no modificable de las posiciones; vacía si la clave no existe
+     */
+    List<Integer> positions(K key) {
+        Bucket bucket = buckets.get(key);
+        return bucket != null ? bucket.view(false) : List.of();
+    }
+
+    /**
+     * Devuelve las posiciones asociadas a una clave en el orden pedido.
+     *
+     * @param key        clave a consultar
+     * @param descending {@code true} para recorrerlas de la última a la primera
+     * @return vista no modificable de las posiciones; vacía si la clave no existe
+     */
+    List<Integer> positions(K key, boolean descending) {
+        Bucket bucket = buckets.get(key);
+        return bucket != null ? bucket.view(descending) : List.of();
+    }
+
+    /**
+     * Busca, entre las posiciones de una clave ordenadas por su valor de orden, la
+     * primera cuyo valor es mayor o igual a {@code from}. Es una búsqueda binaria, así
+     * que un rango del grupo se recorre sin pasar por las entradas anteriores.
+     *
+     * @param key  clave a consultar
+     * @param from valor de orden desde el que se busca
+     * @return índice dentro de {@link #positions(Object)}; el tamaño del grupo si ninguna
+     * posición alcanza {@code from}
+     * @throws IllegalStateException si el índice no tiene criterio de orden
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    int lowerBound(K key, Comparable<?> from) {
+        if (sortKeyExtractor == null) {
+            throw new IllegalStateException("El índice no tiene criterio de orden.");
+        }
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        Comparator<Comparable> bySortKey = Comparator.nullsFirst(Comparator.naturalOrder());
+        int low = 0;
+        int high = bucket.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bySortKey.compare(sortKeysByPosition.get(bucket.positions[mid]), from) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param key clave a consultar
+     * @return cantidad de entidades asociadas a la clave
+     */
+    int count(K key) {
+        Bucket bucket = buckets.get(key);
+        return bucket != null ? bucket.size : 0;
+    }
+
+    /**
+     * Elimina todas las entradas del índice.
+     */
+    @Override
+    public void clear() {
+        buckets.clear();
+        keysByPosition.clear();
+        sortKeysByPosition.clear();
+    }
+
+    private Comparable<?> sortKeyOf(T entity) {
+        return sortKeyExtractor != null ? sortKeyExtractor.apply(entity) : null;
+    }
+
+    /**
+     * Posiciones de una clave en un arreglo ordenado. Las inserciones en orden (lo común:
+     * entidades nuevas al final) solo agregan al final del arreglo.
+     */
+    private static final class Bucket {
+
+        private int[] positions = new int[4];
+        private int size;
+
+        void insert(int position, Comparator<Integer> order) {
+            int at = size == 0 || order.compare(positions[size - 1], position) < 0 ? size : -search(position, order) - 1;
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            System.arraycopy(positions, at, positions, at + 1, size - at);
+            positions[at] = position;
+            size++;
+        }
+
+        /**
+         * Agrega una posición al final sin mantener el orden; ver {@link #sort(Comparator)}.
+         */
+        void append(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        /**
+         * Ordena por valor de orden las posiciones agregadas en orden ascendente con
+         * {@link #append(int)}. El ordenamiento es estable, así que a igualdad de valor
+         * quedan por posición, como en {@link #insert(int, Comparator)}.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void sortBy(List<Comparable<?>> sortKeys) {
+            SortEntry[] entries = new SortEntry[size];
+            for (int i = 0; i < size; i++) {
+                entries[i] = new SortEntry(sortKeys.get(positions[i]), positions[i]);
+            }
+            Comparator<Comparable> bySortKey = Comparator.nullsFirst(Comparator.naturalOrder());
+            Arrays.sort(entries, (a, b) -> bySortKey.compare(a.sortKey(), b.sortKey()));
+            for (int i = 0; i < size; i++) {
+                positions[i] = entries[i].position();
+            }
+        }
+
+        void remove(int position, Comparator<Integer> order) {
+            int at = search(position, order);
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(positions, at + 1, positions, at, size - at - 1);
+            size--;
+        }
+
+        private int search(int position, Comparator<Integer> order) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = order.compare(positions[mid], position);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        List<Integer> view(boolean descending) {
+            int[] snapshot = positions;
+            int length = size;
+            return new PositionView(snapshot, length, descending);
+        }
+    }
+
+    /**
+     * Posición con su valor de orden, para ordenar un grupo de una sola vez.
+     */
+    @SuppressWarnings("rawtypes")
+    private record SortEntry(Comparable sortKey, int position) {
+    }
+
+    /**
+     * Vista de solo lectura sobre las posiciones de un grupo.
+     */
+    private static final class PositionView extends AbstractList<Integer> implements RandomAccess {
+
+        private final int[] positions;
+        private final int size;
+        private final boolean descending;
+
+        PositionView(int[] positions, int size, boolean descending) {
+            this.positions = positions;
+            this.size = size;
+            this.descending = descending;
+        }
+
+        @Override
+        public Integer get(int index) {
+            Objects.checkIndex(index, size);
+            return positions[descending ? size - 1 - index : index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
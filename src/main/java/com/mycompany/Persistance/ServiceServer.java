@@ -0,0 +1,233 @@
+package com.mycompany.Persistance;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP que expone servicios a otros procesos a través de sus interfaces, para
+ * que un solo proceso tenga los datos, los índices y las reglas de negocio en memoria y
+ * los clientes se conecten con {@link RemoteService}. Los repositorios no se publican:
+ * los clientes solo llegan a ellos a través de los servicios. El formato de las llamadas está en
+ * {@link RemoteProtocol}.
+ *
+ * <p>
+ * Cada petición se atiende en su propio hilo virtual; la concurrencia entre clientes la
+ * resuelven los candados de cada repositorio y de cada servicio, igual que entre hilos
+ * de un mismo proceso. Solo se pueden invocar los métodos de las interfaces indicadas al
+ * exponer cada objeto, y no se aceptan interfaces que lean o cambien contraseñas.
+ * </p>
+ *
+ * <p>
+ * Las respuestas nunca incluyen las contraseñas de los usuarios, pero no hay
+ * autenticación por llamada ni cifrado: debe escuchar solo en la interfaz local o en una
+ * red de confianza.
+ * </p>
+ */
+public final class ServiceServer {
+
+    /**
+     * Conexiones pendientes de aceptar antes de rechazar nuevas; el valor por defecto del
+     * sistema se queda corto cuando muchos clientes se conectan a la vez.
+     */
+    private static final int BACKLOG = 512;
+
+    /**
+     * Propiedad del servidor HTTP del JDK que desactiva el algoritmo de Nagle. Como
+     * escribe los encabezados y el cuerpo por separado, con Nagle cada respuesta corta
+     * espera el ACK diferido del cliente (unos 40 ms). Se lee al crear el primer
+     * servidor de la JVM.
+     */
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    static {
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+    }
+
+    /**
+     * Métodos que no se publican aunque los declare alguna interfaz: las contraseñas
+     * solo se verifican y cambian dentro del servidor.
+     */
+    private static final Set<String> FORBIDDEN_METHODS = Set.of("getPassword", "updatePassword");
+
+    private record Endpoint(Object service, Class<?>[] interfaces) {
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Crea el servidor sin empezar a atender peticiones.
+     *
+     * @param address dirección y puerto donde escuchar (puerto 0 para uno libre)
+     * @throws UncheckedIOException si no se puede abrir el puerto
+     */
+    public ServiceServer(InetSocketAddress address) {
+        try {
+            this.server = HttpServer.create(address, BACKLOG);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el servidor en " + address, e);
+        }
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+        server.setExecutor(executor);
+        server.createContext(RemoteProtocol.PATH_PREFIX, this::handle);
+    }
+
+    /**
+     * Publica un servicio bajo {@code /api/<name>/}.
+     *
+     * @param name       nombre del objeto en la URL
+     * @param service    objeto que atiende las llamadas
+     * @param interfaces interfaces cuyos métodos se exponen; el objeto debe
+     *                   implementarlas todas
+     * @return este mismo servidor
+     * @throws IllegalArgumentException si el nombre está vacío o repetido, el objeto
+     *                                  no implementa alguna interfaz o alguna declara
+     *                                  un método de contraseñas
+     */
+    public ServiceServer expose(String name, Object service, Class<?>... interfaces) {
+        if (name == null || name.isBlank() || name.contains("/")) {
+            throw new IllegalArgumentException("Nombre de servicio inválido: " + name);
+        }
+        if (service == null || interfaces.length == 0) {
+            throw new IllegalArgumentException("El servicio y sus interfaces no pueden ser nulos");
+        }
+        for (Class<?> type : interfaces) {
+            if (!type.isInterface() || !type.isInstance(service)) {
+                throw new IllegalArgumentException(service.getClass().getSimpleName()
+                        + " no implementa " + type.getName());
+            }
+            for (Method method : type.getMethods()) {
+                if (FORBIDDEN_METHODS.contains(method.getName())) {
+                    throw new IllegalArgumentException(type.getName() + " no se puede publicar: declara "
+                            + method.getName());
+                }
+            }
+        }
+        if (endpoints.putIfAbsent(name, new Endpoint(service, interfaces.clone())) != null) {
+            throw new IllegalArgumentException("El servicio " + name + " ya está publicado");
+        }
+        return this;
+    }
+
+    /**
+     * Empieza a atender peticiones en segundo plano.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Deja de aceptar peticiones y espera a que terminen las que están en curso.
+     *
+     * @param delaySeconds segundos máximos de espera
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * @return dirección donde escucha (con el puerto real si se pidió el 0)
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                dispatch(exchange);
+            } catch (IllegalArgumentException | JsonParseException e) {
+                respond(exchange, 400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                System.err.println("Error al atender " + exchange.getRequestURI() + ": " + e.getMessage());
+                respond(exchange, 500, error(e.getMessage()));
+            }
+        }
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            respond(exchange, 405, error("Solo se admite POST"));
+            return;
+        }
+        // /api/<servicio>/<método>
+        String[] parts = exchange.getRequestURI().getPath()
+                .substring(RemoteProtocol.PATH_PREFIX.length()).split("/");
+        Endpoint endpoint = parts.length == 2 ? endpoints.get(parts[0]) : null;
+        if (endpoint == null) {
+            respond(exchange, 404, error("Servicio desconocido: " + exchange.getRequestURI().getPath()));
+            return;
+        }
+        JsonArray arguments;
+        try (InputStream body = exchange.getRequestBody()) {
+            arguments = JsonParser.parseString(new String(body.readAllBytes(), StandardCharsets.UTF_8))
+                    .getAsJsonArray();
+        } catch (JsonParseException | IllegalStateException e) {
+            respond(exchange, 400, error("El cuerpo debe ser un arreglo JSON de argumentos"));
+            return;
+        }
+        Method method = RemoteProtocol.findMethod(endpoint.interfaces(), parts[1], arguments.size());
+        if (method == null) {
+            respond(exchange, 404, error("Método desconocido: " + parts[0] + "." + parts[1]
+                    + " con " + arguments.size() + " argumento(s)"));
+            return;
+        }
+        respond(exchange, 200, invoke(endpoint.service(), method, arguments));
+    }
+
+    private static JsonObject invoke(Object service, Method method, JsonArray arguments) {
+        Type[] types = method.getGenericParameterTypes();
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            values[i] = RemoteProtocol.GSON.fromJson(arguments.get(i), types[i]);
+        }
+        try {
+            return RemoteProtocol.encodeResult(method, method.invoke(service, values));
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("No se pudo invocar " + method.getName(), e);
+        }
+    }
+
+    private static JsonObject error(String message) {
+        JsonObject response = new JsonObject();
+        response.addProperty(RemoteProtocol.ERROR, message);
+        return response;
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonObject body) throws IOException {
+        byte[] bytes = RemoteProtocol.GSON.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
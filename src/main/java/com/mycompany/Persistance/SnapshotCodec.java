@@ -0,0 +1,47 @@
+package com.mycompany.Persistance;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Formato en el que un {@link JsonRepository} escribe y lee su instantánea completa.
+ *
+ * <p>
+ * El journal de mutaciones siempre es JSON Lines; el códec solo decide cómo se guarda
+ * la instantánea que produce la compactación y que se lee al cargar.
+ * </p>
+ *
+ * @param <T> Tipo de entidad almacenada.
+ */
+public interface SnapshotCodec<T> {
+
+    /**
+     * @return extensión del archivo de instantánea, incluido el punto (por ejemplo {@code .json})
+     */
+    String fileExtension();
+
+    /**
+     * Escribe la instantánea completa, reemplazando el contenido anterior del archivo.
+     *
+     * @param file ruta del archivo de instantánea
+     * @param data entidades a escribir, en orden
+     * @throws java.io.UncheckedIOException si ocurre un error de escritura
+     */
+    void write(Path file, List<T> data);
+
+    /**
+     * Lee la instantánea entregando cada entidad al consumidor, en orden. Los registros
+     * inválidos se omiten y se informan a
+     * {@link LoadProgressListener#onSkipped(String, String, String)}. Un archivo truncado
+     * o ilegible lanza una excepción aunque ya se hayan entregado entidades: quien llama
+     * debe descartarlas y conservar el archivo.
+     *
+     * @param file     ruta del archivo de instantánea
+     * @param consumer receptor de cada entidad leída
+     * @param progress receptor del avance de la lectura
+     * @return cantidad de entidades entregadas; {@code 0} si el archivo no existe o está vacío
+     * @throws java.io.UncheckedIOException si ocurre un error de lectura o el archivo está truncado
+     */
+    int read(Path file, Consumer<T> consumer, LoadProgressListener progress);
+}
@@ -0,0 +1,86 @@
+package com.mycompany.Persistance;
+
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.Consultation;
+import com.mycompany.Models.Doctor;
+import com.mycompany.Models.Patient;
+import com.mycompany.Models.Specialty;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Convierte la instantánea de un repositorio entre los formatos de {@link SnapshotFormat}.
+ *
+ * <p>
+ * El formato de origen y el de destino se deducen de la extensión de cada archivo. Las
+ * mutaciones pendientes en el journal del origen se incorporan en el destino, de modo
+ * que el archivo generado refleja el estado completo del repositorio. El origen no se
+ * modifica.
+ * </p>
+ *
+ * <p>
+ * Uso: {@code java com.mycompany.Persistance.SnapshotConverter data/appointments.json data/appointments.bin}.
+ * </p>
+ */
+public final class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Uso: SnapshotConverter <origen> <destino>");
+            System.exit(2);
+        }
+        Path source = Paths.get(args[0]);
+        Path target = Paths.get(args[1]);
+        int count = switch (SnapshotFormat.baseName(source.getFileName().toString())) {
+            case "appointments" -> convert(source, target, Appointment.class, Appointment::getId);
+            case "consultations" -> convert(source, target, Consultation.class, Consultation::getId);
+            case "doctors" -> convert(source, target, Doctor.class, Doctor::getId);
+            case "patients" -> convert(source, target, Patient.class, Patient::getId);
+            case "specialties" -> convert(source, target, Specialty.class, Specialty::getId);
+            default -> throw new IllegalArgumentException("Archivo de datos desconocido: " + source);
+        };
+        System.out.println(count + " registros convertidos de " + source + " a " + target);
+    }
+
+    /**
+     * Convierte una instantánea (más su journal) al formato del archivo de destino.
+     *
+     * @param source      instantánea de origen
+     * @param target      instantánea de destino; no debe existir
+     * @param type        clase de las entidades
+     * @param idExtractor función que obtiene el id de cada entidad
+     * @param <T>         tipo de entidad
+     * @return cantidad de entidades escritas
+     * @throws IllegalStateException        si el destino o su journal ya existen
+     * @throws java.io.UncheckedIOException si ocurre un error de lectura/escritura
+     */
+    public static <T> int convert(Path source, Path target, Class<T> type, Function<T, String> idExtractor) {
+        if (Files.exists(target) || Files.exists(Paths.get(target + ".journal"))
+                || Files.exists(Paths.get(target + ".journal.old"))) {
+            throw new IllegalStateException("El destino ya existe: " + target);
+        }
+        JsonStore store = new JsonStore();
+        SnapshotCodec<T> sourceCodec = SnapshotFormat.ofPath(source).codec(store, type);
+        SnapshotCodec<T> targetCodec = SnapshotFormat.ofPath(target).codec(store, type);
+
+        List<T> data = new ArrayList<>();
+        sourceCodec.read(source, data::add, LoadProgressListener.NONE);
+        Map<String, Integer> positions = new HashMap<>(Math.max(16, data.size() * 4 / 3 + 1));
+        for (int i = 0; i < data.size(); i++) {
+            positions.put(idExtractor.apply(data.get(i)), i);
+        }
+        new MutationJournal<T>(store, source.toString(), type).replay(data, positions, idExtractor);
+
+        targetCodec.write(target, data);
+        return data.size();
+    }
+}
@@ -0,0 +1,107 @@
+package com.mycompany.Persistance;
+
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+
+/**
+ * Formatos de instantánea disponibles para los repositorios JSON.
+ *
+ * <p>
+ * El formato de cada repositorio se elige con la propiedad del sistema
+ * {@code clinicalsystem.snapshotFormat.<archivo>} (por ejemplo
+ * {@code -Dclinicalsystem.snapshotFormat.appointments=BINARY}) o, para todos a la vez,
+ * con {@code clinicalsystem.snapshotFormat}. Si no se indica, se usa {@link #JSON}.
+ * </p>
+ */
+public enum SnapshotFormat {
+
+    /**
+     * JSON con formato legible ({@link JsonSnapshotCodec}).
+     */
+    JSON(".json"),
+
+    /**
+     * Binario compacto ({@link BinarySnapshotCodec}).
+     */
+    BINARY(".bin");
+
+    /**
+     * Propiedad del sistema con el formato por defecto de todos los repositorios.
+     */
+    public static final String PROPERTY = "clinicalsystem.snapshotFormat";
+
+    private final String extension;
+
+    SnapshotFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return extensión de los archivos de este formato, incluido el punto
+     */
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Crea el códec de este formato para el tipo de entidad indicado.
+     *
+     * @param store       utilidad JSON usada por el formato {@link #JSON}
+     * @param elementType tipo de las entidades almacenadas
+     * @param <T>         tipo de entidad
+     * @return códec del formato
+     * @throws IllegalArgumentException si el formato binario no admite el tipo
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SnapshotCodec<T> codec(JsonStore store, Type elementType) {
+        return switch (this) {
+            case JSON -> new JsonSnapshotCodec<>(store, elementType);
+            case BINARY -> {
+                if (!(elementType instanceof Class<?> type)) {
+                    throw new IllegalArgumentException("El formato binario requiere una clase concreta: " + elementType);
+                }
+                yield new BinarySnapshotCodec<>((Class<T>) type);
+            }
+        };
+    }
+
+    /**
+     * Devuelve el formato configurado para un archivo de datos.
+     *
+     * @param fileName nombre del archivo (por ejemplo {@code appointments.json})
+     * @return formato configurado, o {@link #JSON} si no hay configuración
+     * @throws IllegalArgumentException si la propiedad tiene un valor desconocido
+     */
+    public static SnapshotFormat configuredFor(String fileName) {
+        String value = System.getProperty(PROPERTY + "." + baseName(fileName), System.getProperty(PROPERTY));
+        return value == null || value.isBlank() ? JSON : valueOf(value.trim().toUpperCase());
+    }
+
+    /**
+     * Deduce el formato a partir de la extensión del archivo.
+     *
+     * @param file ruta del archivo
+     * @return formato correspondiente
+     * @throws IllegalArgumentException si la extensión no corresponde a ningún formato
+     */
+    public static SnapshotFormat ofPath(Path file) {
+        String name = file.getFileName().toString();
+        for (SnapshotFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Extensión de instantánea desconocida: " + file);
+    }
+
+    /**
+     * Quita la extensión del nombre de archivo ({@code appointments.json} → {@code appointments}).
+     *
+     * @param fileName nombre del archivo
+     * @return nombre sin extensión
+     */
+    public static String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+}
@@ -0,0 +1,122 @@
+package com.mycompany.Persistance;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Lista inmutable y persistente con la que un {@link JsonRepository} publica sus datos.
+ *
+ * <p>
+ * Los elementos se guardan en bloques de {@value #CHUNK_SIZE} posiciones. Cada escritura
+ * produce una versión nueva que comparte con la anterior todos los bloques que no
+ * cambiaron: agregar al final escribe en una posición que las versiones anteriores no
+ * ven (su tamaño es menor) y reemplazar un elemento copia solo su bloque y el arreglo de
+ * bloques. Así, publicar una versión por escritura cuesta O(bloque + n / bloque) en lugar
+ * de O(n), y los lectores pueden conservar y recorrer una versión sin copiarla ni
+ * bloquear a los escritores.
+ * </p>
+ *
+ * <p>
+ * Solo la versión más reciente puede extenderse con {@link #append(Object)}, y solo un
+ * hilo a la vez (el repositorio lo hace con su candado de escritura). Las versiones se
+ * publican por medio de un campo {@code volatile}, lo que garantiza que los lectores
+ * vean los elementos escritos antes de la publicación.
+ * </p>
+ *
+ * @param <T> Tipo de los elementos.
+ */
+final class SnapshotList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << SHIFT;
+    private static final int MASK = CHUNK_SIZE - 1;
+    private static final SnapshotList<?> EMPTY = new SnapshotList<>(new Object[0][], 0);
+
+    private final Object[][] chunks;
+    private final int size;
+
+    private SnapshotList(Object[][] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * @param <T> tipo de los elementos
+     * @return lista vacía
+     */
+    @SuppressWarnings("unchecked")
+    static <T> SnapshotList<T> empty() {
+        return (SnapshotList<T>) EMPTY;
+    }
+
+    /**
+     * Crea una versión con los elementos de una lista, en el mismo orden.
+     *
+     * @param items elementos iniciales
+     * @param <T>   tipo de los elementos
+     * @return nueva lista inmutable
+     */
+    static <T> SnapshotList<T> of(List<? extends T> items) {
+        int size = items.size();
+        if (size == 0) {
+            return empty();
+        }
+        Object[][] chunks = new Object[(size + MASK) >>> SHIFT][];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new Object[CHUNK_SIZE];
+        }
+        for (int i = 0; i < size; i++) {
+            chunks[i >>> SHIFT][i & MASK] = items.get(i);
+        }
+        return new SnapshotList<>(chunks, size);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return (T) chunks[index >>> SHIFT][index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Devuelve una versión con un elemento más al final. Debe llamarse sobre la versión
+     * más reciente.
+     *
+     * @param item elemento a agregar
+     * @return nueva versión
+     */
+    SnapshotList<T> append(T item) {
+        int chunk = size >>> SHIFT;
+        Object[][] next = chunks;
+        if (chunk == chunks.length) {
+            next = Arrays.copyOf(chunks, chunk + 1);
+            next[chunk] = new Object[CHUNK_SIZE];
+        }
+        next[chunk][size & MASK] = item;
+        return new SnapshotList<>(next, size + 1);
+    }
+
+    /**
+     * Devuelve una versión con el elemento de {@code index} reemplazado.
+     *
+     * @param index posición a reemplazar
+     * @param item  elemento nuevo
+     * @return nueva versión
+     */
+    SnapshotList<T> with(int index, T item) {
+        Objects.checkIndex(index, size);
+        Object[][] next = chunks.clone();
+        int chunk = index >>> SHIFT;
+        next[chunk] = next[chunk].clone();
+        next[chunk][index & MASK] = item;
+        return new SnapshotList<>(next, size);
+    }
+}
@@ -27,14 +27,14 @@ public class SpecialtyRepositoryJSON extends JsonRepository<Specialty> implement
      * Constructor que inicializa el repositorio y carga los datos desde el archivo JSON.
      */
     public SpecialtyRepositoryJSON() {
-        super(FILE_PATH, LIST_TYPE);
+        super(FILE_PATH, LIST_TYPE, Specialty::getId);
     }
 
      /**
      * Agrega una nueva especialidad al repositorio.
      *
      * @param specialty Especialidad a agregar. No puede ser nula.
-     * @return true si la operación fue exitosa.
+     * @return true si la operación fue exitosa; false si ya existe una con el mismo ID o ocurre un error.
      * @throws IllegalArgumentException si {@code specialty} es nulo.
      */
     @Override
@@ -42,13 +42,18 @@ public class SpecialtyRepositoryJSON extends JsonRepository<Specialty> implement
         if (specialty == null) {
             throw new IllegalArgumentException("La especialidad no puede ser nula");
         }
+        writeLock.lock();
         try {
-            data.add(specialty);
-            save();
+            if (!insertEntity(specialty)) {
+                System.err.println("Ya existe una especialidad con el ID: " + specialty.getId());
+                return false;
+            }
             return true;
         } catch (RuntimeException e) {
             System.err.println("Error al agregar la especialidad: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -65,18 +70,18 @@ public class SpecialtyRepositoryJSON extends JsonRepository<Specialty> implement
             throw new IllegalArgumentException("La especialidad no puede ser nula");
         }
 
+        writeLock.lock();
         try {
-            for (int i = 0; i < data.size(); i++) {
-                if (data.get(i).getId().equals(specialty.getId())) {
-                    data.set(i, specialty);
-                    save();
-                    return true;
-                }
+            if (replaceEntity(specialty)) {
+                save(specialty);
+                return true;
             }
             return false;
         } catch (RuntimeException e) {
             System.err.println("Error al actualizar la especialidad: " + e.getMessage());
             return false;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -92,6 +97,7 @@ public class SpecialtyRepositoryJSON extends JsonRepository<Specialty> implement
         if (name == null) {
             throw new IllegalArgumentException("El nombre de la especialidad no puede ser nulo");
         }
+        readLock.lock();
         try {
             return data.stream()
                     .filter(s -> s.getSpecialtyName() == name) // ok porque es enum
@@ -99,21 +105,49 @@ public class SpecialtyRepositoryJSON extends JsonRepository<Specialty> implement
         } catch (RuntimeException e) {
             System.err.println("Error al buscar especialidad por nombre: " + e.getMessage());
             return Optional.empty();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Busca una especialidad por su id usando el índice.
+     *
+     * @param id Identificador de la especialidad. No puede ser nulo.
+     * @return Un {@link Optional} con la especialidad encontrada, o vacío si no existe.
+     * @throws IllegalArgumentException si {@code id} es nulo.
+     */
+    @Override
+    public Optional<Specialty> searchById(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("El ID de la especialidad no puede ser nulo");
+        }
+        readLock.lock();
+        try {
+            return findById(id);
+        } catch (RuntimeException e) {
+            System.err.println("Error al buscar especialidad por id: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            readLock.unlock();
         }
     }
 
     /**
      * Lista todas las especialidades registradas.
      *
-     * @return Lista de especialidades.
+     * @return Lista inmutable de especialidades, compartida entre llamadas.
      */
     @Override
     public List<Specialty> listAll() {
+        readLock.lock();
         try {
-            return new ArrayList<>(data);
+            return data;
         } catch (RuntimeException e) {
             System.err.println("Error al listar las especialidades: " + e.getMessage());
             return new ArrayList<>();
+        } finally {
+            readLock.unlock();
         }
     }
 }
@@ -10,6 +10,7 @@ import com.mycompany.Models.SpecialtyName;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Esta clase implementa la interfaz {@link ISpecialtyRepository} y gestiona las
@@ -24,6 +25,8 @@ import java.util.Optional;
  */
 public class SpecialtyRepositoryMemory implements ISpecialtyRepository {
 
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); //Lecturas concurrentes, escrituras serializadas
+
     /**
      * Lista interna que almacena las especialidades registradas.
      */
@@ -38,8 +41,12 @@ public class SpecialtyRepositoryMemory implements ISpecialtyRepository {
      */
     @Override
     public boolean add(Specialty specialty) {
-
-        return specialties.add(specialty);
+        lock.writeLock().lock();
+        try {
+            return specialties.add(specialty);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -51,13 +58,18 @@ public class SpecialtyRepositoryMemory implements ISpecialtyRepository {
      */
     @Override
     public boolean update(Specialty specialty) {
-        for (int i = 0; i < specialties.size(); i++) {
-            if (specialties.get(i).getId().equals(specialty.getId())) {
-                specialties.set(i, specialty);
-                return true;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < specialties.size(); i++) {
+                if (specialties.get(i).getId().equals(specialty.getId())) {
+                    specialties.set(i, specialty);
+                    return true;
+                }
             }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -69,9 +81,33 @@ public class SpecialtyRepositoryMemory implements ISpecialtyRepository {
      */
     @Override
     public Optional<Specialty> searchByName(SpecialtyName name) {
-        return specialties.stream()
-                .filter(s -> s.getSpecialtyName() == name)
-                .findFirst();
+        lock.readLock().lock();
+        try {
+            return specialties.stream()
+                    .filter(s -> s.getSpecialtyName() == name)
+                    .findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca una especialidad por su identificador.
+     *
+     * @param id el identificador de la especialidad.
+     * @return un {@code Optional} con la especialidad encontrada, o vacío si no
+     * existe.
+     */
+    @Override
+    public Optional<Specialty> searchById(String id) {
+        lock.readLock().lock();
+        try {
+            return specialties.stream()
+                    .filter(s -> s.getId().equals(id))
+                    .findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -81,6 +117,11 @@ public class SpecialtyRepositoryMemory implements ISpecialtyRepository {
      */
     @Override
     public List<Specialty> listAll() {
-        return new ArrayList<>(specialties);
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(specialties);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 }
@@ -0,0 +1,157 @@
+package com.mycompany.Persistance;
+
+import com.mycompany.Interfaces.IAuthenticableRepository;
+import com.mycompany.Interfaces.IUsernameDirectory;
+import com.mycompany.Models.User;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Directorio de nombres de usuario compartido por los repositorios autenticables.
+ *
+ * <p>
+ * Cada repositorio se registra con {@link #bind(IAuthenticableRepository)} como una
+ * estructura derivada de sus datos ({@link EntityIndex}), así que el directorio se
+ * actualiza en las mismas operaciones que los índices del repositorio: carga, recarga,
+ * inserción, reemplazo y modificación en sitio (por ejemplo, el borrado lógico). Las
+ * entradas guardan la instancia viva del usuario, por lo que su estado activo siempre
+ * es el actual.
+ * </p>
+ *
+ * <p>
+ * Las claves son los usernames sin espacios al inicio ni al final. Los usernames
+ * repetidos (datos anteriores a la validación de unicidad) se conservan todos, en el
+ * orden en que se registraron. Los métodos son seguros para hilos.
+ * </p>
+ */
+public final class UsernameDirectory implements IUsernameDirectory {
+
+    private record Key(IAuthenticableRepository owner, String userId) {
+    }
+
+    private final Map<String, List<Entry>> entries = new HashMap<>();
+    private final Map<Key, String> usernames = new HashMap<>();
+    private final Set<IAuthenticableRepository> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    @Override
+    public synchronized List<Entry> lookup(String username) {
+        if (username == null) {
+            return List.of();
+        }
+        List<Entry> found = entries.get(username.trim());
+        return found != null ? List.copyOf(found) : List.of();
+    }
+
+    @Override
+    public synchronized boolean tracks(IAuthenticableRepository repository) {
+        return owners.contains(repository);
+    }
+
+    /**
+     * Busca el primer usuario de un repositorio registrado con un username.
+     *
+     * @param owner    repositorio dueño del usuario
+     * @param username username a buscar; se ignoran los espacios al inicio y al final
+     * @return {@link Optional} con el usuario, vacío si el repositorio no tiene ese username
+     */
+    synchronized Optional<User> find(IAuthenticableRepository owner, String username) {
+        List<Entry> found = entries.get(username.trim());
+        if (found != null) {
+            for (Entry entry : found) {
+                if (entry.owner() == owner) {
+                    return Optional.of(entry.user());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Crea la vista del directorio que un repositorio registra con
+     * {@link JsonRepository#registerIndex(EntityIndex)}.
+     *
+     * @param owner repositorio cuyos usuarios se registrarán
+     * @param <T>   tipo de usuario del repositorio
+     * @return estructura derivada que mantiene las entradas del repositorio
+     */
+    <T extends User> EntityIndex<T> bind(IAuthenticableRepository owner) {
+        synchronized (this) {
+            owners.add(owner);
+        }
+        return new EntityIndex<>() {
+            @Override
+            public void add(T entity, int position) {
+                put(owner, entity);
+            }
+
+            @Override
+            public void update(T entity, int position) {
+                put(owner, entity);
+            }
+
+            @Override
+            public void clear() {
+                removeAll(owner);
+            }
+        };
+    }
+
+    private synchronized void put(IAuthenticableRepository owner, User user) {
+        Key key = new Key(owner, user.getId());
+        String username = user.getUsername() != null ? user.getUsername().trim() : "";
+        String previous = usernames.get(key);
+        if (previous != null && previous.equals(username)) {
+            // Mismo username: se reemplaza la instancia conservando el orden.
+            List<Entry> list = entries.get(username);
+            for (int i = 0; i < list.size(); i++) {
+                if (matches(list.get(i), key)) {
+                    list.set(i, new Entry(owner, user));
+                    return;
+                }
+            }
+        }
+        if (previous != null) {
+            usernames.remove(key);
+            removeEntry(previous, key);
+        }
+        if (username.isEmpty()) {
+            return;
+        }
+        usernames.put(key, username);
+        entries.computeIfAbsent(username, k -> new ArrayList<>(1)).add(new Entry(owner, user));
+    }
+
+    private synchronized void removeAll(IAuthenticableRepository owner) {
+        usernames.keySet().removeIf(key -> key.owner() == owner);
+        Iterator<List<Entry>> lists = entries.values().iterator();
+        while (lists.hasNext()) {
+            List<Entry> list = lists.next();
+            list.removeIf(entry -> entry.owner() == owner);
+            if (list.isEmpty()) {
+                lists.remove();
+            }
+        }
+    }
+
+    private void removeEntry(String username, Key key) {
+        List<Entry> list = entries.get(username);
+        if (list == null) {
+            return;
+        }
+        list.removeIf(entry -> matches(entry, key));
+        if (list.isEmpty()) {
+            entries.remove(username);
+        }
+    }
+
+    private static boolean matches(Entry entry, Key key) {
+        return entry.owner() == key.owner() && entry.userId().equals(key.userId());
+    }
+}
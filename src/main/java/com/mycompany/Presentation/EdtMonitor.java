@@ -0,0 +1,125 @@
+package com.mycompany.Presentation;
+
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+
+/**
+ * Mide cuánto tiempo pasa el Event Dispatch Thread (EDT) ocupado sin poder atender
+ * eventos, es decir, cuánto tiempo la interfaz está congelada.
+ *
+ * <p>
+ * Un hilo de fondo encola cada {@value #PROBE_INTERVAL_MILLIS} ms una tarea vacía en el
+ * EDT y mide cuánto tarda en ejecutarse. Si la demora supera
+ * {@link #BLOCKED_THRESHOLD_MILLIS}, el EDT se considera bloqueado durante esa demora.
+ * Se acumulan la cantidad de bloqueos, el tiempo total bloqueado y la demora máxima;
+ * {@link #snapshot()} los devuelve y {@link #install()} los imprime al terminar la JVM.
+ * </p>
+ *
+ * <p>
+ * Se activa con la propiedad del sistema {@link #ENABLED_PROPERTY}.
+ * </p>
+ */
+public final class EdtMonitor {
+
+    /**
+     * Propiedad del sistema que activa el monitor ({@code true}/{@code false}, por defecto
+     * {@code false}).
+     */
+    public static final String ENABLED_PROPERTY = "clinicalsystem.edtMonitor";
+
+    /**
+     * Demora a partir de la cual el EDT se considera bloqueado, en milisegundos.
+     */
+    public static final long BLOCKED_THRESHOLD_MILLIS = 100;
+
+    private static final long PROBE_INTERVAL_MILLIS = 20;
+
+    /**
+     * Estadísticas acumuladas del EDT.
+     *
+     * @param probes        tareas de prueba ejecutadas
+     * @param blockedEvents veces que el EDT estuvo bloqueado
+     * @param blockedMillis tiempo total bloqueado, en milisegundos
+     * @param maxLagMillis  demora máxima observada, en milisegundos
+     */
+    public record Stats(long probes, long blockedEvents, long blockedMillis, long maxLagMillis) {
+        @Override
+        public String toString() {
+            return "EDT bloqueado " + blockedEvents + " veces, " + blockedMillis + " ms en total, demora máxima "
+                    + maxLagMillis + " ms (" + probes + " muestras)";
+        }
+    }
+
+    private final Thread prober;
+    private long probes;
+    private long blockedEvents;
+    private long blockedNanos;
+    private long maxLagNanos;
+
+    private EdtMonitor() {
+        prober = Thread.ofPlatform().daemon().name("edt-monitor").unstarted(this::probeLoop);
+    }
+
+    /**
+     * Inicia un monitor que imprime sus estadísticas al terminar la JVM.
+     *
+     * @return monitor iniciado
+     */
+    public static EdtMonitor install() {
+        EdtMonitor monitor = start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(monitor.snapshot()),
+                "edt-monitor-report"));
+        return monitor;
+    }
+
+    /**
+     * Inicia un monitor sin reporte automático.
+     *
+     * @return monitor iniciado
+     */
+    public static EdtMonitor start() {
+        EdtMonitor monitor = new EdtMonitor();
+        monitor.prober.start();
+        return monitor;
+    }
+
+    /**
+     * Detiene el muestreo; las estadísticas siguen disponibles.
+     */
+    public void stop() {
+        prober.interrupt();
+    }
+
+    /**
+     * @return estadísticas acumuladas hasta el momento
+     */
+    public synchronized Stats snapshot() {
+        return new Stats(probes, blockedEvents, TimeUnit.NANOSECONDS.toMillis(blockedNanos),
+                TimeUnit.NANOSECONDS.toMillis(maxLagNanos));
+    }
+
+    private void probeLoop() {
+        long threshold = TimeUnit.MILLISECONDS.toNanos(BLOCKED_THRESHOLD_MILLIS);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long posted = System.nanoTime();
+                SwingUtilities.invokeAndWait(() -> { });
+                record(System.nanoTime() - posted, threshold);
+                Thread.sleep(PROBE_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (java.lang.reflect.InvocationTargetException e) {
+            System.err.println("Error en el monitor del EDT: " + e.getMessage());
+        }
+    }
+
+    private synchronized void record(long lagNanos, long threshold) {
+        probes++;
+        maxLagNanos = Math.max(maxLagNanos, lagNanos);
+        if (lagNanos >= threshold) {
+            blockedEvents++;
+            blockedNanos += lagNanos;
+        }
+    }
+}
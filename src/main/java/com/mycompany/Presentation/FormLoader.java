@@ -0,0 +1,152 @@
+package com.mycompany.Presentation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.swing.JInternalFrame;
+import javax.swing.SwingUtilities;
+import javax.swing.event.InternalFrameAdapter;
+import javax.swing.event.InternalFrameEvent;
+
+/**
+ * Ejecuta las llamadas a servicios de un formulario fuera del Event Dispatch Thread
+ * (EDT) y entrega los resultados en el EDT con {@link SwingUtilities#invokeLater(Runnable)}.
+ *
+ * <p>
+ * Cada llamada corre en su propio hilo virtual, así que esperar al disco o a un candado
+ * de repositorio no congela la ventana. Hay dos tipos de tareas:
+ * </p>
+ * <ul>
+ *     <li>{@link #load(Callable, Consumer)}: consultas que llenan el formulario. Una carga
+ *     nueva deja obsoleta a la anterior, de modo que un resultado viejo nunca pisa uno
+ *     más reciente.</li>
+ *     <li>{@link #run(Callable, Consumer)}: acciones que modifican datos (cancelar una
+ *     cita, eliminar un doctor). Siempre terminan, aunque la ventana se cierre.</li>
+ * </ul>
+ *
+ * <p>
+ * Al cerrarse el formulario se cancelan las cargas pendientes y se descartan los
+ * resultados que lleguen después. Las tareas no se interrumpen: una interrupción a mitad
+ * de una lectura cerraría el canal del archivo, así que solo se evita que empiecen o que
+ * su resultado llegue a la interfaz. Todos los métodos deben llamarse desde el EDT.
+ * </p>
+ */
+final class FormLoader {
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("form-loader-", 0).factory());
+
+    private final String name;
+    private Future<?> pendingLoad;
+    private long generation;
+    private boolean closed;
+
+    /**
+     * Crea el cargador de un formulario y lo cancela cuando el formulario se cierra.
+     *
+     * @param frame formulario dueño de las cargas
+     */
+    FormLoader(JInternalFrame frame) {
+        this(frame.getClass().getSimpleName());
+        frame.addInternalFrameListener(new InternalFrameAdapter() {
+            @Override
+            public void internalFrameClosed(InternalFrameEvent e) {
+                close();
+            }
+        });
+    }
+
+    /**
+     * @param name nombre usado en los mensajes de error
+     */
+    FormLoader(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Ejecuta una consulta fuera del EDT y entrega su resultado en el EDT. Si antes de
+     * terminar se pide otra carga o se cierra el formulario, el resultado se descarta.
+     *
+     * @param query     consulta a ejecutar
+     * @param onLoaded  recibe el resultado en el EDT
+     * @param <R>       tipo del resultado
+     */
+    <R> void load(Callable<R> query, Consumer<R> onLoaded) {
+        if (closed) {
+            return;
+        }
+        if (pendingLoad != null) {
+            pendingLoad.cancel(false);
+        }
+        long current = ++generation;
+        pendingLoad = submit(query, result -> {
+            if (current == generation) {
+                pendingLoad = null;
+                onLoaded.accept(result);
+            }
+        }, null);
+    }
+
+    /**
+     * Ejecuta una acción fuera del EDT y entrega su resultado en el EDT, salvo que el
+     * formulario ya se haya cerrado. La acción no se cancela.
+     *
+     * @param action acción a ejecutar
+     * @param onDone recibe el resultado en el EDT
+     * @param <R>    tipo del resultado
+     */
+    <R> void run(Callable<R> action, Consumer<R> onDone) {
+        run(action, onDone, null);
+    }
+
+    /**
+     * Igual que {@link #run(Callable, Consumer)}, pero entrega en el EDT la excepción
+     * que lance la acción.
+     *
+     * @param action  acción a ejecutar
+     * @param onDone  recibe el resultado en el EDT
+     * @param onError recibe la excepción en el EDT
+     * @param <R>     tipo del resultado
+     */
+    <R> void run(Callable<R> action, Consumer<R> onDone, Consumer<Exception> onError) {
+        submit(action, onDone, onError);
+    }
+
+    /**
+     * Cancela la carga pendiente y descarta todos los resultados posteriores.
+     */
+    void close() {
+        closed = true;
+        generation++;
+        if (pendingLoad != null) {
+            pendingLoad.cancel(false);
+            pendingLoad = null;
+        }
+    }
+
+    private <R> Future<?> submit(Callable<R> task, Consumer<R> onResult, Consumer<Exception> onError) {
+        return EXECUTOR.submit(() -> {
+            R result;
+            try {
+                result = task.call();
+            } catch (Exception e) {
+                System.err.println("Error al cargar datos de " + name + ": " + e.getMessage());
+                if (onError != null) {
+                    SwingUtilities.invokeLater(() -> {
+                        if (!closed) {
+                            onError.accept(e);
+                        }
+                    });
+                }
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (!closed) {
+                    onResult.accept(result);
+                }
+            });
+        });
+    }
+}
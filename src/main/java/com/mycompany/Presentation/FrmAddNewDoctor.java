@@ -4,11 +4,11 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.IDoctorService;
+import com.mycompany.Interfaces.ISpecialtyService;
 import com.mycompany.Models.Doctor;
 import com.mycompany.Models.Specialty;
-import com.mycompany.Services.DoctorService;
 import com.mycompany.Services.ServiceLocator;
-import com.mycompany.Services.SpecialtyService;
 import java.util.List;
 import javax.swing.JOptionPane;
 
@@ -18,8 +18,8 @@ import javax.swing.JOptionPane;
  */
 public class FrmAddNewDoctor extends javax.swing.JInternalFrame {
 
-    private final DoctorService doctorService;
-    private final SpecialtyService specialtyService;
+    private final IDoctorService doctorService;
+    private final ISpecialtyService specialtyService;
     private List<Specialty> specialtiesList;
 
     /**
@@ -28,7 +28,7 @@ public class FrmAddNewDoctor extends javax.swing.JInternalFrame {
      * @param doctorService
      * @param specialtyService
      */
-    public FrmAddNewDoctor(DoctorService doctorService, SpecialtyService specialtyService) {
+    public FrmAddNewDoctor(IDoctorService doctorService, ISpecialtyService specialtyService) {
         initComponents();
         this.doctorService = doctorService;
         this.specialtyService = specialtyService;
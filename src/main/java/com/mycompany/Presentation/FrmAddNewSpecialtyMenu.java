@@ -4,9 +4,9 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.ISpecialtyService;
 import com.mycompany.Models.Specialty;
 import com.mycompany.Models.SpecialtyName;
-import com.mycompany.Services.SpecialtyService;
 import javax.swing.DefaultListModel;
 import javax.swing.JOptionPane;
 
@@ -16,7 +16,7 @@ import javax.swing.JOptionPane;
  */
 public class FrmAddNewSpecialtyMenu extends javax.swing.JInternalFrame {
 
-    private final SpecialtyService specialtyService;
+    private final ISpecialtyService specialtyService;
     private DefaultListModel<String> specialtyList;
 
     /**
@@ -24,7 +24,7 @@ public class FrmAddNewSpecialtyMenu extends javax.swing.JInternalFrame {
      *
      * @param specialtyService el servicio de gestión de especialidades.
      */
-    public FrmAddNewSpecialtyMenu(SpecialtyService specialtyService) {
+    public FrmAddNewSpecialtyMenu(ISpecialtyService specialtyService) {
         initComponents();
         this.specialtyList = new DefaultListModel<>(); //Para la lista dinámica.
         this.specialtyService = specialtyService; //Servicio de especialidades
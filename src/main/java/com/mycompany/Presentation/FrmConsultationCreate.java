@@ -4,11 +4,11 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.IAppointmentService;
+import com.mycompany.Interfaces.IConsultationService;
 import com.mycompany.Models.Appointment;
 import com.mycompany.Models.AppointmentStatus;
 import com.mycompany.Models.Consultation;
-import com.mycompany.Services.AppointmentService;
-import com.mycompany.Services.ConsultationService;
 import java.awt.HeadlessException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -21,8 +21,8 @@ import javax.swing.JOptionPane;
 public class FrmConsultationCreate extends javax.swing.JInternalFrame {
 
     private final Appointment appointment;
-    private final ConsultationService consultationService;
-    private final AppointmentService appointmentService;
+    private final IConsultationService consultationService;
+    private final IAppointmentService appointmentService;
     private final Runnable onConsultationCreated; // para refrescar UI
 
     /**
@@ -34,8 +34,8 @@ public class FrmConsultationCreate extends javax.swing.JInternalFrame {
      * @param onConsultationCreated
      */
     public FrmConsultationCreate(Appointment appointment,
-            ConsultationService consultationService,
-            AppointmentService appointmentService,
+            IConsultationService consultationService,
+            IAppointmentService appointmentService,
             Runnable onConsultationCreated) {
         initComponents();
         this.appointment = appointment;
@@ -4,8 +4,10 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.IConsultationService;
+import com.mycompany.Models.Consultation;
 import com.mycompany.Models.Doctor;
-import com.mycompany.Services.ConsultationService;
+import java.util.List;
 
 /**
  *
@@ -13,8 +15,10 @@ import com.mycompany.Services.ConsultationService;
  */
 public class FrmDoctorHistory extends javax.swing.JInternalFrame {
 
-    private final ConsultationService consultationService;
+    private final IConsultationService consultationService;
     private final Doctor doctor;
+    private final FormLoader loader;
+    private final PagedTableModel<Consultation> model;
 
     /**
      * Creates new form FrmDoctorHistory
@@ -22,37 +26,39 @@ public class FrmDoctorHistory extends javax.swing.JInternalFrame {
      * @param consultationService
      * @param doctor
      */
-    public FrmDoctorHistory(ConsultationService consultationService, Doctor doctor) {
+    public FrmDoctorHistory(IConsultationService consultationService, Doctor doctor) {
         initComponents();
         this.consultationService = consultationService;
         this.doctor = doctor;
         setSize(800, 500);
+        this.loader = new FormLoader(this);
 
-        loadConsultations();
-    }
+        // Modelo de tabla paginado: las consultas se traen y formatean al hacerse visibles
+        this.model = new PagedTableModel<>(loader, new PagedTableModel.PageSource<>() {
+            @Override
+            public int count() {
+                return consultationService.countConsultHistoryForDoctor(doctor.getId());
+            }
 
-    private void loadConsultations() {
-        // Traer las consultas del doctor
-        var consultations = consultationService.getConsultHistoryForDoctor(doctor.getId());
-        // Modelo de tabla
-        javax.swing.table.DefaultTableModel model = new javax.swing.table.DefaultTableModel(
-                new Object[]{"Date", "Patient", "Diagnosis", "Treatment"}, 0
-        ) {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // todas las celdas son solo lectura
+            public List<Consultation> page(int offset, int limit) {
+                return consultationService.getConsultHistoryForDoctor(doctor.getId(), offset, limit);
             }
-        };
+        }, List.of(
+                new PagedTableModel.Column<>("Date", Consultation::getRegistrationDateAsString),
+                new PagedTableModel.Column<>("Patient", c -> c.getAppointment().getPatient().getFullName()),
+                new PagedTableModel.Column<>("Diagnosis", Consultation::getDiagnosis),
+                new PagedTableModel.Column<>("Treatment", Consultation::getTreatment)), null);
 
-        // Llenar la tabla
-        for (var c : consultations) {
-            model.addRow(new Object[]{
-                c.getRegistrationDateAsString(),
-                c.getAppointment().getPatient().getFullName(),
-                c.getDiagnosis(),
-                c.getTreatment()});
-        }
+        configureTable();
+        loadConsultations();
+    }
+
+    private void loadConsultations() {
+        model.refresh();
+    }
 
+    private void configureTable() {
         tblConsultations.setModel(model);
 
         // Permitir scroll horizontal si el texto es muy largo
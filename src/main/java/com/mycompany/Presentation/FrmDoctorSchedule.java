@@ -4,10 +4,12 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.IAppointmentService;
+import com.mycompany.Models.Appointment;
 import com.mycompany.Models.AppointmentStatus;
 import com.mycompany.Models.Doctor;
-import com.mycompany.Services.AppointmentService;
 import com.mycompany.Services.ServiceLocator;
+import java.util.List;
 
 /**
  * Ventana interna {@code JInternalFrame} que muestra la agenda del doctor
@@ -20,13 +22,14 @@ public class FrmDoctorSchedule extends javax.swing.JInternalFrame {
 
     /**
      * Objeto de tipo {@link Doctor} que representa al usuario (doctor)
-     * actualmente autenticado. Objeto de tipo {@link AppointmentService} que
+     * actualmente autenticado. Objeto de tipo {@link IAppointmentService} que
      * representa al servicio. Objeto de tipo {@link Appointment} que son las
      * citas programadas del médico.
      */
-    private final AppointmentService appointmentService;
+    private final IAppointmentService appointmentService;
     private final Doctor doctor;
-    private java.util.List<com.mycompany.Models.Appointment> appointments;
+    private final FormLoader loader;
+    private final PagedTableModel<Appointment> model;
 
     /**
      * Creates new form FrmDoctorSchedule
@@ -34,10 +37,27 @@ public class FrmDoctorSchedule extends javax.swing.JInternalFrame {
      * @param appointmentService Servicio encargado de gestionar citas.
      * @param doctor doctor cuyas citas serán mostradas.
      */
-    public FrmDoctorSchedule(AppointmentService appointmentService, Doctor doctor) {
+    public FrmDoctorSchedule(IAppointmentService appointmentService, Doctor doctor) {
         initComponents();
         this.appointmentService = appointmentService;
         this.doctor = doctor;
+        this.loader = new FormLoader(this);
+        this.model = new PagedTableModel<>(loader, new PagedTableModel.PageSource<>() {
+            @Override
+            public int count() {
+                return appointmentService.countAppointmentsByDoctor(doctor.getId(), AppointmentStatus.PROGRAMADA);
+            }
+
+            @Override
+            public List<Appointment> page(int offset, int limit) {
+                return appointmentService.getAppointmentsByDoctor(doctor.getId(), AppointmentStatus.PROGRAMADA,
+                        offset, limit);
+            }
+        }, List.of(
+                new PagedTableModel.Column<>("Patient", a -> a.getPatient().getFullName()),
+                new PagedTableModel.Column<>("Document", a -> a.getPatient().getDocumentNumber()),
+                new PagedTableModel.Column<>("Date", Appointment::getScheduledAtAsString)), "Select");
+        tblSchedule.setModel(model);
 
         loadSchedule();
     }
@@ -45,61 +65,16 @@ public class FrmDoctorSchedule extends javax.swing.JInternalFrame {
     /**
      * Carga las citas programadas del doctor y las muestra en la tabla.
      * <p>
-     * Funciona sí:
-     * <ol>
-     * <li> Consulta al {@code AppointmenService} las citas del {@code Doctor}
-     * con estado PROGRAMADA.</li>
-     * <li> Construye un {@link  javax.swing.table.DefaultTableModel} con
-     * columnas "Patient", "Document", "Date", "Select" (siendo la última un
-     * checkbox).</li>
-     * <li> Puebla el modelo con los datos de las citas y lo asigna a
-     * {@code tblSchedule}.</li>
-     * <li> Agrega un {@code TableModelListener} para forzar que solo una fila
-     * pueda estar seleccionada en la columna de checkbox (usa
-     * {@link #enforceSingleSelection(javax.swing.table.DefaultTableModel, int, int)}).
-     * )</li>
-     * </ol>
+     * La tabla usa un {@link PagedTableModel} con columnas "Patient",
+     * "Document", "Date" y "Select" (siendo la última un checkbox en el que
+     * solo una fila puede estar marcada). Aquí solo se consulta al
+     * {@code IAppointmentService}, fuera del EDT, la cantidad de citas del
+     * {@code Doctor} con estado PROGRAMADA; cada página de citas se trae y se
+     * formatea cuando se hace visible.
+     * </p>
      */
     private void loadSchedule() {
-        // Obtener Citas Programadas del doctor
-        appointments = appointmentService.getAppointmentsByDoctor(doctor.getId(), AppointmentStatus.PROGRAMADA);
-
-        // Modelo de la tabla
-        javax.swing.table.DefaultTableModel model = new javax.swing.table.DefaultTableModel(
-                new Object[]{"Patient", "Document", "Date", "Select"}, 0
-        ) {
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                return (columnIndex == 3) ? Boolean.class : String.class;
-            }
-
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 3;
-            }
-        };
-
-        // Llenamos la tabla
-        for (var a : appointments) {
-            model.addRow(new Object[]{
-                a.getPatient().getFullName(),
-                a.getPatient().getDocumentNumber(),
-                a.getScheduledAtAsString(),
-                false});
-        }
-
-        tblSchedule.setModel(model);
-        model.addTableModelListener(e -> enforceSingleSelection(model, e.getFirstRow(), e.getColumn()));
-    }
-
-    private void enforceSingleSelection(javax.swing.table.DefaultTableModel model, int row, int column) {
-        if (column == 3 && Boolean.TRUE.equals(model.getValueAt(row, column))) {
-            for (int i = 0; i < model.getRowCount(); i++) {
-                if (i != row) {
-                    model.setValueAt(false, i, 3);
-                }
-            }
-        }
+        model.refresh();
     }
 
     /**
@@ -251,24 +226,14 @@ public class FrmDoctorSchedule extends javax.swing.JInternalFrame {
     }//GEN-LAST:event_btnCancelActionPerformed
 
     private void btnRegisterConsultationActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnRegisterConsultationActionPerformed
-        int selectedRow = -1;
-        var model = (javax.swing.table.DefaultTableModel) tblSchedule.getModel();
-
-        for (int i = 0; i < model.getRowCount(); i++) {
-            if (Boolean.TRUE.equals(model.getValueAt(i, 3))) {
-                selectedRow = i;
-                break;
-            }
-        }
+        // Obtenemos la cita seleccionada
+        var appointment = model.getSelectedItem();
 
-        if (selectedRow == -1) {
+        if (appointment == null) {
             javax.swing.JOptionPane.showMessageDialog(this, "Please select one appointment to register a consultation.");
             return;
         }
 
-        // Obtenemos la cita seleccionada
-        var appointment = appointments.get(selectedRow);
-
         // Creamos el frame de consulta
         FrmConsultationCreate frm = new FrmConsultationCreate(
                 appointment,
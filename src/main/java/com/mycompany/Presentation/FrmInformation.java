@@ -4,9 +4,9 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.IDoctorService;
+import com.mycompany.Interfaces.IPatientService;
 import com.mycompany.Models.User;
-import com.mycompany.Services.DoctorService;
-import com.mycompany.Services.PatientService;
 import com.mycompany.Services.ServiceLocator;
 import java.awt.HeadlessException;
 
@@ -17,8 +17,8 @@ import java.awt.HeadlessException;
 public class FrmInformation extends javax.swing.JInternalFrame {
 
     private final User user;
-    private final DoctorService doctorService;
-    private final PatientService patientService;
+    private final IDoctorService doctorService;
+    private final IPatientService patientService;
 
     /**
      * Creates new form FrmInformation
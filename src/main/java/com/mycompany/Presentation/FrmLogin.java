@@ -9,7 +9,10 @@ import com.mycompany.Models.Patient;
 import com.mycompany.Models.User;
 import com.mycompany.Services.AuthenticationService;
 import com.mycompany.Services.ServiceLocator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 /**
  *
@@ -17,7 +20,7 @@ import javax.swing.JOptionPane;
  */
 public class FrmLogin extends javax.swing.JFrame {
 
-    private final AuthenticationService authenticationService;
+    private final CompletableFuture<AuthenticationService> authenticationService;
 
     /**
      * Creates new form FrmLogin
@@ -26,9 +29,44 @@ public class FrmLogin extends javax.swing.JFrame {
      *
      */
     public FrmLogin(AuthenticationService auth) {
+        this(CompletableFuture.completedFuture(auth));
+    }
+
+    /**
+     * Crea el formulario antes de que los servicios estén listos, para mostrarlo
+     * mientras se cargan los datos. Las acciones que se pidan antes esperan a que
+     * {@code auth} se complete, momento en el que también debe estar inicializado el
+     * {@link ServiceLocator}.
+     *
+     * @param auth servicio de autenticación, disponible cuando termine el arranque
+     */
+    public FrmLogin(CompletableFuture<AuthenticationService> auth) {
         initComponents();
         this.authenticationService = auth;
+    }
 
+    /**
+     * Ejecuta una acción en el EDT cuando los servicios estén listos. Mientras tanto los
+     * botones quedan deshabilitados.
+     */
+    private void whenReady(Runnable action) {
+        if (authenticationService.isDone() && !authenticationService.isCompletedExceptionally()) {
+            action.run();
+            return;
+        }
+        btnLogin.setEnabled(false);
+        btnRegister.setEnabled(false);
+        authenticationService.whenComplete((auth, error) -> SwingUtilities.invokeLater(() -> {
+            btnLogin.setEnabled(true);
+            btnRegister.setEnabled(true);
+            if (error != null) {
+                System.err.println("Error al cargar los datos: " + error.getMessage());
+                JOptionPane.showMessageDialog(this, "The data could not be loaded.",
+                        "Login Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            action.run();
+        }));
     }
 
     /**
@@ -170,18 +208,35 @@ public class FrmLogin extends javax.swing.JFrame {
         //Se agrega una verificación especial que permita identificar si es administrador
         if ((username != null && !passwordString.isBlank())
                 && (username.equals("admin") && passwordString.equals("admin"))) {
-            FrmAdminMenu adminMenu = new FrmAdminMenu();
-            adminMenu.setVisible(true);
-            this.dispose();
+            whenReady(() -> {
+                FrmAdminMenu adminMenu = new FrmAdminMenu();
+                adminMenu.setVisible(true);
+                this.dispose();
+            });
             return;
         }
-        //Se utiliza el servicio de autenticación:
-        if (authenticationService.login(username, passwordString).isPresent()) {
+        //Se utiliza el servicio de autenticación. La verificación de la contraseña es
+        //costosa, así que corre fuera del hilo de la interfaz y el resultado vuelve a él.
+        //Si los usuarios todavía se están cargando, la verificación espera a que terminen.
+        btnLogin.setEnabled(false);
+        authenticationService.thenCompose(auth -> auth.loginAsync(username, passwordString))
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                    btnLogin.setEnabled(true);
+                    if (error != null) {
+                        System.err.println("Error al iniciar sesión: " + error.getMessage());
+                    }
+                    showLoginResult(error == null ? result : Optional.empty());
+                }));
+
+    }//GEN-LAST:event_btnLoginActionPerformed
+
+    private void showLoginResult(Optional<User> result) {
+        if (result.isPresent()) {
             //Si la autenticación es exitosa:
             JOptionPane.showMessageDialog(this, "Authentication Succesful", "Login",
                     JOptionPane.INFORMATION_MESSAGE);
             //Se muestra el menú de médico o paciente:
-            User user = authenticationService.getCurrentUser().get();
+            User user = result.get();
             if (user instanceof Doctor) {
                 //Instancia su menú:
                 FrmDoctorMenu menu = new FrmDoctorMenu((Doctor) user);
@@ -198,16 +253,17 @@ public class FrmLogin extends javax.swing.JFrame {
                     + "check your username and password.",
                     "Login Error", JOptionPane.ERROR_MESSAGE);
         }
-
-    }//GEN-LAST:event_btnLoginActionPerformed
+    }
 
     private void btnRegisterActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnRegisterActionPerformed
         //Cierra este frame y abre el frame de registro de pacientes
-        FrmRegisterPatient register = new FrmRegisterPatient(ServiceLocator.
-                getInstance().
-                getPatientService());
-        register.setVisible(true);
-        this.dispose();
+        whenReady(() -> {
+            FrmRegisterPatient register = new FrmRegisterPatient(ServiceLocator.
+                    getInstance().
+                    getPatientService());
+            register.setVisible(true);
+            this.dispose();
+        });
 
     }//GEN-LAST:event_btnRegisterActionPerformed
 
@@ -4,15 +4,15 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.IAppointmentService;
+import com.mycompany.Interfaces.IDoctorService;
+import com.mycompany.Interfaces.IPatientService;
 import com.mycompany.Models.Appointment;
 import com.mycompany.Models.AppointmentStatus;
 import com.mycompany.Models.Doctor;
 import com.mycompany.Models.Patient;
 import com.mycompany.Models.User;
-import com.mycompany.Services.AppointmentService;
 import com.mycompany.Services.AuthenticationService;
-import com.mycompany.Services.DoctorService;
-import com.mycompany.Services.PatientService;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -27,8 +27,8 @@ import javax.swing.JOptionPane;
  */
 public class FrmNewAppointment extends javax.swing.JInternalFrame {
 
-    private final AppointmentService appointmentService; 
-    private final DoctorService doctorService;
+    private final IAppointmentService appointmentService; 
+    private final IDoctorService doctorService;
     private final Patient patient;
     
     private List<Doctor> doctorsList;
@@ -40,7 +40,7 @@ public class FrmNewAppointment extends javax.swing.JInternalFrame {
      * @param patientService
      * @param patient
      */
-    public FrmNewAppointment(AppointmentService appointmentService, DoctorService doctorService, PatientService patientService, Patient patient) {
+    public FrmNewAppointment(IAppointmentService appointmentService, IDoctorService doctorService, IPatientService patientService, Patient patient) {
         initComponents();
         this.appointmentService = appointmentService;
         this.doctorService = doctorService;
@@ -67,41 +67,9 @@ public class FrmNewAppointment extends javax.swing.JInternalFrame {
         }
     }
     
-    private boolean isDoctorAvailable(Doctor doctor, LocalDateTime dateTime) {
-        // Obtener todas las citas del doctor
-        List<Appointment> doctorAppointments = this.appointmentService.getAppointmentsByDoctor(doctor.getId(), AppointmentStatus.PROGRAMADA);
-
-        if (doctorAppointments == null || doctorAppointments.isEmpty()) {
-            return true; // Doctor disponible si no tiene citas
-        }
-
-        // Verificar si el doctor tiene una cita en la fecha y hora seleccionadas
-        for (Appointment appointment : doctorAppointments) {
-            LocalDateTime appointmentDateTime = appointment.getScheduledAt();
-
-            // Si coincide la fecha y hora exacta, el doctor NO está disponible
-            if (appointmentDateTime.equals(dateTime)) {
-                return false;
-            }
-
-            // También verificar si hay conflicto considerando la duración
-            LocalDateTime appointmentEnd = appointmentDateTime.plus(appointment.getDuration());
-            LocalDateTime newAppointmentEnd = dateTime.plus(Duration.ofHours(1));
-            
-            if (appointmentEnd == null){
-                return false;
-            }
-            
-            // Verificar si hay solapamiento de horarios
-            if ((dateTime.isBefore(appointmentEnd) && dateTime.isAfter(appointmentDateTime)) ||
-                (newAppointmentEnd.isAfter(appointmentDateTime) && newAppointmentEnd.isBefore(appointmentEnd)) ||
-                (dateTime.isBefore(appointmentDateTime) && newAppointmentEnd.isAfter(appointmentEnd))) {
-                return false;
-            }
-            
-        }
-    
-        return true; // Doctor disponible
+    private boolean isDoctorAvailable(Doctor doctor, LocalDateTime dateTime, Duration duration) {
+        // La agenda del doctor se consulta en el servicio, que también valida al agendar
+        return this.appointmentService.isDoctorAvailable(doctor.getId(), dateTime, duration);
     }
     /**
      * This method is called from within the constructor to initialize the form.
@@ -327,7 +295,7 @@ public class FrmNewAppointment extends javax.swing.JInternalFrame {
         System.out.println("Paciente: " + patient.getFullName() + " (ID: " + patient.getId() + ")");
         System.out.println("Duración: " + duration);
         
-        if (!isDoctorAvailable(doctor, dateTimeFinal)) {
+        if (!isDoctorAvailable(doctor, dateTimeFinal, duration)) {
             JOptionPane.showMessageDialog(this, 
                 "Sorry, Dr. " + doctor.getFullName() + " is not available at that date and time.\n" +
                 "Please select a different doctor or time slot.", 
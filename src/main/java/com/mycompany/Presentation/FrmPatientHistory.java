@@ -4,9 +4,11 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.IAppointmentService;
+import com.mycompany.Interfaces.IConsultationService;
+import com.mycompany.Models.Consultation;
 import com.mycompany.Models.Patient;
-import com.mycompany.Services.AppointmentService;
-import com.mycompany.Services.ConsultationService;
+import java.util.List;
 
 /**
  *
@@ -14,9 +16,11 @@ import com.mycompany.Services.ConsultationService;
  */
 public class FrmPatientHistory extends javax.swing.JInternalFrame {
 
-    private final AppointmentService appointmentService;
+    private final IAppointmentService appointmentService;
     private final Patient patient;
-    private final ConsultationService consultationService;
+    private final IConsultationService consultationService;
+    private final FormLoader loader;
+    private final PagedTableModel<Consultation> model;
 
     /**
      * Creates new form FrmPatientHistory
@@ -25,39 +29,40 @@ public class FrmPatientHistory extends javax.swing.JInternalFrame {
      * @param consultationService
      * @param patient
      */
-    public FrmPatientHistory(AppointmentService appointmentService, ConsultationService consultationService,
+    public FrmPatientHistory(IAppointmentService appointmentService, IConsultationService consultationService,
              Patient patient) {
         initComponents();
         this.appointmentService = appointmentService;
         this.consultationService = consultationService;
         this.patient = patient;
+        this.loader = new FormLoader(this);
 
+        // Modelo de tabla paginado: las consultas se traen y formatean al hacerse visibles
+        this.model = new PagedTableModel<>(loader, new PagedTableModel.PageSource<>() {
+            @Override
+            public int count() {
+                return consultationService.countConsultHistoryForPatient(patient.getId());
+            }
+
+            @Override
+            public List<Consultation> page(int offset, int limit) {
+                return consultationService.getConsultHistoryForPatient(patient.getId(), offset, limit);
+            }
+        }, List.of(
+                new PagedTableModel.Column<>("Date", Consultation::getRegistrationDateAsString),
+                new PagedTableModel.Column<>("Doctor", c -> c.getAppointment().getDoctor().getFullName()),
+                new PagedTableModel.Column<>("Diagnosis", Consultation::getDiagnosis),
+                new PagedTableModel.Column<>("Treatment", Consultation::getTreatment)), null);
+
+        configureTable();
         loadPatientAppointments();
     }
 
     private void loadPatientAppointments() {
-        // Traer las citas del paciente
-        var consultations = consultationService.getConsultHistoryForPatient(patient.getId());
-        // Modelo de tabla
-        javax.swing.table.DefaultTableModel model = new javax.swing.table.DefaultTableModel(
-                new Object[]{"Date", "Doctor", "Diagnosis", "Treatment"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // todas las celdas son solo lectura
-            }
-        };
-
-        //Llenar la tabla con las consultations
-        for (var c : consultations) {
-            model.addRow(new Object[]{
-                c.getRegistrationDateAsString(),
-                c.getAppointment().getDoctor().getFullName(),
-                c.getDiagnosis(),
-                c.getTreatment()
-            });
-        }
+        model.refresh();
+    }
 
+    private void configureTable() {
         tblAppointments.setModel(model);
 
         // Permitir scroll horizontal si el texto es muy largo
@@ -4,8 +4,8 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.IPatientService;
 import com.mycompany.Models.Patient;
-import com.mycompany.Services.PatientService;
 import com.mycompany.Services.ServiceLocator;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
@@ -18,7 +18,7 @@ import javax.swing.JOptionPane;
 public class FrmRegisterPatient extends javax.swing.JFrame {
 
     //El método debe conocer al servicio para pasarle los datos que recibe
-    private final PatientService patientService;
+    private final IPatientService patientService;
 
     /**
      * Creates new form FrmRegisterPatient
@@ -27,7 +27,7 @@ public class FrmRegisterPatient extends javax.swing.JFrame {
      * subyacente.
      * 
      */
-    public FrmRegisterPatient(PatientService patientService) {
+    public FrmRegisterPatient(IPatientService patientService) {
         initComponents();
         this.patientService = patientService;
 
@@ -4,11 +4,9 @@
  */
 package com.mycompany.Presentation;
 
-import com.mycompany.Models.Appointment;
-import com.mycompany.Models.AppointmentStatus;
+import com.mycompany.Interfaces.IAppointmentService;
+import com.mycompany.Interfaces.IDoctorService;
 import com.mycompany.Models.Doctor;
-import com.mycompany.Services.AppointmentService;
-import com.mycompany.Services.DoctorService;
 import com.mycompany.Services.ServiceLocator;
 import java.util.List;
 import javax.swing.DefaultListModel;
@@ -20,9 +18,10 @@ import javax.swing.JOptionPane;
  */
 public class FrmRemoveDoctorMenu extends javax.swing.JInternalFrame {
 
-    private final DoctorService doctorService;
-    private final AppointmentService appointmentService;
+    private final IDoctorService doctorService;
+    private final IAppointmentService appointmentService;
     private DefaultListModel<String> doctorsList;
+    private final FormLoader loader;
 
     /**
      * Creates new form FrmRemoveDoctorMenu
@@ -30,11 +29,12 @@ public class FrmRemoveDoctorMenu extends javax.swing.JInternalFrame {
      * @param doctorService el servicio de médicos
      * @param appointmentService el servicio de citas
      */
-    public FrmRemoveDoctorMenu(DoctorService doctorService, AppointmentService appointmentService) {
+    public FrmRemoveDoctorMenu(IDoctorService doctorService, IAppointmentService appointmentService) {
         initComponents();
         this.doctorsList = new DefaultListModel<>();//Para que la lista sea dinámica
         this.doctorService = doctorService; //Servicio de médicos
         this.appointmentService = appointmentService; // Servicio de citas
+        this.loader = new FormLoader(this); //Consultas fuera del EDT
         initListDynamicModel();
         loadDoctorsList();
     }
@@ -51,11 +51,13 @@ public class FrmRemoveDoctorMenu extends javax.swing.JInternalFrame {
     }
 
     private void loadDoctorsList() {
+        loader.load(doctorService::listAllDoctors, this::showDoctorsList); //Lista médicos activos
+    }
+
+    private void showDoctorsList(List<Doctor> doctors) {
         //Limpia la lista
         this.doctorsList.clear();
 
-        List<Doctor> doctors = doctorService.listAllDoctors(); //Lista médicos activos
-
         if (doctors == null || doctors.isEmpty()) {
             JOptionPane.showMessageDialog(this, "There are no Doctors Available.",
                     "Empty List",
@@ -209,23 +211,18 @@ public class FrmRemoveDoctorMenu extends javax.swing.JInternalFrame {
                 JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            doctorService.removeDoctor(id);
-            //Cancelar citas del médico desactivado
-            List<Appointment> list
-                    = appointmentService.
-                            getAppointmentsByDoctor(id, AppointmentStatus.PROGRAMADA);
-
-            if (!list.isEmpty()) {
-                for (Appointment appointment : list) {
-                    appointmentService.
-                            updateAppointmentStatus(appointment.getId(),
-                                    AppointmentStatus.CANCELADA);
-                }
-            }
-
-            System.out.println("=== DEBUG INFO ===");
-            System.out.println("Doctor desactivdo: " + selected);
-            loadDoctorsList();
+            brnDelete.setEnabled(false);
+            loader.run(() -> {
+                boolean removed = doctorService.removeDoctor(id);
+                //Cancelar citas del médico desactivado
+                appointmentService.cancelAllForDoctor(id);
+                return removed;
+            }, removed -> {
+                brnDelete.setEnabled(true);
+                System.out.println("=== DEBUG INFO ===");
+                System.out.println("Doctor desactivdo: " + selected);
+                loadDoctorsList();
+            }, e -> brnDelete.setEnabled(true));
 
         }
     }//GEN-LAST:event_brnDeleteActionPerformed
@@ -4,10 +4,12 @@
  */
 package com.mycompany.Presentation;
 
+import com.mycompany.Interfaces.IAppointmentService;
+import com.mycompany.Models.Appointment;
 import com.mycompany.Models.AppointmentStatus;
 import com.mycompany.Models.Consultation;
 import com.mycompany.Models.Patient;
-import com.mycompany.Services.AppointmentService;
+import java.util.List;
 import javax.swing.JOptionPane;
 
 /**
@@ -16,8 +18,10 @@ import javax.swing.JOptionPane;
  */
 public class FrmScheduledAppointments extends javax.swing.JInternalFrame {
 
-    private final AppointmentService appointmentService;
+    private final IAppointmentService appointmentService;
     private final Patient patient;
+    private final FormLoader loader;
+    private final PagedTableModel<Appointment> model;
 
     /**
      * Creates new form FrmScheduledAppointments
@@ -25,10 +29,27 @@ public class FrmScheduledAppointments extends javax.swing.JInternalFrame {
      * @param appointmentService
      * @param patient
      */
-    public FrmScheduledAppointments(AppointmentService appointmentService, Patient patient) {
+    public FrmScheduledAppointments(IAppointmentService appointmentService, Patient patient) {
         initComponents();
         this.appointmentService = appointmentService;
         this.patient = patient;
+        this.loader = new FormLoader(this);
+        this.model = new PagedTableModel<>(loader, new PagedTableModel.PageSource<>() {
+            @Override
+            public int count() {
+                return appointmentService.countAppointmentsByPatient(patient.getId(), AppointmentStatus.PROGRAMADA);
+            }
+
+            @Override
+            public List<Appointment> page(int offset, int limit) {
+                return appointmentService.getAppointmentsByPatient(patient.getId(), AppointmentStatus.PROGRAMADA,
+                        offset, limit);
+            }
+        }, List.of(
+                new PagedTableModel.Column<>("Doctor", a -> a.getDoctor().getFullName()),
+                new PagedTableModel.Column<>("Date", Appointment::getScheduledAtAsString)), "Select");
+        configureTable();
+        installTooltips();
         loadPatientAppointments();
 
         addInternalFrameListener(new javax.swing.event.InternalFrameAdapter() {
@@ -40,42 +61,12 @@ public class FrmScheduledAppointments extends javax.swing.JInternalFrame {
     }
 
     private void loadPatientAppointments() {
-        // Traer las citas del paciente (citas programadas)
-        var appointments = appointmentService.getAppointmentsByPatient(patient.getId(), AppointmentStatus.PROGRAMADA);
-
-        // Modelo de la tabla
-        javax.swing.table.DefaultTableModel model = new javax.swing.table.DefaultTableModel(
-                new Object[]{"Doctor", "Date", "Select"}, 0
-        ) {
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                return (columnIndex == 2) ? Boolean.class : String.class;
-            }
-
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 2;
-            }
-        };
-
-        if (appointments != null && !appointments.isEmpty()) {
-            for (var a : appointments) {
-                model.addRow(new Object[]{
-                    a.getDoctor().getFullName(),
-                    a.getScheduledAtAsString(),
-                    Boolean.FALSE
-                });
-            }
-        } else {
-            System.out.println("No hay citas programadas para mostrar");
-        }
+        // Traer las citas del paciente (citas programadas) por páginas, fuera del EDT
+        model.refresh();
+    }
 
+    private void configureTable() {
         tblSchedule.setModel(model);
-        model.addTableModelListener(e -> {
-            if (e.getColumn() == 2) {
-                enforceSingleSelection(model, e.getFirstRow(), e.getColumn());
-            }
-        });
 
         // Permitir scroll horizontal si el texto es muy largo
         jScrollPane1.setHorizontalScrollBarPolicy(javax.swing.ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
@@ -84,7 +75,9 @@ public class FrmScheduledAppointments extends javax.swing.JInternalFrame {
         // Ajustar anchos iniciales de columnas (se pueden ajustar al gusto)
         tblSchedule.getColumnModel().getColumn(0).setPreferredWidth(240); // Doctor
         tblSchedule.getColumnModel().getColumn(1).setPreferredWidth(238); // Date
+    }
 
+    private void installTooltips() {
         // Tooltip para mostrar texto completo al pasar el mouse
         tblSchedule.addMouseMotionListener(new java.awt.event.MouseMotionAdapter() {
             @Override
@@ -103,16 +96,6 @@ public class FrmScheduledAppointments extends javax.swing.JInternalFrame {
         });
     }
 
-    private void enforceSingleSelection(javax.swing.table.DefaultTableModel model, int row, int column) {
-        if (column == 2 && Boolean.TRUE.equals(model.getValueAt(row, column))) {
-            for (int i = 0; i < model.getRowCount(); i++) {
-                if (i != row) {
-                    model.setValueAt(false, i, 2); //
-                }
-            }
-        }
-    }
-
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -257,18 +240,9 @@ public class FrmScheduledAppointments extends javax.swing.JInternalFrame {
     }//GEN-LAST:event_btnBackMouseClicked
 
     private void btnCancelAppointmentMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_btnCancelAppointmentMouseClicked
-        //Verificar si hay una cita seleccionada
-        javax.swing.table.DefaultTableModel model = (javax.swing.table.DefaultTableModel) tblSchedule.getModel();
-
-        int selectedRow = -1;
-        for (int i = 0; i < model.getRowCount(); i++) {
-            Boolean isSelected = (Boolean) model.getValueAt(i, 2); // Columna "Select"
-            if (isSelected != null && isSelected) {
-                selectedRow = i;
-                break;
-            }
-        }
-        if (selectedRow == -1) {
+        //Verificar si hay una cita seleccionada (columna "Select")
+        var appointmentToCancel = model.getSelectedItem();
+        if (appointmentToCancel == null) {
             JOptionPane.showMessageDialog(this,
                     "Please select an appointment to cancel",
                     "No Selection",
@@ -276,8 +250,8 @@ public class FrmScheduledAppointments extends javax.swing.JInternalFrame {
             return; // Salir del método
         }
         // ✅ PASO 3: Confirmar la cancelación
-        String doctorName = (String) model.getValueAt(selectedRow, 0);
-        String dateTime = (String) model.getValueAt(selectedRow, 1);
+        String doctorName = appointmentToCancel.getDoctor().getFullName();
+        String dateTime = appointmentToCancel.getScheduledAtAsString();
 
         int option = JOptionPane.showConfirmDialog(
                 this,
@@ -290,44 +264,36 @@ public class FrmScheduledAppointments extends javax.swing.JInternalFrame {
         );
 
         if (option == JOptionPane.YES_OPTION) {
-            try {
-                //Obtener la cita correspondiente
-                var appointments = appointmentService.getAppointmentsByPatient(
-                        patient.getId(),
-                        AppointmentStatus.PROGRAMADA
-                );
-
-                if (appointments != null && selectedRow < appointments.size()) {
-                    var appointmentToCancel = appointments.get(selectedRow);
-
-                    System.out.println("Cancelando cita ID: " + appointmentToCancel.getId());
-
-                    //Cancelar la cita usando el servicio
-                    boolean success = appointmentService.updateAppointmentStatus(appointmentToCancel.getId(), AppointmentStatus.CANCELADA);
-
-                    if (success) {
+            System.out.println("Cancelando cita ID: " + appointmentToCancel.getId());
+
+            //Cancelar la cita usando el servicio, fuera del EDT
+            btnCancelAppointment.setEnabled(false);
+            loader.run(() -> appointmentService.updateAppointmentStatus(appointmentToCancel.getId(), AppointmentStatus.CANCELADA),
+                    success -> {
+                        btnCancelAppointment.setEnabled(true);
+                        if (success) {
+                            JOptionPane.showMessageDialog(this,
+                                    "Appointment cancelled successfully!",
+                                    "Success",
+                                    JOptionPane.INFORMATION_MESSAGE);
+
+                            //Recargar la tabla
+                            loadPatientAppointments();
+                        } else {
+                            JOptionPane.showMessageDialog(this,
+                                    "Failed to cancel appointment. Please try again.",
+                                    "Error",
+                                    JOptionPane.ERROR_MESSAGE);
+                        }
+                    },
+                    e -> {
+                        btnCancelAppointment.setEnabled(true);
+                        System.err.println("Error al cancelar cita: " + e.getMessage());
                         JOptionPane.showMessageDialog(this,
-                                "Appointment cancelled successfully!",
-                                "Success",
-                                JOptionPane.INFORMATION_MESSAGE);
-
-                        //Recargar la tabla
-                        loadPatientAppointments();
-                    } else {
-                        JOptionPane.showMessageDialog(this,
-                                "Failed to cancel appointment. Please try again.",
+                                "Error cancelling appointment: " + e.getMessage(),
                                 "Error",
                                 JOptionPane.ERROR_MESSAGE);
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("Error al cancelar cita: " + e.getMessage());
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this,
-                        "Error cancelling appointment: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
-            }
+                    });
         } else {
             System.out.println("Cancelación abortada por el usuario");
         }
@@ -0,0 +1,265 @@
+package com.mycompany.Presentation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de tabla virtual que pide los datos por páginas a un servicio a medida que las
+ * filas se vuelven visibles.
+ *
+ * <p>
+ * Solo se conoce de antemano la cantidad de filas. Cuando la tabla pide el valor de una
+ * fila cuya página no está en memoria, la página se consulta y se formatea fuera del EDT
+ * con el {@link FormLoader} del formulario; mientras tanto la celda se muestra vacía y,
+ * al llegar la página, se repintan sus filas. Se conservan como máximo
+ * {@code maxPages} páginas ya formateadas (las menos usadas se descartan), así que la
+ * memoria no depende del largo del historial.
+ * </p>
+ *
+ * <p>
+ * Opcionalmente agrega al final una columna de casillas de selección en la que solo una
+ * fila puede estar marcada. Todos los métodos deben llamarse desde el EDT.
+ * </p>
+ *
+ * @param <T> Tipo de los elementos de cada fila.
+ */
+final class PagedTableModel<T> extends AbstractTableModel {
+
+    /**
+     * Origen paginado de las filas, normalmente un método de un servicio.
+     *
+     * @param <T> Tipo de los elementos.
+     */
+    interface PageSource<T> {
+
+        /**
+         * @return cantidad total de filas
+         */
+        int count();
+
+        /**
+         * @param offset índice de la primera fila
+         * @param limit  cantidad máxima de filas
+         * @return filas desde {@code offset}, como máximo {@code limit}
+         */
+        List<T> page(int offset, int limit);
+    }
+
+    /**
+     * Columna de solo lectura.
+     *
+     * @param name  encabezado
+     * @param value función que calcula el valor mostrado a partir del elemento
+     * @param <T>   tipo de los elementos
+     */
+    record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    /**
+     * Filas por página por defecto.
+     */
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Páginas formateadas que se conservan por defecto.
+     */
+    static final int DEFAULT_MAX_PAGES = 10;
+
+    private record Page<T>(List<T> items, Object[][] cells) {
+    }
+
+    private final FormLoader loader;
+    private final PageSource<T> source;
+    private final List<Column<T>> columns;
+    private final String selectionColumn;
+    private final int pageSize;
+    private final Map<Integer, Page<T>> pages;
+    private final Set<Integer> requested = new HashSet<>();
+    private int rowCount;
+    private int selectedRow = -1;
+    private T selectedItem;
+    private long generation;
+
+    /**
+     * @param loader          cargador del formulario, usado para las consultas
+     * @param source          origen de las filas
+     * @param columns         columnas de datos, en orden
+     * @param selectionColumn encabezado de la columna de selección, o {@code null} para no agregarla
+     */
+    PagedTableModel(FormLoader loader, PageSource<T> source, List<Column<T>> columns, String selectionColumn) {
+        this(loader, source, columns, selectionColumn, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    /**
+     * @param loader          cargador del formulario, usado para las consultas
+     * @param source          origen de las filas
+     * @param columns         columnas de datos, en orden
+     * @param selectionColumn encabezado de la columna de selección, o {@code null} para no agregarla
+     * @param pageSize        filas por página
+     * @param maxPages        páginas formateadas que se conservan
+     * @throws IllegalArgumentException si {@code pageSize} o {@code maxPages} no son positivos
+     */
+    PagedTableModel(FormLoader loader, PageSource<T> source, List<Column<T>> columns, String selectionColumn,
+            int pageSize, int maxPages) {
+        if (pageSize <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("El tamaño de página y la cantidad de páginas deben ser positivos");
+        }
+        this.loader = loader;
+        this.source = source;
+        this.columns = List.copyOf(columns);
+        this.selectionColumn = selectionColumn;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Descarta las páginas en memoria y la selección, y vuelve a consultar la cantidad de
+     * filas. Las páginas se piden de nuevo cuando la tabla las muestre.
+     */
+    void refresh() {
+        generation++;
+        pages.clear();
+        requested.clear();
+        selectedRow = -1;
+        selectedItem = null;
+        loader.load(source::count, count -> {
+            rowCount = count;
+            fireTableDataChanged();
+        });
+    }
+
+    /**
+     * @return fila marcada en la columna de selección, o -1 si no hay ninguna
+     */
+    int getSelectedRow() {
+        return selectedRow;
+    }
+
+    /**
+     * @return elemento de la fila marcada en la columna de selección, o {@code null} si no
+     * hay ninguna
+     */
+    T getSelectedItem() {
+        return selectedItem;
+    }
+
+    /**
+     * Devuelve el elemento de una fila si su página está en memoria (las filas visibles
+     * lo están).
+     *
+     * @param row índice de la fila
+     * @return elemento de la fila, o {@code null} si su página no está cargada
+     */
+    T getItem(int row) {
+        Page<T> page = pages.get(row / pageSize);
+        int offset = row % pageSize;
+        return page != null && offset < page.items().size() ? page.items().get(offset) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size() + (selectionColumn != null ? 1 : 0);
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return column < columns.size() ? columns.get(column).name() : selectionColumn;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column < columns.size() ? Object.class : Boolean.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column >= columns.size();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column >= columns.size()) {
+            return row == selectedRow;
+        }
+        int pageIndex = row / pageSize;
+        Page<T> page = pages.get(pageIndex);
+        if (page == null) {
+            request(pageIndex);
+            return null;
+        }
+        int offset = row % pageSize;
+        return offset < page.cells().length ? page.cells()[offset][column] : null;
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        if (column < columns.size()) {
+            return;
+        }
+        int previous = selectedRow;
+        if (Boolean.TRUE.equals(value)) {
+            T item = getItem(row);
+            if (item == null) {
+                return; // La página todavía no llegó
+            }
+            selectedRow = row;
+            selectedItem = item;
+        } else if (row == selectedRow) {
+            selectedRow = -1;
+            selectedItem = null;
+        }
+        if (previous >= 0 && previous != selectedRow && previous < rowCount) {
+            fireTableCellUpdated(previous, column);
+        }
+        fireTableCellUpdated(row, column);
+    }
+
+    private void request(int pageIndex) {
+        if (!requested.add(pageIndex)) {
+            return;
+        }
+        long current = generation;
+        int offset = pageIndex * pageSize;
+        loader.run(() -> format(source.page(offset, pageSize)), page -> {
+            if (current != generation) {
+                return;
+            }
+            requested.remove(pageIndex);
+            pages.put(pageIndex, page);
+            int last = Math.min(rowCount, offset + pageSize) - 1;
+            if (last >= offset) {
+                fireTableRowsUpdated(offset, last);
+            }
+        }, e -> requested.remove(pageIndex));
+    }
+
+    /**
+     * Formatea una página fuera del EDT.
+     */
+    private Page<T> format(List<T> items) {
+        List<T> copy = new ArrayList<>(items);
+        Object[][] cells = new Object[copy.size()][columns.size()];
+        for (int row = 0; row < copy.size(); row++) {
+            for (int column = 0; column < columns.size(); column++) {
+                cells[row][column] = columns.get(column).value().apply(copy.get(row));
+            }
+        }
+        return new Page<>(copy, cells);
+    }
+}
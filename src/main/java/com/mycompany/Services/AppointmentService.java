@@ -5,33 +5,65 @@
 package com.mycompany.Services;
 
 import com.mycompany.Interfaces.IAppointmentRepository;
+import com.mycompany.Interfaces.IAppointmentService;
+import com.mycompany.Interfaces.PageRequest;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Metrics.OperationMetrics;
 import com.mycompany.Models.Appointment;
 import com.mycompany.Models.AppointmentStatus;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  *
  * @author mateo
  */
-public class AppointmentService {
+public class AppointmentService implements IAppointmentService {
+
+    // Métricas de cada operación pública (ver MetricsRegistry)
+    private static final OperationMetrics SCHEDULE_APPOINTMENT = MetricsRegistry.operation("AppointmentService.scheduleAppointment");
+    private static final OperationMetrics UPDATE_APPOINTMENT_STATUS = MetricsRegistry.operation("AppointmentService.updateAppointmentStatus");
+    private static final OperationMetrics UPDATE_STATES = MetricsRegistry.operation("AppointmentService.updateStates");
+    private static final OperationMetrics CANCEL_ALL_FOR_DOCTOR = MetricsRegistry.operation("AppointmentService.cancelAllForDoctor");
+    private static final OperationMetrics GET_APPOINTMENTS_BY_DOCTOR = MetricsRegistry.operation("AppointmentService.getAppointmentsByDoctor");
+    private static final OperationMetrics GET_APPOINTMENTS_BY_PATIENT = MetricsRegistry.operation("AppointmentService.getAppointmentsByPatient");
+    private static final OperationMetrics COUNT_APPOINTMENTS_BY_DOCTOR = MetricsRegistry.operation("AppointmentService.countAppointmentsByDoctor");
+    private static final OperationMetrics GET_APPOINTMENTS_BY_DOCTOR_PAGE = MetricsRegistry.operation("AppointmentService.getAppointmentsByDoctorPage");
+    private static final OperationMetrics COUNT_APPOINTMENTS_BY_PATIENT = MetricsRegistry.operation("AppointmentService.countAppointmentsByPatient");
+    private static final OperationMetrics GET_APPOINTMENTS_BY_PATIENT_PAGE = MetricsRegistry.operation("AppointmentService.getAppointmentsByPatientPage");
+    private static final OperationMetrics IS_DOCTOR_AVAILABLE = MetricsRegistry.operation("AppointmentService.isDoctorAvailable");
+    private static final OperationMetrics GET_NEXT_FREE_SLOTS = MetricsRegistry.operation("AppointmentService.getNextFreeSlots");
+    private static final OperationMetrics GET_FREE_SLOTS_ON = MetricsRegistry.operation("AppointmentService.getFreeSlotsOn");
+    private static final OperationMetrics GET_APPOINTMENT_BY_DATE = MetricsRegistry.operation("AppointmentService.getAppointmentByDate");
 
     private final IAppointmentRepository repo;
+    private final AvailabilityService availability;
 
     public AppointmentService(IAppointmentRepository repo) {
+        this(repo, new AvailabilityService(repo));
+    }
+
+    public AppointmentService(IAppointmentRepository repo, AvailabilityService availability) {
         this.repo = repo;
+        this.availability = availability;
     }
 
     /*
-      Permite agendar citas y aplicar las validaciones.
+      Permite agendar citas y aplicar las validaciones. Una cita sin estado queda
+      PROGRAMADA; si trae otro estado se rechaza.
     
       @param appointment es la cita a agendar.
       @return un boolean que indica si la cita se agendó correctamente.
      */
+    @Override
     public boolean scheduleAppointment(Appointment appointment) {
-        try {
+        return SCHEDULE_APPOINTMENT.time(() -> {
             if (appointment == null) {
                 return false;
             } else if (appointment.getId() == null || appointment.getId().isBlank()) {
@@ -50,19 +82,27 @@ public class AppointmentService {
             if (appointment.getScheduledAt().isBefore(LocalDateTime.now())) {
                 return false;
             }
+
+            //Una cita nueva siempre queda programada, para que ocupe su horario.
+            if (appointment.getStatus() == null) {
+                appointment.setStatus(AppointmentStatus.PROGRAMADA);
+            } else if (appointment.getStatus() != AppointmentStatus.PROGRAMADA) {
+                return false;
+            }
             var appointmentID = appointment.getId();
             Optional<Appointment> duplicatedAppointment = this.repo.searchById(appointmentID);
             if (duplicatedAppointment.isPresent()) {
                 return false;
             }
 
-            //Se añade la cita.
-            return this.repo.add(appointment);
+            //Se añade la cita solo si el doctor no tiene otra cita que se solape; el
+            //repositorio lo vuelve a comprobar con las citas de otras instancias.
+            return this.availability.reserve(appointment, () -> this.repo.addIfDoctorFree(appointment));
 
-        } catch (Exception e) {
+        }, e -> {
             System.out.println(e.getMessage());
             return false;
-        }
+        });
     }
 
     /*
@@ -72,8 +112,9 @@ public class AppointmentService {
       @param status es el nuevo estado que se le asginará a la cita.
       @return un boolean que indica si se actualizo correctamente el estado de la cita.
      */
+    @Override
     public boolean updateAppointmentStatus(String id, AppointmentStatus status) {
-        try {
+        return UPDATE_APPOINTMENT_STATUS.time(() -> {
             if (id == null || id.isBlank() || status == null) {
                 return false;
             }
@@ -83,12 +124,86 @@ public class AppointmentService {
                 return false;
             }
 
-            //Se actualiza el estado de la cita.
-            return this.repo.updateState(id, status);
-        } catch (Exception e) {
+            //Volver a programar una cita ocupa de nuevo su horario: se valida como una reserva.
+            Appointment current = appointmentFound.get();
+            if (status == AppointmentStatus.PROGRAMADA && current.getStatus() != AppointmentStatus.PROGRAMADA
+                    && current.getScheduledAt() != null && current.getDuration() != null) {
+                Appointment reprogrammed = new Appointment(current);
+                reprogrammed.setStatus(status);
+                return this.availability.reserve(reprogrammed, () -> this.repo.updateStateIfDoctorFree(id, status));
+            }
+
+            //Se actualiza el estado de la cita y la agenda del doctor.
+            boolean updated = this.repo.updateState(id, status);
+            if (updated) {
+                //Se vuelve a leer la cita: la encontrada antes conserva el estado anterior.
+                this.repo.searchById(id).ifPresent(this.availability::statusChanged);
+            }
+            return updated;
+        }, e -> {
             System.out.println(e.getMessage());
             return false;
-        }
+        });
+    }
+
+    /*
+      Actualiza el estado de varias citas con una sola escritura en el repositorio.
+    
+      @param ids son los ids de las citas.
+      @param status es el nuevo estado que se le asignará a las citas.
+      @return el resultado de cada id, en el orden recibido; vacío si los parámetros son inválidos.
+     */
+    @Override
+    public Map<String, Boolean> updateStates(Collection<String> ids, AppointmentStatus status) {
+        return UPDATE_STATES.time(() -> {
+            if (ids == null || status == null) {
+                return Map.of();
+            }
+
+            //Cada cita que se vuelve a programar se valida por separado contra la agenda del doctor.
+            if (status == AppointmentStatus.PROGRAMADA) {
+                Map<String, Boolean> results = new LinkedHashMap<>();
+                for (String id : ids) {
+                    results.computeIfAbsent(id, key -> updateAppointmentStatus(key, status));
+                }
+                return results;
+            }
+
+            Map<String, Boolean> results = this.repo.updateStates(ids, status);
+            //Se actualiza la agenda de los doctores de las citas modificadas.
+            results.forEach((id, updated) -> {
+                if (updated) {
+                    this.repo.searchById(id).ifPresent(this.availability::statusChanged);
+                }
+            });
+            return results;
+        }, e -> {
+            System.out.println(e.getMessage());
+            return Map.of();
+        });
+    }
+
+    /*
+      Cancela todas las citas programadas de un doctor (por ejemplo, al desactivarlo).
+    
+      @param doctorId es el id del doctor.
+      @return el resultado de cada cita cancelada, por id; vacío si no tenía citas programadas.
+     */
+    @Override
+    public Map<String, Boolean> cancelAllForDoctor(String doctorId) {
+        return CANCEL_ALL_FOR_DOCTOR.time(() -> {
+            if (doctorId == null || doctorId.isBlank()) {
+                return Map.of();
+            }
+
+            Map<String, Boolean> results = this.repo.cancelAllForDoctor(doctorId);
+            //El doctor ya no tiene citas programadas: su agenda se reconstruye al consultarla.
+            this.availability.invalidate(doctorId);
+            return results;
+        }, e -> {
+            System.out.println(e.getMessage());
+            return Map.of();
+        });
     }
 
     /*
@@ -96,32 +211,24 @@ public class AppointmentService {
     
       @param id es el id del doctor.
       @param status es el estado de la cita.
-      @return una lista con las citas asociadas al id y el estado ingresados. 
+      @return una lista con las citas asociadas al id y el estado ingresados, de la más próxima a la más lejana.
               Si el id ingresado es incorrecto o el doctor no tiene citas asociadas con el estado ingresado,
               o directamente no tiene ninguna cita en su historial. Se retornará una lista vacía.
      */
+    @Override
     public List<Appointment> getAppointmentsByDoctor(String id, AppointmentStatus status) {
-        try {
+        return GET_APPOINTMENTS_BY_DOCTOR.time(() -> {
             if (id == null || id.isBlank() || status == null) {
                 return List.of(); //Retorna lista vacía.
             }
 
-            //Almacenar en una variable una lista con las citas asociadas al id ingresado.
-            List<Appointment> doctorAppointments = this.repo.searchByDoctor(id);
-
-            if (doctorAppointments.isEmpty()) {
-                return List.of(); //Retorna lista vacía.
-            }
-
-            //Filtrar citas por estado
-            return doctorAppointments.stream().
-                    filter(a -> a.getStatus().equals(status)).
-                    collect(Collectors.toList());
+            //Citas del doctor con el estado ingresado, por fecha programada (el repositorio las tiene indexadas en ese orden).
+            return this.repo.searchByDoctorAndStatus(id, status, PageRequest.all(false));
 
-        } catch (Exception e) {
+        }, e -> {
             System.out.println(e.getMessage());
             return List.of(); //Retorna lista vacía.
-        }
+        });
     }
 
     /*
@@ -129,31 +236,171 @@ public class AppointmentService {
     
       @param id es el id del paciente.
       @param status es el estado de la cita.
-      @return una lista con las citas asociadas al id y el estado ingresados. 
+      @return una lista con las citas asociadas al id y el estado ingresados, de la más próxima a la más lejana.
               Si el id ingresado es incorrecto o el paciente no tiene citas asociadas con el estado ingresado,
               o directamente no tiene ninguna cita en su historial. Se retornará una lista vacía.
      */
+    @Override
     public List<Appointment> getAppointmentsByPatient(String id, AppointmentStatus status) {
-        try {
+        return GET_APPOINTMENTS_BY_PATIENT.time(() -> {
             if (id == null || id.isBlank() || status == null) {
                 return List.of(); //Retorna lista vacía.
             }
 
-            //Almacenar en una variable una lista con las citas asociadas al id ingresado
-            List<Appointment> patientAppointments = this.repo.searchByPatient(id);
-            if (patientAppointments.isEmpty()) {
-                return List.of(); //Retorna lista vacía.
+            //Citas del paciente con el estado ingresado, por fecha programada (el repositorio las tiene indexadas en ese orden).
+            return this.repo.searchByPatientAndStatus(id, status, PageRequest.all(false));
+
+        }, e -> {
+            System.out.println(e.getMessage());
+            return List.of(); //Retorna lista vacía.
+        });
+    }
+
+    /*
+      Retorna la cantidad de citas de un doctor con un estado.
+    
+      @param id es el id del doctor.
+      @param status es el estado de la cita.
+      @return la cantidad de citas asociadas al id y el estado ingresados (0 si no hay).
+     */
+    @Override
+    public int countAppointmentsByDoctor(String id, AppointmentStatus status) {
+        return COUNT_APPOINTMENTS_BY_DOCTOR.time(() -> {
+            if (id == null || id.isBlank() || status == null) {
+                return 0;
             }
+            return this.repo.countByDoctorAndStatus(id, status);
+        }, e -> {
+            System.out.println(e.getMessage());
+            return 0;
+        });
+    }
 
-            //Filtrar citas por estado
-            return patientAppointments.stream().
-                    filter(a -> a.getStatus().equals(status)).
-                    collect(Collectors.toList());
+    /*
+      Retorna una página de las citas de un doctor con un estado, en el mismo orden que
+      getAppointmentsByDoctor(id, status).
+    
+      @param id es el id del doctor.
+      @param status es el estado de la cita.
+      @param offset es el índice de la primera cita de la página.
+      @param limit es la cantidad máxima de citas de la página.
+      @return una lista con las citas de la página (vacía si no hay más).
+      @throws IllegalArgumentException si offset es negativo o limit no es positivo.
+     */
+    @Override
+    public List<Appointment> getAppointmentsByDoctor(String id, AppointmentStatus status, int offset, int limit) {
+        PageRequest page = PageRequest.oldestFirst(offset, limit);
+        return GET_APPOINTMENTS_BY_DOCTOR_PAGE.time(() -> {
+            if (id == null || id.isBlank() || status == null) {
+                return List.of();
+            }
+            //Solo se leen las citas de la página.
+            return this.repo.searchByDoctorAndStatus(id, status, page);
+        }, e -> {
+            System.out.println(e.getMessage());
+            return List.of();
+        });
+    }
 
-        } catch (Exception e) {
+    /*
+      Retorna la cantidad de citas de un paciente con un estado.
+    
+      @param id es el id del paciente.
+      @param status es el estado de la cita.
+      @return la cantidad de citas asociadas al id y el estado ingresados (0 si no hay).
+     */
+    @Override
+    public int countAppointmentsByPatient(String id, AppointmentStatus status) {
+        return COUNT_APPOINTMENTS_BY_PATIENT.time(() -> {
+            if (id == null || id.isBlank() || status == null) {
+                return 0;
+            }
+            return this.repo.countByPatientAndStatus(id, status);
+        }, e -> {
             System.out.println(e.getMessage());
-            return List.of(); //Retorna lista vacía.
-        }
+            return 0;
+        });
+    }
+
+    /*
+      Retorna una página de las citas de un paciente con un estado, en el mismo orden que
+      getAppointmentsByPatient(id, status).
+    
+      @param id es el id del paciente.
+      @param status es el estado de la cita.
+      @param offset es el índice de la primera cita de la página.
+      @param limit es la cantidad máxima de citas de la página.
+      @return una lista con las citas de la página (vacía si no hay más).
+      @throws IllegalArgumentException si offset es negativo o limit no es positivo.
+     */
+    @Override
+    public List<Appointment> getAppointmentsByPatient(String id, AppointmentStatus status, int offset, int limit) {
+        PageRequest page = PageRequest.oldestFirst(offset, limit);
+        return GET_APPOINTMENTS_BY_PATIENT_PAGE.time(() -> {
+            if (id == null || id.isBlank() || status == null) {
+                return List.of();
+            }
+            //Solo se leen las citas de la página.
+            return this.repo.searchByPatientAndStatus(id, status, page);
+        }, e -> {
+            System.out.println(e.getMessage());
+            return List.of();
+        });
+    }
+
+    /*
+      Indica si un doctor está libre en un intervalo.
+    
+      @param doctorId es el id del doctor.
+      @param start es la fecha y hora de inicio.
+      @param duration es la duración de la cita.
+      @return true si el doctor no tiene citas programadas que se solapen con el intervalo.
+     */
+    @Override
+    public boolean isDoctorAvailable(String doctorId, LocalDateTime start, Duration duration) {
+        return IS_DOCTOR_AVAILABLE.time(() -> {
+            return this.availability.isSlotFree(doctorId, start, duration);
+        }, e -> {
+            System.out.println(e.getMessage());
+            return false;
+        });
+    }
+
+    /*
+      Retorna los próximos espacios libres de un doctor.
+    
+      @param doctorId es el id del doctor.
+      @param from es la fecha y hora desde la que se busca.
+      @param duration es la duración de la cita.
+      @param count es la cantidad máxima de espacios.
+      @return una lista con las horas de inicio disponibles (vacía si no hay).
+     */
+    @Override
+    public List<LocalDateTime> getNextFreeSlots(String doctorId, LocalDateTime from, Duration duration, int count) {
+        return GET_NEXT_FREE_SLOTS.time(() -> {
+            return this.availability.nextFreeSlots(doctorId, from, duration, count);
+        }, e -> {
+            System.out.println(e.getMessage());
+            return List.of();
+        });
+    }
+
+    /*
+      Retorna los espacios libres de un doctor en un día.
+    
+      @param doctorId es el id del doctor.
+      @param day es el día a consultar.
+      @param duration es la duración de la cita.
+      @return una lista con las horas de inicio disponibles (vacía si no hay).
+     */
+    @Override
+    public List<LocalDateTime> getFreeSlotsOn(String doctorId, LocalDate day, Duration duration) {
+        return GET_FREE_SLOTS_ON.time(() -> {
+            return this.availability.freeSlotsOn(doctorId, day, duration);
+        }, e -> {
+            System.out.println(e.getMessage());
+            return List.of();
+        });
     }
 
     /*
@@ -162,19 +409,18 @@ public class AppointmentService {
       @param date es la fecha.
       @return una lista con las citas asociadas a la fecha ingresada. 
      */
+    @Override
     public List<Appointment> getAppointmentByDate(LocalDateTime date) {
-        try {
+        return GET_APPOINTMENT_BY_DATE.time(() -> {
             if (date == null) {
                 return List.of();//Retorna lista vacía.
             }
 
-            //Filtrar citas según la fecha ingresada.
-            return (List<Appointment>) this.repo.listAll().stream().
-                    filter(a -> a.getScheduledAt().toLocalDate().equals(date.toLocalDate())).
-                    collect(Collectors.toList());
-        } catch (Exception e) {
+            //Citas del día de la fecha ingresada.
+            return this.repo.searchByDate(date.toLocalDate());
+        }, e -> {
             System.out.println(e.getMessage());
             return List.of();//Retorna lista vacía.
-        }
+        });
     }
 }
@@ -6,22 +6,49 @@ package com.mycompany.Services;
 
 import com.mycompany.Interfaces.IAuthentication;
 import com.mycompany.Interfaces.IAuthenticableRepository;
+import com.mycompany.Interfaces.ICredentialVerifier;
+import com.mycompany.Interfaces.IUsernameDirectory;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Metrics.OperationMetrics;
 import com.mycompany.Models.Patient;
 import com.mycompany.Models.User;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Sercicio encargado de manejar la autenticación de usuarios, incluyendo
  * session mannagement.
  *
+ * <p>
+ * Las contraseñas se verifican con {@link PasswordHasher}. Un inicio de sesión
+ * correcto contra una contraseña guardada en texto plano (o con otro costo) la
+ * vuelve a codificar y la persiste. La verificación es deliberadamente costosa, por
+ * lo que la interfaz debe usar {@link #loginAsync(String, String)}: cada verificación
+ * corre en su propio hilo virtual, sin bloqueos compartidos, y varias verificaciones
+ * simultáneas se reparten entre los núcleos.
+ * </p>
+ *
  * @author camil
  */
-public class AuthenticationService implements IAuthentication {
+public class AuthenticationService implements IAuthentication, ICredentialVerifier {
+
+    // Métricas de cada operación pública (ver MetricsRegistry)
+    private static final OperationMetrics LOGIN = MetricsRegistry.operation("AuthenticationService.login");
+    private static final OperationMetrics AUTHENTICATE = MetricsRegistry.operation("AuthenticationService.authenticate");
+
+    private static final ExecutorService VERIFIER = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("login-", 0).factory());
 
     private final List<IAuthenticableRepository> repositories;
-    private User currentUser;
+    private final IUsernameDirectory usernames;
+    private final PasswordHasher hasher;
+    private final ICredentialVerifier remote;
+    private volatile User currentUser;
 
     /**
      * Constructor de la clase AuthenticationService.
@@ -29,7 +56,48 @@ public class AuthenticationService implements IAuthentication {
      * @param repositories Lista de repositorios autenticables.
      */
     public AuthenticationService(List<IAuthenticableRepository> repositories) {
+        this(repositories, null);
+    }
+
+    /**
+     * Constructor de la clase AuthenticationService que resuelve los usernames con
+     * el directorio global en lugar de consultar cada repositorio.
+     *
+     * @param repositories Lista de repositorios autenticables.
+     * @param usernames Directorio de usernames (puede ser null).
+     */
+    public AuthenticationService(List<IAuthenticableRepository> repositories, IUsernameDirectory usernames) {
+        this(repositories, usernames, new PasswordHasher());
+    }
+
+    /**
+     * Constructor de la clase AuthenticationService con un costo de contraseñas
+     * específico.
+     *
+     * @param repositories Lista de repositorios autenticables.
+     * @param usernames Directorio de usernames (puede ser null).
+     * @param hasher Encargado de verificar y codificar las contraseñas.
+     */
+    public AuthenticationService(List<IAuthenticableRepository> repositories, IUsernameDirectory usernames,
+            PasswordHasher hasher) {
         this.repositories = repositories != null ? repositories : new ArrayList<>();
+        this.usernames = usernames;
+        this.hasher = hasher != null ? hasher : new PasswordHasher();
+        this.remote = null;
+        this.currentUser = null;
+    }
+
+    /**
+     * Constructor de la clase para un cliente de un servidor de datos: las
+     * credenciales se verifican en el servidor y aquí solo se lleva la sesión.
+     *
+     * @param remote Verificador de credenciales publicado por el servidor.
+     */
+    public AuthenticationService(ICredentialVerifier remote) {
+        this.repositories = new ArrayList<>();
+        this.usernames = null;
+        this.hasher = null;
+        this.remote = Objects.requireNonNull(remote);
         this.currentUser = null;
     }
 
@@ -44,27 +112,95 @@ public class AuthenticationService implements IAuthentication {
      */
     @Override
     public Optional<User> login(String userName, String password) {
-        if (userName == null || userName.trim().isEmpty()) {
-            return Optional.empty();
-        }
+        return LOGIN.time(() -> {
+            Optional<User> user = authenticate(userName, password);
+            user.ifPresent(u -> currentUser = u);
+            return user;
+        });
+    }
 
-        if (password == null || password.trim().isEmpty()) {
-            return Optional.empty();
-        }
+    /**
+     * Ejecuta {@link #login(String, String)} en un hilo virtual, fuera del hilo de
+     * la interfaz.
+     *
+     * @param userName Nombre de usuario.
+     * @param password Contraseña del usuario.
+     * @return Resultado de {@link #login(String, String)} cuando termine la
+     * verificación.
+     */
+    public CompletableFuture<Optional<User>> loginAsync(String userName, String password) {
+        return CompletableFuture.supplyAsync(() -> login(userName, password), VERIFIER);
+    }
+
+    /**
+     * Verifica las credenciales sin modificar la sesión actual. Es seguro llamarlo
+     * desde varios hilos a la vez.
+     *
+     * @param userName Nombre de usuario.
+     * @param password Contraseña del usuario.
+     * @return Un {@code Optional} con el usuario si las credenciales son válidas y
+     * el usuario está activo; de lo contrario, un {@code Optional.empty()}.
+     */
+    @Override
+    public Optional<User> authenticate(String userName, String password) {
+        return AUTHENTICATE.time(() -> {
+            if (userName == null || userName.trim().isEmpty()) {
+                return Optional.empty();
+            }
 
-        for (IAuthenticableRepository repo : repositories) {
-            Optional<User> userOpt = repo.searchByUsername(userName.trim());
+            if (password == null || password.trim().isEmpty()) {
+                return Optional.empty();
+            }
 
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                if (!user.isCurrentStatus()) {
-                    continue;
-                }
-                if (user.getPassword().equals(password)) {
-                    currentUser = user;
-                    return Optional.of(user);
+            if (remote != null) {
+                return remote.authenticate(userName, password);
+            }
+
+            String trimmedUserName = userName.trim();
+            List<IUsernameDirectory.Entry> entries = usernames != null
+                    ? usernames.lookup(trimmedUserName) : List.of();
+            boolean verified = false;
+            for (IAuthenticableRepository repo : repositories) {
+                Optional<User> userOpt = usernames != null && usernames.tracks(repo)
+                        ? firstOf(entries, repo) : repo.searchByUsername(trimmedUserName);
+
+                if (userOpt.isPresent()) {
+                    User user = userOpt.get();
+                    if (!user.isCurrentStatus()) {
+                        continue;
+                    }
+                    String stored = user.getPassword();
+                    verified = true;
+                    if (hasher.verify(password, stored)) {
+                        if (hasher.needsRehash(stored)
+                                && repo.updatePassword(user.getId(), hasher.hash(password))) {
+                            //Contraseña en texto plano o con otro costo: se vuelve a codificar.
+                            //Se vuelve a leer el usuario para que la sesión no conserve el hash anterior.
+                            String userId = user.getId();
+                            user = repo.searchByUsername(trimmedUserName)
+                                    .filter(u -> userId.equals(u.getId()))
+                                    .orElse(user);
+                        }
+                        return Optional.of(user);
+                    }
                 }
             }
+            if (!verified) {
+                //Usuario inexistente o inactivo: se verifica igual para no revelarlo por el tiempo de respuesta.
+                hasher.verify(password, hasher.dummyHash());
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Retorna el primer usuario del repositorio entre las entradas del directorio.
+     */
+    private static Optional<User> firstOf(List<IUsernameDirectory.Entry> entries, IAuthenticableRepository repo) {
+        for (IUsernameDirectory.Entry entry : entries) {
+            if (entry.owner() == repo) {
+                return Optional.of(entry.user());
+            }
         }
         return Optional.empty();
     }
@@ -0,0 +1,363 @@
+package com.mycompany.Services;
+
+import com.mycompany.Interfaces.IAppointmentRepository;
+import com.mycompany.Models.Appointment;
+import com.mycompany.Models.AppointmentStatus;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Servicio que calcula la disponibilidad de los doctores a partir de sus citas
+ * programadas.
+ *
+ * <p>
+ * Por cada doctor se mantiene un mapa ordenado por hora de inicio con los intervalos
+ * ocupados {@code [scheduledAt, scheduledAt + duration)}. Como ninguna cita dura más
+ * que la mayor duración registrada para ese doctor, una consulta de solapamiento solo
+ * revisa el rango {@code (inicio - duraciónMáxima, fin)} del mapa, por lo que el costo
+ * es logarítmico en el número de citas más las pocas que caen en ese rango.
+ * </p>
+ *
+ * <p>
+ * La agenda de cada doctor se construye la primera vez que se consulta, a partir de
+ * sus citas en estado {@link AppointmentStatus#PROGRAMADA}, y luego se mantiene con
+ * {@link #reserve(Appointment, BooleanSupplier)} y {@link #statusChanged(Appointment)}.
+ * Cada reserva, cambio de estado o invalidación incrementa una generación; una agenda que se
+ * construyó mientras la generación cambiaba puede no incluir ese cambio y se descarta.
+ * </p>
+ */
+public class AvailabilityService {
+
+    /**
+     * Hora de inicio de la jornada en la que se ofrecen espacios libres.
+     */
+    public static final LocalTime WORKDAY_START = LocalTime.of(8, 0);
+
+    /**
+     * Hora de fin de la jornada en la que se ofrecen espacios libres.
+     */
+    public static final LocalTime WORKDAY_END = LocalTime.of(18, 0);
+
+    /**
+     * Separación entre las horas de inicio de los espacios ofrecidos.
+     */
+    public static final Duration SLOT_STEP = Duration.ofMinutes(15);
+
+    /**
+     * Máximo de días hacia adelante en los que se buscan espacios libres.
+     */
+    private static final int SEARCH_HORIZON_DAYS = 90;
+
+    private final IAppointmentRepository repo;
+    private final Map<String, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+    private final AtomicBoolean listening = new AtomicBoolean();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Constructor de la clase.
+     *
+     * @param repo repositorio de citas usado para construir las agendas.
+     */
+    public AvailabilityService(IAppointmentRepository repo) {
+        this.repo = repo;
+    }
+
+    /**
+     * Indica si el doctor no tiene citas programadas que se solapen con el intervalo.
+     *
+     * @param doctorId id del doctor.
+     * @param start    inicio del intervalo.
+     * @param duration duración del intervalo.
+     * @return {@code true} si el intervalo está libre.
+     */
+    public boolean isSlotFree(String doctorId, LocalDateTime start, Duration duration) {
+        if (doctorId == null || doctorId.isBlank() || start == null || duration == null
+                || duration.isNegative() || duration.isZero()) {
+            return false;
+        }
+        DoctorSchedule schedule = scheduleOf(doctorId);
+        synchronized (schedule) {
+            return schedule.isFree(start, start.plus(duration));
+        }
+    }
+
+    /**
+     * Devuelve los próximos espacios libres del doctor a partir de una fecha.
+     *
+     * @param doctorId id del doctor.
+     * @param from     fecha y hora desde la que se busca.
+     * @param duration duración de cada espacio.
+     * @param count    cantidad máxima de espacios a devolver.
+     * @return lista con las horas de inicio de los espacios libres, en orden.
+     */
+    public List<LocalDateTime> nextFreeSlots(String doctorId, LocalDateTime from, Duration duration, int count) {
+        List<LocalDateTime> result = new ArrayList<>();
+        if (doctorId == null || doctorId.isBlank() || from == null || duration == null
+                || duration.isNegative() || duration.isZero() || count <= 0) {
+            return result;
+        }
+        DoctorSchedule schedule = scheduleOf(doctorId);
+        synchronized (schedule) {
+            LocalDate day = from.toLocalDate();
+            for (int i = 0; i < SEARCH_HORIZON_DAYS && result.size() < count; i++, day = day.plusDays(1)) {
+                schedule.collectFreeSlots(day, from, duration, count, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Devuelve todos los espacios libres del doctor en un día, dentro de la jornada.
+     *
+     * @param doctorId id del doctor.
+     * @param day      día a consultar.
+     * @param duration duración de cada espacio.
+     * @return lista con las horas de inicio de los espacios libres, en orden.
+     */
+    public List<LocalDateTime> freeSlotsOn(String doctorId, LocalDate day, Duration duration) {
+        List<LocalDateTime> result = new ArrayList<>();
+        if (doctorId == null || doctorId.isBlank() || day == null || duration == null
+                || duration.isNegative() || duration.isZero()) {
+            return result;
+        }
+        DoctorSchedule schedule = scheduleOf(doctorId);
+        synchronized (schedule) {
+            schedule.collectFreeSlots(day, day.atStartOfDay(), duration, Integer.MAX_VALUE, result);
+        }
+        return result;
+    }
+
+    /**
+     * Reserva el intervalo de una cita si está libre, ejecutando la persistencia bajo
+     * el mismo bloqueo para que dos reservas simultáneas no se solapen.
+     *
+     * <p>
+     * La agenda es propia de este proceso: no ve las citas que otra instancia agregó
+     * después de construirla. Por eso {@code persist} debe volver a comprobar el
+     * solapamiento contra los datos compartidos (ver
+     * {@link IAppointmentRepository#addIfDoctorFree(Appointment)}); si lo rechaza, el
+     * repositorio ya recargó esas citas y la agenda se reconstruye en la próxima consulta.
+     * </p>
+     *
+     * @param appointment cita a reservar (con doctor, fecha y duración).
+     * @param persist     operación que guarda la cita; debe devolver {@code true} si tuvo éxito.
+     * @return {@code true} si el intervalo estaba libre y la cita se guardó.
+     */
+    public boolean reserve(Appointment appointment, BooleanSupplier persist) {
+        DoctorSchedule schedule = scheduleOf(appointment.getDoctorId());
+        synchronized (schedule) {
+            LocalDateTime start = appointment.getScheduledAt();
+            if (!schedule.isFree(start, start.plus(appointment.getDuration()))) {
+                return false;
+            }
+            if (!persist.getAsBoolean()) {
+                return false;
+            }
+            generation.incrementAndGet();
+            if (blocks(appointment)) {
+                schedule.add(appointment);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Actualiza la agenda del doctor tras un cambio de estado de la cita: solo las
+     * citas programadas ocupan su intervalo.
+     *
+     * @param appointment cita con su estado actual.
+     */
+    public void statusChanged(Appointment appointment) {
+        if (appointment == null || appointment.getDoctorId() == null) {
+            return;
+        }
+        // Se incrementa antes de buscar la agenda: si aún se está construyendo, quien la
+        // construye verá el cambio de generación y la volverá a leer del repositorio.
+        generation.incrementAndGet();
+        DoctorSchedule schedule = schedules.get(appointment.getDoctorId());
+        if (schedule == null) {
+            return; // Se construirá desde el repositorio cuando se consulte.
+        }
+        synchronized (schedule) {
+            schedule.remove(appointment.getId());
+            if (blocks(appointment)) {
+                schedule.add(appointment);
+            }
+        }
+    }
+
+    /**
+     * Descarta las agendas calculadas para que se reconstruyan desde el repositorio.
+     * Se llama sola cada vez que el repositorio recarga sus datos (ver
+     * {@link IAppointmentRepository#addReloadListener(Runnable)}).
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        schedules.clear();
+    }
+
+    /**
+     * Descarta la agenda calculada de un doctor para que se reconstruya desde el
+     * repositorio la próxima vez que se consulte (por ejemplo, después de cancelar
+     * todas sus citas en lote). Se llama sola con cada cita que escribe otra instancia
+     * (ver {@link IAppointmentRepository#addChangeListener(java.util.function.Consumer)}).
+     *
+     * @param doctorId id del doctor
+     */
+    public void invalidate(String doctorId) {
+        if (doctorId != null) {
+            generation.incrementAndGet();
+            schedules.remove(doctorId);
+        }
+    }
+
+    private static boolean blocks(Appointment appointment) {
+        return appointment.getStatus() == AppointmentStatus.PROGRAMADA
+                && appointment.getScheduledAt() != null
+                && appointment.getDuration() != null;
+    }
+
+    private DoctorSchedule scheduleOf(String doctorId) {
+        if (listening.compareAndSet(false, true)) {
+            // Se suscribe en el primer uso y no en el constructor para no forzar la
+            // carga de un repositorio diferido al crear el servicio. Lo que escribe otra
+            // instancia solo descarta la agenda de ese doctor; no se actualiza en sitio
+            // porque el aviso llega con el candado del repositorio tomado y una reserva
+            // en curso puede tener el de la agenda esperando ese mismo candado.
+            repo.addReloadListener(this::invalidate);
+            repo.addChangeListener(appointment -> invalidate(appointment.getDoctorId()));
+        }
+        while (true) {
+            DoctorSchedule cached = schedules.get(doctorId);
+            if (cached != null) {
+                return cached;
+            }
+            long built = generation.get();
+            DoctorSchedule schedule = new DoctorSchedule();
+            for (Appointment appointment : repo.searchByDoctorAndStatus(doctorId, AppointmentStatus.PROGRAMADA)) {
+                if (blocks(appointment)) {
+                    schedule.add(appointment);
+                }
+            }
+            DoctorSchedule existing = schedules.putIfAbsent(doctorId, schedule);
+            if (existing != null) {
+                return existing;
+            }
+            // Se comprueba después de publicarla: un cambio que no la encontró en el mapa
+            // ya incrementó la generación, así que no se pierde.
+            if (generation.get() == built) {
+                return schedule;
+            }
+            schedules.remove(doctorId, schedule);
+        }
+    }
+
+    /**
+     * Intervalo ocupado por una cita.
+     */
+    private record Interval(String appointmentId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    /**
+     * Agenda de un doctor: intervalos ordenados por inicio. Varias citas pueden compartir
+     * la misma hora de inicio si los datos cargados ya tenían solapamientos.
+     */
+    private static final class DoctorSchedule {
+
+        private final NavigableMap<LocalDateTime, List<Interval>> byStart = new TreeMap<>();
+        private final Map<String, Interval> byAppointment = new HashMap<>();
+        private Duration maxDuration = Duration.ZERO;
+
+        void add(Appointment appointment) {
+            LocalDateTime start = appointment.getScheduledAt();
+            Interval interval = new Interval(appointment.getId(), start, start.plus(appointment.getDuration()));
+            byStart.computeIfAbsent(start, s -> new ArrayList<>(1)).add(interval);
+            byAppointment.put(interval.appointmentId(), interval);
+            if (appointment.getDuration().compareTo(maxDuration) > 0) {
+                maxDuration = appointment.getDuration();
+            }
+        }
+
+        void remove(String appointmentId) {
+            Interval interval = byAppointment.remove(appointmentId);
+            if (interval == null) {
+                return;
+            }
+            List<Interval> sameStart = byStart.get(interval.start());
+            sameStart.remove(interval);
+            if (sameStart.isEmpty()) {
+                byStart.remove(interval.start());
+            }
+        }
+
+        /**
+         * Intervalos que podrían solaparse con {@code [start, end)}.
+         */
+        private NavigableMap<LocalDateTime, List<Interval>> candidates(LocalDateTime start, LocalDateTime end) {
+            return byStart.subMap(start.minus(maxDuration), false, end, false);
+        }
+
+        boolean isFree(LocalDateTime start, LocalDateTime end) {
+            for (List<Interval> intervals : candidates(start, end).values()) {
+                for (Interval interval : intervals) {
+                    if (interval.end().isAfter(start)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Recorre la jornada del día en orden, saltando los intervalos ocupados, y agrega
+         * a {@code result} los espacios libres que empiezan en o después de {@code from}.
+         */
+        void collectFreeSlots(LocalDate day, LocalDateTime from, Duration duration, int limit,
+                List<LocalDateTime> result) {
+            LocalDateTime dayStart = day.atTime(WORKDAY_START);
+            LocalDateTime dayEnd = day.atTime(WORKDAY_END);
+            LocalDateTime cursor = alignUp(from.isAfter(dayStart) ? from : dayStart, dayStart);
+
+            for (List<Interval> intervals : candidates(dayStart, dayEnd).values()) {
+                for (Interval busy : intervals) {
+                    while (!cursor.plus(duration).isAfter(busy.start()) && !cursor.plus(duration).isAfter(dayEnd)) {
+                        if (result.size() >= limit) {
+                            return;
+                        }
+                        result.add(cursor);
+                        cursor = cursor.plus(SLOT_STEP);
+                    }
+                    if (busy.end().isAfter(cursor)) {
+                        cursor = alignUp(busy.end(), dayStart);
+                    }
+                }
+            }
+            while (!cursor.plus(duration).isAfter(dayEnd) && result.size() < limit) {
+                result.add(cursor);
+                cursor = cursor.plus(SLOT_STEP);
+            }
+        }
+
+        /**
+         * Redondea hacia arriba al siguiente múltiplo de {@link #SLOT_STEP} desde el inicio de la jornada.
+         */
+        private static LocalDateTime alignUp(LocalDateTime time, LocalDateTime dayStart) {
+            long step = SLOT_STEP.toSeconds();
+            long offset = Duration.between(dayStart, time).toSeconds();
+            long aligned = Math.floorDiv(offset + step - 1, step) * step;
+            return dayStart.plusSeconds(aligned);
+        }
+    }
+}
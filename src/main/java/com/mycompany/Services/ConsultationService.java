@@ -5,8 +5,11 @@
 package com.mycompany.Services;
 
 import com.mycompany.Interfaces.IConsultationRepository;
+import com.mycompany.Interfaces.IConsultationService;
+import com.mycompany.Interfaces.PageRequest;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Metrics.OperationMetrics;
 import com.mycompany.Models.Consultation;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +18,16 @@ import java.util.Optional;
  *
  * @author kosmo
  */
-public class ConsultationService {
+public class ConsultationService implements IConsultationService {
+
+    // Métricas de cada operación pública (ver MetricsRegistry)
+    private static final OperationMetrics CREATE_CONSULTATION = MetricsRegistry.operation("ConsultationService.createConsultation");
+    private static final OperationMetrics GET_CONSULT_HISTORY_FOR_PATIENT = MetricsRegistry.operation("ConsultationService.getConsultHistoryForPatient");
+    private static final OperationMetrics GET_CONSULT_HISTORY_FOR_DOCTOR = MetricsRegistry.operation("ConsultationService.getConsultHistoryForDoctor");
+    private static final OperationMetrics COUNT_CONSULT_HISTORY_FOR_PATIENT = MetricsRegistry.operation("ConsultationService.countConsultHistoryForPatient");
+    private static final OperationMetrics GET_CONSULT_HISTORY_FOR_PATIENT_PAGE = MetricsRegistry.operation("ConsultationService.getConsultHistoryForPatientPage");
+    private static final OperationMetrics COUNT_CONSULT_HISTORY_FOR_DOCTOR = MetricsRegistry.operation("ConsultationService.countConsultHistoryForDoctor");
+    private static final OperationMetrics GET_CONSULT_HISTORY_FOR_DOCTOR_PAGE = MetricsRegistry.operation("ConsultationService.getConsultHistoryForDoctorPage");
 
     /**
      * La clase tiene como variable de instancia el repositorio de consultas.
@@ -37,8 +49,9 @@ public class ConsultationService {
      * @param consultation es la consulta a guardar.
      * @return un boolean que indica si la consulta se añadió o no.
      */
+    @Override
     public boolean createConsultation(Consultation consultation) {
-        try {
+        return CREATE_CONSULTATION.time(() -> {
             if (consultation == null) {
                 return false;
             } else if (consultation.getAppointment() == null) {
@@ -57,10 +70,10 @@ public class ConsultationService {
 
             this.repo.add(consultation);
             return true;
-        } catch (Exception e) {
+        }, e -> {
             System.out.println(e.getMessage());
             return false;
-        }
+        });
     }
 
     /**
@@ -70,25 +83,19 @@ public class ConsultationService {
      * @return una lista con las consultas del paciente (vacía si no encuentra
      * ninguna).
      */
+    @Override
     public List<Consultation> getConsultHistoryForPatient(String patientID) {
-        try {
+        return GET_CONSULT_HISTORY_FOR_PATIENT.time(() -> {
             if (patientID == null || patientID.isBlank()) {
                 return List.of(); //Retorna lista vacía.
             }
 
-            List<Consultation> patientHistory = this.repo.searchByPatient(patientID);
-
-            if (patientHistory.isEmpty()) {
-                return List.of();
-            }
-
-            Collections.reverse(patientHistory);
-
-            return patientHistory;
-        } catch (Exception e) {
+            //El repositorio las devuelve ya ordenadas de la más reciente a la más antigua.
+            return this.repo.searchByPatient(patientID, PageRequest.all(true));
+        }, e -> {
             System.out.println(e.getMessage());
             return List.of();
-        }
+        });
     }
 
     /**
@@ -99,24 +106,106 @@ public class ConsultationService {
      * (vacía si no encuentra ninguna).
      *
      */
+    @Override
     public List<Consultation> getConsultHistoryForDoctor(String doctorID) {
-        try {
+        return GET_CONSULT_HISTORY_FOR_DOCTOR.time(() -> {
             if (doctorID == null || doctorID.isBlank()) {
                 return List.of(); //Retorna lista vacía.
             }
 
-            List<Consultation> doctorHistory = this.repo.searchByDoctor(doctorID);
+            //El repositorio las devuelve ya ordenadas de la más reciente a la más antigua.
+            return this.repo.searchByDoctor(doctorID, PageRequest.all(true));
+        }, e -> {
+            System.out.println(e.getMessage());
+            return List.of();
+        });
+    }
 
-            if (doctorHistory.isEmpty()) {
+    /**
+     * Retorna la cantidad de consultas de un paciente.
+     *
+     * @param patientID es la identificación del paciente.
+     * @return la cantidad de consultas del paciente (0 si no encuentra ninguna).
+     */
+    @Override
+    public int countConsultHistoryForPatient(String patientID) {
+        return COUNT_CONSULT_HISTORY_FOR_PATIENT.time(() -> {
+            if (patientID == null || patientID.isBlank()) {
+                return 0;
+            }
+            return this.repo.countByPatient(patientID);
+        }, e -> {
+            System.out.println(e.getMessage());
+            return 0;
+        });
+    }
+
+    /**
+     * Retorna una página del historial de un paciente, de la más reciente a la más
+     * antigua, en el mismo orden que {@link #getConsultHistoryForPatient(String)}.
+     *
+     * @param patientID es la identificación del paciente.
+     * @param offset es el índice de la primera consulta de la página.
+     * @param limit es la cantidad máxima de consultas de la página.
+     * @return una lista con las consultas de la página (vacía si no hay más).
+     * @throws IllegalArgumentException si {@code offset} es negativo o {@code limit} no es positivo.
+     */
+    @Override
+    public List<Consultation> getConsultHistoryForPatient(String patientID, int offset, int limit) {
+        PageRequest page = PageRequest.newestFirst(offset, limit);
+        return GET_CONSULT_HISTORY_FOR_PATIENT_PAGE.time(() -> {
+            if (patientID == null || patientID.isBlank()) {
                 return List.of();
             }
+            //Solo se leen las consultas de la página, sin recorrer el historial completo.
+            return this.repo.searchByPatient(patientID, page);
+        }, e -> {
+            System.out.println(e.getMessage());
+            return List.of();
+        });
+    }
 
-            Collections.reverse(doctorHistory);
+    /**
+     * Retorna la cantidad de consultas realizadas por un médico.
+     *
+     * @param doctorID es la identificación del médico.
+     * @return la cantidad de consultas del médico (0 si no encuentra ninguna).
+     */
+    @Override
+    public int countConsultHistoryForDoctor(String doctorID) {
+        return COUNT_CONSULT_HISTORY_FOR_DOCTOR.time(() -> {
+            if (doctorID == null || doctorID.isBlank()) {
+                return 0;
+            }
+            return this.repo.countByDoctor(doctorID);
+        }, e -> {
+            System.out.println(e.getMessage());
+            return 0;
+        });
+    }
 
-            return doctorHistory;
-        } catch (Exception e) {
+    /**
+     * Retorna una página del historial de un médico, de la más reciente a la más
+     * antigua, en el mismo orden que {@link #getConsultHistoryForDoctor(String)}.
+     *
+     * @param doctorID es la identificación del médico.
+     * @param offset es el índice de la primera consulta de la página.
+     * @param limit es la cantidad máxima de consultas de la página.
+     * @return una lista con las consultas de la página (vacía si no hay más).
+     * @throws IllegalArgumentException si {@code offset} es negativo o {@code limit} no es positivo.
+     */
+    @Override
+    public List<Consultation> getConsultHistoryForDoctor(String doctorID, int offset, int limit) {
+        PageRequest page = PageRequest.newestFirst(offset, limit);
+        return GET_CONSULT_HISTORY_FOR_DOCTOR_PAGE.time(() -> {
+            if (doctorID == null || doctorID.isBlank()) {
+                return List.of();
+            }
+            //Solo se leen las consultas de la página, sin recorrer el historial completo.
+            return this.repo.searchByDoctor(doctorID, page);
+        }, e -> {
             System.out.println(e.getMessage());
             return List.of();
-        }
+        });
     }
 }
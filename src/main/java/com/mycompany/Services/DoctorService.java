@@ -6,6 +6,9 @@ package com.mycompany.Services;
 
 import com.mycompany.Interfaces.IAuthenticableRepository;
 import com.mycompany.Interfaces.IDoctorRepository;
+import com.mycompany.Interfaces.IDoctorService;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Metrics.OperationMetrics;
 import com.mycompany.Models.Doctor;
 import com.mycompany.Models.Specialty;
 import java.util.List;
@@ -17,10 +20,20 @@ import java.util.Optional;
  *
  * @author camil
  */
-public class DoctorService {
+public class DoctorService implements IDoctorService {
+
+    // Métricas de cada operación pública (ver MetricsRegistry)
+    private static final OperationMetrics REGISTER_DOCTOR = MetricsRegistry.operation("DoctorService.registerDoctor");
+    private static final OperationMetrics REMOVE_DOCTOR = MetricsRegistry.operation("DoctorService.removeDoctor");
+    private static final OperationMetrics UPDATE_DOCTOR = MetricsRegistry.operation("DoctorService.updateDoctor");
+    private static final OperationMetrics SEARCH_BY_ID = MetricsRegistry.operation("DoctorService.searchById");
+    private static final OperationMetrics LIST_ALL_DOCTORS = MetricsRegistry.operation("DoctorService.listAllDoctors");
+    private static final OperationMetrics ASSIGN_SPECIALTY = MetricsRegistry.operation("DoctorService.assignSpecialty");
+    private static final OperationMetrics SEARCH_BY_SPECIALTY = MetricsRegistry.operation("DoctorService.searchBySpecialty");
     
     private final IDoctorRepository repository;
     private final GlobalUsernameValidator globalValidator;
+    private final PasswordHasher hasher = new PasswordHasher();
 
     /**
      * Constructor del servicio de doctores.
@@ -41,11 +54,15 @@ public class DoctorService {
      * @return {@code true} si el doctor fue registrado exitosamente;
      * {@code false} en caso contrario.
      */
+    @Override
     public boolean registerDoctor(Doctor doctor) {
-        if (!validateDoctor(doctor, false)) {
-            return false;
-        }
-        return repository.add(doctor);
+        return REGISTER_DOCTOR.time(() -> {
+            if (!validateDoctor(doctor, false)) {
+                return false;
+            }
+            encodePassword(doctor, false);
+            return repository.add(doctor);
+        });
     }
 
     /**
@@ -55,11 +72,14 @@ public class DoctorService {
      * @return {@code true} si el doctor fue eliminado exitosamente;
      * {@code false} en caso contrario.
      */
+    @Override
     public boolean removeDoctor(String id) {
-        if (id == null || id.trim().isEmpty()) {
-            return false;
-        }
-        return repository.deleteById(id);
+        return REMOVE_DOCTOR.time(() -> {
+            if (id == null || id.trim().isEmpty()) {
+                return false;
+            }
+            return repository.deleteById(id);
+        });
     }
 
     /**
@@ -69,11 +89,15 @@ public class DoctorService {
      * @return {@code true} si el doctor fue actualizado exitosamente;
      * {@code false} en caso contrario.
      */
+    @Override
     public boolean updateDoctor(Doctor doctor) {
-        if (!validateDoctor(doctor, true)) {
-            return false;
-        }
-        return repository.update(doctor);
+        return UPDATE_DOCTOR.time(() -> {
+            if (!validateDoctor(doctor, true)) {
+                return false;
+            }
+            encodePassword(doctor, true);
+            return repository.update(doctor);
+        });
     }
 
     /**
@@ -101,7 +125,8 @@ public class DoctorService {
             return false;
         }
         
-        if (doctor.getPassword() == null || doctor.getPassword().trim().isEmpty()) {
+        // En una actualización, sin contraseña se conserva la guardada.
+        if (!isUpdate && (doctor.getPassword() == null || doctor.getPassword().trim().isEmpty())) {
             return false;
         }
         
@@ -152,11 +177,14 @@ public class DoctorService {
      * @return Un {@code Optional} que contiene el doctor si se encuentra; de lo
      * contrario, un {@code Optional.empty()}.
      */
+    @Override
     public Optional<Doctor> searchById(String id) {
-        if (id == null || id.trim().isEmpty()) {
-            return Optional.empty();
-        }
-        return repository.searchById(id);
+        return SEARCH_BY_ID.time(() -> {
+            if (id == null || id.trim().isEmpty()) {
+                return Optional.empty();
+            }
+            return repository.searchById(id);
+        });
     }
 
     /**
@@ -164,8 +192,11 @@ public class DoctorService {
      *
      * @return Una lista de todos los doctores.
      */
+    @Override
     public List<Doctor> listAllDoctors() {
-        return repository.listAll();
+        return LIST_ALL_DOCTORS.time(() -> {
+            return repository.listAll();
+        });
     }
 
     /**
@@ -176,19 +207,22 @@ public class DoctorService {
      * @return {@code true} si la especialidad fue asignada exitosamente;
      * {@code false} en caso contrario.
      */
+    @Override
     public boolean assignSpecialty(String id, Specialty specialty) {
-        if (id == null || id.trim().isEmpty() || specialty == null) {
-            return false;
-        }
+        return ASSIGN_SPECIALTY.time(() -> {
+            if (id == null || id.trim().isEmpty() || specialty == null) {
+                return false;
+            }
         
-        Optional<Doctor> doctorOpt = repository.searchById(id);
-        if (doctorOpt.isEmpty()) {
-            return false;
-        }
+            Optional<Doctor> doctorOpt = repository.searchById(id);
+            if (doctorOpt.isEmpty()) {
+                return false;
+            }
         
-        Doctor doctor = doctorOpt.get();
-        doctor.setMedicalSpecialty(specialty);
-        return repository.update(doctor);
+            Doctor doctor = doctorOpt.get();
+            doctor.setMedicalSpecialty(specialty);
+            return repository.update(doctor);
+        });
     }
 
     /**
@@ -197,10 +231,35 @@ public class DoctorService {
      * @param specialty La especialidad médica a buscar.
      * @return Una lista de doctores que tienen la especialidad especificada.
      */
+    @Override
     public List<Doctor> searchBySpecialty(Specialty specialty) {
-        if (specialty == null) {
-            return List.of();
+        return SEARCH_BY_SPECIALTY.time(() -> {
+            if (specialty == null) {
+                return List.of();
+            }
+            return repository.searchBySpecialty(specialty);
+        });
+    }
+
+    /**
+     * Deja en el doctor la contraseña que se debe guardar, siempre codificada. En una
+     * actualización sin contraseña (por ejemplo, desde un cliente remoto, que nunca recibe
+     * la codificada) o con la misma que ya está guardada, se conserva la guardada.
+     * Cualquier otra se codifica aunque ya parezca codificada, para que un cliente no
+     * pueda guardar un valor arbitrario (por ejemplo, con menos iteraciones) como hash.
+     *
+     * @param doctor   doctor ya validado
+     * @param isUpdate {@code true} si es una actualización
+     */
+    private void encodePassword(Doctor doctor, boolean isUpdate) {
+        String password = doctor.getPassword();
+        if (isUpdate) {
+            Optional<String> stored = repository.searchById(doctor.getId()).map(Doctor::getPassword);
+            if (password == null || password.trim().isEmpty() || stored.filter(password::equals).isPresent()) {
+                stored.ifPresent(doctor::setPassword);
+                return;
+            }
         }
-        return repository.searchBySpecialty(specialty);
+        doctor.setPassword(hasher.hash(password));
     }
 }
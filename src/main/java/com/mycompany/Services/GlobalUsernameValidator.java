@@ -5,6 +5,7 @@
 package com.mycompany.Services;
 
 import com.mycompany.Interfaces.IAuthenticableRepository;
+import com.mycompany.Interfaces.IUsernameDirectory;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,6 +19,7 @@ import java.util.List;
 public class GlobalUsernameValidator {
 
     private final List<IAuthenticableRepository> repositories;
+    private final IUsernameDirectory usernames;
 
     /**
      * Constructor de la clase.
@@ -26,7 +28,20 @@ public class GlobalUsernameValidator {
      * doctores).
      */
     public GlobalUsernameValidator(List<IAuthenticableRepository> repositories) {
+        this(repositories, null);
+    }
+
+    /**
+     * Constructor de la clase que verifica los usernames con el directorio global
+     * en lugar de consultar cada repositorio.
+     *
+     * @param repositories Lista de repositorios autenticables (pacientes y
+     * doctores).
+     * @param usernames Directorio de usernames (puede ser null).
+     */
+    public GlobalUsernameValidator(List<IAuthenticableRepository> repositories, IUsernameDirectory usernames) {
         this.repositories = repositories != null ? repositories : new ArrayList<>();
+        this.usernames = usernames;
     }
 
     /**
@@ -41,7 +56,19 @@ public class GlobalUsernameValidator {
     public boolean usernameExists(String username, String excludeUserId) {
 
         String trimmedUsername = username.trim();
+        if (usernames != null) {
+            //Una sola búsqueda en el directorio cubre todos los repositorios que lo mantienen.
+            for (IUsernameDirectory.Entry entry : usernames.lookup(trimmedUsername)) {
+                if (repositories.contains(entry.owner())
+                        && (excludeUserId == null || !entry.userId().equals(excludeUserId))) {
+                    return true; //Ya existe ese usuario.
+                }
+            }
+        }
         for (IAuthenticableRepository repo : repositories) {
+            if (usernames != null && usernames.tracks(repo)) {
+                continue; //Ya se verificó con el directorio
+            }
             var found = repo.searchByUsername(trimmedUsername);
             if (found.isPresent()) {
 
@@ -0,0 +1,183 @@
+package com.mycompany.Services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Deriva y verifica contraseñas con PBKDF2 (HMAC-SHA512) y sal aleatoria, usando solo
+ * el proveedor criptográfico del JDK.
+ *
+ * <p>
+ * El campo {@code password} de {@link com.mycompany.Models.User} guarda la contraseña
+ * codificada como {@code pbkdf2-sha512$<iteraciones>$<sal>$<hash>} (sal y hash en
+ * Base64). Los registros anteriores guardan la contraseña en texto plano; se
+ * reconocen porque no tienen ese prefijo, se verifican por comparación directa y
+ * {@link #needsRehash(String)} indica que deben volver a codificarse.
+ * </p>
+ *
+ * <p>
+ * El costo se controla con {@link #ITERATIONS_PROPERTY}. Cada verificación crea su
+ * propia instancia de {@link SecretKeyFactory}, así que la clase no tiene estado
+ * mutable compartido y varias verificaciones corren en paralelo en distintos núcleos.
+ * </p>
+ */
+public final class PasswordHasher {
+
+    /**
+     * Propiedad del sistema con la cantidad de iteraciones de PBKDF2 para las
+     * contraseñas nuevas ({@value #DEFAULT_ITERATIONS} por defecto).
+     */
+    public static final String ITERATIONS_PROPERTY = "clinicalsystem.password.iterations";
+
+    /**
+     * Iteraciones por defecto, las recomendadas para PBKDF2-HMAC-SHA512.
+     */
+    public static final int DEFAULT_ITERATIONS = 210_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA512";
+    private static final String PREFIX = "pbkdf2-sha512";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 512;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+    private final String dummyHash;
+
+    /**
+     * Crea un derivador con las iteraciones configuradas en {@link #ITERATIONS_PROPERTY}.
+     */
+    public PasswordHasher() {
+        this(Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS));
+    }
+
+    /**
+     * @param iterations iteraciones de PBKDF2 para las contraseñas nuevas
+     * @throws IllegalArgumentException si {@code iterations} no es positivo
+     */
+    public PasswordHasher(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("La cantidad de iteraciones debe ser positiva");
+        }
+        this.iterations = iterations;
+        this.dummyHash = encode(randomBytes(SALT_BYTES), randomBytes(HASH_BITS / 8));
+    }
+
+    /**
+     * @return iteraciones usadas para las contraseñas nuevas
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Codifica una contraseña con una sal nueva.
+     *
+     * @param password contraseña en texto plano (no nula)
+     * @return contraseña codificada, lista para guardarse en el usuario
+     * @throws IllegalArgumentException si {@code password} es nula
+     */
+    public String hash(String password) {
+        if (password == null) {
+            throw new IllegalArgumentException("La contraseña no puede ser nula");
+        }
+        byte[] salt = randomBytes(SALT_BYTES);
+        return encode(salt, derive(password, salt, iterations, HASH_BITS));
+    }
+
+    /**
+     * Devuelve un valor codificado con el costo actual que no corresponde a ninguna
+     * contraseña. Verificar contra él cuando el usuario no existe o está inactivo
+     * hace que la respuesta tarde lo mismo que con un usuario real, sin revelar qué
+     * usernames existen.
+     *
+     * @return valor codificado que ninguna contraseña verifica
+     */
+    public String dummyHash() {
+        return dummyHash;
+    }
+
+    private String encode(byte[] salt, byte[] hash) {
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+    }
+
+    private static byte[] randomBytes(int count) {
+        byte[] bytes = new byte[count];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Verifica una contraseña contra el valor guardado, codificado o en texto plano.
+     * La comparación toma el mismo tiempo sin importar dónde difieran los valores.
+     *
+     * @param password contraseña ingresada
+     * @param stored   valor guardado en el usuario
+     * @return {@code true} si la contraseña coincide
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            if (storedIterations <= 0 || expected.length == 0) {
+                return false;
+            }
+            byte[] actual = derive(password, salt, storedIterations, expected.length * 8);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Contraseña codificada inválida: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Indica si el valor guardado debe volver a codificarse: está en texto plano o se
+     * codificó con otra cantidad de iteraciones.
+     *
+     * @param stored valor guardado en el usuario
+     * @return {@code true} si conviene reemplazarlo por {@link #hash(String)}
+     */
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        return parts.length != 4 || !parts[1].equals(Integer.toString(iterations));
+    }
+
+    /**
+     * @param stored valor guardado en el usuario
+     * @return {@code true} si el valor ya está codificado por esta clase
+     */
+    public boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$");
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 no está disponible: " + e.getMessage(), e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
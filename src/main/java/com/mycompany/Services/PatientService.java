@@ -5,6 +5,9 @@ import java.util.List;
 import java.util.Optional;
 
 import com.mycompany.Interfaces.IPatientRepository;
+import com.mycompany.Interfaces.IPatientService;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Metrics.OperationMetrics;
 import com.mycompany.Models.Patient;
 import java.util.Objects;
 
@@ -15,10 +18,18 @@ import java.util.Objects;
  * inyectado {@link IPatientRepository}.
  * </p>
  */
-public class PatientService {
+public class PatientService implements IPatientService {
+
+    // Métricas de cada operación pública (ver MetricsRegistry)
+    private static final OperationMetrics ADD_PATIENT = MetricsRegistry.operation("PatientService.addPatient");
+    private static final OperationMetrics REMOVE_PATIENT = MetricsRegistry.operation("PatientService.removePatient");
+    private static final OperationMetrics UPDATE_PATIENT = MetricsRegistry.operation("PatientService.updatePatient");
+    private static final OperationMetrics SEARCH_BY_ID = MetricsRegistry.operation("PatientService.searchById");
+    private static final OperationMetrics LIST_ALL_PATIENTS = MetricsRegistry.operation("PatientService.listAllPatients");
     
     private final IPatientRepository repository;
     private final GlobalUsernameValidator globalValidator;
+    private final PasswordHasher hasher = new PasswordHasher();
 
     /**
      * Crea una instancia del servicio con el repositorio especificado.
@@ -46,11 +57,15 @@ public class PatientService {
      * @return true si el paciente se añadió correctamente; false en caso
      * contrario
      */
+    @Override
     public boolean addPatient(Patient patient) {
-        if (!validatePatient(patient, false)) {
-            return false;
-        }
-        return repository.add(patient);
+        return ADD_PATIENT.time(() -> {
+            if (!validatePatient(patient, false)) {
+                return false;
+            }
+            encodePassword(patient, false);
+            return repository.add(patient);
+        });
     }
 
     /**
@@ -76,7 +91,8 @@ public class PatientService {
             return false;
         }
         
-        if (patient.getPassword() == null || patient.getPassword().trim().isEmpty()) {
+        // En una actualización, sin contraseña se conserva la guardada.
+        if (!isUpdate && (patient.getPassword() == null || patient.getPassword().trim().isEmpty())) {
             return false;
         }
         
@@ -127,11 +143,14 @@ public class PatientService {
      * @return {@code true} si el paciente fue eliminado exitosamente;
      * {@code false} en caso contrario.
      */
+    @Override
     public boolean removePatient(String id) {
-        if (id == null || id.trim().isEmpty()) {
-            return false;
-        }
-        return repository.deleteById(id);
+        return REMOVE_PATIENT.time(() -> {
+            if (id == null || id.trim().isEmpty()) {
+                return false;
+            }
+            return repository.deleteById(id);
+        });
     }
 
     /**
@@ -141,11 +160,15 @@ public class PatientService {
      * @return {@code true} si el paciente fue actualizado exitosamente;
      * {@code false} en caso contrario.
      */
+    @Override
     public boolean updatePatient(Patient patient) {
-        if (!validatePatient(patient, true)) {
-            return false;
-        }
-        return repository.update(patient);
+        return UPDATE_PATIENT.time(() -> {
+            if (!validatePatient(patient, true)) {
+                return false;
+            }
+            encodePassword(patient, true);
+            return repository.update(patient);
+        });
     }
 
     /**
@@ -155,11 +178,14 @@ public class PatientService {
      * @return Un {@code Optional} que contiene el paciente si se encuentra; de
      * lo contrario, un {@code Optional.empty()}.
      */
+    @Override
     public Optional<Patient> searchById(String id) {
-        if (id == null || id.trim().isEmpty()) {
-            return Optional.empty();
-        }
-        return repository.searchById(id);
+        return SEARCH_BY_ID.time(() -> {
+            if (id == null || id.trim().isEmpty()) {
+                return Optional.empty();
+            }
+            return repository.searchById(id);
+        });
     }
 
     /**
@@ -167,8 +193,32 @@ public class PatientService {
      *
      * @return Una lista de todos los pacientes.
      */
+    @Override
     public List<Patient> listAllPatients() {
-        return repository.listAll();
+        return LIST_ALL_PATIENTS.time(() -> {
+            return repository.listAll();
+        });
+    }
+
+    /**
+     * Deja en el paciente la contraseña que se debe guardar, siempre codificada. En una
+     * actualización sin contraseña (por ejemplo, desde un cliente remoto, que nunca recibe
+     * la codificada) o con la misma que ya está guardada, se conserva la guardada.
+     * Cualquier otra se codifica aunque ya parezca codificada, para que un cliente no
+     * pueda guardar un valor arbitrario (por ejemplo, con menos iteraciones) como hash.
+     *
+     * @param patient  paciente ya validado
+     * @param isUpdate {@code true} si es una actualización
+     */
+    private void encodePassword(Patient patient, boolean isUpdate) {
+        String password = patient.getPassword();
+        if (isUpdate) {
+            Optional<String> stored = repository.searchById(patient.getId()).map(Patient::getPassword);
+            if (password == null || password.trim().isEmpty() || stored.filter(password::equals).isPresent()) {
+                stored.ifPresent(patient::setPassword);
+                return;
+            }
+        }
+        patient.setPassword(hasher.hash(password));
     }
-    
 }
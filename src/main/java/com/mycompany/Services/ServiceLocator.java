@@ -4,6 +4,12 @@
  */
 package com.mycompany.Services;
 
+import com.mycompany.Interfaces.IAppointmentService;
+import com.mycompany.Interfaces.IConsultationService;
+import com.mycompany.Interfaces.IDoctorService;
+import com.mycompany.Interfaces.IPatientService;
+import com.mycompany.Interfaces.ISpecialtyService;
+
 /**
  * Esta clase se encarga de facilitar la inyección de servicios en las clases
  * tipo Frame.
@@ -19,23 +25,23 @@ public class ServiceLocator { //this.service = ServiceLocator.instance.getPatien
     private static ServiceLocator instance; //Instancia de la clase
 
     //Servicios que guarda (atributos de instancia)
-    private final PatientService patientService;
-    private final DoctorService doctorService;
+    private final IPatientService patientService;
+    private final IDoctorService doctorService;
     private final AuthenticationService authenticationService;
-    private final AppointmentService appointmentService;
-    private final ConsultationService consultationService;
-    private final SpecialtyService specialtyService;
+    private final IAppointmentService appointmentService;
+    private final IConsultationService consultationService;
+    private final ISpecialtyService specialtyService;
 
     /**
      * Constructor. En este caso es privado, ya que el método initialize hace
      * uso de él.
      */
-    private ServiceLocator(PatientService patientService,
-            DoctorService doctorService,
+    private ServiceLocator(IPatientService patientService,
+            IDoctorService doctorService,
             AuthenticationService authenticationService,
-            AppointmentService appointmentService,
-            ConsultationService consultationService,
-            SpecialtyService specialtyService
+            IAppointmentService appointmentService,
+            IConsultationService consultationService,
+            ISpecialtyService specialtyService
     ) {
         this.patientService = patientService;
         this.doctorService = doctorService;
@@ -57,12 +63,12 @@ public class ServiceLocator { //this.service = ServiceLocator.instance.getPatien
      * @param consultationService el servicio de consultas.
      * @param specialtyService el servicio de especialidades.
      */
-    public static void initialize(PatientService patientService,
-            DoctorService doctorService,
+    public static void initialize(IPatientService patientService,
+            IDoctorService doctorService,
             AuthenticationService authenticationService,
-            AppointmentService appointmentService,
-            ConsultationService consultationService,
-            SpecialtyService specialtyService
+            IAppointmentService appointmentService,
+            IConsultationService consultationService,
+            ISpecialtyService specialtyService
     ) {
         if (instance == null) {
             instance = new ServiceLocator(patientService, doctorService,
@@ -81,14 +87,14 @@ public class ServiceLocator { //this.service = ServiceLocator.instance.getPatien
     /**
      * @return the patientService
      */
-    public PatientService getPatientService() {
+    public IPatientService getPatientService() {
         return patientService;
     }
 
     /**
      * @return the doctorService
      */
-    public DoctorService getDoctorService() {
+    public IDoctorService getDoctorService() {
         return doctorService;
     }
 
@@ -102,21 +108,21 @@ public class ServiceLocator { //this.service = ServiceLocator.instance.getPatien
     /**
      * @return the appointmentService
      */
-    public AppointmentService getAppointmentService() {
+    public IAppointmentService getAppointmentService() {
         return appointmentService;
     }
 
     /**
      * @return the consultationService
      */
-    public ConsultationService getConsultationService() {
+    public IConsultationService getConsultationService() {
         return consultationService;
     }
 
     /**
      * @return the specialtyService
      */
-    public SpecialtyService getSpecialtyService() {
+    public ISpecialtyService getSpecialtyService() {
         return specialtyService;
     }
 
@@ -1,6 +1,9 @@
 package com.mycompany.Services;
 
 import com.mycompany.Interfaces.ISpecialtyRepository;
+import com.mycompany.Interfaces.ISpecialtyService;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Metrics.OperationMetrics;
 import com.mycompany.Models.Specialty;
 import com.mycompany.Models.SpecialtyName;
 import java.util.List;
@@ -11,7 +14,12 @@ import java.util.List;
  *
  * @author David
  */
-public class SpecialtyService {
+public class SpecialtyService implements ISpecialtyService {
+
+    // Métricas de cada operación pública (ver MetricsRegistry)
+    private static final OperationMetrics REGISTER_SPECIALTY = MetricsRegistry.operation("SpecialtyService.registerSpecialty");
+    private static final OperationMetrics UPDATE_SPECIALTY = MetricsRegistry.operation("SpecialtyService.updateSpecialty");
+    private static final OperationMetrics LIST_ALL_SPECIALTIES = MetricsRegistry.operation("SpecialtyService.listAllSpecialties");
 
     private final ISpecialtyRepository repository;
 
@@ -26,16 +34,19 @@ public class SpecialtyService {
      * @return true si se registró correctamente, false si ya existe o es
      * inválida.
      */
+    @Override
     public boolean registerSpecialty(Specialty specialty) {
-        if (specialty == null
-                || specialty.getSpecialtyName() == null) {
-            return false;
-        }
-        // Evita duplicados
-        if (repository.searchByName(specialty.getSpecialtyName()).isPresent()) {
-            return false;
-        }
-        return repository.add(specialty);
+        return REGISTER_SPECIALTY.time(() -> {
+            if (specialty == null
+                    || specialty.getSpecialtyName() == null) {
+                return false;
+            }
+            // Evita duplicados
+            if (repository.searchByName(specialty.getSpecialtyName()).isPresent()) {
+                return false;
+            }
+            return repository.add(specialty);
+        });
     }
 
     /**
@@ -46,22 +57,22 @@ public class SpecialtyService {
      *
      * @return true si se actualizó correctamente.
      */
+    @Override
     public boolean updateSpecialty(String id, SpecialtyName name) {
-        if (id == null || id.trim().isEmpty() || name == null) {
-            return false;
-        }
-        var existing = repository.listAll()
-                .stream()
-                .filter(s -> s.getId().equals(id))
-                .findFirst();
+        return UPDATE_SPECIALTY.time(() -> {
+            if (id == null || id.trim().isEmpty() || name == null) {
+                return false;
+            }
+            var existing = repository.searchById(id);
 
-        if (existing.isEmpty()) {
-            return false;
-        }
+            if (existing.isEmpty()) {
+                return false;
+            }
 
-        Specialty s = existing.get();
-        s.setSpecialtyName(name);
-        return repository.update(s);
+            Specialty s = existing.get();
+            s.setSpecialtyName(name);
+            return repository.update(s);
+        });
     }
 
     /**
@@ -69,7 +80,10 @@ public class SpecialtyService {
      *
      * @return Lista de especialidades.
      */
+    @Override
     public List<Specialty> listAllSpecialties() {
-        return repository.listAll();
+        return LIST_ALL_SPECIALTIES.time(() -> {
+            return repository.listAll();
+        });
     }
 }
@@ -0,0 +1,113 @@
+package com.mycompany.clinicalsystem;
+
+import com.mycompany.Interfaces.*;
+import com.mycompany.Metrics.MetricsRegistry;
+import com.mycompany.Persistance.*;
+import com.mycompany.Services.AuthenticationService;
+import com.mycompany.Services.ServiceLocator;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modo servidor: un solo proceso carga los datos y sus índices, crea los servicios y
+ * publica por HTTP los de pacientes, doctores, citas, consultas y especialidades, además
+ * de la verificación de credenciales. Las aplicaciones de escritorio se conectan con
+ * {@code -Dclinicalsystem.server=http://<host>:<puerto>} ({@link ClinicalSystem#SERVER_PROPERTY})
+ * y usan esos servicios sin leer los archivos. Las validaciones y la comprobación de
+ * solapamientos al agendar corren en el servidor, una sola vez para todos los clientes,
+ * y los repositorios (con sus métodos de contraseñas) no se publican.
+ *
+ * <pre>
+ * java --enable-preview -cp ClinicalSystem.jar com.mycompany.clinicalsystem.ClinicalServer
+ * </pre>
+ *
+ * <p>
+ * Por defecto escucha solo en la interfaz local ({@link #HOST_PROPERTY}), ya que el
+ * protocolo no tiene autenticación (ver {@link ServiceServer}).
+ * </p>
+ */
+public class ClinicalServer {
+
+        /**
+         * Propiedad del sistema con la dirección donde escuchar (por defecto {@code 127.0.0.1}).
+         */
+        public static final String HOST_PROPERTY = "clinicalsystem.server.host";
+
+        /**
+         * Propiedad del sistema con el puerto donde escuchar (por defecto {@code 8085}).
+         */
+        public static final String PORT_PROPERTY = "clinicalsystem.server.port";
+
+        // Nombres con los que se publica cada servicio
+        static final String PATIENTS = "patients";
+        static final String DOCTORS = "doctors";
+        static final String APPOINTMENTS = "appointments";
+        static final String CONSULTATIONS = "consultations";
+        static final String SPECIALTIES = "specialties";
+        static final String AUTHENTICATION = "authentication";
+
+        public static void main(String[] args) {
+
+                // ======== MÉTRICAS (JMX y resumen periódico por consola) ========
+                MetricsRegistry.startPeriodicLog();
+
+                // ======== ESCRITURA DIFERIDA (las mutaciones no esperan al disco) ========
+                if (System.getProperty(JsonRepository.WRITE_BEHIND_PROPERTY) == null
+                                && !ClinicalSystem.multiInstance()) {
+                        System.setProperty(JsonRepository.WRITE_BEHIND_PROPERTY,
+                                        ClinicalSystem.DEFAULT_WRITE_BEHIND_MILLIS);
+                }
+
+                // ======== MIGRACIÓN DE ARCHIVOS CON OBJETOS INCRUSTADOS ========
+                LegacyDataMigrator.migrateIfNeeded(
+                                Paths.get(System.getProperty(JsonRepository.DATA_DIR_PROPERTY, "data")));
+
+                // ======== REPOSITORIOS (todos cargados antes de aceptar clientes) ========
+                ExecutorService startup = Executors.newFixedThreadPool(2,
+                                Thread.ofPlatform().daemon().name("startup-", 0).factory());
+                UsernameDirectory usernames = new UsernameDirectory();
+                LazyRepository<PatientRepositoryJSON> patients = new LazyRepository<PatientRepositoryJSON>(
+                                "pacientes", () -> new PatientRepositoryJSON(usernames)).start(startup);
+                LazyRepository<DoctorRepositoryJSON> doctors = new LazyRepository<DoctorRepositoryJSON>(
+                                "doctores", () -> new DoctorRepositoryJSON(usernames)).start(startup);
+                LazyRepository<SpecialtyRepositoryJSON> specialties = new LazyRepository<SpecialtyRepositoryJSON>(
+                                "especialidades", SpecialtyRepositoryJSON::new).start(startup);
+                AppointmentRepositoryJSON appointmentRepo = new AppointmentRepositoryJSON(patients.get(), doctors.get());
+                ConsultationRepositoryJSON consultationRepo = new ConsultationRepositoryJSON(appointmentRepo);
+                startup.shutdown();
+
+                // Mismo criterio que ClinicalSystem: solo cuentan los registros activos.
+                ClinicalSystem.seedIfEmpty(patients.get(), doctors.get(), () -> appointmentRepo,
+                                () -> consultationRepo, specialties::get);
+
+                // ======== SERVICIOS (los mismos que usa la aplicación local) ========
+                List<IAuthenticableRepository> authRepos = new ArrayList<>();
+                authRepos.add(patients.get());
+                authRepos.add(doctors.get());
+                AuthenticationService auth = ClinicalSystem.createServices(authRepos, usernames, patients.get(),
+                                doctors.get(), appointmentRepo, consultationRepo, specialties.get());
+                ServiceLocator services = ServiceLocator.getInstance();
+
+                // ======== SERVIDOR HTTP (un hilo virtual por petición) ========
+                InetSocketAddress address = new InetSocketAddress(
+                                System.getProperty(HOST_PROPERTY, "127.0.0.1"),
+                                Integer.getInteger(PORT_PROPERTY, 8085));
+                ServiceServer server = new ServiceServer(address)
+                                .expose(PATIENTS, services.getPatientService(), IPatientService.class)
+                                .expose(DOCTORS, services.getDoctorService(), IDoctorService.class)
+                                .expose(APPOINTMENTS, services.getAppointmentService(), IAppointmentService.class)
+                                .expose(CONSULTATIONS, services.getConsultationService(), IConsultationService.class)
+                                .expose(SPECIALTIES, services.getSpecialtyService(), ISpecialtyService.class)
+                                .expose(AUTHENTICATION, auth, ICredentialVerifier.class);
+                // Los repositorios vacían su escritura diferida en su propio gancho de cierre.
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "server-shutdown"));
+                server.start();
+                System.out.println("Servidor de datos escuchando en http://" + address.getHostString() + ":"
+                                + server.getAddress().getPort());
+        }
+}
@@ -1,129 +1,241 @@
 package com.mycompany.clinicalsystem;
 
 import com.mycompany.Interfaces.*;
+import com.mycompany.Metrics.MetricsRegistry;
 import com.mycompany.Models.*;
 import com.mycompany.Persistance.*;
+import com.mycompany.Presentation.EdtMonitor;
 import com.mycompany.Presentation.FrmLogin;
 import com.mycompany.Services.*;
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
 
 public class ClinicalSystem {
 
+        /**
+         * Tamaño a partir del cual se informa por consola el avance de carga de un archivo.
+         */
+        private static final long LARGE_FILE_BYTES = 8L * 1024 * 1024;
+
+        /**
+         * Intervalo por defecto de la escritura diferida de los repositorios, en milisegundos.
+         */
+        static final String DEFAULT_WRITE_BEHIND_MILLIS = "200";
+
+        /**
+         * Indica si los repositorios se coordinan con otras instancias que comparten el
+         * directorio de datos (ver {@link JsonRepository#MULTI_INSTANCE_PROPERTY}).
+         */
+        static boolean multiInstance() {
+                return JsonRepository.multiInstance();
+        }
+
+        /**
+         * Propiedad del sistema que imprime cuánto tardan en aparecer la primera ventana y
+         * en quedar listos los datos para iniciar sesión ({@code true}/{@code false}, por
+         * defecto {@code false}).
+         */
+        public static final String STARTUP_TIMING_PROPERTY = "clinicalsystem.startupTiming";
+
+        /**
+         * Propiedad del sistema con la dirección de un {@link ClinicalServer} (por ejemplo
+         * {@code http://localhost:8085}). Si está definida, la aplicación no lee los archivos
+         * de datos: usa los servicios del servidor.
+         */
+        public static final String SERVER_PROPERTY = "clinicalsystem.server";
+
         public static void main(String[] args) {
 
+                boolean timing = Boolean.getBoolean(STARTUP_TIMING_PROPERTY);
+
+                // ======== MÉTRICAS (JMX y resumen periódico por consola) ========
+                MetricsRegistry.startPeriodicLog();
+
+                // ======== CLIENTE DE UN SERVIDOR DE DATOS ========
+                String server = System.getProperty(SERVER_PROPERTY, "").trim();
+                if (!server.isEmpty()) {
+                        CompletableFuture<AuthenticationService> ready = CompletableFuture.supplyAsync(
+                                        () -> initializeRemoteServices(URI.create(server)));
+                        ready.whenComplete((auth, error) -> {
+                                if (error != null) {
+                                        System.err.println("Error al conectar con " + server + ": " + error.getMessage());
+                                }
+                        });
+                        showLogin(ready, timing);
+                        return;
+                }
+
+                // ======== ESCRITURA DIFERIDA (las mutaciones desde la interfaz no esperan al disco) ========
+                // Solo con una instancia: con varias, un conflicto escrito en segundo plano se perdería.
+                if (System.getProperty(JsonRepository.WRITE_BEHIND_PROPERTY) == null && !multiInstance()) {
+                        System.setProperty(JsonRepository.WRITE_BEHIND_PROPERTY, DEFAULT_WRITE_BEHIND_MILLIS);
+                }
+
+                // ======== MIGRACIÓN DE ARCHIVOS CON OBJETOS INCRUSTADOS ========
+                LegacyDataMigrator.migrateIfNeeded(
+                                Paths.get(System.getProperty(JsonRepository.DATA_DIR_PROPERTY, "data")));
+
+                // ======== AVANCE DE CARGA (solo archivos grandes) ========
+                JsonRepository.setLoadProgressListener(new LoadProgressListener() {
+                        // Los repositorios se cargan en paralelo, así que puede llamarse desde varios hilos
+                        private final Map<String, Long> lastDecile = new ConcurrentHashMap<>();
+
+                        @Override
+                        public void onProgress(String filePath, long bytesRead, long totalBytes, int records) {
+                                if (totalBytes < LARGE_FILE_BYTES) {
+                                        return;
+                                }
+                                long decile = bytesRead * 10 / totalBytes;
+                                if (!Objects.equals(lastDecile.put(filePath, decile), decile)) {
+                                        System.out.println("Cargando " + filePath + ": " + decile * 10 + "% ("
+                                                        + records + " registros)");
+                                }
+                        }
+                });
+
                 // ======== REPOSITORIOS ========
-                IPatientRepository patientRepo = new PatientRepositoryJSON();
-                IDoctorRepository doctorRepo = new DoctorRepositoryJSON();
-                IAppointmentRepository appointmentRepo = new AppointmentRepositoryJSON();
-                IConsultationRepository consultationRepo = new ConsultationRepositoryJSON();
-                ISpecialtyRepository specialtyRepo = new SpecialtyRepositoryJSON();
+                // Pacientes y doctores (necesarios para iniciar sesión) se cargan en paralelo en
+                // segundo plano; citas, consultas y especialidades, con su primer uso.
+                ExecutorService startup = Executors.newFixedThreadPool(2,
+                                Thread.ofPlatform().daemon().name("startup-", 0).factory());
+                UsernameDirectory usernames = new UsernameDirectory();
+                LazyRepository<PatientRepositoryJSON> patients = new LazyRepository<PatientRepositoryJSON>(
+                                "pacientes", () -> new PatientRepositoryJSON(usernames)).start(startup);
+                LazyRepository<DoctorRepositoryJSON> doctors = new LazyRepository<DoctorRepositoryJSON>(
+                                "doctores", () -> new DoctorRepositoryJSON(usernames)).start(startup);
+                LazyRepository<AppointmentRepositoryJSON> appointments = new LazyRepository<>(
+                                "citas", () -> new AppointmentRepositoryJSON(patients.get(), doctors.get()));
+                LazyRepository<ConsultationRepositoryJSON> consultations = new LazyRepository<>(
+                                "consultas", () -> new ConsultationRepositoryJSON(appointments.get()));
+                LazyRepository<SpecialtyRepositoryJSON> specialties = new LazyRepository<>(
+                                "especialidades", SpecialtyRepositoryJSON::new);
 
-                // ======== CARGAR DATOS DE PRUEBA SOLO SI ESTÁ VACÍO ========
-                if (doctorRepo.listAll().isEmpty()
-                                && patientRepo.listAll().isEmpty()
-                                && appointmentRepo.listAll().isEmpty()
-                                && consultationRepo.listAll().isEmpty()
-                                && specialtyRepo.listAll().isEmpty()) {
-
-                        System.out.println("Inicializando datos de prueba (archivos vacíos)...");
-
-                        // --- ESPECIALIDADES ---
-                        Specialty cardio = new Specialty(SpecialtyName.CARDIOLOGIA);
-                        Specialty peds = new Specialty(SpecialtyName.PEDIATRIA);
-                        Specialty general = new Specialty(SpecialtyName.GENERAL);
-                        Specialty internista = new Specialty(SpecialtyName.INTERNISTA);
-
-                        specialtyRepo.add(new Specialty(SpecialtyName.CARDIOLOGIA));
-                        specialtyRepo.add(new Specialty(SpecialtyName.CIRUJANO));
-                        specialtyRepo.add(new Specialty(SpecialtyName.GENERAL));
-                        specialtyRepo.add(new Specialty(SpecialtyName.INTERNISTA));
-                        specialtyRepo.add(new Specialty(SpecialtyName.ONCOLOGIA));
-
-                        // --- DOCTORES ---
-                        Doctor doc1 = new Doctor("drJuanse", "3001112233", "123",
-                                        "Juan Sebastián Maximiliano Pérez de la Vega", "11111111", cardio);
-                        Doctor doc2 = new Doctor("drLee", "3002223344", "123",
-                                        "Anna Lee", "22222222", peds);
-                        Doctor doc3 = new Doctor("drRojas", "3003334455", "123",
-                                        "Andrés Rojas", "33333333", internista);
-                        Doctor doc4 = new Doctor("drSmith", "3007344089", "123",
-                                        "John Smith", "44444444", general);
-
-                        doctorRepo.add(doc1);
-                        doctorRepo.add(doc2);
-                        doctorRepo.add(doc3);
-                        doctorRepo.add(doc4);
-
-                        // --- PACIENTES ---
-                        Patient pat1 = new Patient("juanp", "3100000000", "abc123",
-                                        "Juan Pérez", "1098765432", LocalDate.of(2000, 5, 12));
-                        Patient pat2 = new Patient("mariag", "3200000000", "maria456",
-                                        "María Gómez", "1098123456", LocalDate.of(1998, 8, 30));
-                        Patient pat3 = new Patient("camitorres", "3154445566", "cami789",
-                                        "Camila Torres", "1056789123", LocalDate.of(2002, 2, 14));
-                        Patient pat4 = new Patient("pedro", "3115556677", "pedro123",
-                                        "Pedro Morales", "1078945612", LocalDate.of(1995, 1, 9));
-
-                        patientRepo.add(pat1);
-                        patientRepo.add(pat2);
-                        patientRepo.add(pat3);
-                        patientRepo.add(pat4);
-
-                        // --- APPOINTMENTS ---
-                        Appointment a1 = new Appointment(
-                                        LocalDateTime.of(2025, 10, 24, 10, 30), Duration.ofMinutes(30), pat1, doc1);
-                        Appointment a2 = new Appointment(
-                                        LocalDateTime.of(2025, 10, 24, 11, 15), Duration.ofMinutes(45), pat2, doc1);
-                        Appointment a3 = new Appointment(
-                                        LocalDateTime.of(2025, 10, 25, 9, 0), Duration.ofMinutes(20), pat3, doc1);
-                        Appointment a4 = new Appointment(
-                                        LocalDateTime.of(2025, 10, 26, 14, 0), Duration.ofMinutes(40), pat4, doc1);
-                        Appointment a5 = new Appointment(
-                                        LocalDateTime.of(2025, 10, 27, 15, 0), Duration.ofMinutes(30), pat3, doc2);
-
-                        a1.setStatus(AppointmentStatus.PROGRAMADA);
-                        a2.setStatus(AppointmentStatus.COMPLETADA);
-                        a3.setStatus(AppointmentStatus.PROGRAMADA);
-                        a4.setStatus(AppointmentStatus.CANCELADA);
-                        a5.setStatus(AppointmentStatus.PROGRAMADA);
-
-                        appointmentRepo.add(a1);
-                        appointmentRepo.add(a2);
-                        appointmentRepo.add(a3);
-                        appointmentRepo.add(a4);
-                        appointmentRepo.add(a5);
-
-                        // --- CONSULTAS ---
-                        Consultation c1 = new Consultation(
-                                        a2,
-                                        "Chequeo de control cardíaco",
-                                        "Todo estable. Continuar medicación.");
-                        consultationRepo.add(c1);
-
-                        Consultation c2 = new Consultation(
-                                        new Appointment(LocalDateTime.of(2025, 8, 10, 9, 0),
-                                                        Duration.ofMinutes(30), pat1, doc1),
-                                        "Evaluación postoperatoria",
-                                        "Sin complicaciones. Revisión en 6 meses.");
-                        c2.getAppointment().setStatus(AppointmentStatus.COMPLETADA);
-                        consultationRepo.add(c2);
-
-                        System.out.println("Datos de prueba cargados.");
+                CompletableFuture<AuthenticationService> ready = CompletableFuture.supplyAsync(
+                                () -> initializeServices(usernames, patients, doctors, appointments,
+                                                consultations, specialties),
+                                startup);
+                ready.whenComplete((auth, error) -> {
+                        startup.shutdown();
+                        if (error != null) {
+                                System.err.println("Error al iniciar los servicios: " + error.getMessage());
+                        } else if (timing) {
+                                System.out.println("Datos para iniciar sesión listos a los " + uptimeMillis() + " ms");
+                        }
+                });
+
+                showLogin(ready, timing);
+        }
+
+        /**
+         * Muestra la ventana de inicio de sesión sin esperar a que los servicios estén listos.
+         */
+        private static void showLogin(CompletableFuture<AuthenticationService> ready, boolean timing) {
+                // ======== MONITOR DEL EDT (opcional) ========
+                if (Boolean.getBoolean(EdtMonitor.ENABLED_PROPERTY)) {
+                        EdtMonitor.install();
                 }
 
+                // ======== INICIO (sin esperar a que terminen de cargarse los datos) ========
+                SwingUtilities.invokeLater(() -> {
+                        FrmLogin login = new FrmLogin(ready);
+                        if (timing) {
+                                login.addWindowListener(new WindowAdapter() {
+                                        @Override
+                                        public void windowOpened(WindowEvent e) {
+                                                System.out.println("Primera ventana visible a los " + uptimeMillis() + " ms");
+                                        }
+                                });
+                        }
+                        login.setVisible(true);
+                });
+        }
+
+        /**
+         * Carga datos de prueba si no hay datos, crea los servicios e inicializa el
+         * {@link ServiceLocator}. Espera a que terminen de cargarse pacientes y doctores;
+         * los demás repositorios solo se cargan aquí si hace falta sembrar datos.
+         *
+         * @return servicio de autenticación, listo para usar
+         */
+        private static AuthenticationService initializeServices(UsernameDirectory usernames,
+                        LazyRepository<PatientRepositoryJSON> patients,
+                        LazyRepository<DoctorRepositoryJSON> doctors,
+                        LazyRepository<AppointmentRepositoryJSON> appointments,
+                        LazyRepository<ConsultationRepositoryJSON> consultations,
+                        LazyRepository<SpecialtyRepositoryJSON> specialties) {
+                PatientRepositoryJSON patientRepo = patients.get();
+                DoctorRepositoryJSON doctorRepo = doctors.get();
+
+                // ======== CARGAR DATOS DE PRUEBA SOLO SI ESTÁ VACÍO ========
+                // Si ya hay doctores, los demás repositorios no se cargan.
+                seedIfEmpty(patientRepo, doctorRepo, appointments::get, consultations::get, specialties::get);
+
                 // ======== LISTA DE REPOS AUTENTICABLES ========
                 List<IAuthenticableRepository> authRepos = new ArrayList<>();
-                authRepos.add((IAuthenticableRepository) patientRepo);
-                authRepos.add((IAuthenticableRepository) doctorRepo);
+                authRepos.add(patientRepo);
+                authRepos.add(doctorRepo);
+
+                // Los repositorios que no intervienen en el inicio de sesión se pasan como
+                // proxies que los cargan en su primer uso.
+                return createServices(authRepos, usernames, patientRepo, doctorRepo,
+                                appointments.proxy(IAppointmentRepository.class),
+                                consultations.proxy(IConsultationRepository.class),
+                                specialties.proxy(ISpecialtyRepository.class));
+        }
 
+        /**
+         * Inicializa el {@link ServiceLocator} con los servicios de un {@link ClinicalServer},
+         * que corren en el servidor. Aquí solo se lleva la sesión del usuario. No contacta
+         * al servidor hasta el primer uso.
+         *
+         * @param server dirección del servidor
+         * @return servicio de autenticación, listo para usar
+         */
+        private static AuthenticationService initializeRemoteServices(URI server) {
+                AuthenticationService auth = new AuthenticationService(
+                                RemoteService.connect(server, ClinicalServer.AUTHENTICATION, ICredentialVerifier.class));
+
+                // ======== SERVICE LOCATOR ========
+                ServiceLocator.initialize(
+                                RemoteService.connect(server, ClinicalServer.PATIENTS, IPatientService.class),
+                                RemoteService.connect(server, ClinicalServer.DOCTORS, IDoctorService.class),
+                                auth,
+                                RemoteService.connect(server, ClinicalServer.APPOINTMENTS, IAppointmentService.class),
+                                RemoteService.connect(server, ClinicalServer.CONSULTATIONS, IConsultationService.class),
+                                RemoteService.connect(server, ClinicalServer.SPECIALTIES, ISpecialtyService.class));
+                return auth;
+        }
+
+        /**
+         * Crea los servicios sobre los repositorios e inicializa el {@link ServiceLocator}.
+         * También la usa {@link ClinicalServer} para publicar los servicios.
+         *
+         * @return servicio de autenticación
+         */
+        static AuthenticationService createServices(List<IAuthenticableRepository> authRepos,
+                        IUsernameDirectory usernames, IPatientRepository patientRepo, IDoctorRepository doctorRepo,
+                        IAppointmentRepository appointmentRepo, IConsultationRepository consultationRepo,
+                        ISpecialtyRepository specialtyRepo) {
                 // ======== SERVICIOS ========
-                AuthenticationService auth = new AuthenticationService(authRepos);
-                GlobalUsernameValidator validator = new GlobalUsernameValidator(authRepos);
+                AuthenticationService auth = new AuthenticationService(authRepos, usernames);
+                GlobalUsernameValidator validator = new GlobalUsernameValidator(authRepos, usernames);
                 PatientService patientService = new PatientService(patientRepo, validator);
                 DoctorService doctorService = new DoctorService(doctorRepo, validator);
                 AppointmentService appointmentService = new AppointmentService(appointmentRepo);
@@ -138,9 +250,126 @@ public class ClinicalSystem {
                                 appointmentService,
                                 consultationService,
                                 specialtyService);
+                return auth;
+        }
+
+        /**
+         * Siembra los datos de prueba si ningún repositorio tiene registros activos: si
+         * todos se eliminaron, se vuelve a sembrar. Se revisa en orden y se detiene en el
+         * primero con datos, así que los repositorios siguientes no se cargan.
+         */
+        static void seedIfEmpty(PatientRepositoryJSON patientRepo, DoctorRepositoryJSON doctorRepo,
+                        Supplier<AppointmentRepositoryJSON> appointments,
+                        Supplier<ConsultationRepositoryJSON> consultations,
+                        Supplier<SpecialtyRepositoryJSON> specialties) {
+                if (doctorRepo.hasActive()
+                                || patientRepo.hasActive()
+                                || appointments.get().hasActive()
+                                || consultations.get().hasActive()
+                                || specialties.get().hasActive()) {
+                        return;
+                }
+                seedDemoData(patientRepo, doctorRepo, appointments.get(), consultations.get(), specialties.get());
+        }
+
+        static void seedDemoData(IPatientRepository patientRepo, IDoctorRepository doctorRepo,
+                        IAppointmentRepository appointmentRepo, IConsultationRepository consultationRepo,
+                        ISpecialtyRepository specialtyRepo) {
+                System.out.println("Inicializando datos de prueba (archivos vacíos)...");
+
+                // --- ESPECIALIDADES ---
+                Specialty cardio = new Specialty(SpecialtyName.CARDIOLOGIA);
+                Specialty peds = new Specialty(SpecialtyName.PEDIATRIA);
+                Specialty general = new Specialty(SpecialtyName.GENERAL);
+                Specialty internista = new Specialty(SpecialtyName.INTERNISTA);
+
+                specialtyRepo.add(new Specialty(SpecialtyName.CARDIOLOGIA));
+                specialtyRepo.add(new Specialty(SpecialtyName.CIRUJANO));
+                specialtyRepo.add(new Specialty(SpecialtyName.GENERAL));
+                specialtyRepo.add(new Specialty(SpecialtyName.INTERNISTA));
+                specialtyRepo.add(new Specialty(SpecialtyName.ONCOLOGIA));
+
+                // --- DOCTORES ---
+                // Las contraseñas se guardan codificadas, igual que las que crea la aplicación.
+                PasswordHasher hasher = new PasswordHasher();
+                Doctor doc1 = new Doctor("drJuanse", "3001112233", hasher.hash("123"),
+                                "Juan Sebastián Maximiliano Pérez de la Vega", "11111111", cardio);
+                Doctor doc2 = new Doctor("drLee", "3002223344", hasher.hash("123"),
+                                "Anna Lee", "22222222", peds);
+                Doctor doc3 = new Doctor("drRojas", "3003334455", hasher.hash("123"),
+                                "Andrés Rojas", "33333333", internista);
+                Doctor doc4 = new Doctor("drSmith", "3007344089", hasher.hash("123"),
+                                "John Smith", "44444444", general);
+
+                doctorRepo.add(doc1);
+                doctorRepo.add(doc2);
+                doctorRepo.add(doc3);
+                doctorRepo.add(doc4);
+
+                // --- PACIENTES ---
+                Patient pat1 = new Patient("juanp", "3100000000", hasher.hash("abc123"),
+                                "Juan Pérez", "1098765432", LocalDate.of(2000, 5, 12));
+                Patient pat2 = new Patient("mariag", "3200000000", hasher.hash("maria456"),
+                                "María Gómez", "1098123456", LocalDate.of(1998, 8, 30));
+                Patient pat3 = new Patient("camitorres", "3154445566", hasher.hash("cami789"),
+                                "Camila Torres", "1056789123", LocalDate.of(2002, 2, 14));
+                Patient pat4 = new Patient("pedro", "3115556677", hasher.hash("pedro123"),
+                                "Pedro Morales", "1078945612", LocalDate.of(1995, 1, 9));
+
+                patientRepo.add(pat1);
+                patientRepo.add(pat2);
+                patientRepo.add(pat3);
+                patientRepo.add(pat4);
+
+                // --- APPOINTMENTS ---
+                Appointment a1 = new Appointment(
+                                LocalDateTime.of(2025, 10, 24, 10, 30), Duration.ofMinutes(30), pat1, doc1);
+                Appointment a2 = new Appointment(
+                                LocalDateTime.of(2025, 10, 24, 11, 15), Duration.ofMinutes(45), pat2, doc1);
+                Appointment a3 = new Appointment(
+                                LocalDateTime.of(2025, 10, 25, 9, 0), Duration.ofMinutes(20), pat3, doc1);
+                Appointment a4 = new Appointment(
+                                LocalDateTime.of(2025, 10, 26, 14, 0), Duration.ofMinutes(40), pat4, doc1);
+                Appointment a5 = new Appointment(
+                                LocalDateTime.of(2025, 10, 27, 15, 0), Duration.ofMinutes(30), pat3, doc2);
+
+                a1.setStatus(AppointmentStatus.PROGRAMADA);
+                a2.setStatus(AppointmentStatus.COMPLETADA);
+                a3.setStatus(AppointmentStatus.PROGRAMADA);
+                a4.setStatus(AppointmentStatus.CANCELADA);
+                a5.setStatus(AppointmentStatus.PROGRAMADA);
+
+                appointmentRepo.add(a1);
+                appointmentRepo.add(a2);
+                appointmentRepo.add(a3);
+                appointmentRepo.add(a4);
+                appointmentRepo.add(a5);
+
+                // --- CONSULTAS ---
+                Consultation c1 = new Consultation(
+                                a2,
+                                "Chequeo de control cardíaco",
+                                "Todo estable. Continuar medicación.");
+                consultationRepo.add(c1);
+
+                Appointment a6 = new Appointment(LocalDateTime.of(2025, 8, 10, 9, 0),
+                                Duration.ofMinutes(30), pat1, doc1);
+                a6.setStatus(AppointmentStatus.COMPLETADA);
+                appointmentRepo.add(a6);
+
+                Consultation c2 = new Consultation(
+                                a6,
+                                "Evaluación postoperatoria",
+                                "Sin complicaciones. Revisión en 6 meses.");
+                consultationRepo.add(c2);
+
+                System.out.println("Datos de prueba cargados.");
+        }
 
-                // ======== INICIO ========
-                FrmLogin login = new FrmLogin(ServiceLocator.getInstance().getAuthenticationService());
-                login.setVisible(true);
+        /**
+         * @return milisegundos desde que arrancó la JVM
+         */
+        private static long uptimeMillis() {
+                return ManagementFactory.getRuntimeMXBean().getUptime();
         }
 }